@@ -0,0 +1,105 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Throughput scores of a benchmark run, keyed by benchmark and parameters,
+ * stored as a properties file to compare later runs against.
+ */
+public final class Baseline {
+
+    private final Map<String, Double> scores;
+
+    public Baseline(final Map<String, Double> scores) {
+        this.scores = Collections.unmodifiableMap(Maps.newTreeMap(scores));
+    }
+
+    public Map<String, Double> getScores() {
+        return scores;
+    }
+
+    // //////////////////////////////////////
+
+    public static Baseline load(final File file) throws IOException {
+        final Properties properties = new Properties();
+        final InputStream in = new FileInputStream(file);
+        try {
+            properties.load(in);
+        } finally {
+            in.close();
+        }
+        final Map<String, Double> scores = Maps.newTreeMap();
+        for (String key : properties.stringPropertyNames()) {
+            scores.put(key, Double.valueOf(properties.getProperty(key)));
+        }
+        return new Baseline(scores);
+    }
+
+    public void save(final File file) throws IOException {
+        final Properties properties = new Properties();
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            properties.store(out, "Estatio benchmark baseline, throughput in ops/s");
+        } finally {
+            out.close();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Describes every benchmark of the given run whose throughput dropped by
+     * more than the threshold (eg <tt>0.1</tt> for 10%) below this baseline;
+     * benchmarks missing from either side are ignored.
+     */
+    public List<String> regressionsOf(final Baseline run, final double threshold) {
+        final List<String> regressions = Lists.newArrayList();
+        for (Map.Entry<String, Double> entry : run.getScores().entrySet()) {
+            final Double baseline = scores.get(entry.getKey());
+            if (baseline == null || baseline <= 0) {
+                continue;
+            }
+            final double change = entry.getValue() / baseline - 1;
+            if (change < -threshold) {
+                regressions.add(String.format(
+                        "%s: %.1f ops/s, baseline %.1f ops/s (%+.1f%%)",
+                        entry.getKey(), entry.getValue(), baseline, change * 100));
+            }
+        }
+        return regressions;
+    }
+
+}
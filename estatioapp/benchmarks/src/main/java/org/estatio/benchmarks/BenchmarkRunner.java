@@ -0,0 +1,163 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Maps;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks with the GC profiler (for the allocation per
+ * operation), writes the JMH results as JSON and optionally compares the
+ * throughput against a stored {@link Baseline}.
+ *
+ * <pre>
+ * java -jar benchmarks.jar [options] [regexp]
+ *   -report &lt;file&gt;         JSON report, default target/benchmarks.json
+ *   -save-baseline &lt;file&gt;  stores the throughput of this run
+ *   -baseline &lt;file&gt;       compares with a stored baseline, exits with 1 on a regression
+ *   -threshold &lt;percent&gt;   allowed drop in throughput, default 10
+ *   -f &lt;forks&gt; -wi &lt;warmup iterations&gt; -i &lt;iterations&gt;, default 1, 5 and 5
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        String include = BenchmarkRunner.class.getPackage().getName() + ".*";
+        File report = new File("target/benchmarks.json");
+        File baselineFile = null;
+        File saveBaselineFile = null;
+        double threshold = 10;
+        int forks = 1;
+        int warmupIterations = 5;
+        int iterations = 5;
+
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            if ("-h".equals(arg)) {
+                usage();
+                return;
+            } else if ("-report".equals(arg)) {
+                report = new File(args[++i]);
+            } else if ("-baseline".equals(arg)) {
+                baselineFile = new File(args[++i]);
+            } else if ("-save-baseline".equals(arg)) {
+                saveBaselineFile = new File(args[++i]);
+            } else if ("-threshold".equals(arg)) {
+                threshold = Double.parseDouble(args[++i]);
+            } else if ("-f".equals(arg)) {
+                forks = Integer.parseInt(args[++i]);
+            } else if ("-wi".equals(arg)) {
+                warmupIterations = Integer.parseInt(args[++i]);
+            } else if ("-i".equals(arg)) {
+                iterations = Integer.parseInt(args[++i]);
+            } else {
+                include = arg;
+            }
+        }
+
+        if (report.getParentFile() != null) {
+            report.getParentFile().mkdirs();
+        }
+        final Options options = new OptionsBuilder()
+                .include(include)
+                .forks(forks)
+                .warmupIterations(warmupIterations)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(iterations)
+                .measurementTime(TimeValue.seconds(1))
+                .timeUnit(TimeUnit.SECONDS)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(report.getPath())
+                .build();
+        final Baseline run = baselineOf(new Runner(options).run());
+        System.out.println("Report written to " + report);
+
+        if (saveBaselineFile != null) {
+            run.save(saveBaselineFile);
+            System.out.println("Baseline written to " + saveBaselineFile);
+        }
+        if (baselineFile != null) {
+            final List<String> regressions = Baseline.load(baselineFile).regressionsOf(run, threshold / 100);
+            if (!regressions.isEmpty()) {
+                System.err.println("Throughput dropped more than " + threshold + "% below " + baselineFile + ":");
+                for (String regression : regressions) {
+                    System.err.println("  " + regression);
+                }
+                System.exit(1);
+            }
+            System.out.println("No regressions against " + baselineFile);
+        }
+    }
+
+    static Baseline baselineOf(final Collection<RunResult> results) {
+        final Map<String, Double> scores = Maps.newTreeMap();
+        for (RunResult result : results) {
+            scores.put(keyOf(result.getParams()), result.getPrimaryResult().getScore());
+        }
+        return new Baseline(scores);
+    }
+
+    /**
+     * Eg <tt>org.estatio.benchmarks.IndexationBenchmark.indexate{leases=100}</tt>.
+     */
+    private static String keyOf(final BenchmarkParams params) {
+        final StringBuilder key = new StringBuilder(params.getBenchmark());
+        if (!params.getParamsKeys().isEmpty()) {
+            key.append('{');
+            boolean first = true;
+            for (String name : params.getParamsKeys()) {
+                if (!first) {
+                    key.append(',');
+                }
+                key.append(name).append('=').append(params.getParam(name));
+                first = false;
+            }
+            key.append('}');
+        }
+        return key.toString();
+    }
+
+    private static void usage() {
+        System.out.println("java -jar benchmarks.jar [options] [regexp]");
+        System.out.println("  -report <file>         JSON report, default target/benchmarks.json");
+        System.out.println("  -save-baseline <file>  stores the throughput of this run");
+        System.out.println("  -baseline <file>       compares with a stored baseline, exits with 1 on a regression");
+        System.out.println("  -threshold <percent>   allowed drop in throughput, default 10");
+        System.out.println("  -f <forks> -wi <warmup iterations> -i <iterations>, default 1, 5 and 5");
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationEngine;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationParameters;
+import org.estatio.dom.lease.invoicing.InvoiceRunType;
+import org.estatio.dom.lease.invoicing.LeaseTermSnapshot;
+
+/**
+ * Calculates the due date range of every term of a lease graph, as
+ * {@link org.estatio.dom.lease.invoicing.InvoiceCalculationService#calculateDueDateRange(LeaseTerm, InvoiceCalculationParameters)}
+ * does (without looking up the epoch date from the settings).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CalculateDueDateRangeBenchmark {
+
+    @Param({ "100", "1000" })
+    int leases;
+
+    @Param({ "3" })
+    int itemsPerLease;
+
+    List<LeaseTerm> terms;
+    InvoiceCalculationParameters normalRun;
+    InvoiceCalculationParameters retroRun;
+
+    @Setup
+    public void setUp() {
+        terms = LeaseGraph.ofFixedTerms(leases, itemsPerLease, 1).getTerms();
+        final LocalDate dueDate = LeaseGraph.START_DATE.plusYears(5);
+        normalRun = new InvoiceCalculationParameters(InvoiceRunType.NORMAL_RUN, dueDate, dueDate, dueDate.plusMonths(3));
+        retroRun = new InvoiceCalculationParameters(InvoiceRunType.RETRO_RUN, dueDate, dueDate, dueDate.plusMonths(3));
+    }
+
+    @Benchmark
+    public void normalRun(final Blackhole blackhole) {
+        calculate(normalRun, blackhole);
+    }
+
+    /**
+     * Recalculates from the start of each lease.
+     */
+    @Benchmark
+    public void retroRun(final Blackhole blackhole) {
+        calculate(retroRun, blackhole);
+    }
+
+    private void calculate(final InvoiceCalculationParameters parameters, final Blackhole blackhole) {
+        for (LeaseTerm term : terms) {
+            blackhole.consume(InvoiceCalculationEngine.calculate(LeaseTermSnapshot.of(term, parameters, null)));
+        }
+    }
+
+}
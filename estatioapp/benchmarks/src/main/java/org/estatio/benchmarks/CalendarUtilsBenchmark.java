@@ -0,0 +1,84 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.estatio.dom.utils.CalendarUtils;
+
+/**
+ * Looks up intervals of an rrule through the cached
+ * {@link org.estatio.dom.utils.IntervalCalendar}, and through the rrule
+ * iterator that {@link CalendarUtils#currentInterval(LocalDate, String, LocalDate)}
+ * still uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CalendarUtilsBenchmark {
+
+    @Param({ "RRULE:FREQ=MONTHLY;INTERVAL=3", "RRULE:FREQ=MONTHLY;INTERVAL=1" })
+    String rrule;
+
+    LocalDate[] dates;
+
+    @Setup
+    public void setUp() {
+        dates = new LocalDate[365];
+        for (int i = 0; i < dates.length; i++) {
+            dates[i] = LeaseGraph.START_DATE.plusDays(i * 11);
+        }
+        // warm the shared calendar, as the application would
+        CalendarUtils.intervalCalendar(rrule);
+    }
+
+    @Benchmark
+    public void intervalContaining(final Blackhole blackhole) {
+        for (LocalDate date : dates) {
+            blackhole.consume(CalendarUtils.intervalContaining(date, rrule));
+        }
+    }
+
+    @Benchmark
+    public Object intervalsInRange() {
+        return CalendarUtils.intervalsInRange(
+                LeaseGraph.START_DATE,
+                LeaseGraph.START_DATE.plusYears(LeaseGraph.LEASE_YEARS),
+                rrule);
+    }
+
+    @Benchmark
+    public void currentInterval(final Blackhole blackhole) {
+        for (LocalDate date : dates) {
+            blackhole.consume(CalendarUtils.currentInterval(date, rrule, LeaseGraph.START_DATE));
+        }
+    }
+
+}
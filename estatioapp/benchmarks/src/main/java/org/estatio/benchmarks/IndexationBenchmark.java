@@ -0,0 +1,116 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.estatio.dom.index.Index;
+import org.estatio.dom.index.IndexBase;
+import org.estatio.dom.index.IndexValue;
+import org.estatio.dom.index.IndexValues;
+import org.estatio.dom.index.IndexationService;
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.lease.LeaseTermForIndexable;
+
+/**
+ * Indexates every term of a lease graph against an index with monthly values
+ * over two bases, served from memory instead of the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IndexationBenchmark {
+
+    @Param({ "100", "1000" })
+    int leases;
+
+    List<LeaseTerm> terms;
+    IndexationService indexationService;
+
+    @Setup
+    public void setUp() {
+        final Index index = new Index();
+        index.setReference("BENCH-INDEX");
+        index.setApplicationTenancyPath("/");
+        final List<IndexValue> values = monthlyValues(index);
+        index.injectIndexValues(new IndexValues() {
+            @Override
+            public List<IndexValue> findByIndex(final Index index) {
+                return values;
+            }
+
+            @Override
+            protected void listenForChanges() {
+            }
+        });
+        terms = LeaseGraph.ofIndexableTerms(leases, 1, index, 1).getTerms();
+        indexationService = new IndexationService();
+    }
+
+    /**
+     * Monthly values for twenty years before and during the leases, rebased
+     * halfway.
+     */
+    private static List<IndexValue> monthlyValues(final Index index) {
+        final LocalDate start = LeaseGraph.START_DATE.minusYears(10);
+
+        final IndexBase firstBase = new IndexBase();
+        firstBase.setIndex(index);
+        firstBase.setStartDate(start);
+
+        final IndexBase secondBase = new IndexBase();
+        secondBase.setIndex(index);
+        secondBase.setStartDate(LeaseGraph.START_DATE);
+        secondBase.setFactor(new BigDecimal("1.2345"));
+        secondBase.setPrevious(firstBase);
+
+        final List<IndexValue> values = Lists.newArrayList();
+        for (int month = 0; month < 12 * 20; month++) {
+            final LocalDate date = start.plusMonths(month);
+            final IndexValue value = new IndexValue();
+            value.setIndexBase(date.isBefore(LeaseGraph.START_DATE) ? firstBase : secondBase);
+            value.setStartDate(date);
+            value.setValue(BigDecimal.valueOf(1000000 + month * 1750L, 4));
+            values.add(value);
+        }
+        return values;
+    }
+
+    @Benchmark
+    public void indexate() {
+        for (LeaseTerm term : terms) {
+            indexationService.indexate((LeaseTermForIndexable) term);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.estatio.dom.lease.InvoicingFrequency;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+/**
+ * Splits the ten years of a lease into the invoicing intervals of a
+ * frequency, and finds the interval of each day of a year.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InvoicingFrequencyBenchmark {
+
+    @Param({ "QUARTERLY_IN_ADVANCE", "MONTHLY_IN_ARREARS" })
+    InvoicingFrequency frequency;
+
+    LocalDate startDate;
+    LocalDate endDate;
+    LocalDateInterval range;
+    LocalDateInterval source;
+
+    @Setup
+    public void setUp() {
+        startDate = LeaseGraph.START_DATE;
+        endDate = startDate.plusYears(LeaseGraph.LEASE_YEARS);
+        range = LocalDateInterval.excluding(startDate.plusYears(5), startDate.plusYears(5).plusMonths(3));
+        source = LocalDateInterval.excluding(startDate, endDate);
+    }
+
+    @Benchmark
+    public Object intervalsInRange() {
+        return frequency.intervalsInRange(startDate, endDate);
+    }
+
+    @Benchmark
+    public Object intervalsInDueDateRange() {
+        return frequency.intervalsInDueDateRange(range, source);
+    }
+
+    @Benchmark
+    public void intervalContaining(final Blackhole blackhole) {
+        for (LocalDate date = startDate; date.getYear() == startDate.getYear(); date = date.plusDays(1)) {
+            blackhole.consume(frequency.intervalContaining(date));
+        }
+    }
+
+}
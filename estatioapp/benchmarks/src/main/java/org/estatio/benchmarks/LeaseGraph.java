@@ -0,0 +1,155 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.index.Index;
+import org.estatio.dom.lease.InvoicingFrequency;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseItem;
+import org.estatio.dom.lease.LeaseItemType;
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.lease.LeaseTermForFixed;
+import org.estatio.dom.lease.LeaseTermForIndexable;
+
+/**
+ * Detached, in-memory graph of {@link Lease lease}s, {@link LeaseItem item}s
+ * and {@link LeaseTerm term}s, built without a persistence session so that
+ * the calculation kernel can be measured on its own.
+ *
+ * <p>
+ * Leases run for ten years from {@link #START_DATE}; each item has one term
+ * per year. The values and invoicing frequencies are drawn from a seeded
+ * random, so a graph of a given size is the same on every run.
+ */
+public final class LeaseGraph {
+
+    public static final LocalDate START_DATE = new LocalDate(2010, 1, 1);
+
+    static final int LEASE_YEARS = 10;
+
+    private static final InvoicingFrequency[] FREQUENCIES = {
+            InvoicingFrequency.QUARTERLY_IN_ADVANCE,
+            InvoicingFrequency.QUARTERLY_IN_ADVANCE_PLUS1M,
+            InvoicingFrequency.MONTHLY_IN_ADVANCE,
+            InvoicingFrequency.MONTHLY_IN_ARREARS,
+            InvoicingFrequency.SEMI_YEARLY_IN_ADVANCE,
+            InvoicingFrequency.YEARLY_IN_ADVANCE
+    };
+
+    private final List<Lease> leases;
+    private final List<LeaseTerm> terms;
+
+    private LeaseGraph(final List<Lease> leases, final List<LeaseTerm> terms) {
+        this.leases = Collections.unmodifiableList(leases);
+        this.terms = Collections.unmodifiableList(terms);
+    }
+
+    /**
+     * A graph of fixed rent terms.
+     */
+    public static LeaseGraph ofFixedTerms(final int leaseCount, final int itemsPerLease, final long seed) {
+        return of(leaseCount, itemsPerLease, null, seed);
+    }
+
+    /**
+     * A graph of terms indexed by the given index, with base and next index
+     * dates a year apart.
+     */
+    public static LeaseGraph ofIndexableTerms(final int leaseCount, final int itemsPerLease, final Index index, final long seed) {
+        return of(leaseCount, itemsPerLease, index, seed);
+    }
+
+    private static LeaseGraph of(final int leaseCount, final int itemsPerLease, final Index index, final long seed) {
+        final Random random = new Random(seed);
+        final List<Lease> leases = Lists.newArrayListWithCapacity(leaseCount);
+        final List<LeaseTerm> terms = Lists.newArrayListWithCapacity(leaseCount * itemsPerLease * LEASE_YEARS);
+        for (int l = 0; l < leaseCount; l++) {
+            final Lease lease = new Lease();
+            lease.setReference(String.format("BENCH-%06d", l));
+            lease.setStartDate(START_DATE);
+            lease.setEndDate(START_DATE.plusYears(LEASE_YEARS).minusDays(1));
+            for (int i = 0; i < itemsPerLease; i++) {
+                final LeaseItem item = new LeaseItem();
+                item.setLease(lease);
+                item.setSequence(BigInteger.valueOf(i + 1));
+                item.setType(index == null ? LeaseItemType.DISCOUNT : LeaseItemType.RENT);
+                item.setStartDate(START_DATE);
+                item.setInvoicingFrequency(FREQUENCIES[random.nextInt(FREQUENCIES.length)]);
+                lease.getItems().add(item);
+                for (int y = 0; y < LEASE_YEARS; y++) {
+                    final LeaseTerm term = index == null
+                            ? fixedTerm(random)
+                            : indexableTerm(random, index, y);
+                    term.setLeaseItem(item);
+                    term.setSequence(BigInteger.valueOf(y + 1));
+                    term.setStartDate(START_DATE.plusYears(y));
+                    term.setEndDate(START_DATE.plusYears(y + 1).minusDays(1));
+                    item.getTerms().add(term);
+                    terms.add(term);
+                }
+            }
+            leases.add(lease);
+        }
+        return new LeaseGraph(leases, terms);
+    }
+
+    private static LeaseTerm fixedTerm(final Random random) {
+        final LeaseTermForFixed term = new LeaseTermForFixed();
+        term.setValue(randomAmount(random));
+        return term;
+    }
+
+    private static LeaseTerm indexableTerm(final Random random, final Index index, final int year) {
+        final LeaseTermForIndexable term = new LeaseTermForIndexable();
+        term.setIndex(index);
+        term.setBaseValue(randomAmount(random));
+        term.setBaseIndexStartDate(START_DATE.plusYears(year - 1));
+        term.setNextIndexStartDate(START_DATE.plusYears(year));
+        term.setLevellingPercentage(BigDecimal.valueOf(75));
+        return term;
+    }
+
+    private static BigDecimal randomAmount(final Random random) {
+        return BigDecimal.valueOf(1000 + random.nextInt(99000) * 100L, 2);
+    }
+
+    // //////////////////////////////////////
+
+    public List<Lease> getLeases() {
+        return leases;
+    }
+
+    /**
+     * All terms of all leases, lease by lease.
+     */
+    public List<LeaseTerm> getTerms() {
+        return terms;
+    }
+
+}
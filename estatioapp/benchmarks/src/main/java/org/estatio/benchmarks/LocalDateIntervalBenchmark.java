@@ -0,0 +1,84 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+/**
+ * Overlaps and containment checks on a thousand pairs of intervals, an
+ * eighth of them open ended, as done for every term of every lease.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LocalDateIntervalBenchmark {
+
+    static final int PAIRS = 1024;
+
+    LocalDateInterval[] first;
+    LocalDateInterval[] second;
+    LocalDate[] dates;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(1);
+        first = new LocalDateInterval[PAIRS];
+        second = new LocalDateInterval[PAIRS];
+        dates = new LocalDate[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            first[i] = randomInterval(random);
+            second[i] = randomInterval(random);
+            dates[i] = LeaseGraph.START_DATE.plusDays(random.nextInt(3650));
+        }
+    }
+
+    private static LocalDateInterval randomInterval(final Random random) {
+        final LocalDate startDate = LeaseGraph.START_DATE.plusDays(random.nextInt(3650));
+        final LocalDate endDate = random.nextInt(8) == 0 ? null : startDate.plusDays(random.nextInt(1000));
+        return LocalDateInterval.including(startDate, endDate);
+    }
+
+    @Benchmark
+    public void overlap(final Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(first[i].overlap(second[i]));
+        }
+    }
+
+    @Benchmark
+    public void contains(final Blackhole blackhole) {
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(first[i].contains(dates[i]));
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.estatio.services.search.TrigramIndex;
+
+/**
+ * Wildcard searches on the references and names of up to a million parties,
+ * as served by the {@link org.estatio.services.search.SearchIndexService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(jvmArgsAppend = "-Xmx4g")
+public class TrigramIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "Topmodel", "Poison", "Mediax", "Pret", "Miracle", "Hello", "World", "Estates",
+            "Retail", "Fashion", "Coffee", "Books", "Shoes", "Sports", "Garden", "Optics" };
+
+    private static final String[] PATTERNS = {
+            "*poison*", "*ret?a*", "PTY-0001*", "*shoes sp*", "*optics", "*xyz*" };
+
+    @Param({ "100000", "1000000" })
+    int parties;
+
+    TrigramIndex index;
+    int next;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(1);
+        index = new TrigramIndex();
+        for (int i = 0; i < parties; i++) {
+            final String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            index.put(i, String.format("PTY-%07d", i), name);
+        }
+    }
+
+    @Benchmark
+    public Object search() {
+        next = (next + 1) % PATTERNS.length;
+        return index.search(PATTERNS[next]);
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.estatio.dom.lease.TurnoverRentRuleHelper;
+import org.estatio.dom.lease.TurnoverRentRulePlan;
+
+/**
+ * Calculates turnover rents for a thousand turnovers, looking up the rule for
+ * every turnover as the lease terms do, once, or in cents as a batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TurnoverRentRuleBenchmark {
+
+    static final int TURNOVERS = 1000;
+
+    @Param({ "7", "7.5;100000;8;250000;9.25;500000;10" })
+    String rule;
+
+    BigDecimal[] turnovers;
+    long[] turnoverCents;
+    TurnoverRentRuleHelper helper;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(1);
+        turnovers = new BigDecimal[TURNOVERS];
+        for (int i = 0; i < turnovers.length; i++) {
+            turnovers[i] = BigDecimal.valueOf(random.nextInt(100000000), 2);
+        }
+        turnoverCents = new long[TURNOVERS];
+        for (int i = 0; i < turnovers.length; i++) {
+            turnoverCents[i] = turnovers[i].unscaledValue().longValue();
+        }
+        helper = new TurnoverRentRuleHelper(rule);
+    }
+
+    @Benchmark
+    public void parseAndCalculate(final Blackhole blackhole) {
+        for (BigDecimal turnover : turnovers) {
+            blackhole.consume(new TurnoverRentRuleHelper(rule).calculateRent(turnover));
+        }
+    }
+
+    @Benchmark
+    public void calculate(final Blackhole blackhole) {
+        for (BigDecimal turnover : turnovers) {
+            blackhole.consume(helper.calculateRent(turnover));
+        }
+    }
+
+    @Benchmark
+    public long[] calculateCents() {
+        return TurnoverRentRulePlan.of(rule).calculateRentCents(turnoverCents);
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.benchmarks;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BaselineTest {
+
+    Baseline baseline;
+
+    @Before
+    public void setUp() throws Exception {
+        baseline = baselineOf("A.a", 1000.0, "B.b{leases=100}", 200.0);
+    }
+
+    private static Baseline baselineOf(final Object... keysAndScores) {
+        final Map<String, Double> scores = Maps.newTreeMap();
+        for (int i = 0; i < keysAndScores.length; i += 2) {
+            scores.put((String) keysAndScores[i], (Double) keysAndScores[i + 1]);
+        }
+        return new Baseline(scores);
+    }
+
+    public static class Regressions extends BaselineTest {
+
+        @Test
+        public void withinThreshold() throws Exception {
+            final List<String> regressions = baseline.regressionsOf(baselineOf("A.a", 950.0, "B.b{leases=100}", 250.0), 0.1);
+            assertThat(regressions.isEmpty(), is(true));
+        }
+
+        @Test
+        public void beyondThreshold() throws Exception {
+            final List<String> regressions = baseline.regressionsOf(baselineOf("A.a", 850.0, "B.b{leases=100}", 200.0), 0.1);
+            assertThat(regressions.size(), is(1));
+            assertThat(regressions.get(0).startsWith("A.a:"), is(true));
+        }
+
+        @Test
+        public void ignoresNewBenchmarks() throws Exception {
+            final List<String> regressions = baseline.regressionsOf(baselineOf("C.c", 1.0), 0.1);
+            assertThat(regressions.isEmpty(), is(true));
+        }
+    }
+
+    public static class SaveAndLoad extends BaselineTest {
+
+        @Rule
+        public TemporaryFolder folder = new TemporaryFolder();
+
+        @Test
+        public void roundTrip() throws Exception {
+            final File file = folder.newFile("baseline.properties");
+            baseline.save(file);
+
+            assertThat(Baseline.load(file).getScores(), is(baseline.getScores()));
+        }
+    }
+
+}
@@ -16,6 +16,10 @@
  */
 package org.estatio.app.interactivemap;
 
+import java.util.List;
+
+import org.joda.time.LocalDate;
+
 import org.estatio.dom.asset.FixedAsset;
 import org.isisaddons.wicket.svg.cpt.applib.Color;
 
@@ -23,4 +27,10 @@ public interface InteractiveMapForFixedAssetColorService {
         
     Color getColor(FixedAsset item);
 
+    /**
+     * The colour of a unit with the given occupancies (ordered by start date)
+     * on the given date.
+     */
+    Color getColor(List<InteractiveMapOccupancy> occupancies, LocalDate date);
+
 }
@@ -16,6 +16,10 @@
  */
 package org.estatio.app.interactivemap;
 
+import java.util.List;
+
+import org.joda.time.LocalDate;
+
 import org.estatio.dom.asset.FixedAsset;
 import org.isisaddons.wicket.svg.cpt.applib.Color;
 
@@ -27,4 +31,9 @@ public class InteractiveMapForFixedAssetColorServiceDefault implements Interacti
         return null;
     }
 
+    @Override
+    public Color getColor(List<InteractiveMapOccupancy> occupancies, LocalDate date) {
+        return null;
+    }
+
 }
@@ -16,40 +16,46 @@
  */
 package org.estatio.app.interactivemap;
 
+import java.util.List;
+
 import javax.inject.Inject;
 
 import org.isisaddons.wicket.svg.cpt.applib.Color;
+import org.joda.time.LocalDate;
 import org.joda.time.Months;
 
 import org.apache.isis.applib.services.clock.ClockService;
 
 import org.estatio.dom.asset.FixedAsset;
 import org.estatio.dom.asset.Unit;
-import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.Occupancies;
-import org.estatio.dom.lease.Occupancy;
 
 public class InteractiveMapForFixedAssetColorServiceExpiry implements InteractiveMapForFixedAssetColorService {
 
     @Override
     public Color getColor(FixedAsset item) {
         if (item instanceof Unit) {
-            for (Occupancy occupancy : occupanciesRepo.occupancies((Unit) item)) {
-                // TODO: Create repo query for occupancy when EST-471 has been
-                // addressed
-                final Lease lease = occupancy.getLease();
-                if (lease.getTenancyEndDate() != null && lease.getTenancyEndDate().isAfter(clockService.now())) {
-                    final int months = Months.monthsBetween(clockService.now(), lease.getTenancyEndDate()).getMonths();
-                    int l = months > 50 ? 50 : months;
-                    return new Color(ColorUtils.HSLtoRGB(250, 50, l+25), "Months" + months);
-
-                }
-            }
-            return new Color("red", "Available");
+            // TODO: Create repo query for occupancy when EST-471 has been
+            // addressed
+            return getColor(InteractiveMapOccupancy.of(occupanciesRepo.occupancies((Unit) item)), clockService.now());
         }
         return null;
     }
 
+    @Override
+    public Color getColor(List<InteractiveMapOccupancy> occupancies, LocalDate date) {
+        for (InteractiveMapOccupancy occupancy : occupancies) {
+            final LocalDate tenancyEndDate = occupancy.getTenancyEndDate();
+            if (tenancyEndDate != null && tenancyEndDate.isAfter(date)) {
+                final int months = Months.monthsBetween(date, tenancyEndDate).getMonths();
+                int l = months > 50 ? 50 : months;
+                return new Color(ColorUtils.HSLtoRGB(250, 50, l+25), "Months" + months);
+
+            }
+        }
+        return new Color("red", "Available");
+    }
+
     @Inject
     Occupancies occupanciesRepo;
 
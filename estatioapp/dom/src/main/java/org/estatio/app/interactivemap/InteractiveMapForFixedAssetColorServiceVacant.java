@@ -16,16 +16,18 @@
  */
 package org.estatio.app.interactivemap;
 
+import java.util.List;
+
 import javax.inject.Inject;
 
+import org.joda.time.LocalDate;
+
 import org.apache.isis.applib.services.clock.ClockService;
 
 import org.estatio.dom.asset.FixedAsset;
 import org.estatio.dom.asset.Unit;
-import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseStatus;
 import org.estatio.dom.lease.Occupancies;
-import org.estatio.dom.lease.Occupancy;
 import org.isisaddons.wicket.svg.cpt.applib.Color;
 
 public class InteractiveMapForFixedAssetColorServiceVacant implements InteractiveMapForFixedAssetColorService {
@@ -33,18 +35,22 @@ public class InteractiveMapForFixedAssetColorServiceVacant implements Interactiv
     @Override
     public Color getColor(FixedAsset item) {
         if (item instanceof Unit) {
-            for (Occupancy occupancy : occupanciesRepo.occupancies((Unit) item)) {
-                final Lease lease = occupancy.getLease();
-                if (lease.getTenancyEndDate() == null || lease.getTenancyEndDate().isAfter(clockService.now())) {
-                    if (lease.getStatus().equals(LeaseStatus.ACTIVE)) {
-                        return new Color("green", "Active");
-                    }
-                    return new Color("orange", "Disabled");
+            return getColor(InteractiveMapOccupancy.of(occupanciesRepo.occupancies((Unit) item)), clockService.now());
+        }
+        return null;
+    }
+
+    @Override
+    public Color getColor(List<InteractiveMapOccupancy> occupancies, LocalDate date) {
+        for (InteractiveMapOccupancy occupancy : occupancies) {
+            if (occupancy.getTenancyEndDate() == null || occupancy.getTenancyEndDate().isAfter(date)) {
+                if (occupancy.getLeaseStatus().equals(LeaseStatus.ACTIVE)) {
+                    return new Color("green", "Active");
                 }
+                return new Color("orange", "Disabled");
             }
-            return new Color("red", "Available");
         }
-        return null;
+        return new Color("red", "Available");
     }
 
     @Inject
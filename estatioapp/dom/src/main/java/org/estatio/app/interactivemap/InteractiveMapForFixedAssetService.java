@@ -16,24 +16,13 @@
  */
 package org.estatio.app.interactivemap;
 
-import java.io.ByteArrayOutputStream;
-import java.io.StringReader;
-import java.io.UnsupportedEncodingException;
-import java.net.URI;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.inject.Inject;
 
-import com.google.common.base.Strings;
-
-import org.apache.batik.transcoder.Transcoder;
-import org.apache.batik.transcoder.TranscoderException;
-import org.apache.batik.transcoder.TranscoderInput;
-import org.apache.batik.transcoder.TranscoderOutput;
-import org.apache.fop.svg.PDFTranscoder;
-import org.joda.time.LocalDate;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Maps;
 
 import org.apache.isis.applib.AbstractService;
 import org.apache.isis.applib.annotation.ActionSemantics;
@@ -43,23 +32,16 @@ import org.apache.isis.applib.annotation.NatureOfService;
 import org.apache.isis.applib.annotation.NotInServiceMenu;
 import org.apache.isis.applib.annotation.ParameterLayout;
 import org.apache.isis.applib.annotation.Prototype;
-import org.apache.isis.applib.services.linking.DeepLinkService;
 import org.apache.isis.applib.value.Blob;
 
-import org.isisaddons.wicket.svg.cpt.applib.Color;
 import org.isisaddons.wicket.svg.cpt.applib.InteractiveMap;
-import org.isisaddons.wicket.svg.cpt.applib.InteractiveMapAttribute;
-import org.isisaddons.wicket.svg.cpt.applib.InteractiveMapElement;
 
+import org.estatio.dom.asset.Properties;
 import org.estatio.dom.asset.Property;
-import org.estatio.dom.asset.Unit;
-import org.estatio.dom.asset.Units;
 import org.estatio.dom.document.DocumentType;
 import org.estatio.dom.document.asset.DocumentForFixedAsset;
 import org.estatio.dom.document.asset.DocumentsForFixedAsset;
-import org.estatio.dom.lease.Lease;
-import org.estatio.dom.lease.Occupancies;
-import org.estatio.dom.lease.Occupancy;
+import org.estatio.dom.geography.Country;
 
 @DomainService(nature = NatureOfService.VIEW_CONTRIBUTIONS_ONLY)
 public class InteractiveMapForFixedAssetService extends AbstractService {
@@ -78,56 +60,8 @@ public class InteractiveMapForFixedAssetService extends AbstractService {
             return null;
         }
 
-        Map<Color, Integer> colorMap = new HashMap<>();
-
-        InteractiveMapForFixedAssetColorService colorService = representation.getColorService();
-        getContainer().injectServicesInto(colorService);
-
-        try {
-            String svgString = new String(document.getFile().getBytes(), "UTF-8");
-            InteractiveMap interactiveMap = new InteractiveMap(svgString);
-            interactiveMap.setTitle(document.getName());
-            for (Unit unit : units.findByProperty(property)) {
-
-                final Color color = colorService.getColor(unit);
-
-                // shape
-                InteractiveMapElement element = new InteractiveMapElement(unit.getReference());
-                if (color != null) {
-                    colorMap = ColorMapHelper.addToMap(colorMap, color);
-                    element.addAttribute(new InteractiveMapAttribute("fill", color.getColor()));
-                    element.addAttribute(new InteractiveMapAttribute("class", color.getLabel()));
-                }
-                String leaseName = getLeaseName(unit);
-                if (!Strings.isNullOrEmpty(leaseName)) {
-                    interactiveMap.getElementTitle2Id().put(leaseName, unit.getReference());
-                }
-
-                URI link = deepLinkService.deepLinkFor(unit);
-                element.addAttribute(new InteractiveMapAttribute("xlink:href", link.toString()));
-                interactiveMap.addElement(element);
-
-                // label
-                // interactiveMap.addElement(new InteractiveMapElement("label" +
-                // i.toString(), unit.getDescription()));
-
-                // sub label
-                // interactiveMap.addElement(new
-                // InteractiveMapElement("subLabel" + i.toString(),
-                // unit.getCategory().name()));
-
-            }
-
-            for (Color color : ColorMapHelper.sortByValue(colorMap)) {
-                interactiveMap.addLegendItem(color);
-            }
-
-            return interactiveMap;
-        } catch (UnsupportedEncodingException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
-        return null;
+        final InteractiveMapSnapshot snapshot = interactiveMapSnapshots.snapshotFor(property);
+        return snapshot.render(interactiveMapSnapshots.svgFor(document), document.getName(), representation);
     }
 
     public DocumentForFixedAsset default1ShowMap(Property fixedAsset) {
@@ -141,20 +75,6 @@ public class InteractiveMapForFixedAssetService extends AbstractService {
         return documents.findByFixedAssetAndType(fixedAsset, DocumentType.INTERACTIVE_MAP);
     }
 
-    private String getLeaseName(Unit unit) {
-        LocalDate today = LocalDate.now();
-        List<Occupancy> occupancyList = occupancies.occupancies(unit);
-        for (Occupancy occupancy : occupancyList) {
-            LocalDate startDate = occupancy.getStartDate();
-            LocalDate endDate = occupancy.getEndDate();
-            if ((startDate == null || today.isAfter(startDate)) && (endDate == null || today.isBefore(endDate))) {
-                Lease lease = occupancy.getLease();
-                return lease.getName();
-            }
-        }
-        return null;
-    }
-
     public boolean hideShowMap(
             final Property property,
             final DocumentForFixedAsset document,
@@ -171,19 +91,7 @@ public class InteractiveMapForFixedAssetService extends AbstractService {
             final @ParameterLayout(named = "Document") DocumentForFixedAsset document,
             final @ParameterLayout(named = "Representation") InteractiveMapForFixedAssetRepresentation representation) {
         InteractiveMap interactiveMap = showMap(property, document, representation);
-        String svgContent = interactiveMap.parse();
-        StringReader input = new StringReader(svgContent);
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-
-        Transcoder transcoder = new PDFTranscoder();
-        try {
-            transcoder.transcode(new TranscoderInput(input), new TranscoderOutput(output));
-        } catch (TranscoderException tx) {
-            throw new RuntimeException("An error occurred while transcoding SVG document '"
-                    + interactiveMap.getTitle() + "' to PDF", tx);
-        }
-
-        return new Blob(property.getName() + ".pdf", "application/pdf", output.toByteArray());
+        return interactiveMapPdfService.render(interactiveMap, property.getName() + ".pdf");
     }
 
     public boolean hideDownloadMap(
@@ -206,6 +114,32 @@ public class InteractiveMapForFixedAssetService extends AbstractService {
 
     // //////////////////////////////////////
 
+    /**
+     * Renders the maps of all properties of the country to PDF, so that they
+     * are ready for download, and reports how long each map took.
+     */
+    @ActionSemantics(Of.IDEMPOTENT)
+    @NotInServiceMenu
+    public String renderMaps(
+            final Country country,
+            final @ParameterLayout(named = "Representation") InteractiveMapForFixedAssetRepresentation representation) {
+        final Map<String, InteractiveMap> interactiveMaps = Maps.newLinkedHashMap();
+        for (Property property : properties.findPropertiesByCountry(country)) {
+            for (DocumentForFixedAsset document : documents.findByFixedAssetAndType(property, DocumentType.INTERACTIVE_MAP)) {
+                interactiveMaps.put(
+                        property.getReference() + " " + document.getName(),
+                        showMap(property, document, representation));
+            }
+        }
+        return Joiner.on("\n").join(interactiveMapPdfService.renderAll(interactiveMaps));
+    }
+
+    public InteractiveMapForFixedAssetRepresentation default1RenderMaps() {
+        return InteractiveMapForFixedAssetRepresentation.DEFAULT;
+    }
+
+    // //////////////////////////////////////
+
     private Boolean hasMaps;
 
     private boolean shouldShowSvgActions(final Property property) {
@@ -222,11 +156,11 @@ public class InteractiveMapForFixedAssetService extends AbstractService {
     private DocumentsForFixedAsset documents;
 
     @Inject
-    private Units units;
+    private InteractiveMapSnapshots interactiveMapSnapshots;
 
     @Inject
-    private Occupancies occupancies;
+    private InteractiveMapPdfService interactiveMapPdfService;
 
     @Inject
-    private DeepLinkService deepLinkService;
+    private Properties properties;
 }
@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2015 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.interactivemap;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseStatus;
+import org.estatio.dom.lease.Occupancy;
+
+/**
+ * What an interactive map needs to know of an {@link Occupancy} and its
+ * {@link Lease}, so that the colours of all units can be computed without
+ * navigating from each occupancy to its lease.
+ */
+public final class InteractiveMapOccupancy {
+
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final String leaseName;
+    private final LocalDate tenancyEndDate;
+    private final LeaseStatus leaseStatus;
+
+    public InteractiveMapOccupancy(
+            final LocalDate startDate,
+            final LocalDate endDate,
+            final String leaseName,
+            final LocalDate tenancyEndDate,
+            final LeaseStatus leaseStatus) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.leaseName = leaseName;
+        this.tenancyEndDate = tenancyEndDate;
+        this.leaseStatus = leaseStatus;
+    }
+
+    public static List<InteractiveMapOccupancy> of(final List<Occupancy> occupancies) {
+        final List<InteractiveMapOccupancy> result = Lists.newArrayList();
+        for (Occupancy occupancy : occupancies) {
+            final Lease lease = occupancy.getLease();
+            result.add(new InteractiveMapOccupancy(
+                    occupancy.getStartDate(),
+                    occupancy.getEndDate(),
+                    lease.getName(),
+                    lease.getTenancyEndDate(),
+                    lease.getStatus()));
+        }
+        return result;
+    }
+
+    /**
+     * From a row of {@link org.estatio.dom.lease.Occupancies#findSummariesByProperty(org.estatio.dom.asset.Property)},
+     * after the unit reference.
+     */
+    static InteractiveMapOccupancy ofSummary(final Object[] summary) {
+        return new InteractiveMapOccupancy(
+                (LocalDate) summary[1],
+                (LocalDate) summary[2],
+                (String) summary[3],
+                (LocalDate) summary[4],
+                (LeaseStatus) summary[5]);
+    }
+
+    // //////////////////////////////////////
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public String getLeaseName() {
+        return leaseName;
+    }
+
+    public LocalDate getTenancyEndDate() {
+        return tenancyEndDate;
+    }
+
+    public LeaseStatus getLeaseStatus() {
+        return leaseStatus;
+    }
+
+}
@@ -0,0 +1,274 @@
+/*
+ *  Copyright 2015 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.interactivemap;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+
+import org.apache.batik.transcoder.Transcoder;
+import org.apache.batik.transcoder.TranscoderException;
+import org.apache.batik.transcoder.TranscoderInput;
+import org.apache.batik.transcoder.TranscoderOutput;
+import org.apache.fop.svg.PDFTranscoder;
+
+import org.estatio.services.executor.BoundedExecutor;
+
+/**
+ * Renders SVG documents to PDF on a bounded pool of worker threads, so that
+ * however many maps are requested at once only so many are transcoded at a
+ * time, and only so many wait; any further request is rejected.
+ *
+ * <p>
+ * The PDFs are streamed to files in the cache directory, named after the
+ * SHA-256 hash of the SVG, so that rendering the same SVG again (as long as
+ * the file is kept) is a lookup; concurrent requests for the same SVG share
+ * a single rendering. Once there are more files than allowed the least
+ * recently used are removed; files are only removed while none is being
+ * {@link #read(Rendering) read}.
+ */
+public class InteractiveMapPdfRenderer {
+
+    /**
+     * The outcome of rendering an SVG.
+     */
+    public static class Rendering {
+
+        private final String hash;
+        private final File file;
+        private final boolean cached;
+        private final long millis;
+
+        Rendering(final String hash, final File file, final boolean cached, final long millis) {
+            this.hash = hash;
+            this.file = file;
+            this.cached = cached;
+            this.millis = millis;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Whether the PDF had been rendered before.
+         */
+        public boolean isCached() {
+            return cached;
+        }
+
+        /**
+         * How long the rendering took, excluding the time spent queued.
+         */
+        public long getMillis() {
+            return millis;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    private final File cacheDirectory;
+    private final int maxCachedFiles;
+
+    // bounded queue, when full the request is rejected rather than
+    // rendered on the (web container's) submitting thread
+    private final BoundedExecutor executor;
+    private final ConcurrentMap<String, Future<Rendering>> inFlight = Maps.newConcurrentMap();
+    // read for using the files, write for removing them
+    private final ReadWriteLock filesLock = new ReentrantReadWriteLock();
+
+    public InteractiveMapPdfRenderer(
+            final File cacheDirectory,
+            final int threads,
+            final int queueCapacity,
+            final int maxCachedFiles) {
+        this.cacheDirectory = cacheDirectory;
+        this.maxCachedFiles = maxCachedFiles;
+        this.executor = new BoundedExecutor(
+                "map-rendering", threads, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Queues the rendering of the SVG, unless already rendered or being
+     * rendered.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public Future<Rendering> submit(final String svg) {
+        final String hash = hashOf(svg);
+        final File file = fileFor(hash);
+        if (touch(file)) {
+            final FutureTask<Rendering> done = new FutureTask<Rendering>(new Callable<Rendering>() {
+                @Override
+                public Rendering call() throws Exception {
+                    return new Rendering(hash, file, true, 0);
+                }
+            });
+            done.run();
+            return done;
+        }
+        final FutureTask<Rendering> task = new FutureTask<Rendering>(new Callable<Rendering>() {
+            @Override
+            public Rendering call() throws Exception {
+                try {
+                    return render(svg, hash, file);
+                } finally {
+                    inFlight.remove(hash);
+                }
+            }
+        });
+        final Future<Rendering> existing = inFlight.putIfAbsent(hash, task);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.executor().execute(task);
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(hash, task);
+            throw ex;
+        }
+        return task;
+    }
+
+    private Rendering render(final String svg, final String hash, final File file) throws IOException, TranscoderException {
+        final long start = System.nanoTime();
+        if (file.exists()) {
+            return new Rendering(hash, file, true, 0);
+        }
+        final File tmp = File.createTempFile(hash, ".tmp", cacheDirectory);
+        try {
+            try (OutputStream output = new BufferedOutputStream(new FileOutputStream(tmp))) {
+                transcode(svg, output);
+            }
+            // only complete files ever have the final name
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+        evictExcessFiles();
+        return new Rendering(hash, file, false, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * The PDF rendered, <tt>null</tt> if its file has been removed meanwhile,
+     * in which case the SVG is to be submitted again.
+     */
+    public byte[] read(final Rendering rendering) throws IOException {
+        filesLock.readLock().lock();
+        try {
+            return Files.readAllBytes(rendering.getFile().toPath());
+        } catch (NoSuchFileException ex) {
+            return null;
+        } finally {
+            filesLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the file exists, if so keeps it from being removed as one of
+     * the least recently used.
+     */
+    private boolean touch(final File file) {
+        filesLock.readLock().lock();
+        try {
+            if (!file.exists()) {
+                return false;
+            }
+            file.setLastModified(System.currentTimeMillis());
+            return true;
+        } finally {
+            filesLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Transcodes the SVG to PDF, streaming the output.
+     */
+    protected void transcode(final String svg, final OutputStream output) throws TranscoderException {
+        final Transcoder transcoder = new PDFTranscoder();
+        transcoder.transcode(new TranscoderInput(new StringReader(svg)), new TranscoderOutput(output));
+    }
+
+    private void evictExcessFiles() {
+        filesLock.writeLock().lock();
+        try {
+            final File[] files = cacheDirectory.listFiles(new FilenameFilter() {
+                @Override
+                public boolean accept(final File dir, final String name) {
+                    return name.endsWith(".pdf");
+                }
+            });
+            if (files == null || files.length <= maxCachedFiles) {
+                return;
+            }
+            Arrays.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(final File o1, final File o2) {
+                    return Long.compare(o1.lastModified(), o2.lastModified());
+                }
+            });
+            for (int i = 0; i < files.length - maxCachedFiles; i++) {
+                files[i].delete();
+            }
+        } finally {
+            filesLock.writeLock().unlock();
+        }
+    }
+
+    File fileFor(final String hash) {
+        return new File(cacheDirectory, hash + ".pdf");
+    }
+
+    static String hashOf(final String svg) {
+        return Hashing.sha256().hashString(svg, Charsets.UTF_8).toString();
+    }
+
+    // //////////////////////////////////////
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+}
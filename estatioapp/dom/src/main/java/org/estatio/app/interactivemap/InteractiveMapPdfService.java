@@ -0,0 +1,206 @@
+/*
+ *  Copyright 2015 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.interactivemap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.value.Blob;
+
+import org.isisaddons.wicket.svg.cpt.applib.InteractiveMap;
+
+import org.estatio.dom.EstatioApplicationException;
+
+/**
+ * Renders {@link InteractiveMap interactive maps} to PDF with an
+ * {@link InteractiveMapPdfRenderer}, configured by the
+ * <tt>estatio.interactivemap.pdf.*</tt> properties.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class InteractiveMapPdfService {
+
+    static final String THREADS_KEY = "estatio.interactivemap.pdf.threads";
+    static final String QUEUE_KEY = "estatio.interactivemap.pdf.queue";
+    static final String CACHED_FILES_KEY = "estatio.interactivemap.pdf.cachedFiles";
+    static final String CACHE_DIRECTORY_KEY = "estatio.interactivemap.pdf.cacheDirectory";
+    static final String TIMEOUT_SECONDS_KEY = "estatio.interactivemap.pdf.timeoutSeconds";
+
+    /**
+     * How many times a map is rendered at most, should its file be removed
+     * before it is read.
+     */
+    static final int MAX_ATTEMPTS = 3;
+
+    static final String TOO_MANY_MAPS = "Too many maps are being rendered, please try again later";
+
+    private InteractiveMapPdfRenderer renderer;
+    private long timeoutSeconds;
+
+    @Programmatic
+    @PostConstruct
+    public void init(final Map<String, String> properties) throws IOException {
+        final String cacheDirectory = properties.get(CACHE_DIRECTORY_KEY);
+        final File directory = cacheDirectory == null
+                ? Files.createTempDirectory("estatio-maps").toFile()
+                : new File(cacheDirectory);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        renderer = new InteractiveMapPdfRenderer(
+                directory,
+                intOf(properties, THREADS_KEY, 2),
+                intOf(properties, QUEUE_KEY, 16),
+                intOf(properties, CACHED_FILES_KEY, 500));
+        timeoutSeconds = intOf(properties, TIMEOUT_SECONDS_KEY, 120);
+    }
+
+    void init(final InteractiveMapPdfRenderer renderer, final long timeoutSeconds) {
+        this.renderer = renderer;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Programmatic
+    @PreDestroy
+    public void shutdown() {
+        renderer.shutdown();
+    }
+
+    private static int intOf(final Map<String, String> properties, final String key, final int defaultValue) {
+        final String value = properties.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The map as PDF, waiting for it to be rendered.
+     */
+    @Programmatic
+    public Blob render(final InteractiveMap interactiveMap, final String name) {
+        final String svg = interactiveMap.parse();
+        for (int attempt = 1; ; attempt++) {
+            final Future<InteractiveMapPdfRenderer.Rendering> future;
+            try {
+                future = renderer.submit(svg);
+            } catch (RejectedExecutionException ex) {
+                throw new EstatioApplicationException(TOO_MANY_MAPS);
+            }
+            final InteractiveMapPdfRenderer.Rendering rendering = get(future, interactiveMap.getTitle());
+            final byte[] bytes;
+            try {
+                bytes = renderer.read(rendering);
+            } catch (IOException ex) {
+                throw new RuntimeException("An error occurred while reading the PDF of '" + interactiveMap.getTitle() + "'", ex);
+            }
+            if (bytes != null) {
+                return new Blob(name, "application/pdf", bytes);
+            }
+            // the file was removed to make room for others before it was read
+            if (attempt == MAX_ATTEMPTS) {
+                throw new EstatioApplicationException(TOO_MANY_MAPS);
+            }
+        }
+    }
+
+    /**
+     * Renders all maps, as many at a time as the renderer allows, and reports
+     * the outcome and timing of each, one line per map.
+     */
+    @Programmatic
+    public List<String> renderAll(final Map<String, InteractiveMap> interactiveMapsByName) {
+        final long start = System.nanoTime();
+        final List<String> names = Lists.newArrayList();
+        final List<Future<InteractiveMapPdfRenderer.Rendering>> futures = Lists.newArrayList();
+        final Deque<Future<InteractiveMapPdfRenderer.Rendering>> pending = new ArrayDeque<>();
+        for (Map.Entry<String, InteractiveMap> entry : interactiveMapsByName.entrySet()) {
+            final String svg = entry.getValue().parse();
+            Future<InteractiveMapPdfRenderer.Rendering> future = null;
+            while (future == null) {
+                try {
+                    future = renderer.submit(svg);
+                } catch (RejectedExecutionException ex) {
+                    if (pending.isEmpty()) {
+                        // the queue is full with the maps of others
+                        throw new EstatioApplicationException(TOO_MANY_MAPS);
+                    }
+                    // the queue is full, wait for the oldest to make room
+                    waitFor(pending.poll());
+                }
+            }
+            names.add(entry.getKey());
+            futures.add(future);
+            pending.add(future);
+        }
+        final List<String> report = Lists.newArrayList();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                final InteractiveMapPdfRenderer.Rendering rendering = get(futures.get(i), names.get(i));
+                report.add(names.get(i) + ";" + (rendering.isCached() ? "cached" : "rendered") + ";" + rendering.getMillis() + " ms");
+            } catch (RuntimeException ex) {
+                report.add(names.get(i) + ";failed;" + ex.getMessage());
+            }
+        }
+        report.add(futures.size() + " maps in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return report;
+    }
+
+    private static void waitFor(final Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new EstatioApplicationException("Rendering interrupted", ex);
+        } catch (ExecutionException ex) {
+            // reported once all are done
+        }
+    }
+
+    private InteractiveMapPdfRenderer.Rendering get(
+            final Future<InteractiveMapPdfRenderer.Rendering> future,
+            final String title) {
+        try {
+            return future.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new EstatioApplicationException("Rendering interrupted", ex);
+        } catch (TimeoutException ex) {
+            throw new EstatioApplicationException("Rendering '" + title + "' takes too long, please try again later");
+        } catch (ExecutionException ex) {
+            throw new RuntimeException("An error occurred while transcoding SVG document '"
+                    + title + "' to PDF", ex.getCause());
+        }
+    }
+
+}
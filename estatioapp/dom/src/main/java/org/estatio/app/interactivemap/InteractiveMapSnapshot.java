@@ -0,0 +1,194 @@
+/*
+ *  Copyright 2015 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.interactivemap;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+
+import org.isisaddons.wicket.svg.cpt.applib.Color;
+import org.isisaddons.wicket.svg.cpt.applib.InteractiveMap;
+import org.isisaddons.wicket.svg.cpt.applib.InteractiveMapAttribute;
+import org.isisaddons.wicket.svg.cpt.applib.InteractiveMapElement;
+import org.joda.time.LocalDate;
+
+/**
+ * The units of a property as shown on its interactive map on a date: for
+ * every unit its link and current lease name and, for every
+ * {@link InteractiveMapForFixedAssetRepresentation representation}, its
+ * colour, computed in a single pass over the units.
+ *
+ * @see InteractiveMapSnapshots
+ */
+public final class InteractiveMapSnapshot {
+
+    private final LocalDate date;
+    private final long dataVersion;
+
+    private final List<String> unitReferences;
+    private final List<String> links;
+    private final List<String> leaseNames;
+    private final Map<InteractiveMapForFixedAssetRepresentation, List<Color>> colors;
+    private final Map<InteractiveMapForFixedAssetRepresentation, List<Color>> legends;
+
+    private InteractiveMapSnapshot(
+            final LocalDate date,
+            final long dataVersion,
+            final List<String> unitReferences,
+            final List<String> links,
+            final List<String> leaseNames,
+            final Map<InteractiveMapForFixedAssetRepresentation, List<Color>> colors,
+            final Map<InteractiveMapForFixedAssetRepresentation, List<Color>> legends) {
+        this.date = date;
+        this.dataVersion = dataVersion;
+        this.unitReferences = unitReferences;
+        this.links = links;
+        this.leaseNames = leaseNames;
+        this.colors = colors;
+        this.legends = legends;
+    }
+
+    /**
+     * @param unitReferences the units of the property, in the order to be drawn
+     * @param links the link of each of the units
+     * @param occupanciesByUnit the occupancies of the units, by unit reference, ordered by start date
+     * @param colorServices the colour service of each representation
+     */
+    public static InteractiveMapSnapshot of(
+            final LocalDate date,
+            final long dataVersion,
+            final List<String> unitReferences,
+            final List<String> links,
+            final ListMultimap<String, InteractiveMapOccupancy> occupanciesByUnit,
+            final Map<InteractiveMapForFixedAssetRepresentation, InteractiveMapForFixedAssetColorService> colorServices) {
+        final List<String> leaseNames = Lists.newArrayListWithCapacity(unitReferences.size());
+        final Map<InteractiveMapForFixedAssetRepresentation, List<Color>> colors = new EnumMap<>(InteractiveMapForFixedAssetRepresentation.class);
+        for (InteractiveMapForFixedAssetRepresentation representation : colorServices.keySet()) {
+            colors.put(representation, Lists.<Color> newArrayListWithCapacity(unitReferences.size()));
+        }
+        for (String unitReference : unitReferences) {
+            final List<InteractiveMapOccupancy> occupancies = occupanciesByUnit.get(unitReference);
+            leaseNames.add(leaseNameOf(occupancies, date));
+            for (Map.Entry<InteractiveMapForFixedAssetRepresentation, InteractiveMapForFixedAssetColorService> entry : colorServices.entrySet()) {
+                colors.get(entry.getKey()).add(entry.getValue().getColor(occupancies, date));
+            }
+        }
+        final Map<InteractiveMapForFixedAssetRepresentation, List<Color>> legends = new EnumMap<>(InteractiveMapForFixedAssetRepresentation.class);
+        for (Map.Entry<InteractiveMapForFixedAssetRepresentation, List<Color>> entry : colors.entrySet()) {
+            Map<Color, Integer> colorMap = new HashMap<>();
+            for (Color color : entry.getValue()) {
+                if (color != null) {
+                    colorMap = ColorMapHelper.addToMap(colorMap, color);
+                }
+            }
+            legends.put(entry.getKey(), Lists.newArrayList(ColorMapHelper.sortByValue(colorMap)));
+        }
+        return new InteractiveMapSnapshot(date, dataVersion, unitReferences, links, leaseNames, colors, legends);
+    }
+
+    /**
+     * The name of the lease of the first occupancy that is current on the
+     * date (exclusive of its start and end date), if any.
+     */
+    static String leaseNameOf(final List<InteractiveMapOccupancy> occupancies, final LocalDate date) {
+        for (InteractiveMapOccupancy occupancy : occupancies) {
+            final LocalDate startDate = occupancy.getStartDate();
+            final LocalDate endDate = occupancy.getEndDate();
+            if ((startDate == null || date.isAfter(startDate)) && (endDate == null || date.isBefore(endDate))) {
+                return occupancy.getLeaseName();
+            }
+        }
+        return null;
+    }
+
+    // //////////////////////////////////////
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public List<String> getUnitReferences() {
+        return Collections.unmodifiableList(unitReferences);
+    }
+
+    public List<String> getLeaseNames() {
+        return Collections.unmodifiableList(leaseNames);
+    }
+
+    /**
+     * The colour of each of the units, <tt>null</tt> for none.
+     */
+    public List<Color> getColors(final InteractiveMapForFixedAssetRepresentation representation) {
+        final List<Color> list = colors.get(representation);
+        return list == null ? Collections.<Color> emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * The colours used, the most used first.
+     */
+    public List<Color> getLegend(final InteractiveMapForFixedAssetRepresentation representation) {
+        final List<Color> list = legends.get(representation);
+        return list == null ? Collections.<Color> emptyList() : Collections.unmodifiableList(list);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * A new map of the SVG, with the units coloured as per the
+     * representation.
+     */
+    public InteractiveMap render(
+            final String svg,
+            final String title,
+            final InteractiveMapForFixedAssetRepresentation representation) {
+        final InteractiveMap interactiveMap = new InteractiveMap(svg);
+        interactiveMap.setTitle(title);
+        final List<Color> unitColors = getColors(representation);
+        for (int i = 0; i < unitReferences.size(); i++) {
+            final String unitReference = unitReferences.get(i);
+
+            // shape
+            InteractiveMapElement element = new InteractiveMapElement(unitReference);
+            final Color color = unitColors.isEmpty() ? null : unitColors.get(i);
+            if (color != null) {
+                element.addAttribute(new InteractiveMapAttribute("fill", color.getColor()));
+                element.addAttribute(new InteractiveMapAttribute("class", color.getLabel()));
+            }
+            final String leaseName = leaseNames.get(i);
+            if (!Strings.isNullOrEmpty(leaseName)) {
+                interactiveMap.getElementTitle2Id().put(leaseName, unitReference);
+            }
+            element.addAttribute(new InteractiveMapAttribute("xlink:href", links.get(i)));
+            interactiveMap.addElement(element);
+        }
+        for (Color color : getLegend(representation)) {
+            interactiveMap.addLegendItem(color);
+        }
+        return interactiveMap;
+    }
+
+}
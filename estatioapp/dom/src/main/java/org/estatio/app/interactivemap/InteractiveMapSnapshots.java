@@ -0,0 +1,265 @@
+/*
+ *  Copyright 2015 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.interactivemap;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.jdo.JDOHelper;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.DomainObjectContainer;
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.clock.ClockService;
+import org.apache.isis.applib.services.linking.DeepLinkService;
+import org.apache.isis.objectstore.jdo.applib.service.support.IsisJdoSupport;
+
+import org.estatio.dom.asset.Property;
+import org.estatio.dom.asset.Unit;
+import org.estatio.dom.asset.Units;
+import org.estatio.dom.document.asset.DocumentForFixedAsset;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.Occupancies;
+import org.estatio.dom.lease.Occupancy;
+import org.estatio.services.xactn.InvalidationListener;
+import org.estatio.services.xactn.TransactionCallbacks;
+
+/**
+ * Caches the {@link InteractiveMapSnapshot snapshot} of each property's
+ * units, and the SVG of each map document.
+ *
+ * <p>
+ * A snapshot is loaded with a query for the units and one for their
+ * occupancies (with the lease details needed), and is reused for as long as
+ * the date and the data version of the property do not change. The data
+ * version is moved on once a transaction storing or deleting an occupancy,
+ * lease or unit of the property has completed.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class InteractiveMapSnapshots {
+
+    private final ConcurrentMap<Object, InteractiveMapSnapshot> snapshots = Maps.newConcurrentMap();
+    private final ConcurrentMap<Object, Svg> svgs = Maps.newConcurrentMap();
+
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final ConcurrentMap<Object, Long> dataVersions = Maps.newConcurrentMap();
+    private volatile long allInvalidatedAt;
+
+    // //////////////////////////////////////
+
+    @Programmatic
+    public InteractiveMapSnapshot snapshotFor(final Property property) {
+        listenForChanges();
+        final Object key = JDOHelper.getObjectId(property);
+        final LocalDate date = clockService.now();
+        // read before loading, so a change meanwhile is not masked
+        final long dataVersion = dataVersionOf(key);
+        final InteractiveMapSnapshot cached = snapshots.get(key);
+        if (cached != null && cached.getDataVersion() == dataVersion && cached.getDate().equals(date)) {
+            return cached;
+        }
+        final InteractiveMapSnapshot snapshot = load(property, date, dataVersion);
+        snapshots.put(key, snapshot);
+        return snapshot;
+    }
+
+    private InteractiveMapSnapshot load(final Property property, final LocalDate date, final long dataVersion) {
+        final List<String> unitReferences = Lists.newArrayList();
+        final List<String> links = Lists.newArrayList();
+        for (Unit unit : units.findByProperty(property)) {
+            unitReferences.add(unit.getReference());
+            links.add(deepLinkService.deepLinkFor(unit).toString());
+        }
+        final ListMultimap<String, InteractiveMapOccupancy> occupanciesByUnit = ArrayListMultimap.create();
+        for (Object[] summary : occupancies.findSummariesByProperty(property)) {
+            occupanciesByUnit.put((String) summary[0], InteractiveMapOccupancy.ofSummary(summary));
+        }
+        final Map<InteractiveMapForFixedAssetRepresentation, InteractiveMapForFixedAssetColorService> colorServices =
+                new EnumMap<>(InteractiveMapForFixedAssetRepresentation.class);
+        for (InteractiveMapForFixedAssetRepresentation representation : InteractiveMapForFixedAssetRepresentation.values()) {
+            final InteractiveMapForFixedAssetColorService colorService = representation.getColorService();
+            container.injectServicesInto(colorService);
+            colorServices.put(representation, colorService);
+        }
+        return InteractiveMapSnapshot.of(date, dataVersion, unitReferences, links, occupanciesByUnit, colorServices);
+    }
+
+    /**
+     * The SVG of the document, decoded once per version of the document.
+     */
+    @Programmatic
+    public String svgFor(final DocumentForFixedAsset document) {
+        final Object key = JDOHelper.getObjectId(document);
+        final Object version = JDOHelper.getVersion(document);
+        final Svg cached = svgs.get(key);
+        if (cached != null && version != null && version.equals(cached.version)) {
+            return cached.svg;
+        }
+        final Svg svg = new Svg(version, new String(document.getFile().getBytes(), Charsets.UTF_8));
+        svgs.put(key, svg);
+        return svg.svg;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Moves on the data version of the property of every occupancy, lease or
+     * unit stored or deleted, once its transaction has completed; any earlier
+     * a concurrent interaction could cache the data as it was before the
+     * commit under the new version.
+     */
+    private final InvalidationListener snapshotInvalidator = new InvalidationListener(
+            Occupancy.class, Lease.class, Unit.class) {
+        @Override
+        protected Runnable workFor(final Object instance) {
+            final Property property = propertyOf(instance);
+            return property == null ? null : new DataVersionBump(JDOHelper.getObjectId(property));
+        }
+    };
+
+    void listenForChanges() {
+        snapshotInvalidator.listenTo(isisJdoSupport.getJdoPersistenceManager());
+    }
+
+    private static Property propertyOf(final Object instance) {
+        if (instance instanceof Occupancy) {
+            final Unit unit = ((Occupancy) instance).getUnit();
+            return unit == null ? null : unit.getProperty();
+        }
+        if (instance instanceof Lease) {
+            return ((Lease) instance).getProperty();
+        }
+        if (instance instanceof Unit) {
+            return ((Unit) instance).getProperty();
+        }
+        return null;
+    }
+
+    private final Runnable invalidateAllWork = new Runnable() {
+        @Override
+        public void run() {
+            allInvalidatedAt = versionCounter.incrementAndGet();
+        }
+    };
+
+    /**
+     * For changes bypassing JDO; moves on the data version right away and
+     * again once the current transaction has completed.
+     */
+    @Programmatic
+    public void invalidate(final Property property) {
+        if (property == null) {
+            invalidateAll();
+            return;
+        }
+        final DataVersionBump bump = new DataVersionBump(JDOHelper.getObjectId(property));
+        bump.run();
+        TransactionCallbacks.afterCompletion(isisJdoSupport.getJdoPersistenceManager(), bump);
+    }
+
+    @Programmatic
+    public void invalidateAll() {
+        invalidateAllWork.run();
+        TransactionCallbacks.afterCompletion(isisJdoSupport.getJdoPersistenceManager(), invalidateAllWork);
+    }
+
+    long dataVersionOf(final Object key) {
+        final Long version = dataVersions.get(key);
+        return Math.max(version == null ? 0 : version, allInvalidatedAt);
+    }
+
+    /**
+     * Equal for the same property, so runs once per transaction.
+     */
+    private final class DataVersionBump implements Runnable {
+
+        private final Object key;
+
+        DataVersionBump(final Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            dataVersions.put(key, versionCounter.incrementAndGet());
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof DataVersionBump && ((DataVersionBump) obj).key.equals(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+
+    @PreDestroy
+    @Programmatic
+    public void preDestroy() {
+        snapshotInvalidator.unregister();
+    }
+
+    // //////////////////////////////////////
+
+    private static final class Svg {
+
+        private final Object version;
+        private final String svg;
+
+        Svg(final Object version, final String svg) {
+            this.version = version;
+            this.svg = svg;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    private Units units;
+
+    @Inject
+    private Occupancies occupancies;
+
+    @Inject
+    private DeepLinkService deepLinkService;
+
+    @Inject
+    private ClockService clockService;
+
+    @Inject
+    private DomainObjectContainer container;
+
+    @Inject
+    private IsisJdoSupport isisJdoSupport;
+
+}
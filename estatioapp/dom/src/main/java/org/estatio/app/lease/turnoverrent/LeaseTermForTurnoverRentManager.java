@@ -39,6 +39,7 @@ import org.isisaddons.module.excel.dom.ExcelService;
 
 import org.estatio.app.EstatioViewModel;
 import org.estatio.dom.asset.Property;
+import org.estatio.dom.lease.ContractualRentCalculator;
 import org.estatio.dom.lease.LeaseItemType;
 import org.estatio.dom.lease.LeaseTerm;
 import org.estatio.dom.lease.LeaseTermForTurnoverRent;
@@ -161,6 +162,12 @@ public class LeaseTermForTurnoverRentManager extends EstatioViewModel {
             leaseTerm.setAuditedTurnover(lineItem.getAuditedTurnover());
             leaseTerm.verify();
         }
+        informUser(String.format(
+                "%d lines uploaded, contractual rent calculated %d times, reused %d times (%d rent item calculations avoided)",
+                lineItems.size(),
+                contractualRentCalculator.getCalculations(),
+                contractualRentCalculator.getReuses(),
+                contractualRentCalculator.getAvoidedInvocations()));
         return this;
     }
 
@@ -177,4 +184,7 @@ public class LeaseTermForTurnoverRentManager extends EstatioViewModel {
     @javax.inject.Inject
     private LeaseTermForTurnoverRentService budgetAuditService;
 
+    @javax.inject.Inject
+    private ContractualRentCalculator contractualRentCalculator;
+
 }
@@ -27,9 +27,6 @@ import javax.jdo.annotations.IdentityType;
 import javax.jdo.annotations.InheritanceStrategy;
 import javax.jdo.annotations.VersionStrategy;
 import com.google.common.base.Objects;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import org.joda.time.LocalDate;
 import org.apache.isis.applib.annotation.Action;
@@ -54,14 +51,12 @@ import org.estatio.dom.Chained;
 import org.estatio.dom.EstatioDomainObject;
 import org.estatio.dom.JdoColumnLength;
 import org.estatio.dom.RegexValidation;
-import org.estatio.dom.WithInterval;
 import org.estatio.dom.WithIntervalMutable;
 import org.estatio.dom.WithNameGetter;
 import org.estatio.dom.WithReferenceComparable;
 import org.estatio.dom.WithReferenceUnique;
 import org.estatio.dom.party.Party;
 import org.estatio.dom.utils.StringUtils;
-import org.estatio.dom.utils.ValueUtils;
 import org.estatio.dom.valuetypes.LocalDateInterval;
 
 @javax.jdo.annotations.PersistenceCapable(identityType = IdentityType.DATASTORE)
@@ -200,31 +195,37 @@ public abstract class Agreement
 
 
     private AgreementRole findCurrentOrMostRecentAgreementRole(final AgreementRoleType agreementRoleType) {
-        // all available roles
-        final Iterable<AgreementRole> rolesOfType =
-                Iterables.filter(getRoles(), AgreementRole.Predicates.whetherTypeIs(agreementRoleType));
-
-        // try to find the one that is current...
-        Iterable<AgreementRole> roles =
-                Iterables.filter(rolesOfType, WithInterval.Predicates.<AgreementRole> whetherCurrentIs(true));
-
-        // ... else the most recently ended one
-        if (Iterables.isEmpty(roles)) {
-            final List<AgreementRole> rolesInList = Lists.newArrayList(rolesOfType);
-            roles = orderRolesByEffectiveEndDateReverseNullsFirst().leastOf(rolesInList, 1);
+        final AgreementRoleIndex index = roleIndex();
+        if (!index.contains(agreementRoleType)) {
+            return null;
         }
-
-        // and return the party
-        final AgreementRole currentOrMostRecentRole = ValueUtils.firstElseNull(roles);
-        return currentOrMostRecentRole;
+        return index.currentOrMostRecent(agreementRoleType, getClockService().now());
     }
 
     protected Party partyOf(final AgreementRole agreementRole) {
         return AgreementRole.Functions.partyOf().apply(agreementRole);
     }
 
-    private static Ordering<AgreementRole> orderRolesByEffectiveEndDateReverseNullsFirst() {
-        return Ordering.natural().onResultOf(AgreementRole.Functions.effectiveEndDateOf()).reverse().nullsFirst();
+    @javax.jdo.annotations.NotPersistent
+    private AgreementRoleIndex roleIndex;
+
+    /**
+     * Built on first use; rebuilt when {@link #invalidateRoleIndex()
+     * invalidated} or when roles have been added or removed meanwhile.
+     */
+    private AgreementRoleIndex roleIndex() {
+        if (roleIndex == null || roleIndex.size() != getRoles().size()) {
+            roleIndex = AgreementRoleIndex.of(getRoles());
+        }
+        return roleIndex;
+    }
+
+    /**
+     * To be called whenever the dates, type or party of a role change.
+     */
+    @Programmatic
+    public void invalidateRoleIndex() {
+        roleIndex = null;
     }
 
     // //////////////////////////////////////
@@ -453,6 +454,7 @@ public abstract class Agreement
         role.setAgreement(this);
 
         persistIfNotAlready(role);
+        invalidateRoleIndex();
 
         return role;
     }
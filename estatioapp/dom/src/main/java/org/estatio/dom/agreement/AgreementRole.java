@@ -77,6 +77,11 @@ import org.estatio.dom.valuetypes.LocalDateInterval;
                 value = "SELECT " +
                         "FROM org.estatio.dom.agreement.AgreementRole "
                         + "WHERE party == :party "),
+        @javax.jdo.annotations.Query(
+                name = "findByParties", language = "JDOQL",
+                value = "SELECT " +
+                        "FROM org.estatio.dom.agreement.AgreementRole "
+                        + "WHERE :parties.contains(party) "),
         @javax.jdo.annotations.Query(
                 name = "findByPartyAndTypeAndContainsDate", language = "JDOQL",
                 value = "SELECT "
@@ -232,6 +237,7 @@ public class AgreementRole
             final @Parameter(optionality = Optionality.OPTIONAL) @ParameterLayout(named = "Start Date") LocalDate startDate,
             final @Parameter(optionality = Optionality.OPTIONAL) @ParameterLayout(named = "End Date") LocalDate endDate) {
         helper.changeDates(startDate, endDate);
+        getAgreement().invalidateRoleIndex();
         return this;
     }
 
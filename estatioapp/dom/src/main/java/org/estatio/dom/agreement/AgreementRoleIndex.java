@@ -0,0 +1,218 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.agreement;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+/**
+ * The {@link AgreementRole role}s of an {@link Agreement}, grouped by
+ * {@link AgreementRoleType type} and sorted by start date, so that the role
+ * of a type that is current on a date can be found with a binary search
+ * rather than by filtering all roles of the agreement.
+ *
+ * <p>
+ * Of several roles of a type current on the same date, the one that started
+ * last wins, as it comes first in {@link Agreement#getRoles()}.
+ *
+ * @see Agreement#getPrimaryParty()
+ * @see Agreement#getSecondaryParty()
+ */
+public final class AgreementRoleIndex {
+
+    private final int size;
+    private final Map<AgreementRoleType, Group> groups;
+
+    private AgreementRoleIndex(final int size, final Map<AgreementRoleType, Group> groups) {
+        this.size = size;
+        this.groups = groups;
+    }
+
+    /**
+     * Builds the index from the roles in the order of
+     * {@link Agreement#getRoles()}.
+     */
+    public static AgreementRoleIndex of(final Collection<AgreementRole> roles) {
+        final Map<AgreementRoleType, List<AgreementRole>> rolesByType = Maps.newHashMap();
+        for (AgreementRole role : roles) {
+            List<AgreementRole> rolesOfType = rolesByType.get(role.getType());
+            if (rolesOfType == null) {
+                rolesOfType = Lists.newArrayList();
+                rolesByType.put(role.getType(), rolesOfType);
+            }
+            rolesOfType.add(role);
+        }
+        final Map<AgreementRoleType, Group> groups = Maps.newHashMap();
+        for (Map.Entry<AgreementRoleType, List<AgreementRole>> entry : rolesByType.entrySet()) {
+            groups.put(entry.getKey(), new Group(entry.getValue()));
+        }
+        return new AgreementRoleIndex(roles.size(), groups);
+    }
+
+    // //////////////////////////////////////
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether there is any role of the type.
+     */
+    public boolean contains(final AgreementRoleType type) {
+        return groups.containsKey(type);
+    }
+
+    /**
+     * The role of the type whose interval contains the date, else the one
+     * that {@link #mostRecent(AgreementRoleType) ended most recently}.
+     */
+    public AgreementRole currentOrMostRecent(final AgreementRoleType type, final LocalDate date) {
+        final AgreementRole current = current(type, date);
+        return current != null ? current : mostRecent(type);
+    }
+
+    /**
+     * The role of the type whose interval contains the date, <tt>null</tt> if
+     * none.
+     */
+    public AgreementRole current(final AgreementRoleType type, final LocalDate date) {
+        final Group group = groups.get(type);
+        if (group == null || date == null) {
+            return null;
+        }
+        // an earlier role may still be current if a later one has ended
+        for (int i = group.lastStartingOnOrBefore(date); i >= 0; i--) {
+            if (group.endDates[i] == null || !group.endDates[i].isBefore(date)) {
+                return group.roles[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The role of the type with the latest
+     * {@link AgreementRole#getEffectiveInterval() effective} end date, a role
+     * without an end date being the most recent; <tt>null</tt> if none.
+     *
+     * <p>
+     * The effective end date is taken at the time of the call, as it depends
+     * on the dates of the agreement.
+     */
+    public AgreementRole mostRecent(final AgreementRoleType type) {
+        final Group group = groups.get(type);
+        if (group == null) {
+            return null;
+        }
+        AgreementRole mostRecent = null;
+        LocalDate mostRecentEndDate = null;
+        boolean mostRecentEffective = false;
+        // from the end, so that ties go to the role first in Agreement#getRoles()
+        for (int i = group.roles.length - 1; i >= 0; i--) {
+            final AgreementRole role = group.roles[i];
+            final LocalDateInterval effectiveInterval = role.getEffectiveInterval();
+            if (effectiveInterval == null) {
+                // never in effect, only if there is nothing else
+                if (mostRecent == null) {
+                    mostRecent = role;
+                }
+                continue;
+            }
+            final LocalDate endDate = effectiveInterval.endDate();
+            if (!mostRecentEffective || isLater(endDate, mostRecentEndDate)) {
+                mostRecent = role;
+                mostRecentEndDate = endDate;
+                mostRecentEffective = true;
+            }
+        }
+        return mostRecent;
+    }
+
+    private static boolean isLater(final LocalDate endDate, final LocalDate otherEndDate) {
+        if (otherEndDate == null) {
+            return false;
+        }
+        return endDate == null || endDate.isAfter(otherEndDate);
+    }
+
+    // //////////////////////////////////////
+
+    private static final class Group {
+
+        private final AgreementRole[] roles;
+        private final LocalDate[] startDates;
+        private final LocalDate[] endDates;
+
+        /**
+         * Sorts by start date, roles without one first; roles starting on
+         * the same date end up in the reverse of the given order.
+         */
+        Group(final List<AgreementRole> rolesOfType) {
+            final List<AgreementRole> sorted = Lists.newArrayList(Lists.reverse(rolesOfType));
+            Collections.sort(sorted, new Comparator<AgreementRole>() {
+                @Override
+                public int compare(final AgreementRole o1, final AgreementRole o2) {
+                    return compareStartDates(o1.getStartDate(), o2.getStartDate());
+                }
+            });
+            roles = sorted.toArray(new AgreementRole[sorted.size()]);
+            startDates = new LocalDate[roles.length];
+            endDates = new LocalDate[roles.length];
+            for (int i = 0; i < roles.length; i++) {
+                startDates[i] = roles[i].getStartDate();
+                endDates[i] = roles[i].getEndDate();
+            }
+        }
+
+        /**
+         * The index of the last role starting on or before the date, -1 if
+         * none.
+         */
+        int lastStartingOnOrBefore(final LocalDate date) {
+            int low = 0;
+            int high = startDates.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                if (compareStartDates(startDates[mid], date) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+
+        private static int compareStartDates(final LocalDate startDate, final LocalDate otherStartDate) {
+            if (startDate == null) {
+                return otherStartDate == null ? 0 : -1;
+            }
+            return otherStartDate == null ? 1 : startDate.compareTo(otherStartDate);
+        }
+    }
+
+}
@@ -19,6 +19,10 @@
 package org.estatio.dom.agreement;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.annotation.PreDestroy;
+import javax.jdo.JDOHelper;
 
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.Hidden;
@@ -26,6 +30,9 @@ import org.apache.isis.applib.annotation.NotContributed;
 import org.apache.isis.applib.annotation.Programmatic;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.services.xactn.InvalidationListener;
+import org.estatio.services.xactn.SharedCache;
+import org.estatio.services.xactn.TransactionCallbacks;
 
 @DomainService(menuOrder = "25", repositoryFor = AgreementRoleType.class)
 @Hidden
@@ -37,9 +44,22 @@ public class AgreementRoleTypes extends UdoDomainRepositoryAndFactory<AgreementR
 
     // //////////////////////////////////////
 
+    /**
+     * Role types are reference data, looked up many times per interaction
+     * (for the primary and secondary party of every agreement), hence the
+     * identity of the role type with a title is shared by all interactions
+     * and only resolved through the persistence manager of each.
+     */
     @NotContributed
     public AgreementRoleType findByTitle(final String title) {
-        return firstMatch("findByTitle", "title", title);
+        listenForChanges();
+        final Object id = idByTitle.get(title, new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return JDOHelper.getObjectId(firstMatch("findByTitle", "title", title));
+            }
+        });
+        return id == null ? null : (AgreementRoleType) getIsisJdoSupport().getJdoPersistenceManager().getObjectById(id);
     }
 
     @NotContributed
@@ -64,4 +84,47 @@ public class AgreementRoleTypes extends UdoDomainRepositoryAndFactory<AgreementR
         return agreementRoleType;
     }
 
+    // //////////////////////////////////////
+
+    private final SharedCache<String, Object> idByTitle = new SharedCache<String, Object>();
+
+    private final Runnable dropIdsWork = new Runnable() {
+        @Override
+        public void run() {
+            dropIds();
+        }
+    };
+
+    private final InvalidationListener idInvalidator = new InvalidationListener(
+            dropIdsWork, AgreementRoleType.class);
+
+    /**
+     * Registers for the changes of role types on first use, so that any
+     * change committed from then on drops the identities.
+     */
+    void listenForChanges() {
+        idInvalidator.listenTo(getIsisJdoSupport().getJdoPersistenceManager());
+    }
+
+    /**
+     * Drops the identities, now and once the transaction completes; to be
+     * called when role types have been changed bypassing JDO.
+     */
+    @Programmatic
+    public void invalidateIds() {
+        dropIdsWork.run();
+        TransactionCallbacks.afterCompletion(getIsisJdoSupport().getJdoPersistenceManager(), dropIdsWork);
+    }
+
+    void dropIds() {
+        idByTitle.invalidateAll();
+    }
+
+    @Programmatic
+    @PreDestroy
+    public void shutdown() {
+        idInvalidator.unregister();
+        super.shutdown();
+    }
+
 }
@@ -66,6 +66,7 @@ public class AgreementRoles extends UdoDomainRepositoryAndFactory<AgreementRole>
                                      // impl.
         agreementRole.setParty(party);
         agreementRole.setAgreement(agreement);
+        agreement.invalidateRoleIndex();
         return agreementRole;
     }
 
@@ -114,6 +115,13 @@ public class AgreementRoles extends UdoDomainRepositoryAndFactory<AgreementRole>
                 "party", party);
     }
 
+    @Programmatic
+    public List<AgreementRole> findByParties(final List<Party> parties) {
+        return allMatches(
+                "findByParties",
+                "parties", parties);
+    }
+
     // //////////////////////////////////////
 
     @Programmatic
@@ -162,6 +170,7 @@ public class AgreementRoles extends UdoDomainRepositoryAndFactory<AgreementRole>
             agreementRoles = (List<AgreementRole>) scratchpad.get(onPartyRemoveScratchpadKey);
             for (AgreementRole agreementRole : agreementRoles) {
                 agreementRole.setParty(replacementParty);
+                agreementRole.getAgreement().invalidateRoleIndex();
             }
             break;
         default:
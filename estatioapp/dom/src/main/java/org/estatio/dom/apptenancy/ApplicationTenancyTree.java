@@ -0,0 +1,239 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.apptenancy;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+
+import org.estatio.dom.valuetypes.ApplicationTenancyLevel;
+
+/**
+ * Trie of the paths of {@link ApplicationTenancy tenancies}, keyed by the
+ * segments of their {@link ApplicationTenancyLevel path}, so that looking up a
+ * tenancy, its parent or its children takes as many steps as the path is deep
+ * rather than a pass over all tenancies.
+ *
+ * <p>
+ * Only paths are held, not the tenancies themselves, so that the tree can be
+ * shared by all interactions. Lists are returned in the order the tenancies
+ * were given in, as filtering that list would.
+ *
+ * @see EstatioApplicationTenancies
+ */
+public final class ApplicationTenancyTree {
+
+    private final Node root = new Node(null);
+    private int size;
+
+    public static ApplicationTenancyTree of(final Iterable<ApplicationTenancy> tenancies) {
+        final ApplicationTenancyTree tree = new ApplicationTenancyTree();
+        for (ApplicationTenancy tenancy : tenancies) {
+            tree.add(tenancy.getPath());
+        }
+        return tree;
+    }
+
+    private ApplicationTenancyTree() {
+    }
+
+    private void add(final String path) {
+        Node node = root;
+        for (String part : ApplicationTenancyLevel.of(path).getParts()) {
+            Node child = node.children.get(part);
+            if (child == null) {
+                // intermediate levels need not exist as a tenancy
+                child = new Node(node);
+                node.children.put(part, child);
+            }
+            node = child;
+        }
+        if (node.path == null) {
+            node.path = path;
+            node.ordinal = size++;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether there is a tenancy with exactly the given path.
+     */
+    public boolean contains(final String path) {
+        final Node node = nodeFor(path);
+        return node != null && node.path != null;
+    }
+
+    /**
+     * The path of the nearest tenancy above the given path, <tt>null</tt> if
+     * none.
+     */
+    public String parentOf(final String path) {
+        Node node = nodeFor(path);
+        if (node == null) {
+            return null;
+        }
+        for (node = node.parent; node != null; node = node.parent) {
+            if (node.path != null) {
+                return node.path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The paths of the nearest tenancies below the given path.
+     */
+    public List<String> childrenOf(final String path) {
+        final List<Node> nodes = Lists.newArrayList();
+        final Node node = nodeFor(path);
+        if (node != null) {
+            for (Node child : node.children.values()) {
+                collect(child, true, nodes);
+            }
+        }
+        return pathsOf(nodes);
+    }
+
+    /**
+     * The given path, if a tenancy, and the paths of all tenancies below it.
+     */
+    public List<String> selfOrDescendantsOf(final String path) {
+        final List<Node> nodes = Lists.newArrayList();
+        final Node node = nodeFor(path);
+        if (node != null) {
+            collect(node, false, nodes);
+        }
+        return pathsOf(nodes);
+    }
+
+    /**
+     * As {@link #selfOrDescendantsOf(String)}, but only those paths that have
+     * the given number of segments (0 being the root).
+     */
+    public List<String> selfOrDescendantsOf(final String path, final int depth) {
+        final List<Node> nodes = Lists.newArrayList();
+        final Node node = nodeFor(path);
+        if (node != null) {
+            final int remaining = depth - ApplicationTenancyLevel.of(path).getParts().size();
+            if (remaining >= 0) {
+                collectAtDepth(node, remaining, nodes);
+            }
+        }
+        return pathsOf(nodes);
+    }
+
+    /**
+     * The paths of all tenancies below the given path, excluding the path
+     * itself.
+     */
+    public List<String> descendantsOf(final String path) {
+        final List<Node> nodes = Lists.newArrayList();
+        final Node node = nodeFor(path);
+        if (node != null) {
+            for (Node child : node.children.values()) {
+                collect(child, false, nodes);
+            }
+        }
+        return pathsOf(nodes);
+    }
+
+    // //////////////////////////////////////
+
+    private Node nodeFor(final String path) {
+        if (path == null) {
+            return null;
+        }
+        Node node = root;
+        for (String part : ApplicationTenancyLevel.of(path).getParts()) {
+            node = node.children.get(part);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Collects the tenancies of the node and below; if <tt>nearestOnly</tt>
+     * it stops descending at the first tenancy found on each branch.
+     */
+    private static void collect(final Node node, final boolean nearestOnly, final List<Node> nodes) {
+        if (node.path != null) {
+            nodes.add(node);
+            if (nearestOnly) {
+                return;
+            }
+        }
+        for (Node child : node.children.values()) {
+            collect(child, nearestOnly, nodes);
+        }
+    }
+
+    private static void collectAtDepth(final Node node, final int remaining, final List<Node> nodes) {
+        if (remaining == 0) {
+            if (node.path != null) {
+                nodes.add(node);
+            }
+            return;
+        }
+        for (Node child : node.children.values()) {
+            collectAtDepth(child, remaining - 1, nodes);
+        }
+    }
+
+    private static List<String> pathsOf(final List<Node> nodes) {
+        Collections.sort(nodes, new Comparator<Node>() {
+            @Override
+            public int compare(final Node o1, final Node o2) {
+                return Integer.compare(o1.ordinal, o2.ordinal);
+            }
+        });
+        final List<String> paths = Lists.newArrayListWithCapacity(nodes.size());
+        for (Node node : nodes) {
+            paths.add(node.path);
+        }
+        return paths;
+    }
+
+    // //////////////////////////////////////
+
+    private static final class Node {
+
+        private final Node parent;
+        private final Map<String, Node> children = Maps.newLinkedHashMap();
+        private String path;
+        private int ordinal;
+
+        Node(final Node parent) {
+            this.parent = parent;
+        }
+    }
+
+}
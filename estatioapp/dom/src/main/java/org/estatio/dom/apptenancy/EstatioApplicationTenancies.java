@@ -1,12 +1,21 @@
 package org.estatio.dom.apptenancy;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.Subscribe;
 
 import org.isisaddons.module.security.app.user.MeService;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancies;
@@ -15,11 +24,17 @@ import org.isisaddons.module.security.dom.user.ApplicationUser;
 
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.eventbus.EventBusService;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+import org.apache.isis.applib.services.queryresultscache.QueryResultsCache;
 
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.geography.Country;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.valuetypes.ApplicationTenancyLevel;
+import org.estatio.services.xactn.InvalidationListener;
+import org.estatio.services.xactn.SharedCache;
+import org.estatio.services.xactn.TransactionCallbacks;
 
 @DomainService
 public class EstatioApplicationTenancies {
@@ -29,33 +44,59 @@ public class EstatioApplicationTenancies {
         return applicationTenancies.allTenancies();
     }
 
+    /**
+     * The tenancy with the given path, queried once per interaction.
+     *
+     * <p>
+     * A tenancy that was not found is looked for again, as it may have been
+     * created since, for example by one of the <tt>findOrCreate</tt> methods.
+     */
+    @Programmatic
+    public ApplicationTenancy findTenancyByPath(final String path) {
+        final ApplicationTenancy tenancy = queryResultsCache.execute(
+                new Callable<ApplicationTenancy>() {
+                    @Override
+                    public ApplicationTenancy call() throws Exception {
+                        return applicationTenancies.findTenancyByPath(path);
+                    }
+                },
+                EstatioApplicationTenancies.class, "findTenancyByPath", path);
+        return tenancy != null ? tenancy : applicationTenancies.findTenancyByPath(path);
+    }
+
     @Programmatic
     public List<ApplicationTenancy> allCountryTenancies() {
-        return Lists.newArrayList(Iterables.filter(allTenancies(), Predicates.isCountry()));
+        return tenanciesFor(Iterables.filter(
+                tree().selfOrDescendantsOf("/", 1), PathPredicates.isCountry()));
     }
 
     @Programmatic
     public List<ApplicationTenancy> propertyTenanciesFor(final Country country) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isPropertyOf(country)));
+        final String countryPath = "/" + country.getAlpha2Code().toLowerCase();
+        return tenanciesFor(Iterables.filter(
+                tree().selfOrDescendantsOf(countryPath, 2), PathPredicates.isProperty()));
     }
 
     @Programmatic
     public List<ApplicationTenancy> selfOrChildrenOf(final ApplicationTenancy tenancy) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isSelfOrChildOf(tenancy)));
+        return tenanciesFor(tree().selfOrDescendantsOf(tenancy.getPath()));
     }
 
     @Programmatic
     public List<ApplicationTenancy> countryTenanciesFor(final ApplicationTenancy tenancy) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isCountryTenancyFor(tenancy)));
+        return tenanciesFor(Iterables.filter(
+                tree().selfOrDescendantsOf(tenancy.getPath(), 1), PathPredicates.isCountry()));
     }
 
     @Programmatic
     public List<ApplicationTenancy> globalOrCountryTenanciesFor(final ApplicationTenancy tenancy) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isGlobalOrCountryTenancyFor(tenancy)));
+        final List<String> paths = Lists.newArrayList();
+        if (tree().contains("/")) {
+            paths.add("/");
+        }
+        Iterables.addAll(paths, Iterables.filter(
+                tree().selfOrDescendantsOf(tenancy.getPath(), 1), PathPredicates.isCountry()));
+        return tenanciesFor(paths);
     }
 
     @Programmatic
@@ -72,8 +113,8 @@ public class EstatioApplicationTenancies {
 
     @Programmatic
     public List<ApplicationTenancy> propertyTenanciesUnder(final ApplicationTenancy tenancy) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isPropertyTenancyUnder(tenancy)));
+        return tenanciesFor(Iterables.filter(
+                tree().selfOrDescendantsOf(tenancy.getPath(), 2), PathPredicates.isProperty()));
     }
 
     @Programmatic
@@ -88,15 +129,13 @@ public class EstatioApplicationTenancies {
     public ApplicationTenancy findOrCreateCountryTenancy(final Country country) {
 
         final String countryPath = String.format("/%s", country.getReference());
-
-        for (final ApplicationTenancy countryTenancy : allCountryTenancies()) {
-            if (countryTenancy.getPath().equals(countryPath)) {
-                return countryTenancy;
-            }
+        final ApplicationTenancy countryTenancy = findTenancyByPath(countryPath);
+        if (countryTenancy != null) {
+            return countryTenancy;
         }
 
-        final ApplicationTenancy rootTenancy = applicationTenancies.findTenancyByPath("/");
-        return applicationTenancies.newTenancy(country.getName(), countryPath, rootTenancy);
+        final ApplicationTenancy rootTenancy = findTenancyByPath("/");
+        return newTenancy(country.getName(), countryPath, rootTenancy);
     }
 
     @Programmatic
@@ -119,17 +158,15 @@ public class EstatioApplicationTenancies {
         }
 
         final ApplicationTenancyLevel propertyAppTenancyLevel = countryAppTenancyLevel.child(propertyReference);
-        final ApplicationTenancy propertyApplicationTenancy = applicationTenancies.findTenancyByPath(propertyAppTenancyLevel.getPath());
+        final ApplicationTenancy propertyApplicationTenancy = findTenancyByPath(propertyAppTenancyLevel.getPath());
         if (propertyApplicationTenancy != null) {
             return propertyApplicationTenancy;
         }
 
         final String tenancyName = String.format("%s (%s)", propertyReference, countryApplicationTenancy.getName());
-        return applicationTenancies.newTenancy(tenancyName, propertyAppTenancyLevel.getPath(), countryApplicationTenancy);
+        return newTenancy(tenancyName, propertyAppTenancyLevel.getPath(), countryApplicationTenancy);
     }
 
-
-
     @Programmatic
     public ApplicationTenancy findOrCreateLocalDefaultTenancy(final ApplicationTenancy propertyTenancy) {
         return findOrCreateLocalNamedTenancy(propertyTenancy, "_", "Default");
@@ -145,21 +182,165 @@ public class EstatioApplicationTenancies {
         ApplicationTenancyLevel propertyLevel = ApplicationTenancyLevel.of(propertyTenancy);
 
         ApplicationTenancyLevel localDefaultLevel = propertyLevel.child(child);
-        ApplicationTenancy childTenancy = applicationTenancies.findTenancyByPath(localDefaultLevel.getPath());
+        ApplicationTenancy childTenancy = findTenancyByPath(localDefaultLevel.getPath());
         if (childTenancy == null) {
-            childTenancy = applicationTenancies.newTenancy(propertyTenancy.getName() + " " + suffix, localDefaultLevel.getPath(), propertyTenancy);
+            childTenancy = newTenancy(propertyTenancy.getName() + " " + suffix, localDefaultLevel.getPath(), propertyTenancy);
         }
         return childTenancy;
     }
 
     @Programmatic
     public List<ApplicationTenancy> localTenanciesFor(final Property property) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isLocalOf(property)));
+        return tenanciesFor(tree().descendantsOf(property.getApplicationTenancyPath()));
+    }
+
+    private ApplicationTenancy newTenancy(final String name, final String path, final ApplicationTenancy parent) {
+        final ApplicationTenancy tenancy = applicationTenancies.newTenancy(name, path, parent);
+        invalidateTree();
+        return tenancy;
+    }
+
+    // //////////////////////////////////////
+
+    private static final String TREE = "tree";
+
+    private final SharedCache<String, ApplicationTenancyTree> trees = new SharedCache<String, ApplicationTenancyTree>();
+
+    private final Runnable dropTreeWork = new Runnable() {
+        @Override
+        public void run() {
+            dropTree();
+        }
+    };
+
+    private final InvalidationListener treeInvalidator = new InvalidationListener(
+            dropTreeWork, ApplicationTenancy.class);
+
+    /**
+     * The paths of all tenancies, arranged as a tree.
+     *
+     * <p>
+     * As the tree holds paths only, it is shared by all interactions and
+     * built again only once a tenancy has been created, changed or removed,
+     * after the transaction doing so completes.
+     */
+    @Programmatic
+    public ApplicationTenancyTree tree() {
+        listenForChanges();
+        return trees.get(TREE, new Callable<ApplicationTenancyTree>() {
+            @Override
+            public ApplicationTenancyTree call() throws Exception {
+                return ApplicationTenancyTree.of(allTenancies());
+            }
+        });
+    }
+
+    /**
+     * Registers for the changes of tenancies on first use, so that any change
+     * committed from then on drops the tree.
+     */
+    void listenForChanges() {
+        treeInvalidator.listenTo(isisJdoSupport.getJdoPersistenceManager());
+    }
+
+    /**
+     * Drops the tree, now and once the transaction completes; to be called
+     * when tenancies have been changed bypassing JDO.
+     */
+    @Programmatic
+    public void invalidateTree() {
+        dropTreeWork.run();
+        TransactionCallbacks.afterCompletion(isisJdoSupport.getJdoPersistenceManager(), dropTreeWork);
+    }
+
+    void dropTree() {
+        trees.invalidateAll();
+    }
+
+    @Subscribe
+    @Programmatic
+    public void on(final ApplicationTenancy.ActionDomainEvent ev) {
+        switch (ev.getPhase()) {
+        case EXECUTED:
+            invalidateTree();
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * The tenancies with the given paths, in the order of the paths, queried
+     * at once; paths of tenancies removed meanwhile are skipped.
+     */
+    private List<ApplicationTenancy> tenanciesFor(final Iterable<String> paths) {
+        final List<String> pathList = Lists.newArrayList(paths);
+        if (pathList.isEmpty()) {
+            return Lists.newArrayList();
+        }
+        final Map<String, ApplicationTenancy> tenancyByPath = Maps.newHashMap();
+        for (ApplicationTenancy tenancy : findTenanciesByPaths(pathList)) {
+            tenancyByPath.put(tenancy.getPath(), tenancy);
+        }
+        final List<ApplicationTenancy> tenancies = Lists.newArrayListWithCapacity(pathList.size());
+        for (String path : pathList) {
+            final ApplicationTenancy tenancy = tenancyByPath.get(path);
+            if (tenancy != null) {
+                tenancies.add(tenancy);
+            }
+        }
+        return tenancies;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<ApplicationTenancy> findTenanciesByPaths(final Collection<String> paths) {
+        final PersistenceManager persistenceManager = isisJdoSupport.getJdoPersistenceManager();
+        final Query query = persistenceManager.newQuery(ApplicationTenancy.class, ":paths.contains(path)");
+        try {
+            return Lists.newArrayList((Collection<ApplicationTenancy>) query.execute(paths));
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    @Programmatic
+    @PostConstruct
+    public void postConstruct() {
+        eventBusService.register(this);
+    }
+
+    @Programmatic
+    @PreDestroy
+    public void preDestroy() {
+        eventBusService.unregister(this);
+        treeInvalidator.unregister();
     }
 
     // //////////////////////////////////////
 
+    static class PathPredicates {
+        private PathPredicates() {
+        }
+
+        static Predicate<String> isCountry() {
+            return new Predicate<String>() {
+                @Override
+                public boolean apply(final String candidate) {
+                    return ApplicationTenancyLevel.of(candidate).isCountry();
+                }
+            };
+        }
+
+        static Predicate<String> isProperty() {
+            return new Predicate<String>() {
+                @Override
+                public boolean apply(final String candidate) {
+                    return ApplicationTenancyLevel.of(candidate).isProperty();
+                }
+            };
+        }
+    }
+
     public static class Predicates {
         private Predicates() {
         }
@@ -264,4 +445,13 @@ public class EstatioApplicationTenancies {
     @Inject
     private MeService meService;
 
+    @Inject
+    QueryResultsCache queryResultsCache;
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+    @Inject
+    EventBusService eventBusService;
+
 }
@@ -19,6 +19,7 @@
 package org.estatio.dom.asset;
 
 import java.util.List;
+import javax.inject.Inject;
 
 import org.apache.isis.applib.annotation.CollectionLayout;
 import org.apache.isis.applib.annotation.DomainService;
@@ -28,6 +29,7 @@ import org.apache.isis.applib.annotation.Where;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.utils.StringUtils;
+import org.estatio.services.search.SearchIndexService;
 
 @DomainService(repositoryFor = FixedAsset.class)
 @DomainServiceLayout(menuOrder = "10")
@@ -42,6 +44,10 @@ public class FixedAssets extends UdoDomainRepositoryAndFactory<FixedAsset> {
 
     @CollectionLayout(hidden = Where.EVERYWHERE)
     public List<FixedAsset> matchAssetsByReferenceOrName(final String searchPhrase) {
+        final List<FixedAsset> fixedAssets = searchIndexService.search(FixedAsset.class, searchPhrase, "reference", "name");
+        if (fixedAssets != null) {
+            return fixedAssets;
+        }
         return allMatches("matchByReferenceOrName",
                 "regex", StringUtils.wildcardToCaseInsensitiveRegex(searchPhrase));
     }
@@ -53,4 +59,7 @@ public class FixedAssets extends UdoDomainRepositoryAndFactory<FixedAsset> {
         return matchAssetsByReferenceOrName("*".concat(searchPhrase).concat("*"));
     }
 
+    @Inject
+    SearchIndexService searchIndexService;
+
 }
@@ -49,6 +49,7 @@ import org.estatio.dom.apptenancy.EstatioApplicationTenancies;
 import org.estatio.dom.geography.Countries;
 import org.estatio.dom.geography.Country;
 import org.estatio.dom.utils.StringUtils;
+import org.estatio.services.search.SearchIndexService;
 
 @DomainService(repositoryFor = Property.class)
 @DomainServiceLayout(
@@ -127,6 +128,10 @@ public class Properties extends UdoDomainRepositoryAndFactory<Property> {
     @MemberOrder(sequence = "2")
     public List<Property> findProperties(
             @ParameterLayout(named = "Reference or Name") final String referenceOrName) {
+        final List<Property> properties = searchIndexService.search(Property.class, referenceOrName, "reference", "name");
+        if (properties != null) {
+            return properties;
+        }
         return allMatches("findByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName));
     }
@@ -150,6 +155,11 @@ public class Properties extends UdoDomainRepositoryAndFactory<Property> {
         return firstMatch("findByReference", "reference", reference);
     }
 
+    @Programmatic
+    public List<Property> findPropertiesByCountry(final Country country) {
+        return allMatches("findByCountry", "country", country);
+    }
+
     // //////////////////////////////////////
 
     @CollectionLayout(hidden = Where.EVERYWHERE)
@@ -165,5 +175,7 @@ public class Properties extends UdoDomainRepositoryAndFactory<Property> {
     @Inject
     Countries countries;
 
+    @Inject
+    SearchIndexService searchIndexService;
 
 }
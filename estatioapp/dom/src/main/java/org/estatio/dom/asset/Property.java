@@ -64,7 +64,13 @@ import org.estatio.dom.party.Party;
                 name = "findByReference", language = "JDOQL",
                 value = "SELECT "
                         + "FROM org.estatio.dom.asset.Property "
-                        + "WHERE reference == :reference")
+                        + "WHERE reference == :reference"),
+        @javax.jdo.annotations.Query(
+                name = "findByCountry", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.asset.Property "
+                        + "WHERE country == :country "
+                        + "ORDER BY reference")
 })
 @DomainObject(autoCompleteRepository = Properties.class)
 @DomainObjectLayout(bookmarking = BookmarkPolicy.AS_ROOT)
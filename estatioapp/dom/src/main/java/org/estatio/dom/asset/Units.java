@@ -22,6 +22,8 @@ import java.util.List;
 
 import javax.inject.Inject;
 
+import com.google.common.collect.Lists;
+
 import org.joda.time.LocalDate;
 
 import org.apache.isis.applib.annotation.Action;
@@ -40,6 +42,7 @@ import org.estatio.dom.RegexValidation;
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.utils.StringUtils;
 import org.estatio.dom.valuetypes.LocalDateInterval;
+import org.estatio.services.search.SearchIndexService;
 
 @DomainService(repositoryFor = Unit.class)
 @DomainServiceLayout(
@@ -84,12 +87,26 @@ public class Units extends UdoDomainRepositoryAndFactory<Unit> {
     public List<Unit> findUnits(
             final @ParameterLayout(named = "Reference or Name", describedAs = "May include wildcards '*' and '?'") String referenceOrName,
             final @ParameterLayout(named = "Include terminated") boolean includeTerminated) {
+        final List<Unit> units = searchIndexService.search(Unit.class, referenceOrName, "reference", "name");
+        if (units != null) {
+            return includeTerminated ? units : notTerminatedOn(units, clockService.now());
+        }
         return allMatches("findByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName),
                 "includeTerminated", includeTerminated,
                 "date", clockService.now());
     }
 
+    private static List<Unit> notTerminatedOn(final List<Unit> units, final LocalDate date) {
+        final List<Unit> notTerminated = Lists.newArrayList();
+        for (Unit unit : units) {
+            if (unit.getEndDate() == null || !unit.getEndDate().isBefore(date)) {
+                notTerminated.add(unit);
+            }
+        }
+        return notTerminated;
+    }
+
     @Action(semantics = SemanticsOf.SAFE, hidden = Where.EVERYWHERE)
     public Unit findUnitByReference(final String reference) {
         return firstMatch("findByReference", "reference", reference);
@@ -130,4 +147,7 @@ public class Units extends UdoDomainRepositoryAndFactory<Unit> {
         return allInstances();
     }
 
+    @Inject
+    SearchIndexService searchIndexService;
+
 }
@@ -17,11 +17,13 @@
 package org.estatio.dom.document;
 
 import java.util.List;
+import javax.inject.Inject;
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.DomainServiceLayout;
 import org.apache.isis.applib.annotation.MemberOrder;
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.utils.StringUtils;
+import org.estatio.services.search.SearchIndexService;
 
 @DomainService()
 @DomainServiceLayout(named = "Other", menuBar = DomainServiceLayout.MenuBar.PRIMARY, menuOrder = "80.10")
@@ -46,7 +48,14 @@ public class Documents extends UdoDomainRepositoryAndFactory<Document> {
     }
 
     public List<Document> findByName(final String pattern) {
+        final List<Document> documents = searchIndexService.search(Document.class, pattern, "name");
+        if (documents != null) {
+            return documents;
+        }
         return allMatches("findByName", "pattern", StringUtils.wildcardToCaseInsensitiveRegex(pattern));
     }
 
+    @Inject
+    SearchIndexService searchIndexService;
+
 }
@@ -19,24 +19,29 @@
 package org.estatio.dom.financial;
 
 import java.math.BigDecimal;
+import java.util.List;
 import javax.inject.Inject;
 import javax.jdo.annotations.DiscriminatorStrategy;
 import javax.jdo.annotations.IdGeneratorStrategy;
 import javax.jdo.annotations.IdentityType;
 import javax.jdo.annotations.InheritanceStrategy;
 import javax.jdo.annotations.VersionStrategy;
+import com.google.common.base.Joiner;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.joda.time.LocalDate;
+import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.DomainObject;
 import org.apache.isis.applib.annotation.Editing;
 import org.apache.isis.applib.annotation.Optionality;
 import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.annotation.PropertyLayout;
 import org.apache.isis.applib.annotation.Property;
+import org.apache.isis.applib.annotation.SemanticsOf;
 import org.apache.isis.applib.annotation.Title;
 import org.apache.isis.applib.annotation.Where;
 import org.estatio.dom.EstatioDomainObject;
 import org.estatio.dom.JdoColumnLength;
+import org.estatio.dom.JdoColumnScale;
 import org.estatio.dom.RegexValidation;
 import org.estatio.dom.WithNameGetter;
 import org.estatio.dom.WithReferenceUnique;
@@ -166,9 +171,48 @@ public class FinancialAccount
 
     // //////////////////////////////////////
 
+    private BigDecimal runningBalance;
+
+    /**
+     * The sum of all transactions, maintained by
+     * {@link FinancialAccountBalances} as transactions are made; <tt>null</tt>
+     * until the first one since.
+     */
+    @javax.jdo.annotations.Column(allowsNull = "true", scale = JdoColumnScale.MONEY)
+    @Property(hidden = Where.EVERYWHERE)
+    public BigDecimal getRunningBalance() {
+        return runningBalance;
+    }
+
+    public void setRunningBalance(final BigDecimal runningBalance) {
+        this.runningBalance = runningBalance;
+    }
+
     @Programmatic
     public BigDecimal getBalance() {
-        return financialAccountTransactions.balance(this);
+        return getRunningBalance() != null
+                ? getRunningBalance()
+                : financialAccountTransactions.sumOfAmounts(this, null, null);
+    }
+
+    @Programmatic
+    public BigDecimal balanceAsOf(final LocalDate date) {
+        return financialAccountBalances.balanceAsOf(this, date);
+    }
+
+    /**
+     * Recalculates the balance, and those at the start of each year, from the
+     * transactions and reports any difference.
+     */
+    @Action(semantics = SemanticsOf.IDEMPOTENT)
+    public FinancialAccount reconcileBalance() {
+        final List<String> drifts = financialAccountBalances.reconcile(this);
+        if (drifts.isEmpty()) {
+            informUser("Balance is in line with the transactions");
+        } else {
+            warnUser(Joiner.on("; ").join(drifts));
+        }
+        return this;
     }
 
     // //////////////////////////////////////
@@ -185,4 +229,7 @@ public class FinancialAccount
 
     @Inject
     private FinancialAccountTransactions financialAccountTransactions;
+
+    @Inject
+    private FinancialAccountBalances financialAccountBalances;
 }
@@ -0,0 +1,144 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.financial;
+
+import java.math.BigDecimal;
+
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+import javax.jdo.annotations.VersionStrategy;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Editing;
+import org.apache.isis.applib.annotation.PropertyLayout;
+import org.apache.isis.applib.annotation.Title;
+
+import org.estatio.dom.EstatioDomainObject;
+import org.estatio.dom.JdoColumnScale;
+import org.estatio.dom.apptenancy.WithApplicationTenancyCountry;
+
+/**
+ * The balance of a {@link FinancialAccount} at the start of a
+ * {@link FinancialAccountBalances#checkpointDateFor(LocalDate) period}, being
+ * the sum of all transactions dated before it.
+ */
+@javax.jdo.annotations.PersistenceCapable(identityType = IdentityType.DATASTORE)
+@javax.jdo.annotations.DatastoreIdentity(
+        strategy = IdGeneratorStrategy.NATIVE,
+        column = "id")
+@javax.jdo.annotations.Version(
+        strategy = VersionStrategy.VERSION_NUMBER,
+        column = "version")
+@javax.jdo.annotations.Uniques({
+        @javax.jdo.annotations.Unique(
+                name = "FinancialAccountBalanceCheckpoint_financialAccount_date_UNQ",
+                members = { "financialAccount", "date" })
+})
+@javax.jdo.annotations.Queries({
+        @javax.jdo.annotations.Query(
+                name = "findByFinancialAccount", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.financial.FinancialAccountBalanceCheckpoint "
+                        + "WHERE financialAccount == :financialAccount "
+                        + "ORDER BY date"),
+        @javax.jdo.annotations.Query(
+                name = "findByFinancialAccountAndDate", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.financial.FinancialAccountBalanceCheckpoint "
+                        + "WHERE financialAccount == :financialAccount "
+                        + "&& date == :date"),
+        @javax.jdo.annotations.Query(
+                name = "findByFinancialAccountAndDateOnOrBefore", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.financial.FinancialAccountBalanceCheckpoint "
+                        + "WHERE financialAccount == :financialAccount "
+                        + "&& date <= :date "
+                        + "ORDER BY date DESC"),
+        @javax.jdo.annotations.Query(
+                name = "findByFinancialAccountAndDateAfter", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.financial.FinancialAccountBalanceCheckpoint "
+                        + "WHERE financialAccount == :financialAccount "
+                        + "&& date > :date")
+})
+@DomainObject(editing = Editing.DISABLED)
+public class FinancialAccountBalanceCheckpoint
+        extends EstatioDomainObject<FinancialAccountBalanceCheckpoint>
+        implements WithApplicationTenancyCountry {
+
+    public FinancialAccountBalanceCheckpoint() {
+        super("financialAccount, date");
+    }
+
+    // //////////////////////////////////////
+
+    @PropertyLayout(
+            named = "Application Level",
+            describedAs = "Determines those users for whom this object is available to view and/or modify."
+    )
+    public ApplicationTenancy getApplicationTenancy() {
+        return getFinancialAccount().getApplicationTenancy();
+    }
+
+    // //////////////////////////////////////
+
+    private FinancialAccount financialAccount;
+
+    @javax.jdo.annotations.Column(name = "financialAccountId", allowsNull = "false")
+    @Title(sequence = "1", append = ", ")
+    public FinancialAccount getFinancialAccount() {
+        return financialAccount;
+    }
+
+    public void setFinancialAccount(final FinancialAccount financialAccount) {
+        this.financialAccount = financialAccount;
+    }
+
+    // //////////////////////////////////////
+
+    @javax.jdo.annotations.Persistent
+    private LocalDate date;
+
+    @javax.jdo.annotations.Column(allowsNull = "false")
+    @Title(sequence = "2")
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(final LocalDate date) {
+        this.date = date;
+    }
+
+    // //////////////////////////////////////
+
+    private BigDecimal balance;
+
+    @javax.jdo.annotations.Column(allowsNull = "false", scale = JdoColumnScale.MONEY)
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(final BigDecimal balance) {
+        this.balance = balance;
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.financial;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.UdoDomainRepositoryAndFactory;
+
+/**
+ * Maintains the {@link FinancialAccount#getRunningBalance() running balance}
+ * of financial accounts, and a {@link FinancialAccountBalanceCheckpoint
+ * checkpoint} at the start of every year in which the account has
+ * transactions, so that neither the balance nor the balance as of a date
+ * needs all transactions to be summed.
+ *
+ * <p>
+ * Every change to the transactions of an account is to be
+ * {@link #apply(FinancialAccount, LocalDate, BigDecimal) applied} before it
+ * is made, after which the {@link #ensureCheckpoint(FinancialAccount, LocalDate)
+ * checkpoint} of the transaction date is to be made sure of. The balances
+ * being updated in the same transaction as the change, the version of the
+ * account guards against concurrent changes.
+ */
+@DomainService(nature = NatureOfService.DOMAIN, repositoryFor = FinancialAccountBalanceCheckpoint.class)
+public class FinancialAccountBalances extends UdoDomainRepositoryAndFactory<FinancialAccountBalanceCheckpoint> {
+
+    public FinancialAccountBalances() {
+        super(FinancialAccountBalances.class, FinancialAccountBalanceCheckpoint.class);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The date of the checkpoint covering the given date.
+     */
+    public static LocalDate checkpointDateFor(final LocalDate date) {
+        return date.withDayOfYear(1);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Adds the amount of a transaction about to be made on the given date
+     * (or, negated, of one about to be removed) to the running balance and
+     * to all checkpoints after that date.
+     */
+    @Programmatic
+    public void apply(final FinancialAccount financialAccount, final LocalDate transactionDate, final BigDecimal amount) {
+        BigDecimal balance = financialAccount.getRunningBalance();
+        if (balance == null) {
+            // first change since the balance is maintained, so take the transactions as they are
+            balance = financialAccountTransactions.sumOfAmounts(financialAccount, null, null);
+        }
+        financialAccount.setRunningBalance(balance.add(amount));
+        for (FinancialAccountBalanceCheckpoint checkpoint : allMatches(
+                "findByFinancialAccountAndDateAfter",
+                "financialAccount", financialAccount,
+                "date", transactionDate)) {
+            checkpoint.setBalance(checkpoint.getBalance().add(amount));
+        }
+    }
+
+    /**
+     * Creates the checkpoint covering the given date, unless it exists
+     * already; to be called once the transactions reflect the change.
+     */
+    @Programmatic
+    public FinancialAccountBalanceCheckpoint ensureCheckpoint(final FinancialAccount financialAccount, final LocalDate date) {
+        final LocalDate checkpointDate = checkpointDateFor(date);
+        FinancialAccountBalanceCheckpoint checkpoint = findCheckpoint(financialAccount, checkpointDate);
+        if (checkpoint == null) {
+            checkpoint = newTransientInstance();
+            checkpoint.setFinancialAccount(financialAccount);
+            checkpoint.setDate(checkpointDate);
+            checkpoint.setBalance(balanceBefore(financialAccount, checkpointDate));
+            persist(checkpoint);
+        }
+        return checkpoint;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The sum of all transactions up to and including the given date, taken
+     * from the nearest checkpoint and the transactions since.
+     */
+    @Programmatic
+    public BigDecimal balanceAsOf(final FinancialAccount financialAccount, final LocalDate date) {
+        return balanceBefore(financialAccount, date.plusDays(1));
+    }
+
+    private BigDecimal balanceBefore(final FinancialAccount financialAccount, final LocalDate date) {
+        final FinancialAccountBalanceCheckpoint checkpoint = firstMatch(
+                "findByFinancialAccountAndDateOnOrBefore",
+                "financialAccount", financialAccount,
+                "date", date);
+        if (checkpoint == null) {
+            return financialAccountTransactions.sumOfAmounts(financialAccount, null, date);
+        }
+        return checkpoint.getBalance().add(
+                financialAccountTransactions.sumOfAmounts(financialAccount, checkpoint.getDate(), date));
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Recalculates the running balance and all checkpoints from the
+     * transactions, returns a description of each difference found.
+     */
+    @Programmatic
+    public List<String> reconcile(final FinancialAccount financialAccount) {
+        final List<String> drifts = Lists.newArrayList();
+
+        BigDecimal balance = BigDecimal.ZERO;
+        LocalDate previousDate = null;
+        for (FinancialAccountBalanceCheckpoint checkpoint : findCheckpoints(financialAccount)) {
+            balance = balance.add(financialAccountTransactions.sumOfAmounts(financialAccount, previousDate, checkpoint.getDate()));
+            if (checkpoint.getBalance().compareTo(balance) != 0) {
+                drifts.add(String.format("Balance on %s was %s, should be %s", checkpoint.getDate(), checkpoint.getBalance(), balance));
+                checkpoint.setBalance(balance);
+            }
+            previousDate = checkpoint.getDate();
+        }
+        balance = balance.add(financialAccountTransactions.sumOfAmounts(financialAccount, previousDate, null));
+
+        final BigDecimal runningBalance = financialAccount.getRunningBalance();
+        if (runningBalance != null && runningBalance.compareTo(balance) != 0) {
+            drifts.add(String.format("Balance was %s, should be %s", runningBalance, balance));
+        }
+        financialAccount.setRunningBalance(balance);
+        return drifts;
+    }
+
+    // //////////////////////////////////////
+
+    @Programmatic
+    public List<FinancialAccountBalanceCheckpoint> findCheckpoints(final FinancialAccount financialAccount) {
+        return allMatches("findByFinancialAccount", "financialAccount", financialAccount);
+    }
+
+    @Programmatic
+    public FinancialAccountBalanceCheckpoint findCheckpoint(final FinancialAccount financialAccount, final LocalDate date) {
+        return firstMatch("findByFinancialAccountAndDate", "financialAccount", financialAccount, "date", date);
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    FinancialAccountTransactions financialAccountTransactions;
+
+}
@@ -2,6 +2,7 @@ package org.estatio.dom.financial;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import javax.inject.Inject;
 import javax.jdo.annotations.Column;
 import javax.jdo.annotations.DatastoreIdentity;
 import javax.jdo.annotations.IdGeneratorStrategy;
@@ -12,6 +13,7 @@ import javax.jdo.annotations.Queries;
 import javax.jdo.annotations.Query;
 import javax.jdo.annotations.Version;
 import javax.jdo.annotations.VersionStrategy;
+import org.apache.commons.lang3.ObjectUtils;
 import org.joda.time.LocalDate;
 import org.apache.isis.applib.annotation.MemberOrder;
 import org.apache.isis.applib.annotation.Property;
@@ -95,6 +97,15 @@ public class FinancialAccountTransaction
         this.transactionDate = transactionDate;
     }
 
+    public void modifyTransactionDate(final LocalDate newTransactionDate) {
+        if (ObjectUtils.notEqual(getTransactionDate(), newTransactionDate)) {
+            financialAccountBalances.apply(getFinancialAccount(), getTransactionDate(), getAmount().negate());
+            financialAccountBalances.apply(getFinancialAccount(), newTransactionDate, getAmount());
+            setTransactionDate(newTransactionDate);
+            financialAccountBalances.ensureCheckpoint(getFinancialAccount(), newTransactionDate);
+        }
+    }
+
     // //////////////////////////////////////
 
     private BigInteger sequence;
@@ -138,4 +149,25 @@ public class FinancialAccountTransaction
         this.amount = amount;
     }
 
+    public void modifyAmount(final BigDecimal newAmount) {
+        if (ObjectUtils.notEqual(getAmount(), newAmount)) {
+            financialAccountBalances.apply(getFinancialAccount(), getTransactionDate(), newAmount.subtract(getAmount()));
+            setAmount(newAmount);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    public FinancialAccount remove() {
+        final FinancialAccount financialAccount = getFinancialAccount();
+        financialAccountBalances.apply(financialAccount, getTransactionDate(), getAmount().negate());
+        getContainer().remove(this);
+        return financialAccount;
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    FinancialAccountBalances financialAccountBalances;
+
 }
@@ -21,6 +21,12 @@ package org.estatio.dom.financial;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.jdo.Query;
+
+import com.google.common.collect.Maps;
 
 import org.joda.time.LocalDate;
 
@@ -59,12 +65,14 @@ public class FinancialAccountTransactions extends UdoDomainRepositoryAndFactory<
             final BigDecimal amount
             ) {
 
+        financialAccountBalances.apply(financialAccount, transactionDate, amount);
         final FinancialAccountTransaction transaction = newTransientInstance(FinancialAccountTransaction.class);
         transaction.setFinancialAccount(financialAccount);
         transaction.setTransactionDate(transactionDate);
         transaction.setDescription(description);
         transaction.setAmount(amount);
         persistIfNotAlready(transaction);
+        financialAccountBalances.ensureCheckpoint(financialAccount, transactionDate);
         return transaction;
     }
 
@@ -114,11 +122,42 @@ public class FinancialAccountTransactions extends UdoDomainRepositoryAndFactory<
 
     @Action(semantics = SemanticsOf.SAFE)
     public BigDecimal balance(FinancialAccount financialAccount) {
-        BigDecimal balance = BigDecimal.ZERO;
-        for (FinancialAccountTransaction transaction : transactions(financialAccount)) {
-            balance = balance.add(transaction.getAmount());
+        return financialAccount.getBalance();
+    }
+
+    /**
+     * The sum of the amounts of the transactions dated from (inclusive) up to
+     * (exclusive) the given dates, either of which may be <tt>null</tt>;
+     * summed by the database, including any pending changes.
+     */
+    @Programmatic
+    public BigDecimal sumOfAmounts(
+            final FinancialAccount financialAccount,
+            final LocalDate fromDate,
+            final LocalDate toDate) {
+        getContainer().flush();
+        final StringBuilder jdoql = new StringBuilder("SELECT sum(amount) "
+                + "FROM org.estatio.dom.financial.FinancialAccountTransaction "
+                + "WHERE financialAccount == :financialAccount");
+        final Map<String, Object> parameters = Maps.newHashMap();
+        parameters.put("financialAccount", financialAccount);
+        if (fromDate != null) {
+            jdoql.append(" && transactionDate >= :fromDate");
+            parameters.put("fromDate", fromDate);
+        }
+        if (toDate != null) {
+            jdoql.append(" && transactionDate < :toDate");
+            parameters.put("toDate", toDate);
         }
-        return balance;
+        final Query query = newQuery(jdoql.toString());
+        query.setUnique(true);
+        final BigDecimal sum = (BigDecimal) query.executeWithMap(parameters);
+        return sum == null ? BigDecimal.ZERO : sum;
     }
 
+    // //////////////////////////////////////
+
+    @Inject
+    FinancialAccountBalances financialAccountBalances;
+
 }
@@ -61,6 +61,7 @@ import org.estatio.dom.financial.FinancialAccounts;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.party.Party;
 import org.estatio.dom.utils.StringUtils;
+import org.estatio.services.search.SearchIndexService;
 
 @DomainService(repositoryFor = Guarantee.class)
 @DomainServiceLayout(
@@ -142,6 +143,10 @@ public class Guarantees extends UdoDomainRepositoryAndFactory<Guarantee> {
     @MemberOrder(sequence = "2")
     public List<Guarantee> findGuarantees(
             final @ParameterLayout(named = "Reference or Name", describedAs = "May include wildcards '*' and '?'") String refOrName) {
+        final List<Guarantee> guarantees = searchIndexService.search(Guarantee.class, refOrName, "reference", "name");
+        if (guarantees != null) {
+            return guarantees;
+        }
         String pattern = StringUtils.wildcardToCaseInsensitiveRegex(refOrName);
         return allMatches("matchByReferenceOrName", "referenceOrName", pattern);
     }
@@ -239,4 +244,7 @@ public class Guarantees extends UdoDomainRepositoryAndFactory<Guarantee> {
     @Inject
     private FinancialAccountTransactions financialAccountTransactions;
 
+    @Inject
+    SearchIndexService searchIndexService;
+
 }
@@ -159,8 +159,7 @@ public class Index
     @Programmatic
     public BigDecimal getIndexValueForDate(final LocalDate date) {
         if (date != null) {
-            IndexValue indexValue = indexValues.findIndexValueByIndexAndStartDate(this, date);
-            return indexValue == null ? null : indexValue.getValue();
+            return indexValues.seriesFor(this).valueForDate(date);
         }
         return null;
     }
@@ -170,14 +169,7 @@ public class Index
         if (baseIndexStartDate == null || nextIndexStartDate == null) {
             return null;
         }
-        IndexValue nextIndexValue = indexValues.findIndexValueByIndexAndStartDate(this, nextIndexStartDate);
-        // TODO: check efficiency.. seems to retrieve every single index value
-        // for the last 15 years...
-        if (nextIndexValue != null) {
-            final BigDecimal rebaseFactor = nextIndexValue.getIndexBase().factorForDate(baseIndexStartDate);
-            return rebaseFactor;
-        }
-        return null;
+        return indexValues.seriesFor(this).rebaseFactorForDates(baseIndexStartDate, nextIndexStartDate);
     }
 
     @Programmatic
@@ -60,7 +60,12 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyCountry;
                 value = "SELECT "
                         + "FROM org.estatio.dom.index.IndexValue "
                         + "WHERE indexBase.index == :index "
-                        + "ORDER BY startDate DESC")
+                        + "ORDER BY startDate DESC"),
+        @javax.jdo.annotations.Query(
+                name = "findByIndex", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.index.IndexValue "
+                        + "WHERE indexBase.index == :index ")
 })
 @javax.jdo.annotations.Unique(
         name = "IndexValue_indexBase_startDate_IDX",
@@ -0,0 +1,200 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.index;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.valuetypes.EpochDayInterval;
+
+/**
+ * Immutable, in-memory copy of all {@link IndexValue value}s of an
+ * {@link Index}, together with the rebase factors between its
+ * {@link IndexBase base}s.
+ *
+ * <p>
+ * The start dates are held as days since the epoch and the values as unscaled
+ * longs (the scale is {@link IndexValue#VALUE_SCALE} once persisted), so that a
+ * lookup is a binary search over primitive arrays rather than a query.
+ *
+ * @see IndexValues#seriesFor(Index)
+ */
+public final class IndexValueSeries {
+
+    private final int[] startDays;
+    private final long[] values;
+    private final byte[] scales;
+    private final int[] baseOrdinals;
+
+    private final int[] baseStartDays;
+    /**
+     * <tt>rebaseFactors[b][a]</tt> is the factor of base <tt>b</tt> for a
+     * date of base <tt>a</tt>, as {@link IndexBase#factorForDate(LocalDate)}
+     * would calculate it, <tt>null</tt> if a factor on the way is missing.
+     */
+    private final BigDecimal[][] rebaseFactors;
+
+    private IndexValueSeries(
+            final int[] startDays,
+            final long[] values,
+            final byte[] scales,
+            final int[] baseOrdinals,
+            final int[] baseStartDays,
+            final BigDecimal[][] rebaseFactors) {
+        this.startDays = startDays;
+        this.values = values;
+        this.scales = scales;
+        this.baseOrdinals = baseOrdinals;
+        this.baseStartDays = baseStartDays;
+        this.rebaseFactors = rebaseFactors;
+    }
+
+    /**
+     * Builds the series from the values of an index, the bases are taken
+     * from the values and their {@link IndexBase#getPrevious() previous}
+     * bases.
+     */
+    public static IndexValueSeries of(final Collection<IndexValue> indexValues) {
+        final List<IndexBase> bases = basesOf(indexValues);
+
+        final int[] baseStartDays = new int[bases.size()];
+        final BigDecimal[][] rebaseFactors = new BigDecimal[bases.size()][];
+        for (int b = 0; b < bases.size(); b++) {
+            baseStartDays[b] = EpochDayInterval.epochDay(bases.get(b).getStartDate());
+            rebaseFactors[b] = new BigDecimal[b + 1];
+            rebaseFactors[b][b] = BigDecimal.ONE;
+            final BigDecimal factor = bases.get(b).getFactor();
+            for (int a = b - 1; a >= 0; a--) {
+                final BigDecimal previous = rebaseFactors[b - 1][a];
+                rebaseFactors[b][a] = factor == null || previous == null ? null : factor.multiply(previous);
+            }
+        }
+
+        final List<IndexValue> sorted = Lists.newArrayList(indexValues);
+        Collections.sort(sorted, new Comparator<IndexValue>() {
+            @Override
+            public int compare(final IndexValue o1, final IndexValue o2) {
+                return o1.getStartDate().compareTo(o2.getStartDate());
+            }
+        });
+        final int[] startDays = new int[sorted.size()];
+        final long[] values = new long[sorted.size()];
+        final byte[] scales = new byte[sorted.size()];
+        final int[] baseOrdinals = new int[sorted.size()];
+        int size = 0;
+        for (IndexValue indexValue : sorted) {
+            final int startDay = EpochDayInterval.epochDay(indexValue.getStartDate());
+            final int baseOrdinal = bases.indexOf(indexValue.getIndexBase());
+            if (size > 0 && startDays[size - 1] == startDay) {
+                // same date in two bases, the most recent base wins
+                if (baseOrdinals[size - 1] > baseOrdinal) {
+                    continue;
+                }
+                size--;
+            }
+            startDays[size] = startDay;
+            values[size] = indexValue.getValue().unscaledValue().longValue();
+            scales[size] = (byte) indexValue.getValue().scale();
+            baseOrdinals[size] = baseOrdinal;
+            size++;
+        }
+
+        return new IndexValueSeries(
+                Arrays.copyOf(startDays, size),
+                Arrays.copyOf(values, size),
+                Arrays.copyOf(scales, size),
+                Arrays.copyOf(baseOrdinals, size),
+                baseStartDays,
+                rebaseFactors);
+    }
+
+    private static List<IndexBase> basesOf(final Collection<IndexValue> indexValues) {
+        final Set<IndexBase> bases = Sets.newHashSet();
+        for (IndexValue indexValue : indexValues) {
+            IndexBase base = indexValue.getIndexBase();
+            while (base != null && bases.add(base)) {
+                base = base.getPrevious();
+            }
+        }
+        final List<IndexBase> sorted = Lists.newArrayList(bases);
+        Collections.sort(sorted, new Comparator<IndexBase>() {
+            @Override
+            public int compare(final IndexBase o1, final IndexBase o2) {
+                return o1.getStartDate().compareTo(o2.getStartDate());
+            }
+        });
+        return sorted;
+    }
+
+    // //////////////////////////////////////
+
+    public int size() {
+        return startDays.length;
+    }
+
+    /**
+     * The value starting on exactly the given date, <tt>null</tt> if none.
+     */
+    public BigDecimal valueForDate(final LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        final int i = Arrays.binarySearch(startDays, EpochDayInterval.epochDay(date));
+        return i < 0 ? null : BigDecimal.valueOf(values[i], scales[i]);
+    }
+
+    /**
+     * The factor to rebase the value of <tt>baseIndexStartDate</tt> to the
+     * base of the value of <tt>nextIndexStartDate</tt>, <tt>null</tt> if
+     * there is no value for the latter.
+     *
+     * @see Index#getRebaseFactorForDates(LocalDate, LocalDate)
+     */
+    public BigDecimal rebaseFactorForDates(final LocalDate baseIndexStartDate, final LocalDate nextIndexStartDate) {
+        if (baseIndexStartDate == null || nextIndexStartDate == null) {
+            return null;
+        }
+        final int i = Arrays.binarySearch(startDays, EpochDayInterval.epochDay(nextIndexStartDate));
+        if (i < 0) {
+            return null;
+        }
+        final int b = baseOrdinals[i];
+        final int a = baseOrdinalForDay(EpochDayInterval.epochDay(baseIndexStartDate));
+        if (a >= b) {
+            return BigDecimal.ONE;
+        }
+        return a < 0 ? null : rebaseFactors[b][a];
+    }
+
+    private int baseOrdinalForDay(final int day) {
+        final int i = Arrays.binarySearch(baseStartDays, day);
+        return i >= 0 ? i : -i - 2;
+    }
+
+}
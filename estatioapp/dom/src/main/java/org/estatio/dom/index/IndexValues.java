@@ -19,6 +19,7 @@
 package org.estatio.dom.index;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
@@ -37,6 +38,9 @@ import org.apache.isis.applib.services.eventbus.EventBusService;
 import org.apache.isis.applib.services.queryresultscache.QueryResultsCache;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.services.xactn.InvalidationListener;
+import org.estatio.services.xactn.SharedCache;
+import org.estatio.services.xactn.TransactionCallbacks;
 
 @DomainService(
         nature = NatureOfService.VIEW_CONTRIBUTIONS_ONLY,
@@ -105,6 +109,11 @@ public class IndexValues
                 IndexValues.class, "findIndexValueByIndexAndStartDate", index, startDate);
     }
 
+    @Programmatic
+    public List<IndexValue> findByIndex(final Index index) {
+        return allMatches("findByIndex", "index", index);
+    }
+
     @Programmatic
     public IndexValue findLastByIndex(
             final Index index) {
@@ -114,6 +123,62 @@ public class IndexValues
 
     // //////////////////////////////////////
 
+    private final SharedCache<String, IndexValueSeries> seriesByIndex = new SharedCache<String, IndexValueSeries>();
+
+    private final Runnable invalidateAllSeries = new Runnable() {
+        @Override
+        public void run() {
+            dropSeries();
+        }
+    };
+
+    private final InvalidationListener seriesInvalidator = new InvalidationListener(
+            invalidateAllSeries, IndexValue.class, IndexBase.class);
+
+    /**
+     * All values of the index, loaded once and kept until a value or a base
+     * of any index is created, changed or removed, in which case the series
+     * are dropped once the transaction completes.
+     */
+    @Programmatic
+    public IndexValueSeries seriesFor(final Index index) {
+        listenForChanges();
+        return seriesByIndex.get(keyOf(index), new Callable<IndexValueSeries>() {
+            @Override
+            public IndexValueSeries call() throws Exception {
+                return IndexValueSeries.of(findByIndex(index));
+            }
+        });
+    }
+
+    /**
+     * Registers for the changes of values and bases on first use, so that
+     * any change committed from then on drops the series.
+     */
+    protected void listenForChanges() {
+        seriesInvalidator.listenTo(getIsisJdoSupport().getJdoPersistenceManager());
+    }
+
+    /**
+     * Drops all series, now and once the transaction completes; to be called
+     * when values have been changed bypassing JDO.
+     */
+    @Programmatic
+    public void invalidateSeries() {
+        invalidateAllSeries.run();
+        TransactionCallbacks.afterCompletion(getIsisJdoSupport().getJdoPersistenceManager(), invalidateAllSeries);
+    }
+
+    void dropSeries() {
+        seriesByIndex.invalidateAll();
+    }
+
+    private static String keyOf(final Index index) {
+        return index.getApplicationTenancyPath() + "|" + index.getReference();
+    }
+
+    // //////////////////////////////////////
+
     @Inject
     IndexBases indexBases;
 
@@ -586,13 +586,44 @@ public class Invoice
             return this;
         }
         final Numerator numerator = collectionNumerators.findInvoiceNumberNumerator(getFixedAsset());
-        setInvoiceNumber(numerator.nextIncrementStr());
+        numerator.assignNextIncrementStr(new Numerator.Assignee() {
+            @Override
+            public void assign(final String value) {
+                pendingInvoiceNumerator = null;
+                setInvoiceNumber(value);
+            }
+        });
+        if (getInvoiceNumber() == null) {
+            pendingInvoiceNumerator = numerator;
+        }
         setInvoiceDate(invoiceDate);
         this.setStatus(InvoiceStatus.INVOICED);
-        informUser("Assigned " + this.getInvoiceNumber() + " to invoice " + getContainer().titleOf(this));
+        if (getInvoiceNumber() != null) {
+            informUser("Assigned " + this.getInvoiceNumber() + " to invoice " + getContainer().titleOf(this));
+        } else {
+            informUser("Invoice number of " + getContainer().titleOf(this) + " will be assigned on commit");
+        }
         return this;
     }
 
+    /**
+     * The numerator to draw the invoice number from when this invoice is
+     * flushed, if {@link Numerator#isAssigningOnCommit() assigning on commit}.
+     */
+    @javax.jdo.annotations.NotPersistent
+    private Numerator pendingInvoiceNumerator;
+
+    /**
+     * Isis callback just before this invoice is flushed: assigns the invoice
+     * number still pending, so that it is set within the transaction like
+     * any other change.
+     */
+    public void updating() {
+        if (pendingInvoiceNumerator != null) {
+            pendingInvoiceNumerator.assignPending();
+        }
+    }
+
     public String disableInvoice(final LocalDate invoiceDate, Boolean confirm) {
         if (getInvoiceNumber() != null) {
             return "Invoice number already assigned";
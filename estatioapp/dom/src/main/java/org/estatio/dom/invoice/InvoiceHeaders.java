@@ -0,0 +1,161 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice;
+
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.party.Party;
+
+/**
+ * Registry of the {@link Invoice} headers used during a single invoice run,
+ * keyed on seller, buyer, payment method, lease, status and due date.
+ *
+ * <p>
+ * Used by
+ * {@link Invoices#findOrCreateMatchingInvoice(InvoiceHeaders, org.isisaddons.module.security.dom.tenancy.ApplicationTenancy, PaymentMethod, Lease, InvoiceStatus, LocalDate)}
+ * so that every header is looked up (and if need be created) only once per
+ * run.
+ */
+public class InvoiceHeaders {
+
+    private final String runId;
+    private final Map<Key, Invoice> invoices = Maps.newHashMap();
+
+    private int hits;
+    private int misses;
+
+    public InvoiceHeaders(final String runId) {
+        this.runId = runId;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    // //////////////////////////////////////
+
+    Invoice get(
+            final Party seller,
+            final Party buyer,
+            final PaymentMethod paymentMethod,
+            final Lease lease,
+            final InvoiceStatus status,
+            final LocalDate dueDate) {
+        final Invoice invoice = invoices.get(new Key(seller, buyer, paymentMethod, lease, status, dueDate));
+        if (invoice == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return invoice;
+    }
+
+    void put(
+            final Party seller,
+            final Party buyer,
+            final PaymentMethod paymentMethod,
+            final Lease lease,
+            final InvoiceStatus status,
+            final LocalDate dueDate,
+            final Invoice invoice) {
+        invoices.put(new Key(seller, buyer, paymentMethod, lease, status, dueDate), invoice);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Number of headers served from the registry.
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * Number of headers that had to be found or created.
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    // //////////////////////////////////////
+
+    private static class Key {
+
+        private final Party seller;
+        private final Party buyer;
+        private final PaymentMethod paymentMethod;
+        private final Lease lease;
+        private final InvoiceStatus status;
+        private final LocalDate dueDate;
+
+        Key(
+                final Party seller,
+                final Party buyer,
+                final PaymentMethod paymentMethod,
+                final Lease lease,
+                final InvoiceStatus status,
+                final LocalDate dueDate) {
+            this.seller = seller;
+            this.buyer = buyer;
+            this.paymentMethod = paymentMethod;
+            this.lease = lease;
+            this.status = status;
+            this.dueDate = dueDate;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key rhs = (Key) obj;
+            return new EqualsBuilder()
+                    .append(seller, rhs.seller)
+                    .append(buyer, rhs.buyer)
+                    .append(paymentMethod, rhs.paymentMethod)
+                    .append(lease, rhs.lease)
+                    .append(status, rhs.status)
+                    .append(dueDate, rhs.dueDate)
+                    .isEquals();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder()
+                    .append(seller)
+                    .append(buyer)
+                    .append(paymentMethod)
+                    .append(lease)
+                    .append(status)
+                    .append(dueDate)
+                    .hashCode();
+        }
+    }
+
+}
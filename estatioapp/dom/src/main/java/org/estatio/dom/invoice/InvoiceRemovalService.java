@@ -0,0 +1,193 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice;
+
+import java.util.EventObject;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.jdo.JDOHelper;
+import javax.jdo.PersistenceManager;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.DomainObjectContainer;
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.eventbus.EventBusService;
+import org.apache.isis.objectstore.jdo.applib.service.support.IsisJdoSupport;
+
+import org.estatio.dom.asset.FixedAsset;
+
+/**
+ * Removes the {@link InvoiceStatus#NEW new} invoices of a fixed asset due on
+ * a date, as left behind by an earlier invoice run, with a few set-based
+ * statements rather than removing (and flushing) every invoice and item.
+ *
+ * <p>
+ * As the rows are deleted bypassing JDO, there are no lifecycle events for
+ * the individual invoices; instead a single {@link RemovedEvent} is posted,
+ * holding the object ids of all invoices removed. Nor does the persistence
+ * manager know about the removal, so the instances it holds of the removed
+ * invoices and items, and of the sources of those items, are refreshed or
+ * evicted.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class InvoiceRemovalService {
+
+    static final int CHUNK_SIZE = 500;
+
+    /**
+     * Returns the number of invoices removed.
+     */
+    @Programmatic
+    public int removeNewInvoices(final FixedAsset fixedAsset, final LocalDate dueDate) {
+        // the statements only see what has reached the database
+        container.flush();
+        final List<Object> invoiceIds = invoices.findInvoiceIds(fixedAsset, dueDate, InvoiceStatus.NEW);
+        if (invoiceIds.isEmpty()) {
+            return 0;
+        }
+        final PersistenceManager persistenceManager = isisJdoSupport.getJdoPersistenceManager();
+        final Set<Object> removed = Sets.newHashSet();
+        final Set<Object> sources = Sets.newHashSet();
+        collectLoaded(persistenceManager, Sets.newHashSet(invoiceIds), removed, sources);
+        for (Object object : removed) {
+            // flushed but still dirty instances cannot be evicted
+            if (JDOHelper.isDirty(object)) {
+                persistenceManager.refresh(object);
+            }
+        }
+
+        int itemCount = 0;
+        for (List<Object> chunk : Lists.partition(invoiceIds, CHUNK_SIZE)) {
+            final String ids = Joiner.on(", ").join(keysOf(chunk));
+            itemCount += isisJdoSupport.executeUpdate("DELETE FROM \"InvoiceItem\" WHERE \"invoiceId\" IN (" + ids + ")");
+            isisJdoSupport.executeUpdate("DELETE FROM \"Invoice\" WHERE \"id\" IN (" + ids + ")");
+        }
+
+        persistenceManager.evictAll(removed);
+        // reloads their collections of invoice items
+        persistenceManager.refreshAll(sources);
+
+        eventBusService.post(new RemovedEvent(this, fixedAsset, dueDate, invoiceIds, itemCount));
+        return invoiceIds.size();
+    }
+
+    /**
+     * Collects the loaded instances of the invoices with the given object ids
+     * and of their items, and the loaded sources of those items.
+     */
+    private static void collectLoaded(
+            final PersistenceManager persistenceManager,
+            final Set<Object> invoiceIds,
+            final Set<Object> removed,
+            final Set<Object> sources) {
+        for (Object object : persistenceManager.getManagedObjects()) {
+            if (object instanceof Invoice && invoiceIds.contains(JDOHelper.getObjectId(object))) {
+                removed.add(object);
+            } else if (object instanceof InvoiceItem) {
+                final InvoiceItem item = (InvoiceItem) object;
+                if (item.getInvoice() != null && invoiceIds.contains(JDOHelper.getObjectId(item.getInvoice()))) {
+                    removed.add(item);
+                    if (item.getSource() != null) {
+                        sources.add(item.getSource());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The numeric keys of datastore identities, as rendered by
+     * {@link org.estatio.dom.UdoDomainObject#getId()}.
+     */
+    static List<Long> keysOf(final List<Object> objectIds) {
+        final List<Long> keys = Lists.newArrayListWithCapacity(objectIds.size());
+        for (Object objectId : objectIds) {
+            keys.add(Long.parseLong(objectId.toString().split("\\[OID\\]")[0]));
+        }
+        return keys;
+    }
+
+    // //////////////////////////////////////
+
+    public static class RemovedEvent extends EventObject {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FixedAsset fixedAsset;
+        private final LocalDate dueDate;
+        private final List<Object> invoiceIds;
+        private final int itemCount;
+
+        public RemovedEvent(
+                final Object source,
+                final FixedAsset fixedAsset,
+                final LocalDate dueDate,
+                final List<Object> invoiceIds,
+                final int itemCount) {
+            super(source);
+            this.fixedAsset = fixedAsset;
+            this.dueDate = dueDate;
+            this.invoiceIds = invoiceIds;
+            this.itemCount = itemCount;
+        }
+
+        public FixedAsset getFixedAsset() {
+            return fixedAsset;
+        }
+
+        public LocalDate getDueDate() {
+            return dueDate;
+        }
+
+        /**
+         * The JDO object ids of the invoices removed.
+         */
+        public List<Object> getInvoiceIds() {
+            return invoiceIds;
+        }
+
+        public int getItemCount() {
+            return itemCount;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    Invoices invoices;
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+    @Inject
+    EventBusService eventBusService;
+
+    @Inject
+    DomainObjectContainer container;
+
+}
@@ -19,6 +19,14 @@
 package org.estatio.dom.invoice;
 
 import java.util.List;
+
+import javax.jdo.Query;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Ordering;
+import com.google.common.eventbus.Subscribe;
+
 import org.isisaddons.module.security.app.user.MeService;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.joda.time.LocalDate;
@@ -46,6 +54,7 @@ import org.estatio.dom.lease.invoicing.InvoiceCalculationParameters;
 import org.estatio.dom.party.Party;
 import org.estatio.dom.utils.StringUtils;
 import org.estatio.services.settings.EstatioSettingsService;
+import org.estatio.services.search.SearchIndexService;
 
 @DomainService(repositoryFor = Invoice.class)
 @DomainServiceLayout(
@@ -80,6 +89,16 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
     @MemberOrder(sequence = "3")
     public List<Invoice> findInvoicesByInvoiceNumber(
             final @ParameterLayout(named = "Invoice number") String invoiceNumber) {
+        final List<Invoice> invoices = searchIndexService.search(Invoice.class, invoiceNumber, "invoiceNumber");
+        if (invoices != null) {
+            // as the query orders them
+            return Ordering.natural().reverse().nullsLast().onResultOf(new Function<Invoice, LocalDate>() {
+                @Override
+                public LocalDate apply(final Invoice invoice) {
+                    return invoice.getInvoiceDate();
+                }
+            }).sortedCopy(invoices);
+        }
         return allMatches("findByInvoiceNumber",
                 "invoiceNumber", StringUtils.wildcardToCaseInsensitiveRegex(invoiceNumber));
     }
@@ -173,6 +192,20 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
             final Lease lease,
             final String interactionId
     ) {
+        final Invoice invoice = createInvoice(applicationTenancy, seller, buyer, paymentMethod, currency, dueDate, lease, interactionId);
+        getContainer().flush();
+        return invoice;
+    }
+
+    private Invoice createInvoice(
+            final ApplicationTenancy applicationTenancy,
+            final Party seller,
+            final Party buyer,
+            final PaymentMethod paymentMethod,
+            final Currency currency,
+            final LocalDate dueDate,
+            final Lease lease,
+            final String interactionId) {
         Invoice invoice = newTransientInstance();
         invoice.setApplicationTenancyPath(applicationTenancy.getPath());
         invoice.setBuyer(buyer);
@@ -191,7 +224,6 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
         invoice.setFixedAsset(lease.getProperty());
 
         persistIfNotAlready(invoice);
-        getContainer().flush();
         return invoice;
     }
 
@@ -209,6 +241,33 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
                 applicationTenancy, seller, buyer, paymentMethod, lease, invoiceStatus, dueDate, interactionId);
     }
 
+    /**
+     * As {@link #findOrCreateMatchingInvoice(ApplicationTenancy, PaymentMethod, Lease, InvoiceStatus, LocalDate, String)},
+     * but each header is looked up only once per run; subsequent requests are
+     * served from the registry. Newly created invoices are not flushed, the
+     * registry makes that unnecessary.
+     */
+    @Programmatic
+    public Invoice findOrCreateMatchingInvoice(
+            final InvoiceHeaders invoiceHeaders,
+            final ApplicationTenancy applicationTenancy,
+            final PaymentMethod paymentMethod,
+            final Lease lease,
+            final InvoiceStatus invoiceStatus,
+            final LocalDate dueDate) {
+        final Party buyer = lease.getSecondaryParty();
+        final Party seller = lease.getPrimaryParty();
+        Invoice invoice = invoiceHeaders.get(seller, buyer, paymentMethod, lease, invoiceStatus, dueDate);
+        if (invoice == null) {
+            invoice = findMatchingInvoice(seller, buyer, paymentMethod, lease, invoiceStatus, dueDate);
+            if (invoice == null) {
+                invoice = createInvoice(applicationTenancy, seller, buyer, paymentMethod, settings.systemCurrency(), dueDate, lease, invoiceHeaders.getRunId());
+            }
+            invoiceHeaders.put(seller, buyer, paymentMethod, lease, invoiceStatus, dueDate, invoice);
+        }
+        return invoice;
+    }
+
     @Programmatic
     public Invoice findMatchingInvoice(
             final Party seller,
@@ -271,12 +330,33 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
 
     // //////////////////////////////////////
 
+    /**
+     * The object ids of the invoices, without loading the invoices
+     * themselves.
+     */
+    @SuppressWarnings("unchecked")
+    @Programmatic
+    public List<Object> findInvoiceIds(
+            final FixedAsset fixedAsset,
+            final LocalDate dueDate,
+            final InvoiceStatus status) {
+        final Query query = newQuery("SELECT JDOHelper.getObjectId(this) FROM org.estatio.dom.invoice.Invoice "
+                + "WHERE fixedAsset == :fixedAsset && dueDate == :dueDate && status == :status");
+        return (List<Object>) query.executeWithMap(ImmutableMap.<String, Object> of(
+                "fixedAsset", fixedAsset,
+                "dueDate", dueDate,
+                "status", status));
+    }
+
     @Programmatic
     public void removeRuns(InvoiceCalculationParameters parameters) {
-        List<Invoice> invoices = findInvoices(parameters.property(), parameters.invoiceDueDate(), InvoiceStatus.NEW);
-        for (Invoice invoice : invoices) {
-            invoice.remove();
-        }
+        invoiceRemovalService.removeNewInvoices(parameters.property(), parameters.invoiceDueDate());
+    }
+
+    @Programmatic
+    @Subscribe
+    public void on(final InvoiceRemovalService.RemovedEvent ev) {
+        searchIndexService.removeAll(Invoice.class, ev.getInvoiceIds());
     }
 
     // //////////////////////////////////////
@@ -290,6 +370,10 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
     @javax.inject.Inject
     private MeService meService;
 
+    @javax.inject.Inject
+    SearchIndexService searchIndexService;
 
+    @javax.inject.Inject
+    InvoiceRemovalService invoiceRemovalService;
 
 }
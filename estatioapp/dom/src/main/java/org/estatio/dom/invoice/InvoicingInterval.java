@@ -6,6 +6,7 @@ import org.joda.time.Interval;
 import org.joda.time.LocalDate;
 
 import org.estatio.dom.valuetypes.AbstractInterval;
+import org.estatio.dom.valuetypes.EpochDayInterval;
 import org.estatio.dom.valuetypes.LocalDateInterval;
 
 public class InvoicingInterval extends AbstractInterval<InvoicingInterval> {
@@ -48,6 +49,25 @@ public class InvoicingInterval extends AbstractInterval<InvoicingInterval> {
         return new LocalDateInterval(startDate, endDate, IntervalEnding.EXCLUDING_END_DATE);
     }
 
+    private EpochDayInterval epochDayInterval;
+
+    /**
+     * Memoized, the interval is compared with every term it is calculated
+     * for.
+     */
+    @Override
+    public EpochDayInterval asEpochDayInterval() {
+        if (epochDayInterval == null) {
+            epochDayInterval = super.asEpochDayInterval();
+        }
+        return epochDayInterval;
+    }
+
+    @Override
+    public int days() {
+        return asEpochDayInterval().days();
+    }
+
     // //////////////////////////////////////
 
     @Override
@@ -29,6 +29,7 @@ import org.apache.isis.applib.annotation.CollectionLayout;
 import org.apache.isis.applib.annotation.DomainObject;
 import org.apache.isis.applib.annotation.DomainObjectLayout;
 import org.apache.isis.applib.annotation.Editing;
+import org.apache.isis.applib.annotation.Optionality;
 import org.apache.isis.applib.annotation.Property;
 import org.apache.isis.applib.annotation.PropertyLayout;
 import org.apache.isis.applib.annotation.RenderType;
@@ -36,6 +37,8 @@ import org.apache.isis.applib.annotation.ViewModel;
 import org.apache.isis.applib.annotation.Where;
 
 import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationStatistics;
 
 /**
  * View model that surfaces information about each runId along with summary
@@ -159,10 +162,29 @@ public class InvoiceSummaryForInvoiceRun extends InvoiceSummaryAbstract {
 
     // //////////////////////////////////////
 
+    /**
+     * Not mapped in the <tt>view-definition</tt>; the counters of the run are
+     * only available on the node that calculated it, and only for a while.
+     */
+    @javax.jdo.annotations.NotPersistent
+    @Property(optionality = Optionality.OPTIONAL)
+    @PropertyLayout(multiLine = 2)
+    public String getCalculationStatistics() {
+        final InvoiceCalculationStatistics statistics = invoiceCalculationService.statisticsFor(getRunId());
+        return statistics == null ? null : statistics.toString();
+    }
+
+    // //////////////////////////////////////
+
     @CollectionLayout(render = RenderType.EAGERLY)
     public List<Invoice> getInvoices() {
         List<Invoice> findInvoicesByRunId = invoicesService.findInvoicesByRunId(runId);
         return findInvoicesByRunId;
     }
 
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private InvoiceCalculationService invoiceCalculationService;
+
 }
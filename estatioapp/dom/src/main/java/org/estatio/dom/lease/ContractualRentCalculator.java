@@ -0,0 +1,160 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.context.RequestScoped;
+
+import com.google.common.collect.Maps;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService.CalculationResult;
+
+/**
+ * Calculates the results of the {@link LeaseItemType#RENT rent} items of a
+ * lease that the {@link LeaseTermForTurnoverRent turnover rent terms}
+ * derive their contractual rent from, once per lease and start date within
+ * the current interaction (or background job).
+ *
+ * <p>
+ * The results of a lease are {@link #invalidate(Lease) invalidated} whenever
+ * one of its rent terms changes or is aligned.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+@RequestScoped
+public class ContractualRentCalculator {
+
+    /**
+     * The turnover rent is derived from the rent over this many years.
+     */
+    static final int YEARS = 2;
+
+    private final Map<Lease, Map<LocalDate, Entry>> entries = Maps.newHashMap();
+
+    private int calculations;
+    private int reuses;
+    private int avoidedInvocations;
+    private int invalidations;
+
+    /**
+     * The calculation results of all rent items of the lease, due from the
+     * start date for {@value #YEARS} years.
+     */
+    @Programmatic
+    public synchronized List<CalculationResult> rentResults(final Lease lease, final LocalDate startDate) {
+        Map<LocalDate, Entry> entriesOfLease = entries.get(lease);
+        if (entriesOfLease == null) {
+            entriesOfLease = Maps.newHashMap();
+            entries.put(lease, entriesOfLease);
+        }
+        Entry entry = entriesOfLease.get(startDate);
+        if (entry != null) {
+            reuses++;
+            avoidedInvocations += entry.invocations;
+            return entry.results;
+        }
+        final List<LeaseItem> rentItems = lease.findItemsOfType(LeaseItemType.RENT);
+        entry = new Entry(Collections.unmodifiableList(calculate(rentItems, startDate)), rentItems.size());
+        entriesOfLease.put(startDate, entry);
+        calculations++;
+        return entry.results;
+    }
+
+    /**
+     * Calculates without keeping the results, for when there is no
+     * interaction to keep them for.
+     */
+    @Programmatic
+    public static List<CalculationResult> calculate(final Lease lease, final LocalDate startDate) {
+        return calculate(lease.findItemsOfType(LeaseItemType.RENT), startDate);
+    }
+
+    private static List<CalculationResult> calculate(final List<LeaseItem> rentItems, final LocalDate startDate) {
+        final List<CalculationResult> results = new ArrayList<CalculationResult>();
+        for (LeaseItem rentItem : rentItems) {
+            results.addAll(rentItem.calculationResults(
+                    rentItem.getInvoicingFrequency(),
+                    startDate,
+                    startDate.plusYears(YEARS)));
+        }
+        return results;
+    }
+
+    @Programmatic
+    public synchronized void invalidate(final Lease lease) {
+        if (entries.remove(lease) != null) {
+            invalidations++;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The number of times the results were calculated.
+     */
+    @Programmatic
+    public synchronized int getCalculations() {
+        return calculations;
+    }
+
+    /**
+     * The number of times the results were reused instead.
+     */
+    @Programmatic
+    public synchronized int getReuses() {
+        return reuses;
+    }
+
+    /**
+     * The number of {@link LeaseItem#calculationResults(InvoicingFrequency, LocalDate, LocalDate)}
+     * invocations saved by reusing results.
+     */
+    @Programmatic
+    public synchronized int getAvoidedInvocations() {
+        return avoidedInvocations;
+    }
+
+    @Programmatic
+    public synchronized int getInvalidations() {
+        return invalidations;
+    }
+
+    // //////////////////////////////////////
+
+    private static final class Entry {
+
+        private final List<CalculationResult> results;
+        private final int invocations;
+
+        Entry(final List<CalculationResult> results, final int invocations) {
+            this.results = results;
+            this.invocations = invocations;
+        }
+    }
+
+}
@@ -109,6 +109,10 @@ public enum InvoicingFrequency {
     private final BigDecimal numerator;
     private final BigDecimal denominator;
 
+    public String rrule() {
+        return rrule;
+    }
+
     private LocalDate dueDateOfInterval(final Interval interval) {
         if (interval == null) {
             return null;
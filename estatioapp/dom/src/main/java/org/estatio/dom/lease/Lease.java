@@ -182,7 +182,7 @@ public class Lease
             describedAs = "Determines those users for whom this object is available to view and/or modify."
     )
     public ApplicationTenancy getApplicationTenancy() {
-        return applicationTenancies.findTenancyByPath(getApplicationTenancyPath());
+        return estatioApplicationTenancies.findTenancyByPath(getApplicationTenancyPath());
     }
 
     // //////////////////////////////////////
@@ -706,6 +706,28 @@ public class Lease
         return this;
     }
 
+    /**
+     * As {@link #verifyUntil(LocalDate)} but only verifies the terms that
+     * have not been verified since they last changed.
+     *
+     * @see LeaseItem#verifyIncrementallyUntil(LocalDate)
+     */
+    @Programmatic
+    public Lease verifyIncrementallyUntil(final LocalDate date) {
+        for (LeaseItem item : getItems()) {
+            LocalDateInterval effectiveInterval = item.getEffectiveInterval();
+            item.verifyIncrementallyUntil(ObjectUtils.min(effectiveInterval == null ? null : effectiveInterval.endDateExcluding(), date));
+        }
+        return this;
+    }
+
+    @Programmatic
+    public void invalidateVerification() {
+        for (LeaseItem item : getItems()) {
+            item.invalidateVerification();
+        }
+    }
+
     // //////////////////////////////////////
 
     @Action(domainEvent = Lease.TerminateEvent.class)
@@ -163,7 +163,7 @@ public class LeaseItem
             describedAs = "Determines those users for whom this object is available to view and/or modify."
     )
     public ApplicationTenancy getApplicationTenancy() {
-        return applicationTenancies.findTenancyByPath(getApplicationTenancyPath());
+        return estatioApplicationTenancies.findTenancyByPath(getApplicationTenancyPath());
     }
 
 
@@ -340,6 +340,7 @@ public class LeaseItem
     public LeaseItem changeDates(
             final @ParameterLayout(named = "Start Date") @Parameter(optionality = Optionality.OPTIONAL) LocalDate startDate,
             final @ParameterLayout(named = "End Date") @Parameter(optionality = Optionality.OPTIONAL) LocalDate endDate) {
+        invalidateVerificationOfDependents();
         return getChangeDates().changeDates(startDate, endDate);
     }
 
@@ -574,6 +575,46 @@ public class LeaseItem
 
     // //////////////////////////////////////
 
+    @javax.jdo.annotations.Persistent
+    private LocalDate verifiedUntil;
+
+    /**
+     * The date until which the terms of this item have been verified, cleared
+     * whenever the item, its lease or one of its terms changes.
+     *
+     * @see #verifyIncrementallyUntil(LocalDate)
+     */
+    @Property(optionality = Optionality.OPTIONAL, hidden = Where.EVERYWHERE)
+    public LocalDate getVerifiedUntil() {
+        return verifiedUntil;
+    }
+
+    public void setVerifiedUntil(final LocalDate verifiedUntil) {
+        this.verifiedUntil = verifiedUntil;
+    }
+
+    @Programmatic
+    public void invalidateVerification() {
+        setVerifiedUntil(null);
+    }
+
+    /**
+     * As {@link #invalidateVerification()}, but for a change that the other
+     * items of the lease may depend on: the tax and turnover rent terms derive
+     * their values from the rent items, so changing a rent item marks the
+     * whole lease as to be verified again.
+     */
+    @Programmatic
+    public void invalidateVerificationOfDependents() {
+        if (getType() == LeaseItemType.RENT && getLease() != null) {
+            getLease().invalidateVerification();
+        } else {
+            invalidateVerification();
+        }
+    }
+
+    // //////////////////////////////////////
+
     @Property(optionality = Optionality.OPTIONAL)
     public BigDecimal getValue() {
         return valueForDate(getClockService().now());
@@ -624,6 +665,7 @@ public class LeaseItem
     public LeaseTerm newTerm(
             final @ParameterLayout(named = "Start date") LocalDate startDate,
             final @ParameterLayout(named = "End date") @Parameter(optionality = Optionality.OPTIONAL) LocalDate endDate) {
+        invalidateVerificationOfDependents();
         LeaseTerm term;
         if (getType().autoCreateTerms() && !getTerms().isEmpty()) {
             LeaseTerm lastTerm = getTerms().last();
@@ -671,9 +713,47 @@ public class LeaseItem
         if (!getTerms().isEmpty()) {
             getTerms().first().verifyUntil(date);
         }
+        setVerifiedUntil(date);
         return this;
     }
 
+    /**
+     * Verifies the terms until the given date, skipping the terms that have
+     * already been verified since the last change.
+     *
+     * <p>
+     * When nothing changed since the previous verification the terms are not
+     * touched at all, otherwise the verification resumes from the term
+     * containing the {@link #getVerifiedUntil() watermark}.
+     */
+    @Programmatic
+    public LeaseItem verifyIncrementallyUntil(final LocalDate date) {
+        final LocalDate watermark = getVerifiedUntil();
+        if (watermark == null || date == null) {
+            return verifyUntil(date);
+        }
+        if (!date.isAfter(watermark)) {
+            return this;
+        }
+        final LeaseTerm term = termToResumeVerificationFrom(watermark);
+        if (term != null) {
+            term.verifyUntil(date);
+        }
+        setVerifiedUntil(date);
+        return this;
+    }
+
+    private LeaseTerm termToResumeVerificationFrom(final LocalDate watermark) {
+        LeaseTerm resumeFrom = null;
+        for (LeaseTerm term : getTerms()) {
+            if (resumeFrom != null && term.getStartDate() != null && !term.getStartDate().isBefore(watermark)) {
+                break;
+            }
+            resumeFrom = term;
+        }
+        return resumeFrom;
+    }
+
     // //////////////////////////////////////
 
     @Programmatic
@@ -21,7 +21,10 @@ package org.estatio.dom.lease;
 import java.math.BigInteger;
 import java.util.List;
 import javax.inject.Inject;
+import javax.jdo.Query;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.eventbus.Subscribe;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.joda.time.LocalDate;
 import org.apache.isis.applib.annotation.Action;
@@ -30,6 +33,7 @@ import org.apache.isis.applib.annotation.Hidden;
 import org.apache.isis.applib.annotation.MemberOrder;
 import org.apache.isis.applib.annotation.Named;
 import org.apache.isis.applib.annotation.NotContributed;
+import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.annotation.RestrictTo;
 import org.apache.isis.applib.annotation.SemanticsOf;
 import org.apache.isis.applib.annotation.Where;
@@ -151,6 +155,82 @@ public class LeaseItems extends UdoDomainRepositoryAndFactory<LeaseItem> {
         return allMatches("findByLeaseAndType", "lease", lease, "type", type);
     }
 
+    /**
+     * References of the leases with an item whose status no longer matches
+     * its end date on the given date, with a suspended item while the lease
+     * itself is not suspended, or with an item whose status is not known
+     * (for example once resumed).
+     */
+    @SuppressWarnings("unchecked")
+    @Programmatic
+    public List<String> findLeaseReferencesWithStatusToRefresh(final LocalDate date) {
+        final Query query = newQuery("SELECT DISTINCT lease.reference FROM org.estatio.dom.lease.LeaseItem "
+                + "WHERE status == :unknown "
+                + "|| (status == :active && endDate != null && endDate < :date) "
+                + "|| (status == :terminated && (endDate == null || endDate >= :date)) "
+                + "|| (status == :suspended "
+                + "&& lease.status != :leaseSuspended && lease.status != :leaseSuspendedPartially)");
+        return (List<String>) query.executeWithMap(ImmutableMap.<String, Object> builder()
+                .put("unknown", LeaseItemStatus.UNKOWN)
+                .put("active", LeaseItemStatus.ACTIVE)
+                .put("terminated", LeaseItemStatus.TERMINATED)
+                .put("suspended", LeaseItemStatus.SUSPENDED)
+                .put("leaseSuspended", LeaseStatus.SUSPENDED)
+                .put("leaseSuspendedPartially", LeaseStatus.SUSPENDED_PARTIALLY)
+                .put("date", date)
+                .build());
+    }
+
+
+    // //////////////////////////////////////
+
+    @Subscribe
+    @Programmatic
+    public void on(final Lease.ChangeDatesEvent ev) {
+        switch (ev.getPhase()) {
+        case EXECUTED:
+            ev.getSource().invalidateVerification();
+            break;
+        default:
+            break;
+        }
+    }
+
+    @Subscribe
+    @Programmatic
+    public void on(final Lease.TerminateEvent ev) {
+        switch (ev.getPhase()) {
+        case EXECUTED:
+            ev.getSource().invalidateVerification();
+            break;
+        default:
+            break;
+        }
+    }
+
+    @Subscribe
+    @Programmatic
+    public void on(final Lease.ResumeAllEvent ev) {
+        switch (ev.getPhase()) {
+        case EXECUTED:
+            ev.getSource().invalidateVerification();
+            break;
+        default:
+            break;
+        }
+    }
+
+    @Subscribe
+    @Programmatic
+    public void on(final LeaseItem.ResumeEvent ev) {
+        switch (ev.getPhase()) {
+        case EXECUTED:
+            ev.getSource().invalidateVerification();
+            break;
+        default:
+            break;
+        }
+    }
 
     // //////////////////////////////////////
 
@@ -200,6 +200,7 @@ public abstract class LeaseTerm
 
     public void modifyStartDate(final LocalDate newStartDate) {
         if (ObjectUtils.notEqual(getStartDate(), newStartDate)) {
+            invalidateVerification();
             setStartDate(newStartDate);
             if (getPrevious() != null) {
                 getPrevious().align();
@@ -223,6 +224,7 @@ public abstract class LeaseTerm
 
     public void modifyEndDate(final LocalDate newEndDate) {
         if (ObjectUtils.notEqual(getEndDate(), newEndDate)) {
+            invalidateVerification();
             setEndDate(newEndDate);
         }
     }
@@ -411,6 +413,7 @@ public abstract class LeaseTerm
         }
         success = getInvoiceItems().size() == 0;
         if (success) {
+            invalidateVerification();
             if (getPrevious() != null) {
                 getPrevious().setNext(null);
             }
@@ -462,6 +465,33 @@ public abstract class LeaseTerm
         return this;
     }
 
+    /**
+     * Marks the lease item, and any items of the lease depending on it, as to
+     * be verified again, to be called by every action that changes the dates
+     * or the values of the term.
+     *
+     * @see LeaseItem#invalidateVerificationOfDependents()
+     */
+    @Programmatic
+    protected final void invalidateVerification() {
+        if (getLeaseItem() != null) {
+            getLeaseItem().invalidateVerificationOfDependents();
+        }
+        invalidateContractualRent();
+    }
+
+    /**
+     * The turnover rent terms of the lease derive their contractual rent
+     * from the rent terms.
+     */
+    private void invalidateContractualRent() {
+        if (contractualRentCalculator != null
+                && getLeaseItem() != null
+                && getLeaseItem().getType() == LeaseItemType.RENT) {
+            contractualRentCalculator.invalidate(getLeaseItem().getLease());
+        }
+    }
+
     protected LocalDate nextStartDate() {
         LocalDate nextStartDate = getInterval().endDateExcluding();
         if (nextStartDate == null) {
@@ -540,6 +570,7 @@ public abstract class LeaseTerm
             }
         }
         doAlign();
+        invalidateContractualRent();
     }
 
     /**
@@ -657,4 +688,14 @@ public abstract class LeaseTerm
         this.terms = terms;
     }
 
+    private ContractualRentCalculator contractualRentCalculator;
+
+    public final void injectContractualRentCalculator(final ContractualRentCalculator contractualRentCalculator) {
+        this.contractualRentCalculator = contractualRentCalculator;
+    }
+
+    ContractualRentCalculator getContractualRentCalculator() {
+        return contractualRentCalculator;
+    }
+
 }
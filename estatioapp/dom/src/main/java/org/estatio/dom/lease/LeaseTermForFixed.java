@@ -52,6 +52,7 @@ public class LeaseTermForFixed
     public LeaseTerm changeValue(
             final @Named("Value") BigDecimal value) {
         setValue(value);
+        invalidateVerification();
         return this;
     }
 
@@ -173,6 +173,7 @@ public class LeaseTermForIndexable extends LeaseTerm implements Indexable {
         setIndexationPercentage(null);
         // align
         doAlign();
+        invalidateVerification();
         return this;
     }
 
@@ -290,6 +291,7 @@ public class LeaseTermForIndexable extends LeaseTerm implements Indexable {
         setSettledValue(settledValue);
         setIndexedValue(null);
         doAlign();
+        invalidateVerification();
         return this;
     }
 
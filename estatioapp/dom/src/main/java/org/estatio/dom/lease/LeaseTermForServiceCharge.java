@@ -69,6 +69,7 @@ public class LeaseTermForServiceCharge extends LeaseTerm {
             final @Named("Audited value") @Optional BigDecimal auditedValue) {
         setBudgetedValue(budgetedValue);
         setAuditedValue(auditedValue);
+        invalidateVerification();
         return this;
     }
 
@@ -95,6 +95,7 @@ public class LeaseTermForTax extends LeaseTerm {
         setTaxPercentage(taxPercentage);
         setPayableValue(overridePayableValue);
         setOverridePayableValue(overridePayableValue != null);
+        invalidateVerification();
         return this;
     }
 
@@ -164,6 +165,7 @@ public class LeaseTermForTax extends LeaseTerm {
         setRecoverablePercentage(recoverablePercentage);
         setTaxValue(overrideTaxValue);
         setOverrideTaxValue(overrideTaxValue != null);
+        invalidateVerification();
         return this;
     }
 
@@ -19,7 +19,6 @@
 package org.estatio.dom.lease;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.jdo.annotations.InheritanceStrategy;
@@ -56,8 +55,7 @@ public class LeaseTermForTurnoverRent extends LeaseTerm {
 
     public String validateTurnoverRentRule(final String turnoverRentrule) {
         if (Strings.isNullOrEmpty(turnoverRentrule)) {
-            TurnoverRentRuleHelper helper = new TurnoverRentRuleHelper(turnoverRentrule);
-            if (!helper.isValid()) {
+            if (!TurnoverRentRulePlan.of(turnoverRentrule).isValid()) {
                 return "'" + turnoverRentrule + "' is not a valid rule";
             }
         }
@@ -88,6 +86,7 @@ public class LeaseTermForTurnoverRent extends LeaseTerm {
         setAuditedTurnover(newAuditedTurnover);
         setStatus(LeaseTermStatus.NEW);
         doAlign();
+        invalidateVerification();
         return this;
     }
     
@@ -190,14 +189,11 @@ public class LeaseTermForTurnoverRent extends LeaseTerm {
         if (getStatus() != LeaseTermStatus.APPROVED) {
             // Collect all results
             BigDecimal newContractualRent = BigDecimal.ZERO;
-            List<LeaseItem> rentItems = getLeaseItem().getLease().findItemsOfType(LeaseItemType.RENT);
-            List<CalculationResult> calculationResults = new ArrayList<CalculationResult>();
-            for (LeaseItem rentItem : rentItems) {
-                calculationResults.addAll(rentItem.calculationResults(
-                        rentItem.getInvoicingFrequency(),
-                        getStartDate(),
-                        getStartDate().plusYears(2)));
-            }
+            final Lease lease = getLeaseItem().getLease();
+            final List<CalculationResult> calculationResults =
+                    getContractualRentCalculator() == null
+                            ? ContractualRentCalculator.calculate(lease, getStartDate())
+                            : getContractualRentCalculator().rentResults(lease, getStartDate());
             // TODO: do prorata when intervals don't match
             for (CalculationResult result : calculationResults) {
                 if (getInterval().contains(result.invoicingInterval().asLocalDateInterval())) {
@@ -222,8 +218,7 @@ public class LeaseTermForTurnoverRent extends LeaseTerm {
             // Audited Turnover Rent
             if (getTurnoverRentRule() != null) {
                 // Ignore the rule when empty
-                TurnoverRentRuleHelper helper = new TurnoverRentRuleHelper(getTurnoverRentRule());
-                BigDecimal newAuditedTurnoverRent = helper.calculateRent(getAuditedTurnover()).subtract(getContractualRent());
+                BigDecimal newAuditedTurnoverRent = TurnoverRentRulePlan.of(getTurnoverRentRule()).calculateRent(getAuditedTurnover()).subtract(getContractualRent());
                 if (ObjectUtils.compare(newAuditedTurnoverRent, BigDecimal.ZERO) < 0) {
                     newAuditedTurnoverRent = BigDecimal.ZERO;
                 }
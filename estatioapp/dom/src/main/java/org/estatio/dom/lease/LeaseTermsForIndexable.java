@@ -20,6 +20,8 @@ package org.estatio.dom.lease;
 
 import java.util.List;
 
+import javax.inject.Inject;
+
 import com.google.common.eventbus.Subscribe;
 
 import org.joda.time.LocalDate;
@@ -27,10 +29,14 @@ import org.joda.time.LocalDate;
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.NatureOfService;
 import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.eventbus.AbstractDomainEvent;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.index.Index;
 import org.estatio.dom.index.IndexValue;
+import org.estatio.dom.index.IndexValues;
+import org.estatio.dom.lease.indexation.Reindexation;
+import org.estatio.dom.lease.indexation.Reindexations;
 
 @DomainService(nature = NatureOfService.DOMAIN, repositoryFor = LeaseTermForIndexable.class)
 public class LeaseTermsForIndexable extends UdoDomainRepositoryAndFactory<LeaseTermForIndexable> {
@@ -47,12 +53,38 @@ public class LeaseTermsForIndexable extends UdoDomainRepositoryAndFactory<LeaseT
 
     // //////////////////////////////////////
 
+    /**
+     * Rather than aligning the affected terms right away, which for a widely
+     * used index takes long, requests a {@link Reindexation} to do so in the
+     * background. Their verification is invalidated right away though, which
+     * is cheap, so that until then nothing is invoiced from a stale value.
+     *
+     * <p>
+     * The event is handled once, when posted {@link IndexValues#newIndexValue
+     * programmatically} (without a phase) or when the action is about to be
+     * executed, while the value (if being removed) can still be navigated.
+     */
     @Programmatic
     @Subscribe
     public void on(final IndexValue.UpdateEvent ev) {
-        for (LeaseTermForIndexable term : findByIndexAndDate(ev.getSource().getIndexBase().getIndex(), ev.getSource().getStartDate())) {
-            term.verify();
+        if (ev.getPhase() != null && ev.getPhase() != AbstractDomainEvent.Phase.EXECUTING) {
+            return;
+        }
+        final Index index = ev.getSource().getIndexBase().getIndex();
+        final LocalDate date = ev.getSource().getStartDate();
+        final List<LeaseTermForIndexable> terms = findByIndexAndDate(index, date);
+        if (terms.isEmpty()) {
+            return;
+        }
+        for (LeaseTermForIndexable term : terms) {
+            term.getLeaseItem().invalidateVerificationOfDependents();
         }
+        reindexations.request(index, date);
     }
 
+    // //////////////////////////////////////
+
+    @Inject
+    Reindexations reindexations;
+
 }
@@ -23,7 +23,9 @@ import java.util.Map;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import javax.jdo.Query;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.joda.time.DateTime;
@@ -62,6 +64,7 @@ import org.estatio.dom.party.Party;
 import org.estatio.dom.utils.JodaPeriodUtils;
 import org.estatio.dom.utils.StringUtils;
 import org.estatio.dom.valuetypes.LocalDateInterval;
+import org.estatio.services.search.SearchIndexService;
 
 @DomainService(repositoryFor = Lease.class)
 @DomainServiceLayout(
@@ -189,10 +192,24 @@ public class Leases extends UdoDomainRepositoryAndFactory<Lease> {
     public List<Lease> findLeases(
             final @ParameterLayout(named = "Reference or Name", describedAs = "May include wildcards '*' and '?'") String refOrName,
             final @ParameterLayout(named = "Include terminated") boolean includeTerminated) {
+        final List<Lease> leases = searchIndexService.search(Lease.class, refOrName, "reference", "name");
+        if (leases != null) {
+            return includeTerminated ? leases : notTerminatedOn(leases, clockService.now());
+        }
         String pattern = StringUtils.wildcardToCaseInsensitiveRegex(refOrName);
         return allMatches("matchByReferenceOrName", "referenceOrName", pattern, "includeTerminated", includeTerminated, "date", clockService.now());
     }
 
+    private static List<Lease> notTerminatedOn(final List<Lease> leases, final LocalDate date) {
+        final List<Lease> notTerminated = Lists.newArrayList();
+        for (Lease lease : leases) {
+            if (lease.getTenancyEndDate() == null || !lease.getTenancyEndDate().isBefore(date)) {
+                notTerminated.add(lease);
+            }
+        }
+        return notTerminated;
+    }
+
     @Action(semantics = SemanticsOf.SAFE)
     @MemberOrder(sequence = "4")
     public List<Lease> findLeasesByBrand(
@@ -280,6 +297,26 @@ public class Leases extends UdoDomainRepositoryAndFactory<Lease> {
                 : Lists.<Lease> newArrayList();
     }
 
+    /**
+     * References of the leases whose status no longer matches their tenancy
+     * end date on the given date, and of all (partially) suspended leases.
+     */
+    @SuppressWarnings("unchecked")
+    @Programmatic
+    public List<String> findReferencesWithStatusToRefresh(final LocalDate date) {
+        final Query query = newQuery("SELECT reference FROM org.estatio.dom.lease.Lease "
+                + "WHERE (status == :active && tenancyEndDate != null && tenancyEndDate < :date) "
+                + "|| (status == :terminated && (tenancyEndDate == null || tenancyEndDate >= :date)) "
+                + "|| status == :suspended || status == :suspendedPartially");
+        return (List<String>) query.executeWithMap(ImmutableMap.<String, Object> builder()
+                .put("active", LeaseStatus.ACTIVE)
+                .put("terminated", LeaseStatus.TERMINATED)
+                .put("suspended", LeaseStatus.SUSPENDED)
+                .put("suspendedPartially", LeaseStatus.SUSPENDED_PARTIALLY)
+                .put("date", date)
+                .build());
+    }
+
     // //////////////////////////////////////
 
     @PostConstruct
@@ -336,4 +373,7 @@ public class Leases extends UdoDomainRepositoryAndFactory<Lease> {
     @Inject
     private EstatioApplicationTenancies estatioApplicationTenancies;
 
+    @Inject
+    SearchIndexService searchIndexService;
+
 }
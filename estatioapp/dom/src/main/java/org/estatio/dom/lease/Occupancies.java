@@ -21,6 +21,7 @@ package org.estatio.dom.lease;
 import java.util.List;
 import java.util.UUID;
 import javax.inject.Inject;
+import javax.jdo.Query;
 import com.google.common.eventbus.Subscribe;
 import org.joda.time.LocalDate;
 import org.apache.isis.applib.annotation.Action;
@@ -37,6 +38,7 @@ import org.apache.isis.applib.annotation.SemanticsOf;
 import org.apache.isis.applib.services.clock.ClockService;
 import org.apache.isis.applib.services.scratchpad.Scratchpad;
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.asset.Property;
 import org.estatio.dom.asset.Unit;
 import org.estatio.dom.lease.tags.Brand;
 import org.estatio.dom.valuetypes.LocalDateInterval;
@@ -87,6 +89,25 @@ public class Occupancies extends UdoDomainRepositoryAndFactory<Occupancy> {
 
     // //////////////////////////////////////
 
+    /**
+     * For each occupancy of the units of the property, ordered by start date,
+     * the reference of the unit, its start and end date, and the name,
+     * tenancy end date and status of the lease; with a single query rather
+     * than navigating to the unit and lease of every occupancy.
+     */
+    @SuppressWarnings("unchecked")
+    @Programmatic
+    public List<Object[]> findSummariesByProperty(final Property property) {
+        final Query query = newQuery("SELECT unit.reference, startDate, endDate, "
+                + "lease.name, lease.tenancyEndDate, lease.status "
+                + "FROM org.estatio.dom.lease.Occupancy "
+                + "WHERE unit.property == :property "
+                + "ORDER BY startDate");
+        return (List<Object[]>) query.execute(property);
+    }
+
+    // //////////////////////////////////////
+
     @Programmatic
     public Occupancy findByLeaseAndUnitAndStartDate(
             final Lease lease,
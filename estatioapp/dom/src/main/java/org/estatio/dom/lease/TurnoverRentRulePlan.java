@@ -0,0 +1,278 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Compiled, immutable form of a turnover rent rule
+ * (<tt>cap;percentage;cap;percentage;...;percentage</tt>), shared by all terms
+ * with the same rule.
+ *
+ * <p>
+ * Turnovers are evaluated in cents, and percentages scaled to whole numbers,
+ * as long arithmetic; each tier is rounded half up to the cent as
+ * {@link #calculateRentExact(BigDecimal) the BigDecimal evaluation} does.
+ * Rules or turnovers that do not fit (more than two decimals in a cap or
+ * turnover, more than eight in a percentage, or an overflow) are evaluated
+ * with BigDecimals instead.
+ */
+public final class TurnoverRentRulePlan {
+
+    private static final int MAX_PERCENTAGE_SCALE = 8;
+
+    private static final BigDecimal ZERO = new BigDecimal("0.00");
+
+    private static final TurnoverRentRulePlan INVALID = new TurnoverRentRulePlan(null, null);
+
+    private static final ConcurrentMap<String, TurnoverRentRulePlan> PLANS = new ConcurrentHashMap<String, TurnoverRentRulePlan>();
+
+    /**
+     * Returns the (shared) plan of the rule, never <tt>null</tt>; an invalid
+     * or empty rule yields a plan that is not {@link #isValid() valid} and
+     * calculates no rent.
+     */
+    public static TurnoverRentRulePlan of(final String rule) {
+        if (rule == null) {
+            return INVALID;
+        }
+        TurnoverRentRulePlan plan = PLANS.get(rule);
+        if (plan == null) {
+            plan = compile(rule);
+            final TurnoverRentRulePlan existing = PLANS.putIfAbsent(rule, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    private static TurnoverRentRulePlan compile(final String rule) {
+        if (rule.trim().length() == 0) {
+            return INVALID;
+        }
+        final String[] parts = rule.split(";");
+        if (parts.length % 2 == 0) {
+            return INVALID;
+        }
+        for (String part : parts) {
+            if (!TurnoverRentRuleHelper.isNumeric(part)) {
+                return INVALID;
+            }
+        }
+        final int tiers = parts.length / 2 + 1;
+        final BigDecimal[] caps = new BigDecimal[tiers - 1];
+        final BigDecimal[] percentages = new BigDecimal[tiers];
+        for (int i = 0; i < tiers; i++) {
+            if (i < tiers - 1) {
+                caps[i] = new BigDecimal(parts[2 * i]);
+                percentages[i] = new BigDecimal(parts[2 * i + 1]);
+            } else {
+                percentages[i] = new BigDecimal(parts[2 * i]);
+            }
+        }
+        return new TurnoverRentRulePlan(caps, percentages);
+    }
+
+    // //////////////////////////////////////
+
+    private final BigDecimal[] caps;
+    private final BigDecimal[] percentages;
+
+    private final boolean fixedPoint;
+    private final long[] capCents;
+    private final long[] percentageUnits;
+    /**
+     * Turns cents times percentage units into cents.
+     */
+    private final long divisor;
+
+    private TurnoverRentRulePlan(final BigDecimal[] caps, final BigDecimal[] percentages) {
+        this.caps = caps;
+        this.percentages = percentages;
+
+        long[] capCents = null;
+        long[] percentageUnits = null;
+        long divisor = 0;
+        if (percentages != null) {
+            int scale = 0;
+            for (BigDecimal percentage : percentages) {
+                scale = Math.max(scale, percentage.stripTrailingZeros().scale());
+            }
+            if (scale <= MAX_PERCENTAGE_SCALE) {
+                try {
+                    capCents = new long[caps.length];
+                    for (int i = 0; i < caps.length; i++) {
+                        capCents[i] = toCents(caps[i]);
+                    }
+                    percentageUnits = new long[percentages.length];
+                    for (int i = 0; i < percentages.length; i++) {
+                        percentageUnits[i] = percentages[i].movePointRight(scale).longValueExact();
+                    }
+                    // percentage divisor of 100 times the percentage scale
+                    divisor = BigDecimal.ONE.movePointRight(scale + 2).longValueExact();
+                } catch (ArithmeticException ex) {
+                    capCents = null;
+                }
+            }
+        }
+        this.fixedPoint = capCents != null;
+        this.capCents = capCents;
+        this.percentageUnits = percentageUnits;
+        this.divisor = divisor;
+    }
+
+    public boolean isValid() {
+        return percentages != null;
+    }
+
+    public int getTiers() {
+        return percentages == null ? 0 : percentages.length;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The rent for the turnover, with a scale of 2; zero if the rule is not
+     * valid or there is no turnover.
+     */
+    public BigDecimal calculateRent(final BigDecimal turnover) {
+        if (!isValid() || turnover == null) {
+            return ZERO;
+        }
+        if (fixedPoint) {
+            try {
+                return BigDecimal.valueOf(rentCents(toCents(turnover)), 2);
+            } catch (ArithmeticException ex) {
+                // more than two decimals or too large, fall through
+            }
+        }
+        return calculateRentExact(turnover);
+    }
+
+    /**
+     * The rents for many turnovers, evaluating this one plan.
+     */
+    public List<BigDecimal> calculateRent(final List<BigDecimal> turnovers) {
+        final List<BigDecimal> rents = Lists.newArrayListWithCapacity(turnovers.size());
+        for (BigDecimal turnover : turnovers) {
+            rents.add(calculateRent(turnover));
+        }
+        return rents;
+    }
+
+    /**
+     * The rents in cents for turnovers in cents, without any object
+     * allocated per turnover.
+     *
+     * @throws ArithmeticException if the plan cannot be evaluated in cents or
+     *             a rent overflows
+     */
+    public long[] calculateRentCents(final long[] turnoverCents) {
+        if (!isValid()) {
+            return new long[turnoverCents.length];
+        }
+        if (!fixedPoint) {
+            throw new ArithmeticException("Rule cannot be evaluated in cents");
+        }
+        final long[] rents = new long[turnoverCents.length];
+        for (int i = 0; i < turnoverCents.length; i++) {
+            rents[i] = rentCents(turnoverCents[i]);
+        }
+        return rents;
+    }
+
+    private long rentCents(final long turnover) {
+        long total = 0;
+        long previousCap = 0;
+        final int last = percentageUnits.length - 1;
+        for (int i = 0; i <= last; i++) {
+            long base = 0;
+            if (i == last) {
+                if (turnover > previousCap) {
+                    base = turnover - previousCap;
+                }
+            } else {
+                final long cap = capCents[i];
+                if (turnover > cap) {
+                    base = cap - previousCap;
+                } else if (turnover > previousCap) {
+                    base = turnover - previousCap;
+                }
+                previousCap = cap;
+            }
+            total = Math.addExact(total, divideHalfUp(Math.multiplyExact(base, percentageUnits[i]), divisor));
+        }
+        return total;
+    }
+
+    private static long divideHalfUp(final long dividend, final long divisor) {
+        final long quotient = dividend / divisor;
+        final long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            return quotient + Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    private static long toCents(final BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Evaluates the tiers in BigDecimals, for rules and turnovers that do not
+     * fit in cents.
+     */
+    BigDecimal calculateRentExact(final BigDecimal turnover) {
+        if (!isValid() || turnover == null) {
+            return ZERO;
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal previousCap = BigDecimal.ZERO;
+        final int last = percentages.length - 1;
+        for (int i = 0; i <= last; i++) {
+            BigDecimal base = BigDecimal.ZERO;
+            if (i == last) {
+                if (turnover.compareTo(previousCap) > 0) {
+                    base = turnover.subtract(previousCap);
+                }
+            } else {
+                final BigDecimal cap = caps[i];
+                if (turnover.compareTo(cap) > 0) {
+                    base = cap.subtract(previousCap);
+                } else if (turnover.compareTo(previousCap) > 0) {
+                    base = turnover.subtract(previousCap);
+                }
+                previousCap = cap;
+            }
+            final BigDecimal percentage = percentages[i].divide(LeaseConstants.PERCENTAGE_DIVISOR);
+            total = total.add(base.multiply(percentage).setScale(2, RoundingMode.HALF_UP));
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+
+}
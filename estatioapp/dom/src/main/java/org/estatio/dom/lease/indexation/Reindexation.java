@@ -0,0 +1,418 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.indexation;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+import javax.jdo.annotations.VersionStrategy;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+
+import org.apache.isis.applib.annotation.Action;
+import org.apache.isis.applib.annotation.CollectionLayout;
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Editing;
+import org.apache.isis.applib.annotation.Optionality;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.Property;
+import org.apache.isis.applib.annotation.PropertyLayout;
+import org.apache.isis.applib.annotation.RenderType;
+import org.apache.isis.applib.annotation.SemanticsOf;
+import org.apache.isis.applib.annotation.Title;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+
+import org.estatio.dom.EstatioDomainObject;
+import org.estatio.dom.JdoColumnLength;
+import org.estatio.dom.apptenancy.WithApplicationTenancyCountry;
+import org.estatio.dom.index.Index;
+import org.estatio.dom.lease.LeaseTermForIndexable;
+
+/**
+ * Records that the {@link LeaseTermForIndexable terms} indexed on a value of
+ * an {@link Index} (published or changed on the given date) are to be
+ * aligned again, which the {@link ReindexationService} then does in the
+ * background, keeping track of its progress and of the terms that failed.
+ */
+@javax.jdo.annotations.PersistenceCapable(identityType = IdentityType.DATASTORE)
+@javax.jdo.annotations.DatastoreIdentity(
+        strategy = IdGeneratorStrategy.NATIVE,
+        column = "id")
+@javax.jdo.annotations.Version(
+        strategy = VersionStrategy.VERSION_NUMBER,
+        column = "version")
+@javax.jdo.annotations.Queries({
+        @javax.jdo.annotations.Query(
+                name = "findByIndexAndDateAndStatus", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.indexation.Reindexation "
+                        + "WHERE index == :index "
+                        + "&& date == :date "
+                        + "&& status == :status"),
+        @javax.jdo.annotations.Query(
+                name = "findByStatus", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.indexation.Reindexation "
+                        + "WHERE status == :status "
+                        + "ORDER BY requestedOn"),
+        @javax.jdo.annotations.Query(
+                name = "findByStatusAndStartedBefore", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.indexation.Reindexation "
+                        + "WHERE status == :status "
+                        + "&& startedOn < :startedOn "
+                        + "ORDER BY requestedOn")
+})
+@DomainObject(editing = Editing.DISABLED)
+public class Reindexation
+        extends EstatioDomainObject<Reindexation>
+        implements WithApplicationTenancyCountry {
+
+    public Reindexation() {
+        super("index, date, requestedOn");
+    }
+
+    // //////////////////////////////////////
+
+    @PropertyLayout(
+            named = "Application Level",
+            describedAs = "Determines those users for whom this object is available to view and/or modify."
+    )
+    public ApplicationTenancy getApplicationTenancy() {
+        return getIndex().getApplicationTenancy();
+    }
+
+    // //////////////////////////////////////
+
+    private Index index;
+
+    @javax.jdo.annotations.Column(name = "indexId", allowsNull = "false")
+    @Title(sequence = "1", append = ", ")
+    public Index getIndex() {
+        return index;
+    }
+
+    public void setIndex(final Index index) {
+        this.index = index;
+    }
+
+    // //////////////////////////////////////
+
+    @javax.jdo.annotations.Persistent
+    private LocalDate date;
+
+    /**
+     * The start date of the index value, terms with this date as their base
+     * or next index start date are aligned.
+     */
+    @javax.jdo.annotations.Column(allowsNull = "false")
+    @Title(sequence = "2")
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(final LocalDate date) {
+        this.date = date;
+    }
+
+    // //////////////////////////////////////
+
+    private ReindexationStatus status;
+
+    @javax.jdo.annotations.Column(allowsNull = "false", length = JdoColumnLength.STATUS_ENUM)
+    public ReindexationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(final ReindexationStatus status) {
+        this.status = status;
+    }
+
+    // //////////////////////////////////////
+
+    @javax.jdo.annotations.Persistent
+    private LocalDateTime requestedOn;
+
+    @javax.jdo.annotations.Column(allowsNull = "false")
+    public LocalDateTime getRequestedOn() {
+        return requestedOn;
+    }
+
+    public void setRequestedOn(final LocalDateTime requestedOn) {
+        this.requestedOn = requestedOn;
+    }
+
+    // //////////////////////////////////////
+
+    @javax.jdo.annotations.Persistent
+    private LocalDateTime startedOn;
+
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    @Property(optionality = Optionality.OPTIONAL)
+    public LocalDateTime getStartedOn() {
+        return startedOn;
+    }
+
+    public void setStartedOn(final LocalDateTime startedOn) {
+        this.startedOn = startedOn;
+    }
+
+    // //////////////////////////////////////
+
+    @javax.jdo.annotations.Persistent
+    private LocalDateTime completedOn;
+
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    @Property(optionality = Optionality.OPTIONAL)
+    public LocalDateTime getCompletedOn() {
+        return completedOn;
+    }
+
+    public void setCompletedOn(final LocalDateTime completedOn) {
+        this.completedOn = completedOn;
+    }
+
+    // //////////////////////////////////////
+
+    private int attempts;
+
+    /**
+     * The number of runs started since requested, including those that
+     * failed as a whole.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(final int attempts) {
+        this.attempts = attempts;
+    }
+
+    // //////////////////////////////////////
+
+    private int terms;
+
+    /**
+     * The number of terms to align in the current (or last) run.
+     */
+    public int getTerms() {
+        return terms;
+    }
+
+    public void setTerms(final int terms) {
+        this.terms = terms;
+    }
+
+    // //////////////////////////////////////
+
+    private int processed;
+
+    /**
+     * The number of terms aligned so far, failed ones included.
+     */
+    public int getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(final int processed) {
+        this.processed = processed;
+    }
+
+    // //////////////////////////////////////
+
+    private int failed;
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(final int failed) {
+        this.failed = failed;
+    }
+
+    // //////////////////////////////////////
+
+    private String failures;
+
+    /**
+     * One line for each failed term: its bookmark followed by the error.
+     */
+    @javax.jdo.annotations.Column(allowsNull = "true", jdbcType = "CLOB")
+    @Property(optionality = Optionality.OPTIONAL)
+    @PropertyLayout(multiLine = 10)
+    public String getFailures() {
+        return failures;
+    }
+
+    public void setFailures(final String failures) {
+        this.failures = failures;
+    }
+
+    // //////////////////////////////////////
+
+    private boolean failuresOnly;
+
+    /**
+     * Whether the next run aligns only the terms that failed in the last one.
+     */
+    public boolean isFailuresOnly() {
+        return failuresOnly;
+    }
+
+    public void setFailuresOnly(final boolean failuresOnly) {
+        this.failuresOnly = failuresOnly;
+    }
+
+    // //////////////////////////////////////
+
+    @javax.jdo.annotations.NotPersistent
+    @CollectionLayout(render = RenderType.EAGERLY)
+    public List<LeaseTermForIndexable> getFailedTerms() {
+        final List<LeaseTermForIndexable> failedTerms = Lists.newArrayList();
+        for (String bookmark : getFailedTermBookmarks()) {
+            final Object term = bookmarkService.lookup(new Bookmark(bookmark));
+            if (term instanceof LeaseTermForIndexable) {
+                failedTerms.add((LeaseTermForIndexable) term);
+            }
+        }
+        return failedTerms;
+    }
+
+    @Programmatic
+    public List<String> getFailedTermBookmarks() {
+        final List<String> bookmarks = Lists.newArrayList();
+        if (getFailures() != null) {
+            for (String line : Splitter.on('\n').omitEmptyStrings().split(getFailures())) {
+                final int separator = line.indexOf(' ');
+                bookmarks.add(separator < 0 ? line : line.substring(0, separator));
+            }
+        }
+        return bookmarks;
+    }
+
+    @Programmatic
+    public void addFailure(final String termBookmark, final String message) {
+        final String line = termBookmark + " " + (message == null ? "" : message.replace('\n', ' '));
+        setFailures(getFailures() == null ? line : getFailures() + "\n" + line);
+        setFailed(getFailed() + 1);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The number of runs after which a reindexation whose runs keep failing
+     * as a whole is given up.
+     */
+    static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Moves the reindexation to running, provided it is still to be run:
+     * pending, or left running by a job that died. One that was started
+     * {@link #MAX_ATTEMPTS} times already is marked as failed instead.
+     * Returns whether the reindexation is to be run now.
+     */
+    @Programmatic
+    public boolean claim(final LocalDateTime now) {
+        final boolean stale = getStatus() == ReindexationStatus.RUNNING
+                && getStartedOn() != null
+                && getStartedOn().isBefore(now.minusHours(Reindexations.STALE_AFTER_HOURS));
+        if (getStatus() != ReindexationStatus.PENDING && !stale) {
+            return false;
+        }
+        if (getAttempts() >= MAX_ATTEMPTS) {
+            setStatus(ReindexationStatus.FAILED);
+            setCompletedOn(now);
+            return false;
+        }
+        setStatus(ReindexationStatus.RUNNING);
+        setStartedOn(now);
+        setAttempts(getAttempts() + 1);
+        return true;
+    }
+
+    /**
+     * Puts the running reindexation back to pending after its run failed
+     * other than by the failure of individual terms, or marks it as failed
+     * once it was started {@link #MAX_ATTEMPTS} times.
+     */
+    @Programmatic
+    public void abort(final LocalDateTime now) {
+        if (getStatus() != ReindexationStatus.RUNNING) {
+            return;
+        }
+        if (getAttempts() >= MAX_ATTEMPTS) {
+            setStatus(ReindexationStatus.FAILED);
+            setCompletedOn(now);
+        } else {
+            setStatus(ReindexationStatus.PENDING);
+            setStartedOn(null);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Schedules another run for only those terms that failed.
+     */
+    @Action(semantics = SemanticsOf.IDEMPOTENT)
+    public Reindexation rerunFailures() {
+        setFailuresOnly(true);
+        setStatus(ReindexationStatus.PENDING);
+        setAttempts(0);
+        setRequestedOn(getClockService().nowAsLocalDateTime());
+        return this;
+    }
+
+    public String disableRerunFailures() {
+        return getStatus() == ReindexationStatus.COMPLETED_WITH_FAILURES ? null : "No failures to re-run";
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Schedules a reindexation that was given up to be run again.
+     */
+    @Action(semantics = SemanticsOf.IDEMPOTENT)
+    public Reindexation retry() {
+        setStatus(ReindexationStatus.PENDING);
+        setAttempts(0);
+        setStartedOn(null);
+        setCompletedOn(null);
+        setRequestedOn(getClockService().nowAsLocalDateTime());
+        return this;
+    }
+
+    public String disableRetry() {
+        return getStatus() == ReindexationStatus.FAILED ? null : "Only failed reindexations can be retried";
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    BookmarkService bookmarkService;
+
+}
@@ -0,0 +1,187 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.indexation;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+
+import org.estatio.dom.index.IndexValues;
+import org.estatio.dom.lease.LeaseTermForIndexable;
+import org.estatio.dom.lease.LeaseTermsForIndexable;
+import org.estatio.services.clock.ClockService;
+
+/**
+ * Aligns the terms of {@link Reindexation}s step by step, so that the caller
+ * (typically a background job) can commit each step separately. Everything
+ * is passed around as bookmarks since the objects of one transaction are not
+ * to be used in the next.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class ReindexationService {
+
+    @Programmatic
+    public List<String> pendingReindexations() {
+        final List<String> bookmarks = Lists.newArrayList();
+        for (Reindexation reindexation : reindexations.findPending()) {
+            bookmarks.add(bookmarkOf(reindexation));
+        }
+        return bookmarks;
+    }
+
+    /**
+     * Claims the reindexation for the calling job, see
+     * {@link Reindexation#claim(org.joda.time.LocalDateTime)}; returns
+     * whether claimed.
+     *
+     * <p>
+     * The reindexation being versioned, of two jobs (on different nodes)
+     * claiming it at the same time only the first to commit succeeds, the
+     * other one failing on the version when committing.
+     */
+    @Programmatic
+    public boolean claim(final String reindexationBookmark) {
+        final Reindexation reindexation = lookup(reindexationBookmark);
+        return reindexation != null && reindexation.claim(clockService.nowAsLocalDateTime());
+    }
+
+    /**
+     * Resets the progress of the claimed reindexation and returns the terms
+     * to align:
+     * either all terms indexed on its date or, when
+     * {@link Reindexation#isFailuresOnly() re-running}, the ones that failed
+     * the last time.
+     *
+     * <p>
+     * The values of the index are loaded into its
+     * {@link IndexValues#seriesFor(org.estatio.dom.index.Index) series} up
+     * front, to be shared by all terms rather than queried for each.
+     */
+    @Programmatic
+    public List<String> start(final String reindexationBookmark) {
+        final Reindexation reindexation = lookup(reindexationBookmark);
+        final List<String> termBookmarks;
+        if (reindexation.isFailuresOnly()) {
+            termBookmarks = reindexation.getFailedTermBookmarks();
+        } else {
+            termBookmarks = Lists.newArrayList();
+            for (LeaseTermForIndexable term : leaseTermsForIndexable.findByIndexAndDate(reindexation.getIndex(), reindexation.getDate())) {
+                termBookmarks.add(bookmarkOf(term));
+            }
+        }
+        indexValues.seriesFor(reindexation.getIndex());
+
+        reindexation.setCompletedOn(null);
+        reindexation.setTerms(termBookmarks.size());
+        reindexation.setProcessed(0);
+        reindexation.setFailed(0);
+        reindexation.setFailures(null);
+        return termBookmarks;
+    }
+
+    /**
+     * Aligns the given terms; any exception is left to the caller, the
+     * transaction of this batch being lost anyway.
+     */
+    @Programmatic
+    public void reindex(final String reindexationBookmark, final List<String> termBookmarks) {
+        for (String termBookmark : termBookmarks) {
+            final Object term = bookmarkService.lookup(new Bookmark(termBookmark));
+            if (term instanceof LeaseTermForIndexable) {
+                final LeaseTermForIndexable indexable = (LeaseTermForIndexable) term;
+                indexable.getLeaseItem().invalidateVerificationOfDependents();
+                indexable.verify();
+            }
+        }
+        final Reindexation reindexation = lookup(reindexationBookmark);
+        reindexation.setProcessed(reindexation.getProcessed() + termBookmarks.size());
+    }
+
+    @Programmatic
+    public void recordFailure(final String reindexationBookmark, final String termBookmark, final Throwable failure) {
+        final Reindexation reindexation = lookup(reindexationBookmark);
+        final Throwable cause = Throwables.getRootCause(failure);
+        reindexation.addFailure(termBookmark, cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        reindexation.setProcessed(reindexation.getProcessed() + 1);
+    }
+
+    /**
+     * Returns the reindexation, finished.
+     */
+    @Programmatic
+    public Reindexation complete(final String reindexationBookmark) {
+        final Reindexation reindexation = lookup(reindexationBookmark);
+        reindexation.setStatus(reindexation.getFailed() == 0
+                ? ReindexationStatus.COMPLETED
+                : ReindexationStatus.COMPLETED_WITH_FAILURES);
+        reindexation.setCompletedOn(clockService.nowAsLocalDateTime());
+        reindexation.setFailuresOnly(false);
+        return reindexation;
+    }
+
+    /**
+     * Puts the reindexation back to pending, to be run again by the next job,
+     * after its run failed other than by the failure of individual terms;
+     * gives it up once it failed too often.
+     */
+    @Programmatic
+    public void abort(final String reindexationBookmark) {
+        final Reindexation reindexation = lookup(reindexationBookmark);
+        if (reindexation != null) {
+            reindexation.abort(clockService.nowAsLocalDateTime());
+        }
+    }
+
+    // //////////////////////////////////////
+
+    private String bookmarkOf(final Object domainObject) {
+        return bookmarkService.bookmarkFor(domainObject).toString();
+    }
+
+    private Reindexation lookup(final String reindexationBookmark) {
+        return (Reindexation) bookmarkService.lookup(new Bookmark(reindexationBookmark));
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    Reindexations reindexations;
+
+    @Inject
+    LeaseTermsForIndexable leaseTermsForIndexable;
+
+    @Inject
+    IndexValues indexValues;
+
+    @Inject
+    BookmarkService bookmarkService;
+
+    @Inject
+    ClockService clockService;
+
+}
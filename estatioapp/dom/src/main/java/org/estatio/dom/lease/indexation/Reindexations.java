@@ -0,0 +1,116 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.indexation;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.Action;
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.DomainServiceLayout;
+import org.apache.isis.applib.annotation.MemberOrder;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.SemanticsOf;
+
+import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.index.Index;
+
+@DomainService(repositoryFor = Reindexation.class)
+@DomainServiceLayout(
+        named = "Indices",
+        menuBar = DomainServiceLayout.MenuBar.PRIMARY,
+        menuOrder = "60.4")
+public class Reindexations extends UdoDomainRepositoryAndFactory<Reindexation> {
+
+    public Reindexations() {
+        super(Reindexations.class, Reindexation.class);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Requests the terms indexed on the given date to be aligned, unless such
+     * a request is pending already.
+     */
+    @Programmatic
+    public Reindexation request(final Index index, final LocalDate date) {
+        Reindexation reindexation = firstMatch(
+                "findByIndexAndDateAndStatus",
+                "index", index,
+                "date", date,
+                "status", ReindexationStatus.PENDING);
+        if (reindexation == null) {
+            reindexation = newTransientInstance();
+            reindexation.setIndex(index);
+            reindexation.setDate(date);
+            reindexation.setStatus(ReindexationStatus.PENDING);
+            reindexation.setRequestedOn(getClockService().nowAsLocalDateTime());
+            persist(reindexation);
+        } else {
+            // a full run supersedes a pending re-run of the failures
+            reindexation.setRequestedOn(getClockService().nowAsLocalDateTime());
+            reindexation.setFailuresOnly(false);
+        }
+        return reindexation;
+    }
+
+    /**
+     * A reindexation still running after this long is taken to have been
+     * left so by a job that died, and is run again.
+     */
+    static final int STALE_AFTER_HOURS = 12;
+
+    /**
+     * The reindexations to run: those pending and those left
+     * {@link #findStale() running} by a job that died.
+     */
+    @Programmatic
+    public List<Reindexation> findPending() {
+        final List<Reindexation> pending = Lists.newArrayList(
+                allMatches("findByStatus", "status", ReindexationStatus.PENDING));
+        pending.addAll(findStale());
+        return pending;
+    }
+
+    @Programmatic
+    public List<Reindexation> findStale() {
+        return allMatches(
+                "findByStatusAndStartedBefore",
+                "status", ReindexationStatus.RUNNING,
+                "startedOn", getClockService().nowAsLocalDateTime().minusHours(STALE_AFTER_HOURS));
+    }
+
+    // //////////////////////////////////////
+
+    @Action(semantics = SemanticsOf.SAFE)
+    @MemberOrder(sequence = "1")
+    public List<Reindexation> pendingReindexations() {
+        return findPending();
+    }
+
+    @Action(semantics = SemanticsOf.SAFE)
+    @MemberOrder(sequence = "2")
+    public List<Reindexation> allReindexations() {
+        return allInstances();
+    }
+
+}
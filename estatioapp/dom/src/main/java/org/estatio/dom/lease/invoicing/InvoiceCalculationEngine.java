@@ -0,0 +1,130 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.invoice.InvoicingInterval;
+import org.estatio.dom.lease.LeaseTermValueType;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService.CalculationResult;
+import org.estatio.dom.valuetypes.EpochDayInterval;
+
+/**
+ * Calculates {@link LeaseTermSnapshot}s.
+ *
+ * <p>
+ * A run is split into work units, typically one per lease. The results are
+ * returned in the order of the units so that writing them back is
+ * deterministic.
+ *
+ * <p>
+ * The calculation runs inline: what is costly, working out the invoicing
+ * intervals and the values of the terms, needs the persistence session and
+ * is done while {@link LeaseTermSnapshot#of(org.estatio.dom.lease.LeaseTerm,
+ * InvoiceCalculationParameters, LocalDate) taking the snapshots}, leaving
+ * too little to gain from worker threads.
+ */
+public class InvoiceCalculationEngine {
+
+    /**
+     * Calculates all units, the outer list of the result matches the units
+     * and the inner list the snapshots of each unit.
+     */
+    public List<List<List<CalculationResult>>> calculate(final List<List<LeaseTermSnapshot>> units) {
+        final List<List<List<CalculationResult>>> results = Lists.newArrayList();
+        for (List<LeaseTermSnapshot> unit : units) {
+            results.add(calculateUnit(unit));
+        }
+        return results;
+    }
+
+    private static List<List<CalculationResult>> calculateUnit(final List<LeaseTermSnapshot> unit) {
+        final List<List<CalculationResult>> results = Lists.newArrayList();
+        for (LeaseTermSnapshot snapshot : unit) {
+            results.add(calculate(snapshot));
+        }
+        return results;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Calculates a term with a given invoicing frequency, does not touch any
+     * domain object.
+     */
+    public static List<CalculationResult> calculate(final LeaseTermSnapshot snapshot) {
+        final List<CalculationResult> results = Lists.newArrayList();
+        final EpochDayInterval termInterval =
+                snapshot.termInterval() == null ? null : snapshot.termInterval().asEpochDayInterval();
+        for (final InvoicingInterval invoicingInterval : snapshot.intervals()) {
+            final EpochDayInterval effectiveInterval = invoicingInterval.asEpochDayInterval().overlap(termInterval);
+            if (effectiveInterval == null) {
+                results.add(new CalculationResult(invoicingInterval));
+            } else {
+                final BigDecimal overlapDays = new BigDecimal(effectiveInterval.days());
+                final BigDecimal frequencyDays = new BigDecimal(invoicingInterval.days());
+                final BigDecimal rangeFactor =
+                        snapshot.valueType().equals(LeaseTermValueType.FIXED) ?
+                                BigDecimal.ONE :
+                                overlapDays.divide(frequencyDays, MathContext.DECIMAL64);
+                final BigDecimal annualFactor = snapshot.invoicingFrequency().annualMultiplier();
+                final LocalDate epochDate = snapshot.epochDate();
+                BigDecimal mockValue = BigDecimal.ZERO;
+                if (epochDate != null && invoicingInterval.dueDate().isBefore(epochDate)) {
+                    mockValue = snapshot.valueForDate(epochDate);
+                }
+                results.add(new CalculationResult(
+                        invoicingInterval,
+                        effectiveInterval,
+                        calculateValue(rangeFactor, annualFactor, snapshot.value()),
+                        calculateValue(rangeFactor, annualFactor, snapshot.valueForDate(invoicingInterval.dueDate())),
+                        calculateValue(rangeFactor, annualFactor, mockValue)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Multiplies a value with the range and annual factors
+     *
+     * @param rangeFactor
+     * @param annualFactor
+     * @param value
+     * @return
+     */
+    private static BigDecimal calculateValue(
+            final BigDecimal rangeFactor,
+            final BigDecimal annualFactor,
+            final BigDecimal value) {
+        if (value != null && annualFactor != null && rangeFactor != null) {
+            return value.multiply(annualFactor)
+                    .multiply(rangeFactor)
+                    .setScale(2, RoundingMode.HALF_UP);
+        }
+        return new BigDecimal("0.00");
+    }
+
+}
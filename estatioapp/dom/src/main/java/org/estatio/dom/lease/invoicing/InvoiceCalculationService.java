@@ -19,15 +19,14 @@
 package org.estatio.dom.lease.invoicing;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
-import java.math.RoundingMode;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import javax.inject.Inject;
 import com.google.common.collect.Lists;
-import org.apache.commons.lang3.ObjectUtils;
 import org.joda.time.LocalDate;
 import org.joda.time.LocalDateTime;
 import org.apache.isis.applib.annotation.DomainService;
@@ -35,14 +34,14 @@ import org.apache.isis.applib.annotation.Hidden;
 import org.apache.isis.applib.annotation.Programmatic;
 import org.estatio.dom.UdoDomainService;
 import org.estatio.dom.charge.Charge;
+import org.estatio.dom.invoice.InvoiceHeaders;
 import org.estatio.dom.invoice.Invoices;
 import org.estatio.dom.invoice.InvoicingInterval;
 import org.estatio.dom.lease.*;
-import org.estatio.dom.valuetypes.AbstractInterval.IntervalEnding;
+import org.estatio.dom.valuetypes.EpochDayInterval;
 import org.estatio.dom.valuetypes.LocalDateInterval;
 import org.estatio.services.settings.EstatioSettingsService;
 
-//@RequestScoped  // TODO: this should be @RequestScoped, I think, since has a field
 @DomainService(menuOrder = "50")
 @Hidden
 public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculationService> {
@@ -63,6 +62,7 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
 
         private InvoicingInterval invoicingInterval;
         private LocalDateInterval effectiveInterval;
+        private EpochDayInterval effectiveEpochDayInterval;
 
         public CalculationResult() {
             this(null);
@@ -85,6 +85,20 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
             this.mockValue = mockValue;
         }
 
+        /**
+         * As the effective interval in epoch days, only converted to dates
+         * when {@link #effectiveInterval() asked for}.
+         */
+        public CalculationResult(
+                final InvoicingInterval interval,
+                final EpochDayInterval effectiveInterval,
+                final BigDecimal value,
+                final BigDecimal valueOnDueDate,
+                final BigDecimal mockValue) {
+            this(interval, (LocalDateInterval) null, value, valueOnDueDate, mockValue);
+            this.effectiveEpochDayInterval = effectiveInterval;
+        }
+
         public BigDecimal value() {
             return value;
         }
@@ -102,6 +116,9 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
         }
 
         public LocalDateInterval effectiveInterval() {
+            if (effectiveInterval == null && effectiveEpochDayInterval != null) {
+                effectiveInterval = effectiveEpochDayInterval.toLocalDateInterval();
+            }
             return effectiveInterval;
         }
 
@@ -131,125 +148,118 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
         return estatioSettingsService.fetchEpochDate();
     }
 
-    private String interactionId;
+    // //////////////////////////////////////
 
-    private void startInteraction(final String parameters) {
-        if (interactionId == null) {
-            interactionId = LocalDateTime.now().toString().concat(" - ").concat(parameters);
-        }
-    }
+    private final InvoiceCalculationEngine engine = new InvoiceCalculationEngine();
 
-    private void endInteraction() {
-        interactionId = null;
-    }
+    // //////////////////////////////////////
 
+    /**
+     * Calculates and invoices all leases matched by the parameters.
+     *
+     * <p>
+     * The leases are verified and their terms snapshotted, one work unit per
+     * lease. The units are calculated by the {@link InvoiceCalculationEngine}
+     * and the invoice items are created lease by lease in the original order.
+     *
+     * @return the id of the run
+     */
     @Programmatic
-    public String calculateAndInvoice(InvoiceCalculationParameters parameters) {
-        String lastInteractionId = null;
+    public String calculateAndInvoice(final InvoiceCalculationParameters parameters) {
+        final long start = System.currentTimeMillis();
+        final String runId = LocalDateTime.now().toString().concat(" - ").concat(parameters.toString());
         invoices.removeRuns(parameters);
-        try {
-            startInteraction(parameters.toString());
-            for (Lease lease : parameters.leases() == null ? leases.findLeasesByProperty(parameters.property()) : parameters.leases()) {
-                lease.verifyUntil(parameters.dueDateRange().endDateExcluding());
-                if (lease.getStatus() != LeaseStatus.SUSPENDED) {
-                    SortedSet<LeaseItem> leaseItems =
-                            parameters.leaseItem() == null ?
-                                    lease.getItems() :
-                                    new TreeSet<LeaseItem>(Arrays.asList(parameters.leaseItem()));
-                    for (LeaseItem leaseItem : leaseItems) {
-                        if (!leaseItem.getStatus().equals(LeaseItemStatus.SUSPENDED)) {
-                            if (parameters.leaseItemTypes() == null || parameters.leaseItemTypes().contains(leaseItem.getType())) {
-                                SortedSet<LeaseTerm> leaseTerms =
-                                        parameters.leaseTerm() == null ?
-                                                leaseItem.getTerms() :
-                                                new TreeSet<LeaseTerm>(Arrays.asList(parameters.leaseTerm()));
-                                for (LeaseTerm leaseTerm : leaseTerms) {
-                                    final List<CalculationResult> results;
-                                    results = calculateDueDateRange(leaseTerm, parameters);
-                                    createInvoiceItems(leaseTerm, parameters, results);
-                                }
-                            }
-                        }
-                    }
-                }
+        final List<Lease> leasesToCalculate = parameters.leases() == null ? leases.findLeasesByProperty(parameters.property()) : parameters.leases();
+        final InvoicedValues invoicedValues = invoiceItemsForLease.invoicedValues(leasesToCalculate);
+        final LocalDate systemEpochDate = systemEpochDate();
+
+        final List<List<LeaseTermSnapshot>> units = Lists.newArrayList();
+        for (Lease lease : leasesToCalculate) {
+            lease.verifyIncrementallyUntil(parameters.dueDateRange().endDateExcluding());
+            if (lease.getStatus() != LeaseStatus.SUSPENDED) {
+                units.add(snapshotsOf(lease, parameters, systemEpochDate));
             }
-        } finally {
-            lastInteractionId = interactionId;
-            endInteraction();
         }
-        return lastInteractionId;
+
+        final List<List<List<CalculationResult>>> results = engine.calculate(units);
+        final InvoiceHeaders invoiceHeaders = new InvoiceHeaders(runId);
+        int leaseTerms = 0;
+        for (int i = 0; i < units.size(); i++) {
+            final List<LeaseTermSnapshot> unit = units.get(i);
+            for (int j = 0; j < unit.size(); j++) {
+                createInvoiceItems(unit.get(j).leaseTerm(), parameters, results.get(i).get(j), invoicedValues, invoiceHeaders);
+            }
+            leaseTerms += unit.size();
+        }
+        recordStatistics(new InvoiceCalculationStatistics(
+                runId, leasesToCalculate.size(), leaseTerms, invoicedValues, invoiceHeaders, System.currentTimeMillis() - start));
+        return runId;
+    }
+
+    // //////////////////////////////////////
+
+    private static final int STATISTICS_SIZE = 100;
+
+    private final Map<String, InvoiceCalculationStatistics> statistics =
+            new LinkedHashMap<String, InvoiceCalculationStatistics>() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, InvoiceCalculationStatistics> eldest) {
+                    return size() > STATISTICS_SIZE;
+                }
+            };
+
+    private void recordStatistics(final InvoiceCalculationStatistics runStatistics) {
+        synchronized (statistics) {
+            statistics.put(runStatistics.getRunId(), runStatistics);
+        }
     }
 
     /**
-     * Calculates a term with a given invoicing frequency
+     * The statistics of one of the most recent runs calculated by this node,
+     * or <tt>null</tt> if not (or no longer) available.
      */
     @Programmatic
-    public List<CalculationResult> calculateDueDateRange(
-            final LeaseTerm leaseTerm,
-            final InvoiceCalculationParameters parameters) {
-        final List<CalculationResult> results = Lists.newArrayList();
-        final LocalDateInterval termInterval = leaseTerm.getEffectiveInterval();
-        final LocalDateInterval rangeInterval =
-                parameters.invoiceRunType().equals(InvoiceRunType.RETRO_RUN) &&
-                        leaseTerm.getLeaseItem().getLease().getStartDate().compareTo(parameters.dueDateRange().startDate()) < 0 ?
-                        new LocalDateInterval(leaseTerm.getLeaseItem().getLease().getStartDate(), parameters.dueDateRange().endDateExcluding(), IntervalEnding.EXCLUDING_END_DATE) :
-                        parameters.dueDateRange();
-        final InvoicingFrequency invoicingFrequency = leaseTerm.getLeaseItem().getInvoicingFrequency();
-        // TODO: As a result of EST-413 the check for 'termInterval != null &&
-        // termInterval.isValid()' is removed because this is blocking the
-        // calculation of periods outside the interval of the leases. As a
-        // result the invoice calculation will be more eager so improving
-        // performance, EST-315, should get some attention.
-        if (rangeInterval.isValid()) {
-            final List<InvoicingInterval> intervals = invoicingFrequency.intervalsInDueDateRange(
-                    rangeInterval, termInterval);
-            for (final InvoicingInterval invoicingInterval : intervals) {
-                final LocalDateInterval effectiveInterval = invoicingInterval.asLocalDateInterval().overlap(termInterval);
-                if (effectiveInterval == null) {
-                    results.add(new CalculationResult(invoicingInterval));
-                } else {
-                    final BigDecimal overlapDays = new BigDecimal(effectiveInterval.days());
-                    final BigDecimal frequencyDays = new BigDecimal(invoicingInterval.days());
-                    final BigDecimal rangeFactor =
-                            leaseTerm.valueType().equals(LeaseTermValueType.FIXED) ?
-                                    BigDecimal.ONE :
-                                    overlapDays.divide(frequencyDays, MathContext.DECIMAL64);
-                    final BigDecimal annualFactor = invoicingFrequency.annualMultiplier();
-                    final LocalDate epochDate = ObjectUtils.firstNonNull(leaseTerm.getLeaseItem().getEpochDate(), systemEpochDate());
-                    BigDecimal mockValue = BigDecimal.ZERO;
-                    if (epochDate != null && invoicingInterval.dueDate().isBefore(epochDate)) {
-                        mockValue = leaseTerm.valueForDate(epochDate);
+    public InvoiceCalculationStatistics statisticsFor(final String runId) {
+        synchronized (statistics) {
+            return statistics.get(runId);
+        }
+    }
+
+    private List<LeaseTermSnapshot> snapshotsOf(
+            final Lease lease,
+            final InvoiceCalculationParameters parameters,
+            final LocalDate systemEpochDate) {
+        final List<LeaseTermSnapshot> snapshots = Lists.newArrayList();
+        SortedSet<LeaseItem> leaseItems =
+                parameters.leaseItem() == null ?
+                        lease.getItems() :
+                        new TreeSet<LeaseItem>(Arrays.asList(parameters.leaseItem()));
+        for (LeaseItem leaseItem : leaseItems) {
+            if (!leaseItem.getStatus().equals(LeaseItemStatus.SUSPENDED)) {
+                if (parameters.leaseItemTypes() == null || parameters.leaseItemTypes().contains(leaseItem.getType())) {
+                    SortedSet<LeaseTerm> leaseTerms =
+                            parameters.leaseTerm() == null ?
+                                    leaseItem.getTerms() :
+                                    new TreeSet<LeaseTerm>(Arrays.asList(parameters.leaseTerm()));
+                    for (LeaseTerm leaseTerm : leaseTerms) {
+                        snapshots.add(LeaseTermSnapshot.of(leaseTerm, parameters, systemEpochDate));
                     }
-                    results.add(new CalculationResult(
-                            invoicingInterval,
-                            effectiveInterval,
-                            calculateValue(rangeFactor, annualFactor, leaseTerm.valueForDate(parameters.dueDateRange().endDateExcluding().minusDays(1))),
-                            calculateValue(rangeFactor, annualFactor, leaseTerm.valueForDate(invoicingInterval.dueDate())),
-                            calculateValue(rangeFactor, annualFactor, mockValue)));
                 }
             }
         }
-        return results;
+        return snapshots;
     }
 
     /**
-     * Multiplies a value with the range and annual factors
-     * 
-     * @param rangeFactor
-     * @param annualFactor
-     * @param value
-     * @return
+     * Calculates a term with a given invoicing frequency
      */
-    private BigDecimal calculateValue(
-            final BigDecimal rangeFactor,
-            final BigDecimal annualFactor,
-            final BigDecimal value) {
-        if (value != null && annualFactor != null && rangeFactor != null) {
-            return value.multiply(annualFactor)
-                    .multiply(rangeFactor)
-                    .setScale(2, RoundingMode.HALF_UP);
-        }
-        return new BigDecimal("0.00");
+    @Programmatic
+    public List<CalculationResult> calculateDueDateRange(
+            final LeaseTerm leaseTerm,
+            final InvoiceCalculationParameters parameters) {
+        return InvoiceCalculationEngine.calculate(LeaseTermSnapshot.of(leaseTerm, parameters, systemEpochDate()));
     }
 
     /**
@@ -260,17 +270,21 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
      * @param dueDate
      * @param calculationResult
      * @param invoicingFrequency
+     * @param invoicedValues
+     * @param invoiceHeaders
      */
     void createInvoiceItems(
             final LeaseTerm leaseTerm,
             final InvoiceCalculationParameters parameters,
-            final List<CalculationResult> results) {
+            final List<CalculationResult> results,
+            final InvoicedValues invoicedValues,
+            final InvoiceHeaders invoiceHeaders) {
 
         for (CalculationResult result : results) {
             // TODO: this is a hack to speed up processing by ignoring zero
             // values on a normal run
             if (result.value().compareTo(BigDecimal.ZERO) != 0 || parameters.invoiceRunType().equals(InvoiceRunType.RETRO_RUN)) {
-                BigDecimal invoicedValue = invoiceItemsForLease.invoicedValue(leaseTerm, result.invoicingInterval().asLocalDateInterval());
+                BigDecimal invoicedValue = invoicedValues.invoicedValue(leaseTerm, result.invoicingInterval().asLocalDateInterval());
                 BigDecimal newValue = result.value().subtract(invoicedValue).subtract(result.mockValue());
                 if (newValue.compareTo(BigDecimal.ZERO) != 0) {
                     boolean adjustment = invoicedValue.add(result.mockValue()).compareTo(BigDecimal.ZERO) != 0;
@@ -279,7 +293,7 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
                                     leaseTerm,
                                     result.invoicingInterval().asLocalDateInterval(),
                                     parameters.invoiceDueDate(),
-                                    interactionId);
+                                    invoiceHeaders);
                     invoiceItem.setNetAmount(newValue);
                     invoiceItem.setQuantity(BigDecimal.ONE);
                     LeaseItem leaseItem = leaseTerm.getLeaseItem();
@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import org.estatio.dom.invoice.InvoiceHeaders;
+
+/**
+ * Counters of a single {@link InvoiceCalculationService#calculateAndInvoice(InvoiceCalculationParameters) invoice run}.
+ */
+public class InvoiceCalculationStatistics {
+
+    private final String runId;
+    private final int leases;
+    private final int leaseTerms;
+    private final int invoicedValueLookups;
+    private final int invoicedValueQueries;
+    private final int invoiceHeaderHits;
+    private final int invoiceHeaderMisses;
+    private final long durationMillis;
+
+    InvoiceCalculationStatistics(
+            final String runId,
+            final int leases,
+            final int leaseTerms,
+            final InvoicedValues invoicedValues,
+            final InvoiceHeaders invoiceHeaders,
+            final long durationMillis) {
+        this.runId = runId;
+        this.leases = leases;
+        this.leaseTerms = leaseTerms;
+        this.invoicedValueLookups = invoicedValues.getLookupCount();
+        this.invoicedValueQueries = invoicedValues.getQueryCount();
+        this.invoiceHeaderHits = invoiceHeaders.getHits();
+        this.invoiceHeaderMisses = invoiceHeaders.getMisses();
+        this.durationMillis = durationMillis;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public int getLeases() {
+        return leases;
+    }
+
+    public int getLeaseTerms() {
+        return leaseTerms;
+    }
+
+    public int getInvoicedValueLookups() {
+        return invoicedValueLookups;
+    }
+
+    public int getInvoicedValueQueries() {
+        return invoicedValueQueries;
+    }
+
+    public int getInvoiceHeaderHits() {
+        return invoiceHeaderHits;
+    }
+
+    public int getInvoiceHeaderMisses() {
+        return invoiceHeaderMisses;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d leases, %d terms in %d ms; invoiced values: %d lookups, %d queries; invoice headers: %d hits, %d misses",
+                leases, leaseTerms, durationMillis,
+                invoicedValueLookups, invoicedValueQueries,
+                invoiceHeaderHits, invoiceHeaderMisses);
+    }
+
+}
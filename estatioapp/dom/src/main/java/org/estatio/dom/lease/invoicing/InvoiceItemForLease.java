@@ -86,7 +86,13 @@ import org.estatio.dom.valuetypes.LocalDateInterval;
                 value = "SELECT " +
                         "FROM org.estatio.dom.lease.invoicing.InvoiceItemForLease " +
                         "WHERE leaseTerm == :leaseTerm " +
-                        "&& invoice.status == :invoiceStatus")
+                        "&& invoice.status == :invoiceStatus"),
+        @javax.jdo.annotations.Query(
+                name = "findByLeasesAndInvoiceStatusNot", language = "JDOQL",
+                value = "SELECT " +
+                        "FROM org.estatio.dom.lease.invoicing.InvoiceItemForLease " +
+                        "WHERE :leases.contains(lease) " +
+                        "&& invoice.status != :invoiceStatus")
 })
 @Indices({
         @Index(name = "InvoiceItemForLease_LeaseTerm_StartDate_EndDate_DueDate_IDX",
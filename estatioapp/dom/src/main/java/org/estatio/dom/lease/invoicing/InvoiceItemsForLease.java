@@ -20,6 +20,7 @@ package org.estatio.dom.lease.invoicing;
 
 import java.math.BigDecimal;
 import java.util.List;
+import com.google.common.collect.Lists;
 import org.joda.time.LocalDate;
 import org.apache.isis.applib.ApplicationException;
 import org.apache.isis.applib.annotation.Action;
@@ -32,6 +33,7 @@ import org.apache.isis.applib.annotation.Where;
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.asset.Unit;
 import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.invoice.InvoiceHeaders;
 import org.estatio.dom.invoice.InvoiceStatus;
 import org.estatio.dom.invoice.Invoices;
 import org.estatio.dom.lease.Lease;
@@ -62,6 +64,33 @@ public class InvoiceItemsForLease extends UdoDomainRepositoryAndFactory<InvoiceI
                 lease,
                 InvoiceStatus.NEW,
                 dueDate, interactionId);
+        return newInvoiceItem(invoice, leaseTerm, interval, dueDate);
+    }
+
+    @ActionSemantics(Of.NON_IDEMPOTENT)
+    @Programmatic
+    public InvoiceItemForLease newInvoiceItem(
+            final LeaseTerm leaseTerm,
+            final LocalDateInterval interval,
+            final LocalDate dueDate,
+            final InvoiceHeaders invoiceHeaders) {
+        Lease lease = leaseTerm.getLeaseItem().getLease();
+        Invoice invoice = invoices.findOrCreateMatchingInvoice(
+                invoiceHeaders,
+                leaseTerm.getApplicationTenancy(),
+                leaseTerm.getLeaseItem().getPaymentMethod(),
+                lease,
+                InvoiceStatus.NEW,
+                dueDate);
+        return newInvoiceItem(invoice, leaseTerm, interval, dueDate);
+    }
+
+    private InvoiceItemForLease newInvoiceItem(
+            final Invoice invoice,
+            final LeaseTerm leaseTerm,
+            final LocalDateInterval interval,
+            final LocalDate dueDate) {
+        Lease lease = leaseTerm.getLeaseItem().getLease();
         InvoiceItemForLease invoiceItem = newTransientInstance();
         invoiceItem.setInvoice(invoice);
         invoiceItem.setStartDate(interval.startDate());
@@ -149,6 +178,15 @@ public class InvoiceItemsForLease extends UdoDomainRepositoryAndFactory<InvoiceI
         return newInvoiceItem(leaseTerm, invoiceInterval, dueDate, interactionId);
     }
 
+    @Programmatic
+    public InvoiceItemForLease createUnapprovedInvoiceItem(
+            final LeaseTerm leaseTerm,
+            final LocalDateInterval invoiceInterval,
+            final LocalDate dueDate,
+            final InvoiceHeaders invoiceHeaders) {
+        return newInvoiceItem(leaseTerm, invoiceInterval, dueDate, invoiceHeaders);
+    }
+
     @Programmatic
     public InvoiceItemForLease findUnapprovedInvoiceItem(
             final LeaseTerm leaseTerm,
@@ -181,6 +219,26 @@ public class InvoiceItemsForLease extends UdoDomainRepositoryAndFactory<InvoiceI
         return invoicedValue;
     }
 
+    /**
+     * Loads the {@link #invoicedValue(LeaseTerm, LocalDateInterval) invoiced
+     * values} of all terms of the leases with one query per
+     * {@link #INVOICED_VALUES_CHUNK_SIZE chunk} of leases.
+     */
+    @Programmatic
+    public InvoicedValues invoicedValues(final List<Lease> leases) {
+        final InvoicedValues invoicedValues = new InvoicedValues(this);
+        for (List<Lease> chunk : Lists.partition(leases, INVOICED_VALUES_CHUNK_SIZE)) {
+            invoicedValues.addLeases(chunk);
+            invoicedValues.addItems(allMatches(
+                    "findByLeasesAndInvoiceStatusNot",
+                    "leases", chunk,
+                    "invoiceStatus", InvoiceStatus.NEW));
+        }
+        return invoicedValues;
+    }
+
+    static final int INVOICED_VALUES_CHUNK_SIZE = 250;
+
     @Programmatic
     public void removeUnapprovedInvoiceItems(
             final LeaseTerm leaseTerm,
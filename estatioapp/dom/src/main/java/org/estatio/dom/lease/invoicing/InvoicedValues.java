@@ -0,0 +1,144 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import org.estatio.dom.invoice.InvoiceStatus;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+/**
+ * Already invoiced values for the {@link LeaseTerm}s of a set of
+ * {@link Lease}s, keyed by term and interval.
+ *
+ * <p>
+ * Loaded up front by {@link InvoiceItemsForLease#invoicedValues(List)} and
+ * kept for the duration of an invoice calculation run, replacing a
+ * {@link InvoiceItemsForLease#invoicedValue(LeaseTerm, LocalDateInterval)}
+ * query for every calculation result. Terms of leases that were not loaded
+ * fall back to that query.
+ */
+public class InvoicedValues {
+
+    private final Map<Key, BigDecimal> values = Maps.newHashMap();
+    private final Set<Lease> leases = Sets.newHashSet();
+    private final InvoiceItemsForLease invoiceItemsForLease;
+
+    private int queryCount;
+    private int lookupCount;
+
+    InvoicedValues(final InvoiceItemsForLease invoiceItemsForLease) {
+        this.invoiceItemsForLease = invoiceItemsForLease;
+    }
+
+    // //////////////////////////////////////
+
+    void addLeases(final List<Lease> leases) {
+        this.leases.addAll(leases);
+    }
+
+    /**
+     * Adds the result of a single query, all items are assumed to be invoiced.
+     */
+    void addItems(final List<InvoiceItemForLease> items) {
+        queryCount++;
+        for (InvoiceItemForLease item : items) {
+            final Key key = new Key(item.getLeaseTerm(), new LocalDateInterval(item.getStartDate(), item.getEndDate()));
+            final BigDecimal value = values.get(key);
+            values.put(key, value == null ? item.getNetAmount() : value.add(item.getNetAmount()));
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The sum of the net amounts of all items of the term and interval that
+     * are on an invoice which is no longer {@link InvoiceStatus#NEW new}.
+     */
+    public BigDecimal invoicedValue(final LeaseTerm leaseTerm, final LocalDateInterval interval) {
+        lookupCount++;
+        if (!leases.contains(leaseTerm.getLeaseItem().getLease())) {
+            queryCount++;
+            return invoiceItemsForLease.invoicedValue(leaseTerm, interval);
+        }
+        final BigDecimal value = values.get(new Key(leaseTerm, interval));
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    /**
+     * Number of queries run, both for loading and for terms that were not
+     * preloaded.
+     */
+    public int getQueryCount() {
+        return queryCount;
+    }
+
+    /**
+     * Number of invoiced values asked for; without preloading every lookup
+     * would have been a query.
+     */
+    public int getLookupCount() {
+        return lookupCount;
+    }
+
+    // //////////////////////////////////////
+
+    private static class Key {
+
+        private final LeaseTerm leaseTerm;
+        private final LocalDateInterval interval;
+
+        Key(final LeaseTerm leaseTerm, final LocalDateInterval interval) {
+            this.leaseTerm = leaseTerm;
+            this.interval = interval;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key rhs = (Key) obj;
+            return new EqualsBuilder()
+                    .append(leaseTerm, rhs.leaseTerm)
+                    .append(interval, rhs.interval)
+                    .isEquals();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder().append(leaseTerm).append(interval).hashCode();
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.invoice.InvoicingInterval;
+import org.estatio.dom.lease.InvoicingFrequency;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.lease.LeaseTermValueType;
+import org.estatio.dom.valuetypes.AbstractInterval.IntervalEnding;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+/**
+ * Detached, immutable copy of everything
+ * {@link InvoiceCalculationEngine#calculate(LeaseTermSnapshot)} needs to know
+ * about a {@link LeaseTerm}.
+ *
+ * <p>
+ * The values of the term are evaluated once for every date the calculation
+ * will ask for, so the calculation itself never touches the domain objects.
+ */
+public final class LeaseTermSnapshot {
+
+    private final LeaseTerm leaseTerm;
+    private final LocalDateInterval termInterval;
+    private final InvoicingFrequency invoicingFrequency;
+    private final LeaseTermValueType valueType;
+    private final LocalDate epochDate;
+    private final List<InvoicingInterval> intervals;
+    private final BigDecimal value;
+    private final Map<LocalDate, BigDecimal> valuesByDate;
+
+    private LeaseTermSnapshot(
+            final LeaseTerm leaseTerm,
+            final LocalDateInterval termInterval,
+            final InvoicingFrequency invoicingFrequency,
+            final LeaseTermValueType valueType,
+            final LocalDate epochDate,
+            final List<InvoicingInterval> intervals,
+            final BigDecimal value,
+            final Map<LocalDate, BigDecimal> valuesByDate) {
+        this.leaseTerm = leaseTerm;
+        this.termInterval = termInterval;
+        this.invoicingFrequency = invoicingFrequency;
+        this.valueType = valueType;
+        this.epochDate = epochDate;
+        this.intervals = intervals;
+        this.value = value;
+        this.valuesByDate = valuesByDate;
+    }
+
+    /**
+     * Takes a snapshot of the term.
+     *
+     * @param leaseTerm
+     * @param parameters
+     * @param systemEpochDate
+     *            used when the lease item has no epoch date of its own
+     */
+    public static LeaseTermSnapshot of(
+            final LeaseTerm leaseTerm,
+            final InvoiceCalculationParameters parameters,
+            final LocalDate systemEpochDate) {
+        final LocalDateInterval termInterval = leaseTerm.getEffectiveInterval();
+        final Lease lease = leaseTerm.getLeaseItem().getLease();
+        final LocalDateInterval rangeInterval =
+                parameters.invoiceRunType().equals(InvoiceRunType.RETRO_RUN) &&
+                        lease.getStartDate().compareTo(parameters.dueDateRange().startDate()) < 0 ?
+                        new LocalDateInterval(lease.getStartDate(), parameters.dueDateRange().endDateExcluding(), IntervalEnding.EXCLUDING_END_DATE) :
+                        parameters.dueDateRange();
+        final InvoicingFrequency invoicingFrequency = leaseTerm.getLeaseItem().getInvoicingFrequency();
+        final LocalDate epochDate = ObjectUtils.firstNonNull(leaseTerm.getLeaseItem().getEpochDate(), systemEpochDate);
+
+        // TODO: As a result of EST-413 the check for 'termInterval != null &&
+        // termInterval.isValid()' is removed because this is blocking the
+        // calculation of periods outside the interval of the leases. As a
+        // result the invoice calculation will be more eager so improving
+        // performance, EST-315, should get some attention.
+        final List<InvoicingInterval> intervals =
+                rangeInterval.isValid() ?
+                        invoicingFrequency.intervalsInDueDateRange(rangeInterval, termInterval) :
+                        Collections.<InvoicingInterval> emptyList();
+
+        final Map<LocalDate, BigDecimal> valuesByDate = Maps.newHashMap();
+        for (InvoicingInterval interval : intervals) {
+            putValueForDate(valuesByDate, leaseTerm, interval.dueDate());
+            if (epochDate != null && interval.dueDate().isBefore(epochDate)) {
+                putValueForDate(valuesByDate, leaseTerm, epochDate);
+            }
+        }
+        final BigDecimal value = intervals.isEmpty() ? null : leaseTerm.valueForDate(parameters.dueDateRange().endDateExcluding().minusDays(1));
+
+        return new LeaseTermSnapshot(
+                leaseTerm,
+                termInterval,
+                invoicingFrequency,
+                leaseTerm.valueType(),
+                epochDate,
+                Collections.unmodifiableList(intervals),
+                value,
+                Collections.unmodifiableMap(valuesByDate));
+    }
+
+    private static void putValueForDate(
+            final Map<LocalDate, BigDecimal> valuesByDate,
+            final LeaseTerm leaseTerm,
+            final LocalDate date) {
+        if (!valuesByDate.containsKey(date)) {
+            valuesByDate.put(date, leaseTerm.valueForDate(date));
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The term this snapshot was taken of.
+     */
+    public LeaseTerm leaseTerm() {
+        return leaseTerm;
+    }
+
+    public LocalDateInterval termInterval() {
+        return termInterval;
+    }
+
+    public InvoicingFrequency invoicingFrequency() {
+        return invoicingFrequency;
+    }
+
+    public LeaseTermValueType valueType() {
+        return valueType;
+    }
+
+    public LocalDate epochDate() {
+        return epochDate;
+    }
+
+    /**
+     * The invoicing intervals of the due date range.
+     */
+    public List<InvoicingInterval> intervals() {
+        return intervals;
+    }
+
+    /**
+     * The value of the term on the last day of the due date range.
+     */
+    public BigDecimal value() {
+        return value;
+    }
+
+    /**
+     * The value of the term on a due date of one of the {@link #intervals()}
+     * or on the {@link #epochDate() epoch date}.
+     */
+    public BigDecimal valueForDate(final LocalDate date) {
+        return valuesByDate.get(date);
+    }
+
+}
@@ -1,9 +1,13 @@
 package org.estatio.dom.lease.status;
 
+import java.util.List;
+import java.util.SortedSet;
+
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
 
 import org.apache.isis.applib.annotation.DomainService;
@@ -14,7 +18,9 @@ import org.apache.isis.applib.services.eventbus.EventBusService;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseItem;
 import org.estatio.dom.lease.LeaseItemStatus;
+import org.estatio.dom.lease.LeaseItems;
 import org.estatio.dom.lease.LeaseStatus;
+import org.estatio.dom.lease.Leases;
 import org.estatio.services.clock.ClockService;
 
 @DomainService
@@ -76,6 +82,41 @@ public class LeaseStatusService {
 
     // //////////////////////////////////////
 
+    /**
+     * References of the leases whose status, or the status of one of their
+     * items, might have changed; worked out with queries so that the other
+     * leases need not be loaded at all.
+     */
+    @Programmatic
+    public SortedSet<String> leaseReferencesToRefresh() {
+        final SortedSet<String> references = Sets.newTreeSet();
+        references.addAll(leases.findReferencesWithStatusToRefresh(clockService.now()));
+        references.addAll(leaseItems.findLeaseReferencesWithStatusToRefresh(clockService.now()));
+        return references;
+    }
+
+    /**
+     * Refreshes the status of the leases with the given references, returns
+     * the number of leases whose status changed.
+     */
+    @Programmatic
+    public int refreshStatus(final List<String> leaseReferences) {
+        int updatedCount = 0;
+        for (String reference : leaseReferences) {
+            final Lease lease = leases.findLeaseByReferenceElseNull(reference);
+            if (lease == null) {
+                continue;
+            }
+            final LeaseStatus oldStatus = lease.getStatus();
+            if (refreshStatus(lease) != oldStatus) {
+                updatedCount++;
+            }
+        }
+        return updatedCount;
+    }
+
+    // //////////////////////////////////////
+
     @Subscribe
     @Programmatic
     public void on(Lease.ResumeAllEvent ev) {
@@ -166,4 +207,10 @@ public class LeaseStatusService {
     @Inject
     ClockService clockService;
 
+    @Inject
+    Leases leases;
+
+    @Inject
+    LeaseItems leaseItems;
+
 }
@@ -29,6 +29,7 @@ import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.Dflt;
 import org.estatio.dom.apptenancy.EstatioApplicationTenancies;
 import org.estatio.dom.utils.StringUtils;
+import org.estatio.services.search.SearchIndexService;
 
 @DomainService(repositoryFor = Brand.class)
 @DomainServiceLayout(
@@ -90,6 +91,10 @@ public class Brands extends UdoDomainRepositoryAndFactory<Brand> {
 
     @Hidden
     public List<Brand> matchByName(final String name) {
+        final List<Brand> brands = searchIndexService.search(Brand.class, name, "name");
+        if (brands != null) {
+            return brands;
+        }
         return allMatches("matchByName", "name", StringUtils.wildcardToCaseInsensitiveRegex(name));
     }
 
@@ -112,4 +117,10 @@ public class Brands extends UdoDomainRepositoryAndFactory<Brand> {
                 : Lists.<Brand> newArrayList();
     }
 
+    private SearchIndexService searchIndexService;
+
+    public final void injectSearchIndexService(final SearchIndexService searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
 }
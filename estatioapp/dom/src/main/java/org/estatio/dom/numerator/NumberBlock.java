@@ -0,0 +1,154 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.numerator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out the values of a single block allocating {@link Numerator} from
+ * memory, {@link Reserver#reserve(int) reserving} a new block of values only
+ * when the current one is used up.
+ *
+ * <p>
+ * Within a block the values are handed out without locking, each value exactly
+ * once and in ascending order; threads only synchronize when a new block has to
+ * be reserved.
+ */
+public final class NumberBlock {
+
+    /**
+     * Gives back the unused remainder of a block.
+     */
+    public interface Releaser {
+
+        /**
+         * Gives back the values after <tt>lastUsed</tt>, provided nobody
+         * reserved anything after <tt>reservedUntil</tt>.
+         */
+        void release(long reservedUntil, long lastUsed);
+    }
+
+    /**
+     * Persists the reservation of blocks, typically by moving the
+     * {@link Numerator#getLastIncrement() last increment} of the numerator.
+     */
+    public interface Reserver extends Releaser {
+
+        /**
+         * Reserves the next <tt>size</tt> values, returns the first of them.
+         */
+        long reserve(int size);
+    }
+
+    private final Reserver reserver;
+    private final int size;
+
+    private volatile Range range;
+    private final AtomicLong lastUsed = new AtomicLong(-1);
+
+    public NumberBlock(final Reserver reserver, final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.reserver = reserver;
+        this.size = size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // //////////////////////////////////////
+
+    public long next() {
+        while (true) {
+            final Range current = range;
+            if (current != null) {
+                final long next = current.counter.getAndIncrement();
+                if (next <= current.last) {
+                    updateLastUsed(next);
+                    return next;
+                }
+            }
+            reserveAfter(current);
+        }
+    }
+
+    private synchronized void reserveAfter(final Range exhausted) {
+        if (range == exhausted) {
+            final long first = reserver.reserve(size);
+            range = new Range(first, first + size - 1);
+        }
+    }
+
+    private void updateLastUsed(final long value) {
+        long last = lastUsed.get();
+        while (value > last && !lastUsed.compareAndSet(last, value)) {
+            last = lastUsed.get();
+        }
+    }
+
+    /**
+     * The highest value handed out so far, <tt>null</tt> if none.
+     */
+    public Long last() {
+        final long last = lastUsed.get();
+        return last < 0 ? null : last;
+    }
+
+    /**
+     * Gives back the unused remainder of the current block so that the
+     * sequence continues without a gap, any further value comes from a newly
+     * reserved block.
+     */
+    public synchronized void release() {
+        releaseTo(reserver);
+    }
+
+    /**
+     * As {@link #release()}, but giving back the remainder through the given
+     * releaser, eg to the numerator as being changed in the current
+     * transaction.
+     */
+    public synchronized void releaseTo(final Releaser releaser) {
+        final Range current = range;
+        if (current == null) {
+            return;
+        }
+        // stop handing out values of this range
+        final long next = current.counter.getAndSet(current.last + 1);
+        if (next <= current.last) {
+            releaser.release(current.last, next - 1);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    private static final class Range {
+
+        private final AtomicLong counter;
+        private final long last;
+
+        Range(final long first, final long last) {
+            this.counter = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import org.apache.isis.applib.annotation.Disabled;
 import org.apache.isis.applib.annotation.Immutable;
 import org.apache.isis.applib.annotation.Named;
 import org.apache.isis.applib.annotation.NotPersisted;
+import org.apache.isis.applib.annotation.Optional;
 import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.annotation.PropertyLayout;
 import org.apache.isis.applib.services.bookmark.Bookmark;
@@ -220,10 +221,16 @@ public class Numerator
 
     public Numerator changeParameters(
             final @Named("Format") String format,
-            final @Named("Last increment") BigInteger lastIncrement
+            final @Named("Last increment") BigInteger lastIncrement,
+            final @Named("Block size") @Optional Integer blockSize,
+            final @Named("Assign on commit") @Optional Boolean assignOnCommit
             ) {
         setFormat(format);
         setLastIncrement(lastIncrement);
+        setBlockSize(blockSize);
+        setAssignOnCommit(assignOnCommit);
+        // after setting the last increment, so that the remainder is only given back when left unchanged
+        numerators.releaseBlock(this);
         return this;
     }
 
@@ -235,6 +242,28 @@ public class Numerator
         return getLastIncrement();
     }
 
+    public Integer default2ChangeParameters() {
+        return getBlockSize();
+    }
+
+    public Boolean default3ChangeParameters() {
+        return getAssignOnCommit();
+    }
+
+    public String validateChangeParameters(
+            final String format,
+            final BigInteger lastIncrement,
+            final Integer blockSize,
+            final Boolean assignOnCommit) {
+        if (blockSize != null && blockSize < 1) {
+            return "Block size must be positive";
+        }
+        if (blockSize != null && blockSize > 1 && Boolean.TRUE.equals(assignOnCommit)) {
+            return "Values assigned on commit cannot be allocated in blocks";
+        }
+        return null;
+    }
+
     // //////////////////////////////////////
 
     @javax.jdo.annotations.Persistent
@@ -255,21 +284,116 @@ public class Numerator
 
     // //////////////////////////////////////
 
+    private Integer blockSize;
+
+    /**
+     * When larger than one the values are handed out from blocks of this
+     * size, reserved in advance by moving the {@link #getLastIncrement() last
+     * increment}.
+     *
+     * <p>
+     * Block allocation avoids updating this numerator for every value, but a
+     * value handed out in a transaction that is rolled back is lost. Leave
+     * empty where the sequence must be without gaps, such as invoice numbers,
+     * and {@link #getAssignOnCommit() assign on commit} instead.
+     *
+     * @see Numerators#nextFromBlock(Numerator)
+     */
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    @Optional
+    public Integer getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(final Integer blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    @Programmatic
+    public boolean isBlockAllocating() {
+        return getBlockSize() != null && getBlockSize() > 1;
+    }
+
+    // //////////////////////////////////////
+
+    private Boolean assignOnCommit;
+
+    /**
+     * Whether the values are assigned as their assignees are flushed, at the
+     * latest just before the transaction commits, so that concurrent transactions only hold this
+     * numerator for the moment it takes to commit, while the sequence stays
+     * without gaps.
+     *
+     * @see Numerators#assignOnCommit(Numerator, Assignee)
+     */
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    @Optional
+    public Boolean getAssignOnCommit() {
+        return assignOnCommit;
+    }
+
+    public void setAssignOnCommit(final Boolean assignOnCommit) {
+        this.assignOnCommit = assignOnCommit;
+    }
+
+    @Programmatic
+    public boolean isAssigningOnCommit() {
+        return Boolean.TRUE.equals(getAssignOnCommit());
+    }
+
+    /**
+     * Receives a value assigned when the transaction commits. Assignees call
+     * {@link #assignPending()} as they are flushed.
+     */
+    public interface Assignee {
+        void assign(String value);
+    }
+
+    // //////////////////////////////////////
+
     @Programmatic
     public String nextIncrementStr() {
-        return format(incrementCounter());
+        return format(isBlockAllocating() ? numerators.nextFromBlock(this) : incrementCounter());
+    }
+
+    /**
+     * Hands the next value to the assignee, as it is flushed if
+     * {@link #isAssigningOnCommit() so set}, right away otherwise.
+     */
+    @Programmatic
+    public void assignNextIncrementStr(final Assignee assignee) {
+        if (isAssigningOnCommit()) {
+            numerators.assignOnCommit(this, assignee);
+        } else {
+            assignee.assign(nextIncrementStr());
+        }
+    }
+
+    /**
+     * Hands the values still pending in this transaction to their
+     * {@link Assignee assignees}.
+     */
+    @Programmatic
+    public void assignPending() {
+        numerators.assignPending(this);
     }
     
     // //////////////////////////////////////
     
     @Programmatic
     public String lastIncrementStr(){
+        if (isBlockAllocating()) {
+            final BigInteger last = numerators.lastFromBlock(this);
+            if (last != null) {
+                return format(last);
+            }
+        }
         return format(getLastIncrement());
     }
     
     // //////////////////////////////////////
 
-    private BigInteger incrementCounter() {
+    BigInteger incrementCounter() {
         BigInteger last = getLastIncrement();
         if (last == null) {
             last = BigInteger.ZERO;
@@ -287,4 +411,12 @@ public class Numerator
         return isScoped() ? new Bookmark(getObjectType(), getObjectIdentifier()) : null;
     }
 
+    // //////////////////////////////////////
+
+    private Numerators numerators;
+
+    public final void injectNumerators(final Numerators numerators) {
+        this.numerators = numerators;
+    }
+
 }
\ No newline at end of file
@@ -20,6 +20,20 @@ package org.estatio.dom.numerator;
 
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.PreDestroy;
+import javax.jdo.JDOHelper;
+import javax.jdo.JDOOptimisticVerificationException;
+import javax.jdo.PersistenceManager;
+import javax.jdo.PersistenceManagerFactory;
+import javax.jdo.Query;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
 import org.apache.isis.applib.RecoverableException;
 import org.apache.isis.applib.annotation.ActionSemantics;
 import org.apache.isis.applib.annotation.ActionSemantics.Of;
@@ -29,7 +43,9 @@ import org.apache.isis.applib.annotation.MemberOrder;
 import org.apache.isis.applib.annotation.Named;
 import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.estatio.dom.EstatioApplicationException;
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.services.xactn.TransactionCallbacks;
 
 @DomainService(menuOrder = "80", repositoryFor = Numerator.class)
 @DomainServiceLayout(
@@ -147,5 +163,276 @@ public class Numerators extends UdoDomainRepositoryAndFactory<Numerator> {
         return numerator;
     }
 
+    // //////////////////////////////////////
+
+    private static final int RESERVE_ATTEMPTS = 3;
+
+    private final ConcurrentMap<String, NumberBlock> blocks = new ConcurrentHashMap<String, NumberBlock>();
+
+    /**
+     * The next value of a {@link Numerator#isBlockAllocating() block
+     * allocating} numerator.
+     *
+     * <p>
+     * The values come from memory, the numerator itself is only updated when
+     * a new block is reserved. This happens in a transaction of its own, so
+     * concurrent transactions never contend for the numerator.
+     */
+    @Programmatic
+    public BigInteger nextFromBlock(final Numerator numerator) {
+        return BigInteger.valueOf(blockFor(numerator).next());
+    }
+
+    /**
+     * The last value handed out by {@link #nextFromBlock(Numerator)},
+     * <tt>null</tt> if none since startup.
+     */
+    @Programmatic
+    public BigInteger lastFromBlock(final Numerator numerator) {
+        final NumberBlock block = blocks.get(keyOf(numerator));
+        final Long last = block == null ? null : block.last();
+        return last == null ? null : BigInteger.valueOf(last);
+    }
+
+    /**
+     * Stops handing out the values of the block of a numerator whose
+     * parameters are being changed and gives back its unused remainder by
+     * moving the {@link Numerator#getLastIncrement() last increment} back in
+     * the current transaction, unless it has been changed explicitly.
+     */
+    @Programmatic
+    public void releaseBlock(final Numerator numerator) {
+        final NumberBlock block = blocks.remove(keyOf(numerator));
+        if (block == null) {
+            return;
+        }
+        block.releaseTo(new NumberBlock.Releaser() {
+            @Override
+            public void release(final long reservedUntil, final long lastUsed) {
+                if (numerator.getLastIncrement() != null
+                        && numerator.getLastIncrement().equals(BigInteger.valueOf(reservedUntil))) {
+                    numerator.setLastIncrement(BigInteger.valueOf(lastUsed));
+                }
+            }
+        });
+    }
+
+    private NumberBlock blockFor(final Numerator numerator) {
+        final String key = keyOf(numerator);
+        NumberBlock block = blocks.get(key);
+        if (block == null || block.getSize() != numerator.getBlockSize()) {
+            final PersistenceManagerFactory persistenceManagerFactory =
+                    getIsisJdoSupport().getJdoPersistenceManager().getPersistenceManagerFactory();
+            final NumberBlock newBlock = new NumberBlock(
+                    new JdoReserver(persistenceManagerFactory, JDOHelper.getObjectId(numerator)),
+                    numerator.getBlockSize());
+            if (block == null) {
+                block = blocks.putIfAbsent(key, newBlock);
+            } else {
+                block = blocks.replace(key, block, newBlock) ? null : blocks.get(key);
+            }
+            if (block == null) {
+                block = newBlock;
+            }
+        }
+        return block;
+    }
+
+    private static String keyOf(final Numerator numerator) {
+        return numerator.getName() + "|" + numerator.getObjectType() + "|" + numerator.getObjectIdentifier();
+    }
+
+    /**
+     * Gives back the unused remainders of the blocks, so that the numerators
+     * continue without gaps after a restart.
+     */
+    @Programmatic
+    @PreDestroy
+    public void shutdown() {
+        for (NumberBlock block : blocks.values()) {
+            block.release();
+        }
+        blocks.clear();
+        super.shutdown();
+    }
+
+    // //////////////////////////////////////
+
+    private final ConcurrentMap<PersistenceManager, PendingAssignments> pendingAssignments =
+            new ConcurrentHashMap<PersistenceManager, PendingAssignments>();
+
+    /**
+     * Hands the next value of the numerator to the assignee when the assignee
+     * is flushed, rather than right away.
+     *
+     * <p>
+     * The assignee asks for its value through
+     * {@link #assignPending(Numerator)} as it is about to be flushed, at the
+     * latest when the transaction commits (see <tt>Invoice#updating()</tt>).
+     * The numerator is then locked and incremented only from that flush
+     * until the commit, instead of from the first value drawn until the end
+     * of the transaction, while the values still commit or roll back
+     * together with whatever they are assigned to: the sequence stays
+     * without gaps. Since the values are set on the assignee within the
+     * transaction, they are tracked, audited and published like any other
+     * change. Values are assigned in the order they were asked for.
+     */
+    @Programmatic
+    public void assignOnCommit(final Numerator numerator, final Numerator.Assignee assignee) {
+        final PersistenceManager persistenceManager = getIsisJdoSupport().getJdoPersistenceManager();
+        if (!persistenceManager.currentTransaction().isActive()) {
+            assignee.assign(numerator.nextIncrementStr());
+            return;
+        }
+        PendingAssignments pending = pendingAssignments.get(persistenceManager);
+        if (pending == null) {
+            pending = new PendingAssignments(persistenceManager);
+            pendingAssignments.put(persistenceManager, pending);
+            TransactionCallbacks.afterCompletion(persistenceManager, new Runnable() {
+                @Override
+                public void run() {
+                    pendingAssignments.remove(persistenceManager);
+                }
+            });
+        }
+        pending.add(numerator, assignee);
+    }
+
+    /**
+     * Assigns the values of the numerator {@link #assignOnCommit(Numerator,
+     * Numerator.Assignee) asked for} in the current transaction, to all of
+     * their assignees at once, so the numerator is locked only once.
+     */
+    @Programmatic
+    public void assignPending(final Numerator numerator) {
+        final PendingAssignments pending =
+                pendingAssignments.get(getIsisJdoSupport().getJdoPersistenceManager());
+        if (pending != null) {
+            pending.assign(numerator);
+        }
+    }
+
+    /**
+     * The values still to assign in a transaction, per numerator.
+     */
+    static class PendingAssignments {
+
+        private final PersistenceManager persistenceManager;
+        private final Map<Numerator, List<Numerator.Assignee>> assigneesByNumerator = Maps.newLinkedHashMap();
+
+        PendingAssignments(final PersistenceManager persistenceManager) {
+            this.persistenceManager = persistenceManager;
+        }
+
+        void add(final Numerator numerator, final Numerator.Assignee assignee) {
+            List<Numerator.Assignee> assignees = assigneesByNumerator.get(numerator);
+            if (assignees == null) {
+                assignees = Lists.newArrayList();
+                assigneesByNumerator.put(numerator, assignees);
+            }
+            assignees.add(assignee);
+        }
+
+        void assign(final Numerator numerator) {
+            final List<Numerator.Assignee> assignees = assigneesByNumerator.remove(numerator);
+            if (assignees == null) {
+                return;
+            }
+            lock(numerator);
+            for (Numerator.Assignee assignee : assignees) {
+                assignee.assign(numerator.format(numerator.incrementCounter()));
+            }
+        }
+
+        /**
+         * Locks the row of the numerator until the commit that follows, then
+         * rereads it, so that concurrent commits increment one after the
+         * other rather than failing on the version of the numerator.
+         */
+        void lock(final Numerator numerator) {
+            final Query query = persistenceManager.newQuery(Numerator.class, "this == :numerator");
+            query.setSerializeRead(true);
+            try {
+                query.execute(numerator);
+            } finally {
+                query.closeAll();
+            }
+            if (!JDOHelper.isDirty(numerator)) {
+                persistenceManager.refresh(numerator);
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Reserves blocks by moving the last increment of the numerator in a
+     * separate persistence manager, so independent of the transaction asking
+     * for the value.
+     */
+    private static class JdoReserver implements NumberBlock.Reserver {
+
+        private final PersistenceManagerFactory persistenceManagerFactory;
+        private final Object numeratorId;
+
+        JdoReserver(final PersistenceManagerFactory persistenceManagerFactory, final Object numeratorId) {
+            this.persistenceManagerFactory = persistenceManagerFactory;
+            this.numeratorId = numeratorId;
+        }
+
+        @Override
+        public long reserve(final int size) {
+            for (int attempt = 1;; attempt++) {
+                final PersistenceManager persistenceManager = persistenceManagerFactory.getPersistenceManager();
+                try {
+                    persistenceManager.currentTransaction().begin();
+                    final Numerator numerator = (Numerator) persistenceManager.getObjectById(numeratorId);
+                    final BigInteger last = lastIncrementOf(numerator);
+                    final BigInteger first = last.add(BigInteger.ONE);
+                    numerator.setLastIncrement(last.add(BigInteger.valueOf(size)));
+                    persistenceManager.currentTransaction().commit();
+                    return first.longValue();
+                } catch (JDOOptimisticVerificationException e) {
+                    if (attempt == RESERVE_ATTEMPTS) {
+                        throw new EstatioApplicationException("Could not reserve a block of numbers", e);
+                    }
+                } finally {
+                    if (persistenceManager.currentTransaction().isActive()) {
+                        persistenceManager.currentTransaction().rollback();
+                    }
+                    persistenceManager.close();
+                }
+            }
+        }
+
+        @Override
+        public void release(final long reservedUntil, final long lastUsed) {
+            final PersistenceManager persistenceManager = persistenceManagerFactory.getPersistenceManager();
+            try {
+                persistenceManager.currentTransaction().begin();
+                final Numerator numerator = (Numerator) persistenceManager.getObjectById(numeratorId);
+                if (lastIncrementOf(numerator).equals(BigInteger.valueOf(reservedUntil))) {
+                    numerator.setLastIncrement(BigInteger.valueOf(lastUsed));
+                }
+                persistenceManager.currentTransaction().commit();
+            } catch (JDOOptimisticVerificationException e) {
+                // reserved or changed meanwhile, leave the gap
+            } finally {
+                if (persistenceManager.currentTransaction().isActive()) {
+                    persistenceManager.currentTransaction().rollback();
+                }
+                persistenceManager.close();
+            }
+        }
+
+        /**
+         * Numerators that never counted have no last increment yet, counting
+         * then starts from zero as in {@link Numerator#incrementCounter()}.
+         */
+        private static BigInteger lastIncrementOf(final Numerator numerator) {
+            final BigInteger lastIncrement = numerator.getLastIncrement();
+            return lastIncrement == null ? BigInteger.ZERO : lastIncrement;
+        }
+    }
 
 }
@@ -19,20 +19,26 @@
 package org.estatio.dom.party;
 
 import java.util.List;
+import javax.inject.Inject;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
+import com.google.common.eventbus.Subscribe;
 
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.DomainServiceLayout;
 import org.apache.isis.applib.annotation.MemberOrder;
 import org.apache.isis.applib.annotation.ParameterLayout;
+import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.annotation.RestrictTo;
 import org.apache.isis.applib.annotation.SemanticsOf;
 import org.apache.isis.applib.annotation.Where;
 
+import org.estatio.app.security.EstatioRole;
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.utils.StringUtils;
+import org.estatio.services.search.SearchIndexService;
 
 @DomainService(repositoryFor = Party.class)
 @DomainServiceLayout(
@@ -51,12 +57,20 @@ public class Parties extends UdoDomainRepositoryAndFactory<Party> {
     @MemberOrder(sequence = "1")
     public List<Party> findParties(
             final @ParameterLayout(named = "Reference or Name", describedAs = "May include wildcards '*' and '?'") String referenceOrName) {
+        final List<Party> parties = searchIndexService.search(Party.class, referenceOrName, "reference", "name");
+        if (parties != null) {
+            return parties;
+        }
         return allMatches("matchByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName));
     }
 
     @Action(semantics = SemanticsOf.SAFE, hidden = Where.EVERYWHERE)
     public Party matchPartyByReferenceOrName(final String referenceOrName) {
+        final List<Party> parties = searchIndexService.search(Party.class, referenceOrName, "reference", "name");
+        if (parties != null) {
+            return parties.isEmpty() ? null : parties.get(0);
+        }
         return firstMatch("matchByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName));
     }
@@ -88,4 +102,35 @@ public class Parties extends UdoDomainRepositoryAndFactory<Party> {
         return allInstances();
     }
 
+    // //////////////////////////////////////
+
+    @Action(semantics = SemanticsOf.NON_IDEMPOTENT)
+    @MemberOrder(sequence = "90")
+    public String mergeParties(
+            final @ParameterLayout(
+                    named = "Duplicates",
+                    multiLine = 10,
+                    describedAs = "One 'DUPLICATE;SURVIVOR' pair of party references per line") String duplicates) {
+        final List<PartyMerge> merges = partyMergeService.merge(PartyMergeService.parse(duplicates));
+        return Joiner.on("\n").join(merges);
+    }
+
+    public boolean hideMergeParties() {
+        return !EstatioRole.ADMINISTRATOR.isApplicableFor(getContainer().getUser());
+    }
+
+    @Subscribe
+    @Programmatic
+    public void on(final PartyMergeService.MergedEvent ev) {
+        searchIndexService.removeAll(Party.class, ev.getDuplicateIds());
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    SearchIndexService searchIndexService;
+
+    @Inject
+    PartyMergeService partyMergeService;
+
 }
@@ -0,0 +1,107 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.party;
+
+/**
+ * A request to merge a duplicate {@link Party} into its survivor, together
+ * with the outcome once {@link PartyMergeService#merge(java.util.List)
+ * processed}.
+ */
+public class PartyMerge {
+
+    public enum Outcome {
+        PENDING,
+        MERGED,
+        REJECTED
+    }
+
+    private final String duplicateReference;
+    private final String survivorReference;
+
+    private Party duplicate;
+    private Party survivor;
+
+    private Outcome outcome = Outcome.PENDING;
+    private String reason;
+
+    public PartyMerge(final String duplicateReference, final String survivorReference) {
+        this.duplicateReference = duplicateReference;
+        this.survivorReference = survivorReference;
+    }
+
+    public String getDuplicateReference() {
+        return duplicateReference;
+    }
+
+    public String getSurvivorReference() {
+        return survivorReference;
+    }
+
+    // //////////////////////////////////////
+
+    public Party getDuplicate() {
+        return duplicate;
+    }
+
+    public Party getSurvivor() {
+        return survivor;
+    }
+
+    void resolve(final Party duplicate, final Party survivor) {
+        this.duplicate = duplicate;
+        this.survivor = survivor;
+    }
+
+    // //////////////////////////////////////
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Why the merge was rejected, <tt>null</tt> otherwise.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    public boolean isPending() {
+        return outcome == Outcome.PENDING;
+    }
+
+    void reject(final String reason) {
+        this.outcome = Outcome.REJECTED;
+        this.reason = reason;
+    }
+
+    void merged() {
+        this.outcome = Outcome.MERGED;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * One line of the report, as in <tt>DUPLICATE;SURVIVOR;OUTCOME;reason</tt>.
+     */
+    @Override
+    public String toString() {
+        return duplicateReference + ";" + survivorReference + ";" + outcome + (reason != null ? ";" + reason : "");
+    }
+
+}
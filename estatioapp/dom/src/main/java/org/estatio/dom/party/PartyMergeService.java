@@ -0,0 +1,491 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.party;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.jdo.JDOHelper;
+import javax.jdo.PersistenceManager;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.apache.isis.applib.DomainObjectContainer;
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+import org.apache.isis.applib.services.eventbus.EventBusService;
+import org.apache.isis.core.runtime.system.context.IsisContext;
+import org.apache.isis.core.runtime.system.transaction.IsisTransactionManager;
+import org.apache.isis.objectstore.jdo.applib.service.support.IsisJdoSupport;
+
+import org.estatio.dom.agreement.AgreementRole;
+import org.estatio.dom.agreement.AgreementRoles;
+import org.estatio.dom.asset.FixedAssetRole;
+import org.estatio.dom.communicationchannel.CommunicationChannelOwnerLink;
+import org.estatio.dom.financial.FinancialAccount;
+import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.party.relationship.PartyRelationship;
+
+/**
+ * Merges duplicate {@link Party parties} into their survivors in bulk, as
+ * {@link Party#removeAndReplace(Party)} does for a single party.
+ *
+ * <p>
+ * All merges are validated up front; those that are valid are then processed
+ * in chunks, each re-pointing the references to the duplicates with a single
+ * statement per referencing table and column, and deleting the duplicates
+ * with a single statement per party table. Each chunk is committed on its
+ * own, so the outcome of earlier chunks stands should a later one fail. As
+ * the rows are updated and deleted bypassing JDO there are no
+ * {@link Party.RemoveEvent}s; instead a {@link MergedEvent} is posted per
+ * chunk.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class PartyMergeService {
+
+    static final int CHUNK_SIZE = 500;
+
+    /**
+     * The tables and columns holding a reference to a party, other than the
+     * owner links of communication channels.
+     */
+    static final String[][] PARTY_COLUMNS = {
+            { "AgreementRole", "partyId" },
+            { "PartyRelationship", "fromPartyId" },
+            { "PartyRelationship", "toPartyId" },
+            { "PartyRegistration", "partyId" },
+            { "FinancialAccount", "ownerPartyId" },
+            { "BankAccount", "bankPartyId" },
+            { "FixedAssetRole", "partyId" },
+            { "Invoice", "buyerPartyId" },
+            { "Invoice", "sellerPartyId" }
+    };
+
+    /**
+     * The tables of the party hierarchy, subclasses first.
+     */
+    static final String[] PARTY_TABLES = { "Organisation", "Person", "Party" };
+
+    /**
+     * The types of the instances affected by a merge, as mapped to the
+     * tables above.
+     */
+    static final Class<?>[] REFERENCING_TYPES = {
+            Party.class,
+            AgreementRole.class,
+            PartyRelationship.class,
+            PartyRegistration.class,
+            FinancialAccount.class,
+            FixedAssetRole.class,
+            Invoice.class,
+            CommunicationChannelOwnerLink.class
+    };
+
+    // //////////////////////////////////////
+
+    /**
+     * Parses lines of <tt>DUPLICATE;SURVIVOR</tt> party references, ignoring
+     * blank lines; malformed lines are returned as already rejected.
+     */
+    public static List<PartyMerge> parse(final String lines) {
+        final List<PartyMerge> merges = Lists.newArrayList();
+        for (String line : Splitter.onPattern("\r?\n").omitEmptyStrings().trimResults().split(lines)) {
+            final List<String> parts = Splitter.on(';').trimResults().splitToList(line);
+            if (parts.size() != 2 || parts.get(0).isEmpty() || parts.get(1).isEmpty()) {
+                final PartyMerge merge = new PartyMerge(line, "");
+                merge.reject("Expected 'DUPLICATE;SURVIVOR'");
+                merges.add(merge);
+                continue;
+            }
+            merges.add(new PartyMerge(parts.get(0), parts.get(1)));
+        }
+        return merges;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Validates and then performs all merges that are valid, recording the
+     * outcome on each; the merges are returned for convenience.
+     */
+    @Programmatic
+    public List<PartyMerge> merge(final List<PartyMerge> merges) {
+        // the statements only see what has reached the database
+        container.flush();
+
+        for (PartyMerge merge : merges) {
+            if (merge.isPending()) {
+                merge.resolve(
+                        parties.findPartyByReferenceOrNull(merge.getDuplicateReference()),
+                        parties.findPartyByReferenceOrNull(merge.getSurvivorReference()));
+            }
+        }
+        validate(merges);
+        final List<PartyMerge> valid = Lists.newArrayList();
+        for (PartyMerge merge : merges) {
+            if (merge.isPending()) {
+                valid.add(merge);
+            }
+        }
+        if (valid.isEmpty()) {
+            return merges;
+        }
+
+        mergeValid(valid);
+        return merges;
+    }
+
+    /**
+     * Merges the valid merges chunk by chunk, committing each chunk in a
+     * transaction of its own; should a chunk fail its merges are retried one
+     * by one, so that only those that fail themselves are rejected.
+     */
+    void mergeValid(final List<PartyMerge> valid) {
+        for (List<PartyMerge> chunk : Lists.partition(valid, CHUNK_SIZE)) {
+            if (!mergeCommitted(chunk) && chunk.size() > 1) {
+                for (PartyMerge merge : chunk) {
+                    mergeCommitted(Collections.singletonList(merge));
+                }
+            }
+        }
+    }
+
+    private boolean mergeCommitted(final List<PartyMerge> chunk) {
+        try {
+            executeWithinTransaction(new Runnable() {
+                @Override
+                public void run() {
+                    mergeChunk(chunk);
+                }
+            });
+        } catch (RuntimeException ex) {
+            if (chunk.size() == 1) {
+                chunk.get(0).reject("Failed: " + Throwables.getRootCause(ex).getMessage());
+            }
+            return false;
+        }
+        for (PartyMerge merge : chunk) {
+            merge.merged();
+        }
+        return true;
+    }
+
+    /**
+     * Commits what has been done so far, then runs and commits the work in a
+     * transaction of its own; if the work fails only its own transaction is
+     * rolled back. Either way a new transaction is left for the remainder of
+     * the interaction.
+     *
+     * <p>
+     * Only commits when called from the top level transaction, as is the case
+     * within an action invocation.
+     */
+    void executeWithinTransaction(final Runnable work) {
+        final IsisTransactionManager transactionManager = IsisContext.getPersistenceSession().getTransactionManager();
+        transactionManager.endTransaction();
+        transactionManager.startTransaction();
+        try {
+            work.run();
+            transactionManager.endTransaction();
+        } catch (RuntimeException ex) {
+            transactionManager.abortTransaction();
+            throw ex;
+        } finally {
+            transactionManager.startTransaction();
+        }
+    }
+
+    void mergeChunk(final List<PartyMerge> chunk) {
+        invalidateRoleIndices(chunk);
+        // the statements only see what has reached the database
+        container.flush();
+
+        final PersistenceManager persistenceManager = isisJdoSupport.getJdoPersistenceManager();
+        final List<Object> loaded = loadedOf(persistenceManager);
+        for (Object object : loaded) {
+            // flushed but still dirty instances cannot be evicted
+            if (JDOHelper.isDirty(object)) {
+                persistenceManager.refresh(object);
+            }
+        }
+
+        repoint(chunk);
+        remove(chunk);
+
+        // any of the re-pointed or removed instances already loaded are stale
+        persistenceManager.evictAll(loaded);
+
+        final List<Object> duplicateIds = Lists.newArrayList();
+        for (PartyMerge merge : chunk) {
+            duplicateIds.add(JDOHelper.getObjectId(merge.getDuplicate()));
+        }
+        eventBusService.post(new MergedEvent(this, chunk, duplicateIds));
+    }
+
+    /**
+     * The loaded instances of the types that reference a party, and of the
+     * parties themselves.
+     */
+    private static List<Object> loadedOf(final PersistenceManager persistenceManager) {
+        final List<Object> loaded = Lists.newArrayList();
+        for (Object object : persistenceManager.getManagedObjects()) {
+            for (Class<?> type : REFERENCING_TYPES) {
+                if (type.isInstance(object)) {
+                    loaded.add(object);
+                    break;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Rejects the merges that cannot be performed; those that remain
+     * {@link PartyMerge#isPending() pending} are valid, also taken together.
+     */
+    void validate(final List<PartyMerge> merges) {
+        final Map<Party, Integer> timesDuplicate = Maps.newHashMap();
+        for (PartyMerge merge : merges) {
+            if (merge.isPending() && merge.getDuplicate() != null) {
+                final Integer times = timesDuplicate.get(merge.getDuplicate());
+                timesDuplicate.put(merge.getDuplicate(), times == null ? 1 : times + 1);
+            }
+        }
+        final List<Party> involved = Lists.newArrayList();
+        for (PartyMerge merge : merges) {
+            if (!merge.isPending()) {
+                continue;
+            }
+            if (merge.getDuplicate() == null) {
+                merge.reject("Duplicate not found");
+            } else if (merge.getSurvivor() == null) {
+                merge.reject("Survivor not found");
+            } else if (merge.getDuplicate() == merge.getSurvivor()) {
+                merge.reject("Cannot replace a party with itself");
+            } else if (timesDuplicate.get(merge.getDuplicate()) > 1) {
+                merge.reject("Duplicate is to be merged more than once");
+            } else if (timesDuplicate.containsKey(merge.getSurvivor())) {
+                // would leave references to a party that is removed as well
+                merge.reject("Survivor is itself to be merged");
+            } else {
+                involved.add(merge.getDuplicate());
+                involved.add(merge.getSurvivor());
+            }
+        }
+        rejectConflictingRoles(merges, involved);
+    }
+
+    /**
+     * A duplicate and its survivor (or two duplicates of the same survivor)
+     * cannot play the same role in the same agreement from the same date.
+     */
+    private void rejectConflictingRoles(final List<PartyMerge> merges, final List<Party> involved) {
+        final Map<Party, Set<List<Object>>> roleKeysByParty = Maps.newHashMap();
+        for (List<Party> chunk : Lists.partition(involved, CHUNK_SIZE)) {
+            for (AgreementRole role : agreementRoles.findByParties(chunk)) {
+                Set<List<Object>> roleKeys = roleKeysByParty.get(role.getParty());
+                if (roleKeys == null) {
+                    roleKeys = Sets.newHashSet();
+                    roleKeysByParty.put(role.getParty(), roleKeys);
+                }
+                roleKeys.add(roleKeyOf(role));
+            }
+        }
+        for (PartyMerge merge : merges) {
+            if (!merge.isPending()) {
+                continue;
+            }
+            final Set<List<Object>> duplicateKeys = roleKeysByParty.get(merge.getDuplicate());
+            if (duplicateKeys == null) {
+                continue;
+            }
+            Set<List<Object>> survivorKeys = roleKeysByParty.get(merge.getSurvivor());
+            if (survivorKeys == null) {
+                survivorKeys = Sets.newHashSet();
+                roleKeysByParty.put(merge.getSurvivor(), survivorKeys);
+            }
+            if (!Sets.intersection(duplicateKeys, survivorKeys).isEmpty()) {
+                merge.reject("Survivor already plays a role of the duplicate in the same agreement");
+                continue;
+            }
+            survivorKeys.addAll(duplicateKeys);
+        }
+    }
+
+    private static List<Object> roleKeyOf(final AgreementRole role) {
+        return Arrays.<Object> asList(role.getAgreement(), role.getType(), role.getStartDate());
+    }
+
+    // //////////////////////////////////////
+
+    private void invalidateRoleIndices(final List<PartyMerge> chunk) {
+        final List<Party> duplicates = Lists.newArrayList();
+        for (PartyMerge merge : chunk) {
+            duplicates.add(merge.getDuplicate());
+        }
+        for (AgreementRole role : agreementRoles.findByParties(duplicates)) {
+            role.getAgreement().invalidateRoleIndex();
+        }
+    }
+
+    private void repoint(final List<PartyMerge> chunk) {
+        final Map<String, String> survivorKeys = Maps.newLinkedHashMap();
+        final Map<String, String> survivorIdentifiers = Maps.newLinkedHashMap();
+        final Map<String, String> survivorObjectTypes = Maps.newLinkedHashMap();
+        for (PartyMerge merge : chunk) {
+            survivorKeys.put(keyOf(merge.getDuplicate()), keyOf(merge.getSurvivor()));
+            final Bookmark duplicate = bookmarkService.bookmarkFor(merge.getDuplicate());
+            final Bookmark survivor = bookmarkService.bookmarkFor(merge.getSurvivor());
+            survivorIdentifiers.put(quoted(duplicate.getIdentifier()), quoted(survivor.getIdentifier()));
+            survivorObjectTypes.put(quoted(duplicate.getIdentifier()), quoted(survivor.getObjectType()));
+        }
+        final String duplicateKeys = Joiner.on(", ").join(survivorKeys.keySet());
+
+        // the generic owner link first, as it is found through the party specific one
+        isisJdoSupport.executeUpdate("UPDATE \"CommunicationChannelOwnerLink\" SET "
+                + "\"ownerObjectType\" = " + caseOf("ownerIdentifier", survivorObjectTypes) + ", "
+                + "\"ownerIdentifier\" = " + caseOf("ownerIdentifier", survivorIdentifiers) + " "
+                + "WHERE \"id\" IN (SELECT \"id\" FROM \"CommunicationChannelOwnerLinkForParty\" "
+                + "WHERE \"partyId\" IN (" + duplicateKeys + "))");
+        repoint("CommunicationChannelOwnerLinkForParty", "partyId", survivorKeys, duplicateKeys);
+        for (String[] tableAndColumn : PARTY_COLUMNS) {
+            repoint(tableAndColumn[0], tableAndColumn[1], survivorKeys, duplicateKeys);
+        }
+
+        // a relationship between a duplicate and its survivor has become meaningless
+        isisJdoSupport.executeUpdate("DELETE FROM \"PartyRelationship\" "
+                + "WHERE \"fromPartyId\" = \"toPartyId\" "
+                + "AND \"fromPartyId\" IN (" + Joiner.on(", ").join(Sets.newHashSet(survivorKeys.values())) + ")");
+    }
+
+    private void repoint(
+            final String table,
+            final String column,
+            final Map<String, String> survivorKeys,
+            final String duplicateKeys) {
+        isisJdoSupport.executeUpdate("UPDATE \"" + table + "\" "
+                + "SET \"" + column + "\" = " + caseOf(column, survivorKeys) + " "
+                + "WHERE \"" + column + "\" IN (" + duplicateKeys + ")");
+    }
+
+    private void remove(final List<PartyMerge> chunk) {
+        final List<String> keys = Lists.newArrayList();
+        for (PartyMerge merge : chunk) {
+            keys.add(keyOf(merge.getDuplicate()));
+        }
+        final String duplicateKeys = Joiner.on(", ").join(keys);
+        for (String table : PARTY_TABLES) {
+            isisJdoSupport.executeUpdate("DELETE FROM \"" + table + "\" WHERE \"id\" IN (" + duplicateKeys + ")");
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * A <tt>CASE</tt> expression mapping the values of the column.
+     */
+    static String caseOf(final String column, final Map<String, String> values) {
+        final StringBuilder buf = new StringBuilder("CASE \"").append(column).append("\"");
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            buf.append(" WHEN ").append(entry.getKey()).append(" THEN ").append(entry.getValue());
+        }
+        return buf.append(" END").toString();
+    }
+
+    static String quoted(final String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    /**
+     * The numeric key of the datastore identity, as rendered by
+     * {@link org.estatio.dom.UdoDomainObject#getId()}.
+     */
+    private static String keyOf(final Party party) {
+        return JDOHelper.getObjectId(party).toString().split("\\[OID\\]")[0];
+    }
+
+    // //////////////////////////////////////
+
+    public static class MergedEvent extends EventObject {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<PartyMerge> merges;
+        private final List<Object> duplicateIds;
+
+        public MergedEvent(
+                final Object source,
+                final List<PartyMerge> merges,
+                final List<Object> duplicateIds) {
+            super(source);
+            this.merges = merges;
+            this.duplicateIds = duplicateIds;
+        }
+
+        /**
+         * The merges performed.
+         */
+        public List<PartyMerge> getMerges() {
+            return merges;
+        }
+
+        /**
+         * The JDO object ids of the duplicates removed.
+         */
+        public List<Object> getDuplicateIds() {
+            return duplicateIds;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    Parties parties;
+
+    @Inject
+    AgreementRoles agreementRoles;
+
+    @Inject
+    BookmarkService bookmarkService;
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+    @Inject
+    EventBusService eventBusService;
+
+    @Inject
+    DomainObjectContainer container;
+
+}
@@ -185,19 +185,23 @@ public class Tax
 
     @Programmatic
     public TaxRate taxRateFor(final LocalDate date) {
-        TaxRate rate = taxRates.findTaxRateByTaxAndDate(this, date);
-        return rate;
+        final LocalDate startDate = taxRates.timelineFor(this).startDateFor(date);
+        if (startDate == null) {
+            return null;
+        }
+        for (TaxRate rate : getRates()) {
+            if (startDate.equals(rate.getStartDate())) {
+                return rate;
+            }
+        }
+        return taxRates.findTaxRateByTaxAndDate(this, date);
     }
 
     // //////////////////////////////////////
 
     @Programmatic
     public BigDecimal percentageFor(final LocalDate date) {
-        TaxRate rate = taxRateFor(date);
-        if (rate == null) {
-            return null;
-        }
-        return rate.getPercentage();
+        return taxRates.timelineFor(this).percentageFor(date);
     }
 
     // //////////////////////////////////////
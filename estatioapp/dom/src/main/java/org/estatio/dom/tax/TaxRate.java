@@ -57,7 +57,14 @@ import org.estatio.dom.valuetypes.LocalDateInterval;
                         + "FROM org.estatio.dom.tax.TaxRate "
                         + "WHERE tax == :tax"
                         + "  && startDate <= :date"
-                        + "  && (endDate == null || endDate >= :date)")
+                        + "  && (endDate == null || endDate >= :date) "
+                        + "ORDER BY startDate DESC"),
+        @javax.jdo.annotations.Query(
+                name = "findByTax", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.tax.TaxRate "
+                        + "WHERE tax == :tax "
+                        + "ORDER BY startDate DESC")
 })
 @DomainObject(editing = Editing.DISABLED)
 public class TaxRate
@@ -143,7 +150,9 @@ public class TaxRate
     public TaxRate changeDates(
             final @ParameterLayout(named = "Start Date") @Parameter(optionality = Optionality.OPTIONAL) LocalDate startDate,
             final @ParameterLayout(named = "End Date") @Parameter(optionality = Optionality.OPTIONAL) LocalDate endDate) {
-        return getChangeDates().changeDates(startDate, endDate);
+        final TaxRate taxRate = getChangeDates().changeDates(startDate, endDate);
+        taxRates.invalidateTimeline(getTax());
+        return taxRate;
     }
 
     public String disableChangeDates(
@@ -275,9 +284,11 @@ public class TaxRate
             final @ParameterLayout(named = "Percentage") @Parameter(optionality = Optionality.OPTIONAL) BigDecimal percentage,
             final @ParameterLayout(named = "External Reference") @Parameter(optionality = Optionality.OPTIONAL) String externalReference) {
 
+        taxRates.invalidateTimeline(getTax());
         setTax(tax);
         setPercentage(percentage);
         setExternalReference(externalReference);
+        taxRates.invalidateTimeline(tax);
         return this;
     }
 
@@ -293,4 +304,12 @@ public class TaxRate
         return getExternalReference();
     }
 
+    // //////////////////////////////////////
+
+    private TaxRates taxRates;
+
+    public final void injectTaxRates(final TaxRates taxRates) {
+        this.taxRates = taxRates;
+    }
+
 }
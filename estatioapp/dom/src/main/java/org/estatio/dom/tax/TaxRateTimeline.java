@@ -0,0 +1,137 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.tax;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.valuetypes.EpochDayInterval;
+
+/**
+ * Immutable, in-memory copy of the {@link TaxRate rate}s of a {@link Tax},
+ * sorted by start date so that finding the rate for a date is a binary search
+ * rather than a query.
+ *
+ * <p>
+ * Of the rates covering a date the one that started last applies, as
+ * {@link TaxRates#findTaxRateByTaxAndDate(Tax, LocalDate)} would return it.
+ * Rates without a start date never apply.
+ *
+ * @see TaxRates#timelineFor(Tax)
+ */
+public final class TaxRateTimeline {
+
+    private final int[] startDays;
+    private final int[] endDays;
+    private final LocalDate[] startDates;
+    private final BigDecimal[] percentages;
+
+    private TaxRateTimeline(
+            final int[] startDays,
+            final int[] endDays,
+            final LocalDate[] startDates,
+            final BigDecimal[] percentages) {
+        this.startDays = startDays;
+        this.endDays = endDays;
+        this.startDates = startDates;
+        this.percentages = percentages;
+    }
+
+    public static TaxRateTimeline of(final Collection<TaxRate> taxRates) {
+        final List<TaxRate> sorted = Lists.newArrayList();
+        for (TaxRate taxRate : taxRates) {
+            if (taxRate.getStartDate() != null) {
+                sorted.add(taxRate);
+            }
+        }
+        Collections.sort(sorted, new Comparator<TaxRate>() {
+            @Override
+            public int compare(final TaxRate o1, final TaxRate o2) {
+                return o1.getStartDate().compareTo(o2.getStartDate());
+            }
+        });
+        final int[] startDays = new int[sorted.size()];
+        final int[] endDays = new int[sorted.size()];
+        final LocalDate[] startDates = new LocalDate[sorted.size()];
+        final BigDecimal[] percentages = new BigDecimal[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            final TaxRate taxRate = sorted.get(i);
+            startDays[i] = EpochDayInterval.epochDay(taxRate.getStartDate());
+            endDays[i] = taxRate.getEndDate() == null ? Integer.MAX_VALUE : EpochDayInterval.epochDay(taxRate.getEndDate());
+            startDates[i] = taxRate.getStartDate();
+            percentages[i] = taxRate.getPercentage();
+        }
+        return new TaxRateTimeline(startDays, endDays, startDates, percentages);
+    }
+
+    // //////////////////////////////////////
+
+    public int size() {
+        return startDays.length;
+    }
+
+    /**
+     * The start date of the rate applying on the given date, <tt>null</tt> if
+     * none.
+     */
+    public LocalDate startDateFor(final LocalDate date) {
+        final int i = indexFor(date);
+        return i < 0 ? null : startDates[i];
+    }
+
+    /**
+     * The percentage of the rate applying on the given date, <tt>null</tt> if
+     * none.
+     */
+    public BigDecimal percentageFor(final LocalDate date) {
+        final int i = indexFor(date);
+        return i < 0 ? null : percentages[i];
+    }
+
+    private int indexFor(final LocalDate date) {
+        if (date == null) {
+            return -1;
+        }
+        final int day = EpochDayInterval.epochDay(date);
+        int i = Arrays.binarySearch(startDays, day);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        // binary search finds any of several rates starting on the same day
+        while (i + 1 < startDays.length && startDays[i + 1] <= day) {
+            i++;
+        }
+        // an earlier rate may still cover the date if a later one has ended
+        for (; i >= 0; i--) {
+            if (endDays[i] >= day) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
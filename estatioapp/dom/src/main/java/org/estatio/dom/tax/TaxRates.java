@@ -20,6 +20,7 @@ package org.estatio.dom.tax;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.joda.time.LocalDate;
 
@@ -31,6 +32,9 @@ import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.annotation.SemanticsOf;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.services.xactn.InvalidationListener;
+import org.estatio.services.xactn.SharedCache;
+import org.estatio.services.xactn.TransactionCallbacks;
 
 @DomainService(repositoryFor = TaxRate.class)
 @DomainServiceLayout(
@@ -74,6 +78,7 @@ public class TaxRates extends UdoDomainRepositoryAndFactory<TaxRate> {
             currentRate.modifyNext(rate);
             rate.modifyNext(currentNextRate);
         }
+        invalidateTimeline(tax);
         return rate;
     }
 
@@ -82,4 +87,73 @@ public class TaxRates extends UdoDomainRepositoryAndFactory<TaxRate> {
         return firstMatch("findByTaxAndDate", "tax", tax, "date", date);
     }
 
+    @Programmatic
+    public List<TaxRate> findByTax(final Tax tax) {
+        return allMatches("findByTax", "tax", tax);
+    }
+
+    // //////////////////////////////////////
+
+    private final SharedCache<String, TaxRateTimeline> timelineByTax = new SharedCache<String, TaxRateTimeline>();
+
+    private final Runnable invalidateAllTimelines = new Runnable() {
+        @Override
+        public void run() {
+            dropTimelines();
+        }
+    };
+
+    private final InvalidationListener timelineInvalidator = new InvalidationListener(
+            invalidateAllTimelines, TaxRate.class, Tax.class);
+
+    /**
+     * All rates of the tax, loaded once and kept until a rate or tax is
+     * created, changed or removed, in which case the timelines are dropped
+     * once the transaction completes.
+     */
+    @Programmatic
+    public TaxRateTimeline timelineFor(final Tax tax) {
+        listenForChanges();
+        return timelineByTax.get(tax.getReference(), new Callable<TaxRateTimeline>() {
+            @Override
+            public TaxRateTimeline call() throws Exception {
+                return TaxRateTimeline.of(findByTax(tax));
+            }
+        });
+    }
+
+    /**
+     * Registers for the changes of rates and taxes on first use, so that any
+     * change committed from then on drops the timelines.
+     */
+    protected void listenForChanges() {
+        timelineInvalidator.listenTo(getIsisJdoSupport().getJdoPersistenceManager());
+    }
+
+    /**
+     * Drops the timeline of the tax now, so that the rest of the transaction
+     * sees the change, and all timelines once the transaction completes.
+     */
+    @Programmatic
+    public void invalidateTimeline(final Tax tax) {
+        if (tax != null) {
+            timelineByTax.invalidate(tax.getReference());
+            TransactionCallbacks.afterCompletion(getIsisJdoSupport().getJdoPersistenceManager(), invalidateAllTimelines);
+        }
+    }
+
+    /**
+     * Drops all timelines, now and once the transaction completes; to be
+     * called when rates have been changed bypassing JDO.
+     */
+    @Programmatic
+    public void invalidateTimelines() {
+        invalidateAllTimelines.run();
+        TransactionCallbacks.afterCompletion(getIsisJdoSupport().getJdoPersistenceManager(), invalidateAllTimelines);
+    }
+
+    void dropTimelines() {
+        timelineByTax.invalidateAll();
+    }
+
 }
@@ -117,7 +117,7 @@ public final class ApplicationTenancyLevel implements Comparable<ApplicationTena
      *     <li>"/a/bb" -> ["a", "bb"]</li>
      * </ul>
      */
-    List<String> getParts() {
+    public List<String> getParts() {
         return Lists.newArrayList(Iterables.filter(Splitter.on('/').split(path), new Predicate<String>() {
                     @Override
                     public boolean apply(final String input) {
@@ -19,12 +19,17 @@ package org.estatio.services.documents;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 
+import com.google.common.base.Objects;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+
 import org.apache.chemistry.opencmis.client.api.CmisObject;
-import org.apache.chemistry.opencmis.client.api.Folder;
-import org.apache.chemistry.opencmis.client.api.ItemIterable;
 import org.apache.chemistry.opencmis.client.api.QueryResult;
 import org.apache.chemistry.opencmis.client.api.Repository;
 import org.apache.chemistry.opencmis.client.api.Session;
@@ -37,10 +42,19 @@ import org.apache.isis.applib.annotation.Programmatic;
 
 public class CmisRepository {
 
+    static final int MAX_IDLE_SESSIONS = 4;
+    static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    static final long VALIDATION_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    static final long METADATA_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    static final int METADATA_CACHE_SIZE = 10000;
+
     private Map<String, String> properties;
     private SessionFactory sessionFactory;
     private Repository repository;
-    
+
+    private CmisSessionPool sessionPool;
+    private Cache<String, DocumentMetadata> metadataCache;
+
     @Programmatic
     @PostConstruct
     public void init(final Map<String,String> properties) {
@@ -60,34 +74,101 @@ public class CmisRepository {
 
         repository = repositories.get(0);
         properties.put(SessionParameter.REPOSITORY_ID, repository.getId());
-        
+
+        init(new CmisSessionPool(
+                new CmisSessionPool.SessionSource() {
+                    @Override
+                    public Session create() {
+                        return sessionFactory.createSession(CmisRepository.this.properties);
+                    }
+                },
+                MAX_IDLE_SESSIONS, IDLE_TIMEOUT_MILLIS, VALIDATION_INTERVAL_MILLIS),
+                Ticker.systemTicker());
+
         ping();
     }
 
+    void init(final CmisSessionPool sessionPool, final Ticker ticker) {
+        this.sessionPool = sessionPool;
+        this.metadataCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(METADATA_TTL_MILLIS, TimeUnit.MILLISECONDS)
+                .maximumSize(METADATA_CACHE_SIZE)
+                .ticker(ticker)
+                .build();
+    }
+
     // fail-fast if the properties are wrong etc etc
     private void ping() {
-        Session session = sessionFactory.createSession(properties);
+        final Session session = sessionPool.borrow();
+        session.getRootFolder();
+        sessionPool.release(session);
+    }
 
-        @SuppressWarnings("unused")
-        Folder root = session.getRootFolder();
+    @Programmatic
+    public CmisSessionPool getSessionPool() {
+        return sessionPool;
     }
 
-    
+    // //////////////////////////////////////
+
     /**
      * @param queryString eg: "SELECT * FROM cmis:document where cmis:name like '%Adventure%'"
      */
     @Programmatic
-    public ItemIterable<QueryResult> query(String queryString) {
-
-        final Session session = sessionFactory.createSession(properties);
-        return session.query(queryString, true);
+    public List<QueryResult> query(String queryString) {
+        final Session session = sessionPool.borrow();
+        // read all pages while the session is held; a failed session is not reused
+        final List<QueryResult> results = Lists.newArrayList(session.query(queryString, true));
+        sessionPool.release(session);
+        return results;
     }
 
     @Programmatic
     public CmisObject findById(String cmisId) {
-        Session session = sessionFactory.createSession(properties);
-        return session.getObject(cmisId);
+        final Session session = sessionPool.borrow();
+        final CmisObject obj = session.getObject(cmisId);
+        sessionPool.release(session);
+        return obj;
     }
-}
 
+    // //////////////////////////////////////
+
+    /**
+     * The metadata of the documents matching a query that selects (at least)
+     * the {@link DocumentMetadata#PROPERTY_IDS metadata properties}, in a
+     * single round trip; the metadata is cached for
+     * {@link #findDocument(String)}.
+     */
+    @Programmatic
+    public List<DocumentMetadata> findDocuments(String queryString) {
+        final List<DocumentMetadata> documents = Lists.newArrayList();
+        for (QueryResult result : query(queryString)) {
+            final DocumentMetadata metadata = DocumentMetadata.of(result);
+            final DocumentMetadata cached = metadataCache.getIfPresent(metadata.getCmisId());
+            if (cached == null || !Objects.equal(cached.getChangeToken(), metadata.getChangeToken())) {
+                metadataCache.put(metadata.getCmisId(), metadata);
+            }
+            documents.add(metadata);
+        }
+        return documents;
+    }
 
+    /**
+     * The metadata of a document, fetched only if not cached or expired;
+     * <tt>null</tt> if there is no such document.
+     */
+    @Programmatic
+    public DocumentMetadata findDocument(String cmisId) {
+        final DocumentMetadata cached = metadataCache.getIfPresent(cmisId);
+        if (cached != null) {
+            return cached;
+        }
+        final CmisObject obj = findById(cmisId);
+        if (obj == null) {
+            return null;
+        }
+        final DocumentMetadata metadata = DocumentMetadata.of(obj);
+        metadataCache.put(cmisId, metadata);
+        return metadata;
+    }
+}
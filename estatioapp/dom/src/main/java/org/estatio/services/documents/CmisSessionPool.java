@@ -0,0 +1,169 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.documents;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+
+import org.apache.chemistry.opencmis.client.api.Session;
+
+/**
+ * Pool of CMIS {@link Session}s, so that not every call to the repository
+ * pays for setting up a session.
+ *
+ * <p>
+ * Sessions idle for longer than the idle timeout are discarded rather than
+ * reused; a session idle for longer than the validation interval is first
+ * checked to still be able to talk to the repository.
+ */
+public class CmisSessionPool {
+
+    public interface SessionSource {
+
+        Session create();
+    }
+
+    private final SessionSource source;
+    private final int maxIdle;
+    private final long idleTimeoutNanos;
+    private final long validationIntervalNanos;
+    private final Ticker ticker;
+
+    private final Deque<Entry> idle = new ArrayDeque<Entry>();
+
+    private int created;
+
+    public CmisSessionPool(
+            final SessionSource source,
+            final int maxIdle,
+            final long idleTimeoutMillis,
+            final long validationIntervalMillis) {
+        this(source, maxIdle, idleTimeoutMillis, validationIntervalMillis, Ticker.systemTicker());
+    }
+
+    CmisSessionPool(
+            final SessionSource source,
+            final int maxIdle,
+            final long idleTimeoutMillis,
+            final long validationIntervalMillis,
+            final Ticker ticker) {
+        this.source = source;
+        this.maxIdle = maxIdle;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(validationIntervalMillis);
+        this.ticker = ticker;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * A healthy session, either an idle one or a newly created one; to be
+     * {@link #release(Session) released} when done, unless it failed.
+     */
+    public Session borrow() {
+        Entry entry;
+        while ((entry = pollIdle()) != null) {
+            final long idleNanos = ticker.read() - entry.releasedAt;
+            if (idleNanos > idleTimeoutNanos) {
+                continue;
+            }
+            if (idleNanos <= validationIntervalNanos || isHealthy(entry.session)) {
+                return entry.session;
+            }
+        }
+        synchronized (this) {
+            created++;
+        }
+        return source.create();
+    }
+
+    /**
+     * Returns a session that is fine to be reused, first
+     * {@link #evictIdle() evicting} the sessions idle for too long so that
+     * they do not take the place of this one.
+     */
+    public void release(final Session session) {
+        final Entry entry = new Entry(session, ticker.read());
+        synchronized (this) {
+            evictIdle();
+            if (idle.size() < maxIdle) {
+                idle.push(entry);
+            }
+        }
+    }
+
+    /**
+     * Discards the sessions that have been idle for too long.
+     */
+    public synchronized int evictIdle() {
+        final long now = ticker.read();
+        int evicted = 0;
+        // the least recently released are at the bottom
+        while (!idle.isEmpty() && now - idle.peekLast().releasedAt > idleTimeoutNanos) {
+            idle.removeLast();
+            evicted++;
+        }
+        return evicted;
+    }
+
+    // //////////////////////////////////////
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * The number of sessions created so far.
+     */
+    public synchronized int getCreatedCount() {
+        return created;
+    }
+
+    // //////////////////////////////////////
+
+    private synchronized Entry pollIdle() {
+        return idle.poll();
+    }
+
+    private static boolean isHealthy(final Session session) {
+        try {
+            // clear the cache so that the root folder is fetched from the repository
+            session.clear();
+            session.getRootFolder();
+            return true;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Session session;
+        private final long releasedAt;
+
+        Entry(final Session session, final long releasedAt) {
+            this.session = session;
+            this.releasedAt = releasedAt;
+        }
+    }
+
+}
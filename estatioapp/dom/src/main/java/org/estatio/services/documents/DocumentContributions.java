@@ -3,13 +3,11 @@ package org.estatio.services.documents;
 import java.util.List;
 
 import com.google.common.base.Function;
+import com.google.common.base.Joiner;
 import com.google.common.base.Predicates;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 
-import org.apache.chemistry.opencmis.client.api.QueryResult;
-import org.apache.chemistry.opencmis.commons.PropertyIds;
-
 import org.apache.isis.applib.annotation.ActionSemantics;
 import org.apache.isis.applib.annotation.ActionSemantics.Of;
 import org.apache.isis.applib.annotation.NotContributed;
@@ -28,16 +26,16 @@ public class DocumentContributions {
         return Lists.newArrayList(
                 Iterables.filter(
                         Iterables.transform(
-                                cmisRepository.query(queryFor(property)),
+                                cmisRepository.findDocuments(queryFor(property)),
                                 newViewModel()),
                         Predicates.notNull()));
     }
 
-    private Function<QueryResult, DocumentViewModel> newViewModel() {
-        return new Function<QueryResult, DocumentViewModel>() {
+    private Function<DocumentMetadata, DocumentViewModel> newViewModel() {
+        return new Function<DocumentMetadata, DocumentViewModel>() {
             @Override
-            public DocumentViewModel apply(QueryResult result) {
-                return documentViewModelFactory.newViewModelFor(result);
+            public DocumentViewModel apply(DocumentMetadata metadata) {
+                return documentViewModelFactory.newViewModelFor(metadata);
             }
         };
     }
@@ -45,10 +43,10 @@ public class DocumentContributions {
     static String queryFor(Property property) {
         final String city = property.getCity();
         return String.format(
-                "SELECT %s, %s, %s "
+                "SELECT %s "
                         + "FROM cmis:document "
                         + "WHERE CONTAINS('%s')",
-                PropertyIds.OBJECT_ID, PropertyIds.NAME, PropertyIds.VERSION_LABEL,
+                Joiner.on(", ").join(DocumentMetadata.PROPERTY_IDS),
                 city);
     }
 
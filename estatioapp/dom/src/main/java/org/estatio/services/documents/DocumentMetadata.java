@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.documents;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.QueryResult;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+
+/**
+ * The properties of a CMIS document needed for a {@link DocumentViewModel},
+ * as returned by a query or fetched by id.
+ */
+public final class DocumentMetadata {
+
+    /**
+     * The properties to select for a {@link DocumentMetadata}.
+     */
+    static final String[] PROPERTY_IDS = {
+            PropertyIds.OBJECT_ID,
+            PropertyIds.NAME,
+            PropertyIds.VERSION_LABEL,
+            PropertyIds.CHANGE_TOKEN
+    };
+
+    private final String cmisId;
+    private final String name;
+    private final String versionLabel;
+    private final String changeToken;
+
+    public DocumentMetadata(
+            final String cmisId,
+            final String name,
+            final String versionLabel,
+            final String changeToken) {
+        this.cmisId = cmisId;
+        this.name = name;
+        this.versionLabel = versionLabel;
+        this.changeToken = changeToken;
+    }
+
+    public static DocumentMetadata of(final QueryResult result) {
+        return new DocumentMetadata(
+                result.<String> getPropertyValueById(PropertyIds.OBJECT_ID),
+                result.<String> getPropertyValueById(PropertyIds.NAME),
+                result.<String> getPropertyValueById(PropertyIds.VERSION_LABEL),
+                result.<String> getPropertyValueById(PropertyIds.CHANGE_TOKEN));
+    }
+
+    public static DocumentMetadata of(final CmisObject obj) {
+        return new DocumentMetadata(
+                obj.getId(),
+                obj.getName(),
+                obj.<String> getPropertyValue(PropertyIds.VERSION_LABEL),
+                obj.getChangeToken());
+    }
+
+    // //////////////////////////////////////
+
+    public String getCmisId() {
+        return cmisId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersionLabel() {
+        return versionLabel;
+    }
+
+    /**
+     * Changes whenever the document does, <tt>null</tt> if the repository
+     * does not support change tokens.
+     */
+    public String getChangeToken() {
+        return changeToken;
+    }
+
+}
@@ -6,7 +6,6 @@ import java.net.URL;
 import org.isisaddons.module.stringinterpolator.dom.StringInterpolatorService;
 
 import org.apache.chemistry.opencmis.client.api.CmisObject;
-import org.apache.chemistry.opencmis.commons.PropertyIds;
 
 import org.apache.isis.applib.ViewModel;
 import org.apache.isis.applib.annotation.MemberOrder;
@@ -26,18 +25,18 @@ public class DocumentViewModel implements ViewModel {
     @Override
     public void viewModelInit(String memento) {
         this.cmisId = memento;
-        init(getCmisObject());
+        init(cmisRepository.findDocument(cmisId));
     }
 
 
     //// //////////////////////////////////////
     
     @Programmatic
-    public DocumentViewModel init(CmisObject obj) {
-        this.cmisObject = obj;
-        setName(obj.getName());
-        final String propertyValue = obj.getPropertyValue(PropertyIds.VERSION_LABEL);
-        setVersionLabel(propertyValue);
+    public DocumentViewModel init(DocumentMetadata metadata) {
+        if (metadata != null) {
+            setName(metadata.getName());
+            setVersionLabel(metadata.getVersionLabel());
+        }
         return this;
     }
 
@@ -35,10 +35,13 @@ import org.apache.isis.core.runtime.system.session.IsisSession;
 import org.apache.isis.core.runtime.system.transaction.IsisTransactionManager;
 import org.apache.isis.core.runtime.system.transaction.TransactionalClosure;
 
+import org.estatio.services.querystats.QueryInteractionStatistics;
+
 public abstract class AbstractIsisJob implements Job {
 
     /**
-     * Sets up an {@link IsisSession} then delegates to the {@link #doExecute(JobExecutionContext) hook}. 
+     * Sets up an {@link IsisSession} then delegates to the {@link #doExecute(JobExecutionContext) hook},
+     * within a single transaction unless {@link #isSingleTransaction() otherwise indicated}.
      */
     public void execute(final JobExecutionContext context) throws JobExecutionException {
         final AuthenticationSession authSession = newAuthSession(context);
@@ -46,31 +49,58 @@ public abstract class AbstractIsisJob implements Job {
             IsisContext.openSession(authSession);
             PersistenceSession persistenceSession = IsisContext.getPersistenceSession();
             persistenceSession.getServicesInjector().injectInto(this);
-            IsisTransactionManager transactionManager = persistenceSession.getTransactionManager();
-            transactionManager.executeWithinTransaction(new TransactionalClosure() {
-                
-                @Override
-                public void preExecute() {
-                }
-                
-                @Override
-                public void execute() {
-                    doExecute(context);
-                }
-                
-                @Override
-                public void onSuccess() {
-                }
-                
-                @Override
-                public void onFailure() {
-                }
-            });
+            getService(QueryInteractionStatistics.class).setInteraction(getClass().getSimpleName());
+            if (isSingleTransaction()) {
+                executeWithinTransaction(new Runnable() {
+                    @Override
+                    public void run() {
+                        doExecute(context);
+                    }
+                });
+            } else {
+                doExecute(context);
+            }
         } finally {
             IsisContext.closeSession();
         }
     }
 
+    /**
+     * Whether the {@link #doExecute(JobExecutionContext) hook} runs within a
+     * single transaction; if not the hook itself demarcates the transactions
+     * using {@link #executeWithinTransaction(Runnable)}.
+     */
+    protected boolean isSingleTransaction() {
+        return true;
+    }
+
+    /**
+     * Helper method for benefit of subclasses, runs and commits the given
+     * work in a transaction of its own.
+     */
+    protected void executeWithinTransaction(final Runnable work) {
+        IsisTransactionManager transactionManager = IsisContext.getPersistenceSession().getTransactionManager();
+        transactionManager.executeWithinTransaction(new TransactionalClosure() {
+
+            @Override
+            public void preExecute() {
+            }
+
+            @Override
+            public void execute() {
+                work.run();
+            }
+
+            @Override
+            public void onSuccess() {
+            }
+
+            @Override
+            public void onFailure() {
+            }
+        });
+    }
+
     AuthenticationSession newAuthSession(JobExecutionContext context) {
         String user = getKey(context, SchedulerConstants.USER_KEY);
         String rolesStr = getKey(context, SchedulerConstants.ROLES_KEY);
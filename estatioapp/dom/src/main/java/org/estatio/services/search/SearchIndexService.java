@@ -0,0 +1,341 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.search;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.jdo.JDOHelper;
+import javax.jdo.JDOObjectNotFoundException;
+import javax.jdo.PersistenceManager;
+import javax.jdo.PersistenceManagerFactory;
+import javax.jdo.Query;
+import javax.jdo.listener.DeleteLifecycleListener;
+import javax.jdo.listener.InstanceLifecycleEvent;
+import javax.jdo.listener.StoreLifecycleListener;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.objectstore.jdo.applib.service.support.IsisJdoSupport;
+
+import org.estatio.dom.utils.StringUtils;
+import org.estatio.services.xactn.TransactionCallbacks;
+
+/**
+ * Serves the wildcard searches on reference and name of the finders and
+ * autocompletes from a {@link TrigramIndex} per entity type, instead of a
+ * regular expression evaluated against every row by the database.
+ *
+ * <p>
+ * The index of a type is loaded from the database on first use, in a
+ * persistence manager and transaction of its own so that changes flushed
+ * but not committed by the interaction asking never get in, and from then
+ * on maintained from the JDO store and delete lifecycle events of the
+ * entities, applied once the transaction storing or deleting them commits.
+ * Changes made by other nodes are picked up by loading the index again once
+ * it is older than <tt>estatio.search.refreshSeconds</tt>.
+ *
+ * <p>
+ * The index is shared by all interactions, so holds object ids rather than
+ * entities; the entities found are looked up by id in the current
+ * persistence manager, skipping any that no longer exist.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class SearchIndexService {
+
+    static final String REFRESH_SECONDS_KEY = "estatio.search.refreshSeconds";
+
+    private final ConcurrentMap<String, Indexer> indexers = new ConcurrentHashMap<String, Indexer>();
+
+    private long refreshMillis = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Reads how often indexes are loaded again, <tt>0</tt> for never.
+     */
+    @Programmatic
+    @PostConstruct
+    public void init(final Map<String, String> properties) {
+        final String refreshSeconds = properties.get(REFRESH_SECONDS_KEY);
+        if (refreshSeconds != null) {
+            refreshMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(refreshSeconds));
+        }
+    }
+
+    /**
+     * The entities of the given type (and its subtypes) of which any of the
+     * given properties matches the wildcard pattern, best match first;
+     * <tt>null</tt> if the pattern is too unspecific to use the index, in
+     * which case the caller is to fall back to its query.
+     *
+     * <p>
+     * Only committed changes are searched, not those pending in the current
+     * transaction.
+     */
+    @Programmatic
+    public <T> List<T> search(final Class<T> type, final String pattern, final String... properties) {
+        if (TrigramIndex.literalsOf(pattern) == null) {
+            return null;
+        }
+        final List<Object> ids = indexerFor(type, properties).index.search(pattern);
+        final PersistenceManager persistenceManager = isisJdoSupport.getJdoPersistenceManager();
+        final List<T> entities = Lists.newArrayListWithCapacity(ids.size());
+        for (Object id : ids) {
+            try {
+                entities.add(type.cast(persistenceManager.getObjectById(id)));
+            } catch (JDOObjectNotFoundException ex) {
+                // removed bypassing the domain, eg by a fixture teardown
+            }
+        }
+        return entities;
+    }
+
+    private final Runnable dropAll = new Runnable() {
+        @Override
+        public void run() {
+            dropIndexes();
+        }
+    };
+
+    /**
+     * Drops all indexes, now and once the transaction completes, to be
+     * reloaded on next use; to be called when entities have been changed
+     * bypassing JDO.
+     */
+    @Programmatic
+    public void invalidateAll() {
+        dropAll.run();
+        TransactionCallbacks.afterCompletion(isisJdoSupport.getJdoPersistenceManager(), dropAll);
+    }
+
+    void dropIndexes() {
+        for (Indexer indexer : indexers.values()) {
+            indexer.unregister();
+        }
+        indexers.clear();
+    }
+
+    /**
+     * Removes the entities with the given object ids from the indexes of the
+     * given type once the transaction commits, to be called when these have
+     * been deleted bypassing JDO.
+     */
+    @Programmatic
+    public void removeAll(final Class<?> type, final Collection<?> objectIds) {
+        final List<Object> ids = Lists.newArrayList(objectIds);
+        TransactionCallbacks.afterCommit(isisJdoSupport.getJdoPersistenceManager(), new Runnable() {
+            @Override
+            public void run() {
+                for (Indexer indexer : indexers.values()) {
+                    if (indexer.type.isAssignableFrom(type) || type.isAssignableFrom(indexer.type)) {
+                        for (Object id : ids) {
+                            indexer.index.remove(id);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Programmatic
+    @PreDestroy
+    public void shutdown() {
+        dropIndexes();
+    }
+
+    // //////////////////////////////////////
+
+    private Indexer indexerFor(final Class<?> type, final String[] properties) {
+        final String key = type.getName() + "|" + Joiner.on(",").join(properties);
+        Indexer indexer = indexers.get(key);
+        if (indexer == null) {
+            synchronized (indexers) {
+                indexer = indexers.get(key);
+                if (indexer == null) {
+                    indexer = new Indexer(key, type, properties, persistenceManagerFactory());
+                    indexers.put(key, indexer);
+                }
+            }
+        } else if (indexer.isOlderThan(refreshMillis) && indexer.refreshing.compareAndSet(false, true)) {
+            // others keep searching the stale index meanwhile
+            final Indexer stale = indexer;
+            try {
+                final Indexer reloaded = new Indexer(key, type, properties, persistenceManagerFactory());
+                if (indexers.replace(key, stale, reloaded)) {
+                    stale.unregister();
+                    indexer = reloaded;
+                } else {
+                    reloaded.unregister();
+                }
+            } finally {
+                stale.refreshing.set(false);
+            }
+        }
+        return indexer;
+    }
+
+    private PersistenceManagerFactory persistenceManagerFactory() {
+        return isisJdoSupport.getJdoPersistenceManager().getPersistenceManagerFactory();
+    }
+
+    /**
+     * Applies a change to the index current when the transaction commits,
+     * which may have been loaded again since the change was made.
+     */
+    private void applyOnCommit(final PersistenceManager persistenceManager, final String key, final Object id, final String[] texts) {
+        TransactionCallbacks.afterCommit(persistenceManager, new Runnable() {
+            @Override
+            public void run() {
+                final Indexer indexer = indexers.get(key);
+                if (indexer == null) {
+                    return;
+                }
+                if (texts == null) {
+                    indexer.index.remove(id);
+                } else {
+                    indexer.index.put(id, texts);
+                }
+            }
+        });
+    }
+
+    /**
+     * Keeps the index of one type up to date.
+     */
+    class Indexer implements StoreLifecycleListener, DeleteLifecycleListener {
+
+        private final String key;
+        private final Class<?> type;
+        private final Method[] getters;
+        private final PersistenceManagerFactory persistenceManagerFactory;
+        private final TrigramIndex index = new TrigramIndex();
+        private final long loadedAt = System.currentTimeMillis();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Indexer(final String key, final Class<?> type, final String[] properties, final PersistenceManagerFactory persistenceManagerFactory) {
+            this.key = key;
+            this.type = type;
+            this.getters = new Method[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                try {
+                    getters[i] = type.getMethod("get" + StringUtils.capitalize(properties[i]));
+                } catch (NoSuchMethodException ex) {
+                    throw new IllegalArgumentException("No property '" + properties[i] + "' on " + type.getName(), ex);
+                }
+            }
+            this.persistenceManagerFactory = persistenceManagerFactory;
+            // listen before loading, so that nothing stored meanwhile is missed
+            persistenceManagerFactory.addInstanceLifecycleListener(this, null);
+            load(properties);
+        }
+
+        /**
+         * Loads the committed rows only, through a persistence manager of its
+         * own rather than the one of the interaction, which may have flushed
+         * changes that are rolled back later on.
+         */
+        private void load(final String[] properties) {
+            final PersistenceManager persistenceManager = persistenceManagerFactory.getPersistenceManager();
+            try {
+                persistenceManager.currentTransaction().begin();
+                final Query query = persistenceManager.newQuery(
+                        "SELECT JDOHelper.getObjectId(this), " + Joiner.on(", ").join(properties)
+                                + " FROM " + type.getName());
+                try {
+                    @SuppressWarnings("unchecked")
+                    final List<Object[]> rows = (List<Object[]>) query.execute();
+                    for (Object[] row : rows) {
+                        final String[] texts = new String[properties.length];
+                        for (int i = 0; i < texts.length; i++) {
+                            texts[i] = (String) row[i + 1];
+                        }
+                        index.put(row[0], texts);
+                    }
+                } finally {
+                    query.closeAll();
+                }
+                persistenceManager.currentTransaction().commit();
+            } finally {
+                if (persistenceManager.currentTransaction().isActive()) {
+                    persistenceManager.currentTransaction().rollback();
+                }
+                persistenceManager.close();
+            }
+        }
+
+        boolean isOlderThan(final long millis) {
+            return millis > 0 && System.currentTimeMillis() - loadedAt > millis;
+        }
+
+        void unregister() {
+            persistenceManagerFactory.removeInstanceLifecycleListener(this);
+        }
+
+        @Override
+        public void preStore(final InstanceLifecycleEvent event) {
+        }
+
+        @Override
+        public void postStore(final InstanceLifecycleEvent event) {
+            final Object entity = event.getPersistentInstance();
+            if (!type.isInstance(entity)) {
+                return;
+            }
+            final String[] texts = new String[getters.length];
+            for (int i = 0; i < texts.length; i++) {
+                try {
+                    texts[i] = (String) getters[i].invoke(entity);
+                } catch (ReflectiveOperationException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+            applyOnCommit(JDOHelper.getPersistenceManager(entity), key, JDOHelper.getObjectId(entity), texts);
+        }
+
+        @Override
+        public void preDelete(final InstanceLifecycleEvent event) {
+        }
+
+        @Override
+        public void postDelete(final InstanceLifecycleEvent event) {
+            final Object entity = event.getPersistentInstance();
+            if (type.isInstance(entity)) {
+                applyOnCommit(JDOHelper.getPersistenceManager(entity), key, JDOHelper.getObjectId(entity), null);
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+}
@@ -0,0 +1,330 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.estatio.dom.utils.StringUtils;
+
+/**
+ * In-memory index of the texts (typically the reference and name) of a set of
+ * objects, by the trigrams of those texts, to find the objects matching a
+ * wildcard pattern without evaluating the pattern against every object.
+ *
+ * <p>
+ * A pattern is matched as {@link StringUtils#wildcardToCaseInsensitiveRegex(String)}
+ * does, against the whole text; the candidates are those containing all
+ * trigrams of the literal parts of the pattern, each verified against the
+ * pattern itself. Results are ranked by how early the first literal part
+ * occurs in the best matching text, then by the length of that text.
+ *
+ * <p>
+ * Objects are identified by an id with value semantics, typically their JDO
+ * object id. Removed objects leave a gap that is reclaimed once gaps make up
+ * half of the index.
+ *
+ * @see SearchIndexService
+ */
+public final class TrigramIndex {
+
+    /**
+     * Regular expression constructs (a pattern is not escaped before it is
+     * used as a regex) for which the literal parts cannot be determined.
+     */
+    private static final String REGEX_CHARS = "\\[](){}|^$+";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Object, Integer> docByKey = Maps.newHashMap();
+    private final List<Object> keys = Lists.newArrayList();
+    private final List<String[]> texts = Lists.newArrayList();
+    private final Map<Long, Postings> postings = Maps.newHashMap();
+    private int removed;
+
+    // //////////////////////////////////////
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the object with the given texts, replacing any texts it was added
+     * with before.
+     */
+    public void put(final Object key, final String... texts) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(key);
+            addDoc(key, texts);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final Object key) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(key);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addDoc(final Object key, final String[] texts) {
+        final int doc = keys.size();
+        keys.add(key);
+        this.texts.add(texts);
+        docByKey.put(key, doc);
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            final String lowerCase = text.toLowerCase(Locale.ENGLISH);
+            for (int i = 0; i + 3 <= lowerCase.length(); i++) {
+                final Long trigram = trigram(lowerCase, i);
+                Postings docs = postings.get(trigram);
+                if (docs == null) {
+                    docs = new Postings();
+                    postings.put(trigram, docs);
+                }
+                // docs are added in ascending order, a repeated trigram is the last one added
+                docs.addIfNotLast(doc);
+            }
+        }
+    }
+
+    private void removeDoc(final Object key) {
+        final Integer doc = docByKey.remove(key);
+        if (doc != null) {
+            keys.set(doc, null);
+            texts.set(doc, null);
+            removed++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (removed < 1024 || removed * 2 < keys.size()) {
+            return;
+        }
+        final List<Object> liveKeys = Lists.newArrayList();
+        final List<String[]> liveTexts = Lists.newArrayList();
+        for (int doc = 0; doc < keys.size(); doc++) {
+            if (keys.get(doc) != null) {
+                liveKeys.add(keys.get(doc));
+                liveTexts.add(texts.get(doc));
+            }
+        }
+        docByKey.clear();
+        keys.clear();
+        texts.clear();
+        postings.clear();
+        removed = 0;
+        for (int i = 0; i < liveKeys.size(); i++) {
+            addDoc(liveKeys.get(i), liveTexts.get(i));
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The ids of the objects with a text matching the wildcard pattern, best
+     * match first; <tt>null</tt> if the pattern has no literal part of at
+     * least three characters, in which case the index cannot help.
+     */
+    public List<Object> search(final String pattern) {
+        final List<String> literals = literalsOf(pattern);
+        if (literals == null) {
+            return null;
+        }
+        final Pattern regex = Pattern.compile(StringUtils.wildcardToCaseInsensitiveRegex(pattern));
+        final String first = literals.get(0);
+
+        final List<Match> matches = Lists.newArrayList();
+        lock.readLock().lock();
+        try {
+            for (int doc : candidates(literals)) {
+                final String[] docTexts = texts.get(doc);
+                if (docTexts == null) {
+                    continue;
+                }
+                Match best = null;
+                for (String text : docTexts) {
+                    if (text == null || !regex.matcher(text).matches()) {
+                        continue;
+                    }
+                    final Match match = new Match(keys.get(doc), text.toLowerCase(Locale.ENGLISH).indexOf(first), text);
+                    if (best == null || match.compareTo(best) < 0) {
+                        best = match;
+                    }
+                }
+                if (best != null) {
+                    matches.add(best);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Collections.sort(matches);
+        final List<Object> result = Lists.newArrayListWithCapacity(matches.size());
+        for (Match match : matches) {
+            result.add(match.key);
+        }
+        return result;
+    }
+
+    /**
+     * The docs having all trigrams of the literals, intersecting the shortest
+     * posting lists first.
+     */
+    private int[] candidates(final List<String> literals) {
+        final List<Postings> lists = Lists.newArrayList();
+        for (String literal : literals) {
+            for (int i = 0; i + 3 <= literal.length(); i++) {
+                final Postings docs = postings.get(trigram(literal, i));
+                if (docs == null) {
+                    return new int[0];
+                }
+                lists.add(docs);
+            }
+        }
+        Collections.sort(lists, new Comparator<Postings>() {
+            @Override
+            public int compare(final Postings o1, final Postings o2) {
+                return Integer.compare(o1.size, o2.size);
+            }
+        });
+        int[] result = Arrays.copyOf(lists.get(0).docs, lists.get(0).size);
+        for (int l = 1; l < lists.size() && result.length > 0; l++) {
+            result = lists.get(l).retain(result);
+        }
+        return result;
+    }
+
+    /**
+     * The literal parts of the pattern of at least three characters, in lower
+     * case; <tt>null</tt> if there are none.
+     */
+    static List<String> literalsOf(final String pattern) {
+        if (pattern == null) {
+            return null;
+        }
+        final List<String> literals = Lists.newArrayList();
+        final StringBuilder literal = new StringBuilder();
+        for (int i = 0; i <= pattern.length(); i++) {
+            final char c = i < pattern.length() ? pattern.charAt(i) : '*';
+            if (REGEX_CHARS.indexOf(c) >= 0) {
+                return null;
+            }
+            if (c == '*' || c == '?' || c == '.') {
+                if (literal.length() >= 3) {
+                    literals.add(literal.toString().toLowerCase(Locale.ENGLISH));
+                }
+                literal.setLength(0);
+            } else {
+                literal.append(c);
+            }
+        }
+        return literals.isEmpty() ? null : literals;
+    }
+
+    private static Long trigram(final String text, final int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    // //////////////////////////////////////
+
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int size;
+
+        void addIfNotLast(final int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        /**
+         * Those of the given (ascending) docs that are in this list.
+         */
+        int[] retain(final int[] candidates) {
+            final int[] result = new int[candidates.length];
+            int count = 0;
+            int from = 0;
+            for (int doc : candidates) {
+                final int i = Arrays.binarySearch(docs, from, size, doc);
+                if (i >= 0) {
+                    result[count++] = doc;
+                    from = i + 1;
+                } else {
+                    from = -i - 1;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+
+    private static final class Match implements Comparable<Match> {
+
+        private final Object key;
+        private final int position;
+        private final String text;
+
+        Match(final Object key, final int position, final String text) {
+            this.key = key;
+            this.position = position;
+            this.text = text;
+        }
+
+        @Override
+        public int compareTo(final Match other) {
+            if (position != other.position) {
+                return Integer.compare(position, other.position);
+            }
+            if (text.length() != other.text.length()) {
+                return Integer.compare(text.length(), other.text.length());
+            }
+            return text.compareToIgnoreCase(other.text);
+        }
+    }
+
+}
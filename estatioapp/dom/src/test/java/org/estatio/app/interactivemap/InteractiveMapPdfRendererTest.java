@@ -0,0 +1,160 @@
+/*
+ *  Copyright 2015 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.interactivemap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Charsets;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class InteractiveMapPdfRendererTest {
+
+    /**
+     * Writes the SVG as is, optionally waiting to be released.
+     */
+    static class RendererForTesting extends InteractiveMapPdfRenderer {
+
+        final AtomicInteger transcodings = new AtomicInteger();
+        final CountDownLatch release;
+
+        RendererForTesting(final File cacheDirectory, final int threads, final int queueCapacity, final int maxCachedFiles, final boolean blocked) {
+            super(cacheDirectory, threads, queueCapacity, maxCachedFiles);
+            this.release = new CountDownLatch(blocked ? 1 : 0);
+        }
+
+        @Override
+        protected void transcode(final String svg, final OutputStream output) {
+            transcodings.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+                output.write(svg.getBytes(Charsets.UTF_8));
+            } catch (InterruptedException | IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    RendererForTesting renderer;
+
+    @After
+    public void tearDown() throws Exception {
+        renderer.shutdown();
+    }
+
+    private static String svg(final int i) {
+        return "<svg id=\"" + i + "\"/>";
+    }
+
+    public static class Submit extends InteractiveMapPdfRendererTest {
+
+        @Test
+        public void rendersOnceThenFromFile() throws Exception {
+            renderer = new RendererForTesting(temporaryFolder.getRoot(), 2, 4, 10, false);
+
+            final InteractiveMapPdfRenderer.Rendering first = renderer.submit(svg(1)).get();
+            assertThat(first.isCached(), is(false));
+            assertThat(new String(Files.readAllBytes(first.getFile().toPath()), Charsets.UTF_8), is(svg(1)));
+            assertThat(first.getFile().getName(), is(InteractiveMapPdfRenderer.hashOf(svg(1)) + ".pdf"));
+
+            final InteractiveMapPdfRenderer.Rendering second = renderer.submit(svg(1)).get();
+            assertThat(second.isCached(), is(true));
+            assertThat(second.getFile(), is(first.getFile()));
+            assertThat(renderer.transcodings.get(), is(1));
+        }
+
+        @Test
+        public void sameSvgRenderedOnceWhenRequestedMeanwhile() throws Exception {
+            renderer = new RendererForTesting(temporaryFolder.getRoot(), 2, 4, 10, true);
+
+            final Future<InteractiveMapPdfRenderer.Rendering> first = renderer.submit(svg(1));
+            final Future<InteractiveMapPdfRenderer.Rendering> second = renderer.submit(svg(1));
+            renderer.release.countDown();
+
+            assertThat(second, is(sameInstance(first)));
+            assertThat(first.get().isCached(), is(false));
+            assertThat(renderer.transcodings.get(), is(1));
+        }
+
+        @Test(expected = RejectedExecutionException.class)
+        public void rejectsWhenQueueIsFull() throws Exception {
+            renderer = new RendererForTesting(temporaryFolder.getRoot(), 1, 1, 10, true);
+
+            try {
+                renderer.submit(svg(1));
+                renderer.submit(svg(2));
+                renderer.submit(svg(3));
+            } finally {
+                renderer.release.countDown();
+            }
+        }
+    }
+
+    public static class Evict extends InteractiveMapPdfRendererTest {
+
+        @Test
+        public void keepsNoMoreThanMaxCachedFiles() throws Exception {
+            renderer = new RendererForTesting(temporaryFolder.getRoot(), 1, 4, 2, false);
+
+            for (int i = 0; i < 3; i++) {
+                renderer.submit(svg(i)).get();
+            }
+
+            assertThat(temporaryFolder.getRoot().list().length, is(2));
+        }
+    }
+
+    public static class Read extends InteractiveMapPdfRendererTest {
+
+        @Test
+        public void nullOnceRemovedSoRenderedAgain() throws Exception {
+            renderer = new RendererForTesting(temporaryFolder.getRoot(), 1, 4, 1, false);
+
+            final InteractiveMapPdfRenderer.Rendering first = renderer.submit(svg(1)).get();
+            assertThat(new String(renderer.read(first), Charsets.UTF_8), is(svg(1)));
+
+            // the least recently used, whatever the resolution of the file system
+            first.getFile().setLastModified(1000L);
+            renderer.submit(svg(2)).get();
+            assertThat(renderer.read(first), is(nullValue()));
+
+            final InteractiveMapPdfRenderer.Rendering again = renderer.submit(svg(1)).get();
+            assertThat(again.isCached(), is(false));
+            assertThat(new String(renderer.read(again), Charsets.UTF_8), is(svg(1)));
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2015 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.interactivemap;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import org.isisaddons.wicket.svg.cpt.applib.Color;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.estatio.dom.lease.LeaseStatus;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class InteractiveMapSnapshotTest {
+
+    LocalDate date;
+    ListMultimap<String, InteractiveMapOccupancy> occupanciesByUnit;
+    Map<InteractiveMapForFixedAssetRepresentation, InteractiveMapForFixedAssetColorService> colorServices;
+
+    InteractiveMapSnapshot snapshot;
+
+    @Before
+    public void setUp() throws Exception {
+        date = new LocalDate(2015, 6, 1);
+        occupanciesByUnit = ArrayListMultimap.create();
+        // ended, then current
+        occupanciesByUnit.put("U1", new InteractiveMapOccupancy(
+                new LocalDate(2010, 1, 1), new LocalDate(2012, 12, 31), "Old", new LocalDate(2012, 12, 31), LeaseStatus.TERMINATED));
+        occupanciesByUnit.put("U1", new InteractiveMapOccupancy(
+                new LocalDate(2013, 1, 1), null, "Current", new LocalDate(2016, 6, 1), LeaseStatus.ACTIVE));
+        // tenancy ongoing, lease suspended
+        occupanciesByUnit.put("U2", new InteractiveMapOccupancy(
+                new LocalDate(2014, 1, 1), null, "Suspended", null, LeaseStatus.SUSPENDED));
+        // U3 never let
+
+        colorServices = new EnumMap<>(InteractiveMapForFixedAssetRepresentation.class);
+        for (InteractiveMapForFixedAssetRepresentation representation : InteractiveMapForFixedAssetRepresentation.values()) {
+            colorServices.put(representation, representation.getColorService());
+        }
+
+        snapshot = InteractiveMapSnapshot.of(
+                date, 7L,
+                Arrays.asList("U1", "U2", "U3"),
+                Arrays.asList("http://localhost/U1", "http://localhost/U2", "http://localhost/U3"),
+                occupanciesByUnit,
+                colorServices);
+    }
+
+    public static class Of extends InteractiveMapSnapshotTest {
+
+        @Test
+        public void leaseNames() throws Exception {
+            assertThat(snapshot.getUnitReferences(), is(Arrays.asList("U1", "U2", "U3")));
+            assertThat(snapshot.getLeaseNames().get(0), is("Current"));
+            assertThat(snapshot.getLeaseNames().get(1), is("Suspended"));
+            assertThat(snapshot.getLeaseNames().get(2), is(nullValue()));
+            assertThat(snapshot.getDataVersion(), is(7L));
+        }
+
+        @Test
+        public void vacant() throws Exception {
+            final List<Color> colors = snapshot.getColors(InteractiveMapForFixedAssetRepresentation.VACANT);
+            assertThat(colors.get(0).getLabel(), is("Active"));
+            assertThat(colors.get(1).getLabel(), is("Disabled"));
+            assertThat(colors.get(2).getLabel(), is("Available"));
+        }
+
+        @Test
+        public void expiry() throws Exception {
+            final List<Color> colors = snapshot.getColors(InteractiveMapForFixedAssetRepresentation.EXPIRY);
+            assertThat(colors.get(0).getLabel(), is("Months12"));
+            assertThat(colors.get(0).getColor(), is(ColorUtils.HSLtoRGB(250, 50, 37)));
+            assertThat(colors.get(1).getLabel(), is("Available"));
+            assertThat(colors.get(2).getLabel(), is("Available"));
+        }
+
+        @Test
+        public void byDefaultNone() throws Exception {
+            final List<Color> colors = snapshot.getColors(InteractiveMapForFixedAssetRepresentation.DEFAULT);
+            assertThat(colors.get(0), is(nullValue()));
+            assertThat(snapshot.getLegend(InteractiveMapForFixedAssetRepresentation.DEFAULT).isEmpty(), is(true));
+        }
+    }
+
+    public static class LeaseNameOf extends InteractiveMapSnapshotTest {
+
+        @Test
+        public void exclusiveOfStartAndEndDate() throws Exception {
+            final List<InteractiveMapOccupancy> occupancies = Arrays.asList(new InteractiveMapOccupancy(
+                    date, date.plusDays(2), "Lease", null, LeaseStatus.ACTIVE));
+
+            assertThat(InteractiveMapSnapshot.leaseNameOf(occupancies, date), is(nullValue()));
+            assertThat(InteractiveMapSnapshot.leaseNameOf(occupancies, date.plusDays(1)), is("Lease"));
+            assertThat(InteractiveMapSnapshot.leaseNameOf(occupancies, date.plusDays(2)), is(nullValue()));
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.agreement;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class AgreementRoleIndexTest {
+
+    Agreement agreement;
+
+    AgreementRoleType tenantArt;
+    AgreementRoleType landlordArt;
+
+    AgreementRole landlord;
+    AgreementRole tenant1;
+    AgreementRole tenant2;
+    AgreementRole tenant3;
+
+    AgreementRoleIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        agreement = new AgreementForTesting();
+        agreement.setStartDate(new LocalDate(2010, 1, 1));
+        agreement.setEndDate(new LocalDate(2019, 12, 31));
+
+        tenantArt = new AgreementRoleType();
+        landlordArt = new AgreementRoleType();
+
+        landlord = role(landlordArt, null, null);
+        tenant1 = role(tenantArt, null, new LocalDate(2012, 12, 31));
+        tenant2 = role(tenantArt, new LocalDate(2013, 1, 1), new LocalDate(2015, 12, 31));
+        // temporarily alongside tenant 2
+        tenant3 = role(tenantArt, new LocalDate(2014, 1, 1), new LocalDate(2014, 6, 30));
+
+        // as in Agreement#getRoles(), the most recent first
+        index = AgreementRoleIndex.of(Lists.newArrayList(tenant3, tenant2, landlord, tenant1));
+    }
+
+    private AgreementRole role(final AgreementRoleType type, final LocalDate startDate, final LocalDate endDate) {
+        final AgreementRole role = new AgreementRole();
+        role.setAgreement(agreement);
+        role.setType(type);
+        role.setStartDate(startDate);
+        role.setEndDate(endDate);
+        return role;
+    }
+
+    public static class Current extends AgreementRoleIndexTest {
+
+        @Test
+        public void containingDate() throws Exception {
+            assertThat(index.size(), is(4));
+            assertThat(index.current(tenantArt, new LocalDate(2000, 1, 1)), is(tenant1));
+            assertThat(index.current(tenantArt, new LocalDate(2012, 12, 31)), is(tenant1));
+            assertThat(index.current(tenantArt, new LocalDate(2013, 1, 1)), is(tenant2));
+            assertThat(index.current(tenantArt, new LocalDate(2016, 1, 1)), is(nullValue()));
+            assertThat(index.current(landlordArt, new LocalDate(2016, 1, 1)), is(landlord));
+            assertThat(index.current(new AgreementRoleType(), new LocalDate(2016, 1, 1)), is(nullValue()));
+        }
+
+        @Test
+        public void latestStartWinsWhenOverlapping() throws Exception {
+            assertThat(index.current(tenantArt, new LocalDate(2014, 1, 1)), is(tenant3));
+            assertThat(index.current(tenantArt, new LocalDate(2014, 7, 1)), is(tenant2));
+        }
+
+        @Test
+        public void firstOfRolesStartingOnSameDate() throws Exception {
+            final AgreementRole tenant4 = role(tenantArt, new LocalDate(2014, 1, 1), null);
+            index = AgreementRoleIndex.of(Lists.newArrayList(tenant4, tenant3, tenant2, landlord, tenant1));
+
+            assertThat(index.current(tenantArt, new LocalDate(2014, 1, 1)), is(tenant4));
+        }
+    }
+
+    public static class MostRecent extends AgreementRoleIndexTest {
+
+        @Test
+        public void whenNoneCurrent() throws Exception {
+            assertThat(index.currentOrMostRecent(tenantArt, new LocalDate(2016, 1, 1)), is(tenant2));
+        }
+
+        @Test
+        public void latestEffectiveEndWins() throws Exception {
+            final AgreementRole future = role(tenantArt, new LocalDate(2017, 1, 1), null);
+            final List<AgreementRole> roles = Lists.newArrayList(future, tenant3, tenant2, tenant1);
+            index = AgreementRoleIndex.of(roles);
+
+            assertThat(index.currentOrMostRecent(tenantArt, new LocalDate(2016, 1, 1)), is(future));
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class AgreementRoleTypesTest {
@@ -43,6 +44,10 @@ public class AgreementRoleTypesTest {
 
         agreementRoleTypes = new AgreementRoleTypes() {
 
+            @Override
+            void listenForChanges() {
+            }
+
             @Override
             protected <T> T firstMatch(Query<T> query) {
                 finderInteraction = new FinderInteraction(query, FinderMethod.FIRST_MATCH);
@@ -63,7 +68,6 @@ public class AgreementRoleTypesTest {
         };
     }
 
-
     public static class FindApplicableTo extends AgreementRoleTypesTest {
 
         @Test
@@ -85,7 +89,7 @@ public class AgreementRoleTypesTest {
         @Test
         public void happyCase() {
 
-            agreementRoleTypes.findByTitle("someTitle");
+            assertThat(agreementRoleTypes.findByTitle("someTitle"), is(nullValue()));
 
             assertThat(finderInteraction.getFinderMethod(), is(FinderMethod.FIRST_MATCH));
             assertThat(finderInteraction.getResultType(), IsisMatchers.classEqualTo(AgreementRoleType.class));
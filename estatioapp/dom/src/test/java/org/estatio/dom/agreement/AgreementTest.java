@@ -129,6 +129,7 @@ public class AgreementTest {
             tenantArt.setTitle("Tenant");
 
             agreement = new AgreementForTesting();
+            agreement.injectClockService(mockClockService);
 
             arLandlord = new AgreementRole();
             arLandlord.setType(landlordArt);
@@ -272,6 +273,7 @@ public class AgreementTest {
 
             agreement = new AgreementForSubtypeTesting();
             agreement.injectAgreementRoleTypes(mockAgreementRoleTypes);
+            agreement.injectClockService(mockClockService);
         }
 
         @Test
@@ -602,6 +604,7 @@ public class AgreementTest {
 
                 agreement = new AgreementForTesting();
                 agreement.setContainer(mockContainer);
+                agreement.injectClockService(mockClockService);
             }
 
 
@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.apptenancy;
+
+import com.google.common.collect.Lists;
+import org.assertj.core.api.Assertions;
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ApplicationTenancyTreeTest {
+
+    ApplicationTenancyTree tree;
+
+    @Before
+    public void setUp() throws Exception {
+        tree = ApplicationTenancyTree.of(Lists.newArrayList(
+                tenancy("/fr/VIV/ta"),
+                tenancy("/"),
+                tenancy("/fr"),
+                tenancy("/fr/_"),
+                tenancy("/fr/VIV"),
+                // no tenancy for "/it"
+                tenancy("/it/GRA"),
+                tenancy("/it/GRA/_")));
+    }
+
+    private static ApplicationTenancy tenancy(final String path) {
+        ApplicationTenancy applicationTenancy = new ApplicationTenancy();
+        applicationTenancy.setPath(path);
+        return applicationTenancy;
+    }
+
+    public static class Find extends ApplicationTenancyTreeTest {
+
+        @Test
+        public void byPath() throws Exception {
+            Assertions.assertThat(tree.size()).isEqualTo(7);
+            Assertions.assertThat(tree.contains("/")).isTrue();
+            Assertions.assertThat(tree.contains("/fr/VIV/ta")).isTrue();
+            Assertions.assertThat(tree.contains("/it")).isFalse();
+            Assertions.assertThat(tree.contains("/fr/XXX")).isFalse();
+            Assertions.assertThat(tree.contains(null)).isFalse();
+        }
+
+        @Test
+        public void parentSkipsMissingLevels() throws Exception {
+            Assertions.assertThat(tree.parentOf("/fr/VIV/ta")).isEqualTo("/fr/VIV");
+            Assertions.assertThat(tree.parentOf("/it/GRA")).isEqualTo("/");
+            Assertions.assertThat(tree.parentOf("/")).isNull();
+        }
+    }
+
+    public static class Children extends ApplicationTenancyTreeTest {
+
+        @Test
+        public void nearestBelow() throws Exception {
+            Assertions.assertThat(tree.childrenOf("/")).containsExactly("/fr", "/it/GRA");
+            Assertions.assertThat(tree.childrenOf("/fr")).containsExactly("/fr/_", "/fr/VIV");
+            Assertions.assertThat(tree.childrenOf("/fr/VIV/ta")).isEmpty();
+        }
+
+        @Test
+        public void descendantsInGivenOrder() throws Exception {
+            Assertions.assertThat(tree.selfOrDescendantsOf("/fr")).containsExactly("/fr/VIV/ta", "/fr", "/fr/_", "/fr/VIV");
+            Assertions.assertThat(tree.descendantsOf("/fr")).containsExactly("/fr/VIV/ta", "/fr/_", "/fr/VIV");
+            Assertions.assertThat(tree.selfOrDescendantsOf("/es")).isEmpty();
+        }
+
+        @Test
+        public void descendantsAtDepth() throws Exception {
+            Assertions.assertThat(tree.selfOrDescendantsOf("/", 1)).containsExactly("/fr");
+            Assertions.assertThat(tree.selfOrDescendantsOf("/", 2)).containsExactly("/fr/_", "/fr/VIV", "/it/GRA");
+            Assertions.assertThat(tree.selfOrDescendantsOf("/fr", 1)).containsExactly("/fr");
+            Assertions.assertThat(tree.selfOrDescendantsOf("/fr/VIV", 1)).isEmpty();
+        }
+    }
+
+}
@@ -1,15 +1,21 @@
 package org.estatio.dom.apptenancy;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
 import com.google.common.collect.Lists;
 import org.assertj.core.api.Assertions;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancies;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+import org.hamcrest.Description;
 import org.jmock.Expectations;
+import org.jmock.api.Action;
+import org.jmock.api.Invocation;
 import org.jmock.auto.Mock;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.apache.isis.applib.services.queryresultscache.QueryResultsCache;
 import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.geography.Country;
@@ -22,6 +28,9 @@ public class EstatioApplicationTenanciesTest {
     @Mock
     private ApplicationTenancies mockApplicationTenancies;
 
+    @Mock
+    private QueryResultsCache mockQueryResultsCache;
+
     private ApplicationTenancy global;
     private ApplicationTenancy globalOther;
     private ApplicationTenancy france;
@@ -38,13 +47,16 @@ public class EstatioApplicationTenanciesTest {
     private ApplicationTenancy grandeDefault;
     private ApplicationTenancy grandeTa;
 
+    private List<ApplicationTenancy> tenancies;
+
     private EstatioApplicationTenancies estatioApplicationTenancies;
 
     @Before
     public void setUp() throws Exception {
+        tenancies = someTenancies();
         context.checking(new Expectations() {{
             allowing(mockApplicationTenancies).allTenancies();
-            will(returnValue(someTenancies()));
+            will(returnValue(tenancies));
 
             allowing(mockApplicationTenancies).findTenancyByPath("/");
             will(returnValue(global));
@@ -60,10 +72,53 @@ public class EstatioApplicationTenanciesTest {
 
             allowing(mockApplicationTenancies).findTenancyByPath("/it/GRA/ta");
             will(returnValue(grandeTa));
+
+            allowing(mockQueryResultsCache).execute(
+                    with(any(Callable.class)),
+                    with(equal(EstatioApplicationTenancies.class)),
+                    with(equal("findTenancyByPath")),
+                    with(any(Object[].class)));
+            will(executeCallableAndReturn());
         }});
 
-        estatioApplicationTenancies = new EstatioApplicationTenancies();
+        estatioApplicationTenancies = new EstatioApplicationTenancies() {
+            @Override
+            void listenForChanges() {
+            }
+
+            @Override
+            public void invalidateTree() {
+                dropTree();
+            }
+
+            @Override
+            List<ApplicationTenancy> findTenanciesByPaths(final Collection<String> paths) {
+                final List<ApplicationTenancy> found = Lists.newArrayList();
+                for (ApplicationTenancy tenancy : tenancies) {
+                    if (paths.contains(tenancy.getPath())) {
+                        found.add(tenancy);
+                    }
+                }
+                return found;
+            }
+        };
         estatioApplicationTenancies.applicationTenancies = mockApplicationTenancies;
+        estatioApplicationTenancies.queryResultsCache = mockQueryResultsCache;
+    }
+
+    private static Action executeCallableAndReturn() {
+        return new Action() {
+            @Override
+            public Object invoke(Invocation invocation) throws Throwable {
+                Callable<Object> callable = (Callable<Object>) invocation.getParameter(0);
+                return callable.call();
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("execute arg 0 as callable and return");
+            }
+        };
     }
 
     private List<ApplicationTenancy> someTenancies() {
@@ -221,6 +276,9 @@ public class EstatioApplicationTenanciesTest {
         // expect
         final ApplicationTenancy newlyCreatedTenancy = new ApplicationTenancy();
         context.checking(new Expectations() {{
+            allowing(mockApplicationTenancies).findTenancyByPath("/GBR");
+            will(returnValue(null));
+
             oneOf(mockApplicationTenancies).newTenancy("United Kingdom", "/GBR", global);
             will(returnValue(newlyCreatedTenancy));
         }});
@@ -303,4 +361,57 @@ public class EstatioApplicationTenanciesTest {
         Assertions.assertThat(localTenancy).isEqualTo(newApplicationTenancy);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testFindTenancyByPath() throws Exception {
+        Assertions.assertThat(estatioApplicationTenancies.findTenancyByPath("/fr/VIV/ta")).isEqualTo(vivTa);
+        Assertions.assertThat(estatioApplicationTenancies.findTenancyByPath("/")).isEqualTo(global);
+    }
+
+    @Test
+    public void testFindTenancyByPath_queriesSinglePath() throws Exception {
+        // given
+        final ApplicationTenancy createdMeanwhile = tenancy("/fr/NEW", "New (France)");
+
+        // expect
+        context.checking(new Expectations() {{
+            oneOf(mockApplicationTenancies).findTenancyByPath("/fr/NEW");
+            will(returnValue(createdMeanwhile));
+
+            never(mockApplicationTenancies).allTenancies();
+        }});
+
+        // when
+        ApplicationTenancy tenancy = estatioApplicationTenancies.findTenancyByPath("/fr/NEW");
+
+        // then
+        Assertions.assertThat(tenancy).isEqualTo(createdMeanwhile);
+    }
+
+    @Test
+    public void testTreeSharedUntilInvalidated() throws Exception {
+        // given
+        final ApplicationTenancyTree tree = estatioApplicationTenancies.tree();
+        Assertions.assertThat(estatioApplicationTenancies.tree()).isSameAs(tree);
+
+        // when
+        tenancies.remove(piq);
+        estatioApplicationTenancies.invalidateTree();
+
+        // then
+        Assertions.assertThat(estatioApplicationTenancies.tree()).isNotSameAs(tree);
+        Assertions.assertThat(estatioApplicationTenancies.propertyTenanciesUnder(france)).containsExactly(viv);
+    }
+
+    @Test
+    public void testListsSkipTenanciesRemovedMeanwhile() throws Exception {
+        // given
+        estatioApplicationTenancies.tree();
+
+        // when
+        tenancies.remove(viv);
+
+        // then
+        Assertions.assertThat(estatioApplicationTenancies.propertyTenanciesUnder(france)).containsExactly(piq);
+    }
+
+}
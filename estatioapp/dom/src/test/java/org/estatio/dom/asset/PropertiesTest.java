@@ -33,6 +33,7 @@ import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
 import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
 import org.estatio.dom.apptenancy.EstatioApplicationTenancies;
+import org.estatio.services.search.SearchIndexServiceForTesting;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -62,6 +63,7 @@ public class PropertiesTest {
                 return null;
             }
         };
+        properties.searchIndexService = new SearchIndexServiceForTesting();
     }
 
     public static class FindProperties extends PropertiesTest {
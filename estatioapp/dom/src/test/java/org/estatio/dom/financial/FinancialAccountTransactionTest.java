@@ -0,0 +1,102 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.financial;
+
+import java.math.BigDecimal;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2.Mode;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class FinancialAccountTransactionTest {
+
+    @Rule
+    public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(Mode.INTERFACES_AND_CLASSES);
+
+    @Mock
+    FinancialAccountBalances mockFinancialAccountBalances;
+
+    FinancialAccount financialAccount;
+    FinancialAccountTransaction transaction;
+
+    @Before
+    public void setUp() throws Exception {
+        financialAccount = new FinancialAccount();
+        transaction = new FinancialAccountTransaction();
+        transaction.setFinancialAccount(financialAccount);
+        transaction.setTransactionDate(new LocalDate(2014, 7, 1));
+        transaction.setAmount(new BigDecimal("1000.00"));
+        transaction.financialAccountBalances = mockFinancialAccountBalances;
+    }
+
+    public static class ModifyAmount extends FinancialAccountTransactionTest {
+
+        @Test
+        public void appliesDifference() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    oneOf(mockFinancialAccountBalances).apply(financialAccount, new LocalDate(2014, 7, 1), new BigDecimal("-250.00"));
+                }
+            });
+
+            transaction.modifyAmount(new BigDecimal("750.00"));
+
+            assertThat(transaction.getAmount(), is(new BigDecimal("750.00")));
+        }
+
+        @Test
+        public void unchanged() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    never(mockFinancialAccountBalances);
+                }
+            });
+
+            transaction.modifyAmount(new BigDecimal("1000.00"));
+        }
+    }
+
+    public static class ModifyTransactionDate extends FinancialAccountTransactionTest {
+
+        @Test
+        public void movesAmount() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    oneOf(mockFinancialAccountBalances).apply(financialAccount, new LocalDate(2014, 7, 1), new BigDecimal("-1000.00"));
+                    oneOf(mockFinancialAccountBalances).apply(financialAccount, new LocalDate(2015, 1, 2), new BigDecimal("1000.00"));
+                    oneOf(mockFinancialAccountBalances).ensureCheckpoint(financialAccount, new LocalDate(2015, 1, 2));
+                }
+            });
+
+            transaction.modifyTransactionDate(new LocalDate(2015, 1, 2));
+
+            assertThat(transaction.getTransactionDate(), is(new LocalDate(2015, 1, 2)));
+        }
+    }
+
+}
@@ -20,6 +20,8 @@ package org.estatio.dom.index;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Arrays;
+
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
@@ -102,10 +104,8 @@ public class IndexTest {
         public void happyCase() {
             context.checking(new Expectations() {
                 {
-                    oneOf(mockIndexValues).findIndexValueByIndexAndStartDate(with(equal(index)), with(equal(new LocalDate(2001, 1, 1))));
-                    will(returnValue(iv1));
-                    oneOf(mockIndexValues).findIndexValueByIndexAndStartDate(with(equal(index)), with(equal(new LocalDate(2011, 1, 1))));
-                    will(returnValue(iv2));
+                    allowing(mockIndexValues).seriesFor(index);
+                    will(returnValue(IndexValueSeries.of(Arrays.asList(iv1, iv2))));
                 }
             });
             assertEquals(BigDecimal.valueOf(122.2), index.getIndexValueForDate(baseDate));
@@ -125,8 +125,8 @@ public class IndexTest {
         public void happyCase() {
             context.checking(new Expectations() {
                 {
-                    oneOf(mockIndexValues).findIndexValueByIndexAndStartDate(with(equal(index)), with(equal(new LocalDate(2011, 1, 1))));
-                    will(returnValue(iv2));
+                    oneOf(mockIndexValues).seriesFor(index);
+                    will(returnValue(IndexValueSeries.of(Arrays.asList(iv1, iv2))));
                 }
             });
             assertEquals(BigDecimal.valueOf(1.234), index.getRebaseFactorForDates(baseDate, nextDate));
@@ -136,8 +136,8 @@ public class IndexTest {
         public void withNull() {
             context.checking(new Expectations() {
                 {
-                    oneOf(mockIndexValues).findIndexValueByIndexAndStartDate(with(equal(index)), with(equal(new LocalDate(2011, 1, 1))));
-                    will(returnValue(null));
+                    oneOf(mockIndexValues).seriesFor(index);
+                    will(returnValue(IndexValueSeries.of(Arrays.asList(iv1))));
                 }
             });
             assertEquals(null, index.getRebaseFactorForDates(baseDate, nextDate));
@@ -0,0 +1,116 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.index;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class IndexValueSeriesTest {
+
+    IndexBase ib1990;
+    IndexBase ib2000;
+    IndexBase ib2010;
+    List<IndexValue> values;
+    IndexValueSeries series;
+
+    @Before
+    public void setup() {
+        ib1990 = new IndexBase();
+        ib1990.setStartDate(new LocalDate(1990, 1, 1));
+
+        ib2000 = new IndexBase();
+        ib2000.modifyPrevious(ib1990);
+        ib2000.setFactor(new BigDecimal("1.345"));
+        ib2000.setStartDate(new LocalDate(2000, 1, 1));
+
+        ib2010 = new IndexBase();
+        ib2010.modifyPrevious(ib2000);
+        ib2010.setFactor(new BigDecimal("1.234"));
+        ib2010.setStartDate(new LocalDate(2010, 1, 1));
+
+        values = Lists.newArrayList();
+        for (LocalDate date = new LocalDate(1995, 1, 1); date.isBefore(new LocalDate(2015, 1, 1)); date = date.plusMonths(1)) {
+            final IndexValue indexValue = new IndexValue();
+            indexValue.setStartDate(date);
+            indexValue.modifyIndexBase(date.getYear() < 2000 ? ib1990 : date.getYear() < 2010 ? ib2000 : ib2010);
+            indexValue.setValue(new BigDecimal("100.0000").add(BigDecimal.valueOf(date.getMonthOfYear(), 1)));
+            values.add(indexValue);
+        }
+        series = IndexValueSeries.of(Lists.reverse(values));
+    }
+
+    @Test
+    public void valueForDate() {
+        assertThat(series.size(), is(values.size()));
+        for (IndexValue indexValue : values) {
+            assertThat(series.valueForDate(indexValue.getStartDate()), is(indexValue.getValue()));
+        }
+        assertThat(series.valueForDate(new LocalDate(2001, 1, 2)), is(nullValue()));
+        assertThat(series.valueForDate(new LocalDate(2020, 1, 1)), is(nullValue()));
+        assertThat(series.valueForDate(null), is(nullValue()));
+    }
+
+    @Test
+    public void rebaseFactorForDates() {
+        final LocalDate[] dates = {
+                new LocalDate(1995, 6, 1),
+                new LocalDate(2000, 1, 1),
+                new LocalDate(2005, 6, 1),
+                new LocalDate(2010, 1, 1),
+                new LocalDate(2012, 6, 1) };
+        for (LocalDate baseDate : dates) {
+            for (IndexValue next : values) {
+                assertThat(
+                        series.rebaseFactorForDates(baseDate, next.getStartDate()),
+                        is(next.getIndexBase().factorForDate(baseDate)));
+            }
+        }
+    }
+
+    @Test
+    public void rebaseFactorForDatesWithoutNextValue() {
+        assertThat(series.rebaseFactorForDates(new LocalDate(2001, 1, 1), new LocalDate(2020, 1, 1)), is(nullValue()));
+        assertThat(series.rebaseFactorForDates(null, new LocalDate(2011, 1, 1)), is(nullValue()));
+    }
+
+    @Test
+    public void sameDateInTwoBases() {
+        final IndexValue rebased = new IndexValue();
+        rebased.setStartDate(new LocalDate(2009, 12, 1));
+        rebased.modifyIndexBase(ib2010);
+        rebased.setValue(new BigDecimal("99.9000"));
+        values.add(rebased);
+
+        series = IndexValueSeries.of(values);
+
+        assertThat(series.size(), is(values.size() - 1));
+        assertThat(series.valueForDate(new LocalDate(2009, 12, 1)), is(new BigDecimal("99.9000")));
+    }
+
+}
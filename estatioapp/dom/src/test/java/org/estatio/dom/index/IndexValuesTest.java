@@ -21,9 +21,12 @@ package org.estatio.dom.index;
 import static org.apache.isis.core.commons.matchers.IsisMatchers.classEqualTo;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 
@@ -152,4 +155,58 @@ public class IndexValuesTest {
 
     }
 
+    public static class FindByIndex extends IndexValuesTest {
+
+        @Test
+        public void happyCase() {
+
+            indexValues.findByIndex(index);
+
+            assertThat(finderInteraction.getFinderMethod(), is(FinderMethod.ALL_MATCHES));
+            assertThat(finderInteraction.getResultType(), classEqualTo(IndexValue.class));
+            assertThat(finderInteraction.getQueryName(), is("findByIndex"));
+            assertThat(finderInteraction.getArgumentsByParameterName().get("index"), is((Object) index));
+            assertThat(finderInteraction.getArgumentsByParameterName().size(), is(1));
+        }
+    }
+
+    public static class SeriesFor extends IndexValuesTest {
+
+        int queries;
+
+        @Before
+        public void setUp() throws Exception {
+            index.setReference("ISTAT-FOI");
+            indexValues = new IndexValues() {
+                @Override
+                public List<IndexValue> findByIndex(final Index index) {
+                    queries++;
+                    return Collections.emptyList();
+                }
+
+                @Override
+                protected void listenForChanges() {
+                }
+            };
+        }
+
+        @Test
+        public void loadedOnce() {
+            final IndexValueSeries series = indexValues.seriesFor(index);
+
+            assertThat(indexValues.seriesFor(index), is(sameInstance(series)));
+            assertThat(queries, is(1));
+        }
+
+        @Test
+        public void reloadedWhenInvalidated() {
+            final IndexValueSeries series = indexValues.seriesFor(index);
+
+            indexValues.dropSeries();
+
+            assertThat(indexValues.seriesFor(index), is(not(sameInstance(series))));
+            assertThat(queries, is(2));
+        }
+    }
+
 }
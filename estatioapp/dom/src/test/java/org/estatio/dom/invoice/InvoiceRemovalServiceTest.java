@@ -0,0 +1,63 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class InvoiceRemovalServiceTest {
+
+    /**
+     * Renders as DataNucleus does a datastore identity.
+     */
+    static class ObjectIdForTesting {
+
+        private final long key;
+
+        ObjectIdForTesting(final long key) {
+            this.key = key;
+        }
+
+        @Override
+        public String toString() {
+            return key + "[OID]" + Invoice.class.getName();
+        }
+    }
+
+    public static class KeysOf extends InvoiceRemovalServiceTest {
+
+        @Test
+        public void fromObjectIds() throws Exception {
+            final List<Object> objectIds = Arrays.<Object> asList(new ObjectIdForTesting(12), new ObjectIdForTesting(3));
+
+            assertThat(InvoiceRemovalService.keysOf(objectIds), is(Arrays.asList(12L, 3L)));
+        }
+
+        @Test(expected = NumberFormatException.class)
+        public void rejectsAnythingElse() throws Exception {
+            InvoiceRemovalService.keysOf(Arrays.<Object> asList("1 OR 1=1[OID]" + Invoice.class.getName()));
+        }
+    }
+
+}
@@ -158,6 +158,49 @@ public class InvoicesTest {
 
     }
 
+    public static class FindOrCreateMatchingInvoiceWithHeaders extends InvoicesTest {
+
+        int queries;
+
+        @Test
+        public void looksUpEachHeaderOnce() {
+
+            final Invoice invoice = new Invoice();
+            final Lease lease = new Lease() {
+                @Override
+                public Party getPrimaryParty() {
+                    return seller;
+                }
+
+                @Override
+                public Party getSecondaryParty() {
+                    return buyer;
+                }
+            };
+
+            invoices = new Invoices() {
+                @Override
+                @ActionSemantics(Of.SAFE)
+                @Hidden
+                public List<Invoice> findMatchingInvoices(Party seller, Party buyer, PaymentMethod paymentMethod, Lease lease, InvoiceStatus invoiceStatus, LocalDate dueDate) {
+                    queries++;
+                    return Arrays.asList(invoice);
+                }
+            };
+            final InvoiceHeaders invoiceHeaders = new InvoiceHeaders("run");
+
+            for (int i = 0; i < 3; i++) {
+                assertThat(invoices.findOrCreateMatchingInvoice(invoiceHeaders, null, paymentMethod, lease, InvoiceStatus.NEW, dueDate), is(invoice));
+            }
+            invoices.findOrCreateMatchingInvoice(invoiceHeaders, null, paymentMethod, lease, InvoiceStatus.NEW, dueDate.plusDays(1));
+
+            assertThat(queries, is(2));
+            assertThat(invoiceHeaders.getHits(), is(2));
+            assertThat(invoiceHeaders.getMisses(), is(2));
+        }
+
+    }
+
     public static class AllInvoices extends InvoicesTest {
 
         @Test
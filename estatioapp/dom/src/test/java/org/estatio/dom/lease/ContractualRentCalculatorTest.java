@@ -0,0 +1,111 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
+
+import org.estatio.dom.invoice.InvoicingInterval;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService.CalculationResult;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ContractualRentCalculatorTest {
+
+    @Rule
+    public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(JUnitRuleMockery2.Mode.INTERFACES_AND_CLASSES);
+
+    @Mock
+    Lease mockLease;
+
+    @Mock
+    LeaseItem mockRentItem;
+
+    ContractualRentCalculator calculator;
+
+    final LocalDate startDate = new LocalDate(2013, 1, 1);
+
+    final CalculationResult result = new CalculationResult(
+            new InvoicingInterval(LocalDateInterval.parseString("2013-01-01/2013-04-01"), startDate),
+            LocalDateInterval.parseString("2013-01-01/2013-04-01"),
+            new BigDecimal("100000.00"),
+            BigDecimal.ZERO,
+            BigDecimal.ZERO);
+
+    @Before
+    public void setUp() throws Exception {
+        calculator = new ContractualRentCalculator();
+    }
+
+    void expectCalculations(final int times) {
+        context.checking(new Expectations() {
+            {
+                exactly(times).of(mockLease).findItemsOfType(LeaseItemType.RENT);
+                will(returnValue(Arrays.asList(mockRentItem)));
+                exactly(times).of(mockRentItem).getInvoicingFrequency();
+                will(returnValue(InvoicingFrequency.QUARTERLY_IN_ADVANCE));
+                exactly(times).of(mockRentItem).calculationResults(InvoicingFrequency.QUARTERLY_IN_ADVANCE, startDate, startDate.plusYears(2));
+                will(returnValue(Arrays.asList(result)));
+            }
+        });
+    }
+
+    public static class RentResults extends ContractualRentCalculatorTest {
+
+        @Test
+        public void calculatedOncePerLeaseAndStartDate() throws Exception {
+            expectCalculations(1);
+
+            final List<CalculationResult> first = calculator.rentResults(mockLease, startDate);
+            final List<CalculationResult> second = calculator.rentResults(mockLease, startDate);
+
+            assertThat(first, is(Arrays.asList(result)));
+            assertThat(second, is(first));
+            assertThat(calculator.getCalculations(), is(1));
+            assertThat(calculator.getReuses(), is(1));
+            assertThat(calculator.getAvoidedInvocations(), is(1));
+        }
+
+        @Test
+        public void recalculatedWhenInvalidated() throws Exception {
+            expectCalculations(2);
+
+            calculator.rentResults(mockLease, startDate);
+            calculator.invalidate(mockLease);
+            calculator.rentResults(mockLease, startDate);
+
+            assertThat(calculator.getCalculations(), is(2));
+            assertThat(calculator.getReuses(), is(0));
+            assertThat(calculator.getInvalidations(), is(1));
+        }
+    }
+
+}
@@ -22,6 +22,9 @@ package org.estatio.dom.lease;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
+
+import com.google.common.collect.Lists;
+
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
@@ -169,6 +172,71 @@ public class LeaseItemTest {
 
     }
 
+    public static class VerifyIncrementallyUntil extends LeaseItemTest {
+
+        private List<LeaseTerm> verified;
+
+        @Before
+        public void setUp() throws Exception {
+            verified = Lists.newArrayList();
+            leaseItem = new LeaseItem();
+            leaseItem.setLease(new Lease());
+            for (int year = 2012; year <= 2014; year++) {
+                final LeaseTermForTesting leaseTerm = new LeaseTermForTesting(leaseItem, new LocalDate(year, 1, 1), new LocalDate(year, 12, 31), BigDecimal.TEN) {
+                    @Override
+                    public LeaseTerm verifyUntil(final LocalDate date) {
+                        verified.add(this);
+                        return this;
+                    }
+                };
+                leaseTerm.setSequence(BigInteger.valueOf(year - 2011));
+                leaseItem.getTerms().add(leaseTerm);
+            }
+        }
+
+        @Test
+        public void whenNeverVerified() throws Exception {
+            leaseItem.verifyIncrementallyUntil(new LocalDate(2014, 6, 1));
+
+            assertThat(verified.size(), is(1));
+            assertThat(verified.get(0), is(leaseItem.getTerms().first()));
+            assertThat(leaseItem.getVerifiedUntil(), is(new LocalDate(2014, 6, 1)));
+        }
+
+        @Test
+        public void whenAlreadyVerified() throws Exception {
+            leaseItem.setVerifiedUntil(new LocalDate(2014, 6, 1));
+
+            leaseItem.verifyIncrementallyUntil(new LocalDate(2014, 1, 1));
+
+            assertThat(verified.isEmpty(), is(true));
+            assertThat(leaseItem.getVerifiedUntil(), is(new LocalDate(2014, 6, 1)));
+        }
+
+        @Test
+        public void whenVerifiedPartially() throws Exception {
+            leaseItem.setVerifiedUntil(new LocalDate(2013, 6, 1));
+
+            leaseItem.verifyIncrementallyUntil(new LocalDate(2014, 6, 1));
+
+            assertThat(verified.size(), is(1));
+            assertThat(verified.get(0).getStartDate(), is(new LocalDate(2013, 1, 1)));
+            assertThat(leaseItem.getVerifiedUntil(), is(new LocalDate(2014, 6, 1)));
+        }
+
+        @Test
+        public void whenInvalidated() throws Exception {
+            leaseItem.setVerifiedUntil(new LocalDate(2014, 6, 1));
+            ((LeaseTermForTesting) leaseItem.getTerms().last()).modifyEndDate(new LocalDate(2014, 10, 31));
+
+            leaseItem.verifyIncrementallyUntil(new LocalDate(2014, 6, 1));
+
+            assertThat(verified.size(), is(1));
+            assertThat(verified.get(0), is(leaseItem.getTerms().first()));
+        }
+
+    }
+
     public static class ToString extends LeaseItemTest {
 
         private Lease lease;
@@ -23,6 +23,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
@@ -41,6 +42,7 @@ import org.estatio.dom.PojoTester;
 import org.estatio.dom.index.Index;
 import org.estatio.dom.index.IndexBase;
 import org.estatio.dom.index.IndexValue;
+import org.estatio.dom.index.IndexValueSeries;
 import org.estatio.dom.index.IndexValues;
 import org.estatio.dom.index.IndexationService;
 import org.estatio.services.clock.ClockService;
@@ -146,10 +148,8 @@ public class LeaseTermForIndexableTest {
         public void happyCase() {
             context.checking(new Expectations() {
                 {
-                    allowing(mockIndexValues).findIndexValueByIndexAndStartDate(with(i), with(new LocalDate(2010, 1, 1)));
-                    will(returnValue(iv1));
-                    allowing(mockIndexValues).findIndexValueByIndexAndStartDate(with(i), with(new LocalDate(2011, 1, 1)));
-                    will(returnValue(iv2));
+                    allowing(mockIndexValues).seriesFor(i);
+                    will(returnValue(IndexValueSeries.of(Arrays.asList(iv1, iv2))));
                 }
             });
             term.align();
@@ -160,10 +160,8 @@ public class LeaseTermForIndexableTest {
         public void whenEmptyIndex() {
             context.checking(new Expectations() {
                 {
-                    allowing(mockIndexValues).findIndexValueByIndexAndStartDate(with(i), with(new LocalDate(2010, 1, 1)));
-                    will(returnValue(iv1));
-                    allowing(mockIndexValues).findIndexValueByIndexAndStartDate(with(i), with(new LocalDate(2011, 1, 1)));
-                    will(returnValue(iv2));
+                    allowing(mockIndexValues).seriesFor(i);
+                    will(returnValue(IndexValueSeries.of(Arrays.asList(iv1, iv2))));
                 }
             });
             term.align();
@@ -37,6 +37,7 @@ import org.estatio.dom.asset.FixedAsset;
 import org.estatio.dom.asset.FixedAssetForTesting;
 import org.estatio.dom.asset.Property;
 import org.estatio.services.clock.ClockService;
+import org.estatio.services.search.SearchIndexServiceForTesting;
 
 public class LeasesTest {
 
@@ -77,6 +78,7 @@ public class LeasesTest {
                 return null;
             }
         };
+        leases.searchIndexService = new SearchIndexServiceForTesting();
         leases.clockService = new ClockService();
     }
 
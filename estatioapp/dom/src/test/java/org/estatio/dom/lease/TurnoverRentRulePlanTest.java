@@ -0,0 +1,112 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class TurnoverRentRulePlanTest {
+
+    static final String[] RULES = {
+            "5",
+            "7.5",
+            "0.125",
+            "500000;5;750000;6;7",
+            "100000.50;3.333;250000;4.125;5.5",
+            "7.5;100000;8;250000;9.25;500000;10",
+            "500000;-1;2",
+            "1000;0.00000001;3"
+    };
+
+    public static class Of extends TurnoverRentRulePlanTest {
+
+        @Test
+        public void sharedByRule() throws Exception {
+            assertThat(TurnoverRentRulePlan.of("500000;5;750000;6;7"), is(sameInstance(TurnoverRentRulePlan.of("500000;5;750000;6;7"))));
+            assertThat(TurnoverRentRulePlan.of("500000;5;750000;6;7").getTiers(), is(3));
+        }
+
+        @Test
+        public void invalid() throws Exception {
+            assertThat(TurnoverRentRulePlan.of(null).isValid(), is(false));
+            assertThat(TurnoverRentRulePlan.of(" ").isValid(), is(false));
+            assertThat(TurnoverRentRulePlan.of("50000;5").isValid(), is(false));
+            assertThat(TurnoverRentRulePlan.of("50000;5;x").isValid(), is(false));
+            assertThat(TurnoverRentRulePlan.of("50000;5;x").calculateRent(BigDecimal.TEN), is(new BigDecimal("0.00")));
+        }
+    }
+
+    public static class RoundingParity extends TurnoverRentRulePlanTest {
+
+        @Test
+        public void randomTurnovers() throws Exception {
+            final Random random = new Random(1);
+            for (String rule : RULES) {
+                final TurnoverRentRulePlan plan = TurnoverRentRulePlan.of(rule);
+                for (int i = 0; i < 20000; i++) {
+                    final BigDecimal turnover = BigDecimal.valueOf(random.nextInt(200000000) - 1000, 2);
+                    assertThat(rule + " " + turnover, plan.calculateRent(turnover), is(plan.calculateRentExact(turnover)));
+                }
+            }
+        }
+
+        @Test
+        public void halfCents() throws Exception {
+            // 0.5% of 1.00 is half a cent, 0.5% of 3.00 one and a half cents
+            final TurnoverRentRulePlan plan = TurnoverRentRulePlan.of("0.5");
+            assertThat(plan.calculateRent(new BigDecimal("1.00")), is(new BigDecimal("0.01")));
+            assertThat(plan.calculateRent(new BigDecimal("0.99")), is(new BigDecimal("0.00")));
+            assertThat(plan.calculateRent(new BigDecimal("3.00")), is(new BigDecimal("0.02")));
+        }
+
+        @Test
+        public void fallsBackWhenNotInCents() throws Exception {
+            final TurnoverRentRulePlan plan = TurnoverRentRulePlan.of("500000;5;750000;6;7");
+            final BigDecimal fractionOfCent = new BigDecimal("600000.005");
+            assertThat(plan.calculateRent(fractionOfCent), is(plan.calculateRentExact(fractionOfCent)));
+            final BigDecimal huge = new BigDecimal("1000000000000000000");
+            assertThat(plan.calculateRent(huge), is(plan.calculateRentExact(huge)));
+        }
+    }
+
+    public static class Batch extends TurnoverRentRulePlanTest {
+
+        @Test
+        public void centsAsBigDecimals() throws Exception {
+            final TurnoverRentRulePlan plan = TurnoverRentRulePlan.of("500000;5;750000;6;7");
+            final long[] rents = plan.calculateRentCents(new long[] { 50000000L, 60000000L, 100000000L });
+            assertThat(rents[0], is(2500000L));
+            assertThat(rents[1], is(3100000L));
+            assertThat(rents[2], is(5750000L));
+
+            final List<BigDecimal> rentList = plan.calculateRent(Arrays.asList(new BigDecimal("500000"), null));
+            assertThat(rentList.get(0), is(new BigDecimal("25000.00")));
+            assertThat(rentList.get(1), is(new BigDecimal("0.00")));
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.indexation;
+
+import org.joda.time.LocalDateTime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ReindexationTest {
+
+    Reindexation reindexation;
+
+    @Before
+    public void setUp() throws Exception {
+        reindexation = new Reindexation();
+    }
+
+    public static class AddFailure extends ReindexationTest {
+
+        @Test
+        public void oneLinePerTerm() throws Exception {
+            reindexation.addFailure("LTI:1", "IllegalStateException: no value");
+            reindexation.addFailure("LTI:2", "NullPointerException: multiple\nlines");
+
+            assertThat(reindexation.getFailed(), is(2));
+            assertThat(reindexation.getFailures(), is("LTI:1 IllegalStateException: no value\nLTI:2 NullPointerException: multiple lines"));
+            assertThat(reindexation.getFailedTermBookmarks().size(), is(2));
+            assertThat(reindexation.getFailedTermBookmarks().get(1), is("LTI:2"));
+        }
+
+        @Test
+        public void withoutMessage() throws Exception {
+            reindexation.addFailure("LTI:1", null);
+
+            assertThat(reindexation.getFailedTermBookmarks().get(0), is("LTI:1"));
+        }
+
+        @Test
+        public void none() throws Exception {
+            assertThat(reindexation.getFailedTermBookmarks().isEmpty(), is(true));
+        }
+    }
+
+    public static class Claim extends ReindexationTest {
+
+        private final LocalDateTime now = new LocalDateTime(2015, 6, 1, 12, 0);
+
+        @Test
+        public void whenPending() throws Exception {
+            reindexation.setStatus(ReindexationStatus.PENDING);
+
+            assertThat(reindexation.claim(now), is(true));
+
+            assertThat(reindexation.getStatus(), is(ReindexationStatus.RUNNING));
+            assertThat(reindexation.getStartedOn(), is(now));
+            assertThat(reindexation.getAttempts(), is(1));
+        }
+
+        @Test
+        public void notWhenClaimedAlready() throws Exception {
+            reindexation.setStatus(ReindexationStatus.RUNNING);
+            reindexation.setStartedOn(now.minusMinutes(1));
+
+            assertThat(reindexation.claim(now), is(false));
+
+            assertThat(reindexation.getStartedOn(), is(now.minusMinutes(1)));
+        }
+
+        @Test
+        public void whenLeftRunning() throws Exception {
+            reindexation.setStatus(ReindexationStatus.RUNNING);
+            reindexation.setStartedOn(now.minusHours(Reindexations.STALE_AFTER_HOURS + 1));
+
+            assertThat(reindexation.claim(now), is(true));
+        }
+
+        @Test
+        public void failedWhenAttemptedTooOften() throws Exception {
+            reindexation.setStatus(ReindexationStatus.PENDING);
+            reindexation.setAttempts(Reindexation.MAX_ATTEMPTS);
+
+            assertThat(reindexation.claim(now), is(false));
+
+            assertThat(reindexation.getStatus(), is(ReindexationStatus.FAILED));
+            assertThat(reindexation.getCompletedOn(), is(now));
+        }
+    }
+
+    public static class Abort extends ReindexationTest {
+
+        private final LocalDateTime now = new LocalDateTime(2015, 6, 1, 12, 0);
+
+        @Test
+        public void backToPending() throws Exception {
+            reindexation.setStatus(ReindexationStatus.PENDING);
+            reindexation.claim(now);
+
+            reindexation.abort(now);
+
+            assertThat(reindexation.getStatus(), is(ReindexationStatus.PENDING));
+            assertThat(reindexation.getStartedOn(), is(nullValue()));
+        }
+
+        @Test
+        public void failedAfterLastAttempt() throws Exception {
+            reindexation.setStatus(ReindexationStatus.PENDING);
+            for (int attempt = 1; attempt < Reindexation.MAX_ATTEMPTS; attempt++) {
+                reindexation.claim(now);
+                reindexation.abort(now);
+            }
+            reindexation.claim(now);
+
+            reindexation.abort(now);
+
+            assertThat(reindexation.getStatus(), is(ReindexationStatus.FAILED));
+            assertThat(reindexation.disableRetry(), is(nullValue()));
+        }
+
+        @Test
+        public void notWhenFinished() throws Exception {
+            reindexation.setStatus(ReindexationStatus.COMPLETED);
+
+            reindexation.abort(now);
+
+            assertThat(reindexation.getStatus(), is(ReindexationStatus.COMPLETED));
+        }
+    }
+
+    public static class DisableRerunFailures extends ReindexationTest {
+
+        @Test
+        public void onlyWhenCompletedWithFailures() throws Exception {
+            reindexation.setStatus(ReindexationStatus.COMPLETED_WITH_FAILURES);
+            assertThat(reindexation.disableRerunFailures(), is(nullValue()));
+
+            reindexation.setStatus(ReindexationStatus.COMPLETED);
+            assertThat(reindexation.disableRerunFailures(), is(notNullValue()));
+
+            reindexation.setStatus(ReindexationStatus.RUNNING);
+            assertThat(reindexation.disableRerunFailures(), is(notNullValue()));
+        }
+    }
+
+}
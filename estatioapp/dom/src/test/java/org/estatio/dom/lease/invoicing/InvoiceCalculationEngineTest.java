@@ -0,0 +1,93 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.estatio.dom.lease.InvoicingFrequency;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseItem;
+import org.estatio.dom.lease.LeaseTermForTesting;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService.CalculationResult;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class InvoiceCalculationEngineTest {
+
+    InvoiceCalculationEngine engine;
+    InvoiceCalculationParameters parameters;
+    List<List<LeaseTermSnapshot>> units;
+
+    @Before
+    public void setup() {
+        engine = new InvoiceCalculationEngine();
+        parameters = new InvoiceCalculationParameters(
+                InvoiceRunType.NORMAL_RUN,
+                new LocalDate(2014, 1, 1),
+                new LocalDate(2013, 1, 1),
+                new LocalDate(2014, 1, 1));
+
+        units = Lists.newArrayList();
+        for (int i = 0; i < 50; i++) {
+            final Lease lease = new Lease();
+            lease.setStartDate(new LocalDate(2012, 1, 1).plusDays(i * 7));
+            final LeaseItem leaseItem = new LeaseItem();
+            leaseItem.setLease(lease);
+            leaseItem.setStartDate(lease.getStartDate());
+            leaseItem.setInvoicingFrequency(i % 2 == 0 ? InvoicingFrequency.QUARTERLY_IN_ADVANCE : InvoicingFrequency.MONTHLY_IN_ARREARS);
+            final LeaseTermForTesting leaseTerm = new LeaseTermForTesting(leaseItem, lease.getStartDate(), null, BigDecimal.valueOf(10000 + i));
+            units.add(Lists.newArrayList(LeaseTermSnapshot.of(leaseTerm, parameters, null)));
+        }
+    }
+
+    @Test
+    public void resultsInOrderOfUnits() throws Exception {
+        final List<List<List<CalculationResult>>> results = engine.calculate(units);
+
+        assertThat(results.size(), is(units.size()));
+        for (int i = 0; i < units.size(); i++) {
+            final List<CalculationResult> expected = InvoiceCalculationEngine.calculate(units.get(i).get(0));
+            final List<CalculationResult> actual = results.get(i).get(0);
+            assertThat(actual.size(), is(expected.size()));
+            for (int j = 0; j < expected.size(); j++) {
+                assertThat(actual.get(j).invoicingInterval(), is(expected.get(j).invoicingInterval()));
+                assertThat(actual.get(j).value(), is(expected.get(j).value()));
+            }
+        }
+    }
+
+    @Test
+    public void snapshotIsDetached() throws Exception {
+        final LeaseTermSnapshot snapshot = units.get(0).get(0);
+        final BigDecimal before = InvoiceCalculationEngine.calculate(snapshot).get(0).value();
+
+        ((LeaseTermForTesting) snapshot.leaseTerm()).setValue(BigDecimal.ZERO);
+
+        assertThat(InvoiceCalculationEngine.calculate(snapshot).get(0).value(), is(before));
+    }
+
+}
@@ -19,6 +19,7 @@
 package org.estatio.dom.lease.invoicing;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
@@ -38,6 +39,7 @@ import org.estatio.dom.lease.LeaseTerm;
 import org.estatio.dom.lease.LeaseTermForTesting;
 import org.estatio.dom.tax.Tax;
 import org.estatio.dom.tax.TaxRate;
+import org.estatio.dom.tax.TaxRateTimeline;
 import org.estatio.dom.tax.TaxRates;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -81,6 +83,7 @@ public class InvoiceItemForLeaseTest {
             tax.injectTaxRates(mockTaxRates);
 
             rate = new TaxRate();
+            rate.setStartDate(new LocalDate(2011, 1, 1));
             rate.setPercentage(BigDecimal.valueOf(21));
 
             item = new InvoiceItemForLease();
@@ -97,8 +100,8 @@ public class InvoiceItemForLeaseTest {
         public void happyCase() {
             context.checking(new Expectations() {
                 {
-                    allowing(mockTaxRates).findTaxRateByTaxAndDate(with(tax), with(new LocalDate(2012, 1, 1)));
-                    will(returnValue(rate));
+                    allowing(mockTaxRates).timelineFor(tax);
+                    will(returnValue(TaxRateTimeline.of(Arrays.asList(rate))));
                 }
             });
             item.setNetAmount(BigDecimal.valueOf(12.34));
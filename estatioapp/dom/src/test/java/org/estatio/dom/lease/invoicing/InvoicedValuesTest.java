@@ -0,0 +1,115 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.isis.applib.query.Query;
+
+import org.estatio.dom.FinderInteraction;
+import org.estatio.dom.FinderInteraction.FinderMethod;
+import org.estatio.dom.invoice.InvoiceStatus;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseItem;
+import org.estatio.dom.lease.LeaseTermForTesting;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class InvoicedValuesTest {
+
+    FinderInteraction finderInteraction;
+    List<InvoiceItemForLease> items;
+    int queries;
+
+    InvoiceItemsForLease invoiceItems;
+
+    Lease lease;
+    LeaseTermForTesting leaseTerm;
+    LocalDateInterval interval;
+
+    @Before
+    public void setup() {
+        items = Lists.newArrayList();
+        invoiceItems = new InvoiceItemsForLease() {
+            @SuppressWarnings("unchecked")
+            @Override
+            protected <T> List<T> allMatches(Query<T> query) {
+                finderInteraction = new FinderInteraction(query, FinderMethod.ALL_MATCHES);
+                queries++;
+                return (List<T>) items;
+            }
+        };
+
+        lease = new Lease();
+        final LeaseItem leaseItem = new LeaseItem();
+        leaseItem.setLease(lease);
+        leaseTerm = new LeaseTermForTesting();
+        leaseTerm.setLeaseItem(leaseItem);
+        interval = LocalDateInterval.excluding(new LocalDate(2014, 1, 1), new LocalDate(2014, 4, 1));
+    }
+
+    private InvoiceItemForLease newItem(final LocalDateInterval interval, final String netAmount) {
+        final InvoiceItemForLease item = new InvoiceItemForLease();
+        item.setLeaseTerm(leaseTerm);
+        item.setStartDate(interval.startDate());
+        item.setEndDate(interval.endDate());
+        item.setNetAmount(new BigDecimal(netAmount));
+        return item;
+    }
+
+    @Test
+    public void sumsPerTermAndInterval() throws Exception {
+        items.add(newItem(interval, "100.00"));
+        items.add(newItem(interval, "-20.00"));
+        items.add(newItem(LocalDateInterval.excluding(new LocalDate(2014, 4, 1), new LocalDate(2014, 7, 1)), "50.00"));
+
+        final InvoicedValues invoicedValues = invoiceItems.invoicedValues(Arrays.asList(lease));
+
+        assertThat(finderInteraction.getQueryName(), is("findByLeasesAndInvoiceStatusNot"));
+        assertThat(finderInteraction.getArgumentsByParameterName().get("invoiceStatus"), is((Object) InvoiceStatus.NEW));
+        assertThat(invoicedValues.invoicedValue(leaseTerm, interval), is(new BigDecimal("80.00")));
+        assertThat(invoicedValues.invoicedValue(leaseTerm, LocalDateInterval.excluding(new LocalDate(2014, 7, 1), new LocalDate(2014, 10, 1))), is(BigDecimal.ZERO));
+        assertThat(invoicedValues.getLookupCount(), is(2));
+        assertThat(invoicedValues.getQueryCount(), is(1));
+    }
+
+    @Test
+    public void onlyOneQueryPerChunk() throws Exception {
+        final List<Lease> leases = Lists.newArrayList();
+        for (int i = 0; i < InvoiceItemsForLease.INVOICED_VALUES_CHUNK_SIZE + 1; i++) {
+            leases.add(new Lease());
+        }
+
+        final InvoicedValues invoicedValues = invoiceItems.invoicedValues(leases);
+
+        assertThat(queries, is(2));
+        assertThat(invoicedValues.getQueryCount(), is(2));
+    }
+
+}
@@ -1,6 +1,8 @@
 package org.estatio.dom.lease.status;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
 import javax.inject.Inject;
 import org.joda.time.LocalDate;
 import org.junit.Before;
@@ -9,7 +11,9 @@ import org.junit.Test;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseItem;
 import org.estatio.dom.lease.LeaseItemStatus;
+import org.estatio.dom.lease.LeaseItems;
 import org.estatio.dom.lease.LeaseStatus;
+import org.estatio.dom.lease.Leases;
 import org.estatio.services.clock.ClockService;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -87,4 +91,46 @@ public class LeaseStatusServiceTest {
         return item;
     }
 
+    @Test
+    public void leaseReferencesToRefresh() {
+        service.leases = new Leases() {
+            @Override
+            public List<String> findReferencesWithStatusToRefresh(final LocalDate date) {
+                assertThat(date, is(new LocalDate(2014, 4, 1)));
+                return Arrays.asList("B", "A");
+            }
+        };
+        service.leaseItems = new LeaseItems() {
+            @Override
+            public List<String> findLeaseReferencesWithStatusToRefresh(final LocalDate date) {
+                return Arrays.asList("C", "A");
+            }
+        };
+
+        assertThat(service.leaseReferencesToRefresh().toString(), is("[A, B, C]"));
+    }
+
+    @Test
+    public void refreshStatusByReference() {
+        final Lease ended = leaseWithStatus("A", LeaseStatus.ACTIVE, new LocalDate(2014, 3, 31));
+        final Lease alreadyTerminated = leaseWithStatus("B", LeaseStatus.TERMINATED, new LocalDate(2014, 3, 31));
+        service.leases = new Leases() {
+            @Override
+            public Lease findLeaseByReferenceElseNull(final String reference) {
+                return reference.equals("A") ? ended : reference.equals("B") ? alreadyTerminated : null;
+            }
+        };
+
+        assertThat(service.refreshStatus(Arrays.asList("A", "B", "REMOVED")), is(1));
+        assertThat(ended.getStatus(), is(LeaseStatus.TERMINATED));
+    }
+
+    private static Lease leaseWithStatus(final String reference, final LeaseStatus status, final LocalDate tenancyEndDate) {
+        final Lease lease = new Lease();
+        lease.setReference(reference);
+        lease.setStatus(status);
+        lease.setTenancyEndDate(tenancyEndDate);
+        return lease;
+    }
+
 }
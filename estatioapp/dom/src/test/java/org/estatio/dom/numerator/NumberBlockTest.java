@@ -0,0 +1,185 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.numerator;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class NumberBlockTest {
+
+    /**
+     * Stands in for the numerator row, counts the reservations.
+     */
+    static class InMemoryReserver implements NumberBlock.Reserver {
+
+        long lastIncrement;
+        int reservations;
+
+        InMemoryReserver(final long lastIncrement) {
+            this.lastIncrement = lastIncrement;
+        }
+
+        @Override
+        public synchronized long reserve(final int size) {
+            reservations++;
+            final long first = lastIncrement + 1;
+            lastIncrement += size;
+            return first;
+        }
+
+        @Override
+        public synchronized void release(final long reservedUntil, final long lastUsed) {
+            if (lastIncrement == reservedUntil) {
+                lastIncrement = lastUsed;
+            }
+        }
+    }
+
+    InMemoryReserver reserver;
+    NumberBlock block;
+
+    @Before
+    public void setUp() throws Exception {
+        reserver = new InMemoryReserver(10);
+        block = new NumberBlock(reserver, 100);
+    }
+
+    public static class Next extends NumberBlockTest {
+
+        @Test
+        public void continuesFromLastIncrement() throws Exception {
+            assertThat(block.last(), is(nullValue()));
+
+            assertThat(block.next(), is(11L));
+            assertThat(block.next(), is(12L));
+
+            assertThat(block.last(), is(12L));
+            assertThat(reserver.lastIncrement, is(110L));
+        }
+
+        @Test
+        public void reservesNextBlockWhenUsedUp() throws Exception {
+            for (long expected = 11; expected <= 260; expected++) {
+                assertThat(block.next(), is(expected));
+            }
+            assertThat(reserver.reservations, is(3));
+            assertThat(reserver.lastIncrement, is(310L));
+        }
+    }
+
+    public static class Release extends NumberBlockTest {
+
+        @Test
+        public void givesBackRemainder() throws Exception {
+            block.next();
+            block.next();
+
+            block.release();
+
+            assertThat(reserver.lastIncrement, is(12L));
+            assertThat(block.next(), is(13L));
+        }
+
+        @Test
+        public void givesBackRemainderThroughGivenReleaser() throws Exception {
+            block.next();
+            final InMemoryReserver numeratorBeingChanged = new InMemoryReserver(110);
+
+            block.releaseTo(numeratorBeingChanged);
+
+            assertThat(numeratorBeingChanged.lastIncrement, is(11L));
+            assertThat(reserver.lastIncrement, is(110L));
+        }
+
+        @Test
+        public void keepsGapWhenReservedMeanwhile() throws Exception {
+            block.next();
+            reserver.reserve(100);
+
+            block.release();
+
+            assertThat(reserver.lastIncrement, is(210L));
+        }
+    }
+
+    public static class Concurrency extends NumberBlockTest {
+
+        private static final int THREADS = 16;
+        private static final int VALUES_PER_THREAD = 5000;
+
+        @Test
+        public void everyValueExactlyOnceWithoutGaps() throws Exception {
+            final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<long[]>> futures = Lists.newArrayList();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(new Callable<long[]>() {
+                    @Override
+                    public long[] call() throws Exception {
+                        start.await();
+                        final long[] values = new long[VALUES_PER_THREAD];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = block.next();
+                        }
+                        return values;
+                    }
+                }));
+            }
+            start.countDown();
+
+            final int total = THREADS * VALUES_PER_THREAD;
+            final boolean[] seen = new boolean[total];
+            for (Future<long[]> future : futures) {
+                long previous = 0;
+                for (long value : future.get(30, TimeUnit.SECONDS)) {
+                    // ascending within a thread
+                    assertThat(value > previous, is(true));
+                    previous = value;
+
+                    final int index = (int) (value - 11);
+                    assertThat(seen[index], is(false));
+                    seen[index] = true;
+                }
+            }
+            executor.shutdown();
+
+            for (boolean value : seen) {
+                assertThat(value, is(true));
+            }
+            assertThat(block.last(), is(10L + total));
+            assertThat(reserver.reservations, is(total / 100));
+            assertThat(reserver.lastIncrement, is(10L + total));
+        }
+    }
+
+}
@@ -18,7 +18,11 @@
  */
 package org.estatio.dom.numerator;
 
+import java.math.BigInteger;
 import java.util.List;
+
+import com.google.common.collect.Lists;
+
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
 import org.junit.Before;
@@ -117,4 +121,51 @@ public class NumeratorsTest {
         }
     }
 
+    public static class AssignOnCommit extends NumeratorsTest {
+
+        @Test
+        public void inOrderAskedForPerNumerator() {
+            final Numerator invoiceNumerator = newNumerator("INV", "INV-%05d", 10);
+            final Numerator otherNumerator = newNumerator("OTH", "OTH-%03d", 0);
+            final List<String> assigned = Lists.newArrayList();
+            final Numerator.Assignee assignee = new Numerator.Assignee() {
+                @Override
+                public void assign(final String value) {
+                    assigned.add(value);
+                }
+            };
+            final Numerators.PendingAssignments pending = new Numerators.PendingAssignments(null) {
+                @Override
+                void lock(final Numerator numerator) {
+                }
+            };
+            pending.add(invoiceNumerator, assignee);
+            pending.add(otherNumerator, assignee);
+            pending.add(invoiceNumerator, assignee);
+
+            // nothing assigned until an assignee is flushed
+            assertThat(assigned.isEmpty(), is(true));
+
+            pending.assign(invoiceNumerator);
+
+            assertThat(assigned, is((List<String>) Lists.newArrayList("INV-00011", "INV-00012")));
+            assertThat(invoiceNumerator.getLastIncrement(), is(BigInteger.valueOf(12)));
+
+            // once only
+            pending.assign(invoiceNumerator);
+            pending.assign(otherNumerator);
+
+            assertThat(assigned, is((List<String>) Lists.newArrayList("INV-00011", "INV-00012", "OTH-001")));
+            assertThat(invoiceNumerator.getLastIncrement(), is(BigInteger.valueOf(12)));
+        }
+
+        private static Numerator newNumerator(final String name, final String format, final int lastIncrement) {
+            final Numerator numerator = new Numerator();
+            numerator.setName(name);
+            numerator.setFormat(format);
+            numerator.setLastIncrement(BigInteger.valueOf(lastIncrement));
+            return numerator;
+        }
+    }
+
 }
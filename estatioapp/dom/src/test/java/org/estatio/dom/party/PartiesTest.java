@@ -25,6 +25,7 @@ import org.apache.isis.applib.query.Query;
 import org.apache.isis.core.commons.matchers.IsisMatchers;
 import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
+import org.estatio.services.search.SearchIndexServiceForTesting;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -56,6 +57,7 @@ public class PartiesTest {
                 return null;
             }
         };
+        parties.searchIndexService = new SearchIndexServiceForTesting();
     }
 
     public static class MatchPartyByReferenceOrName extends PartiesTest {
@@ -0,0 +1,238 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.party;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.estatio.dom.agreement.Agreement;
+import org.estatio.dom.agreement.AgreementForTesting;
+import org.estatio.dom.agreement.AgreementRole;
+import org.estatio.dom.agreement.AgreementRoleType;
+import org.estatio.dom.agreement.AgreementRoles;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class PartyMergeServiceTest {
+
+    public static class Parse extends PartyMergeServiceTest {
+
+        @Test
+        public void pairsPerLine() throws Exception {
+            final List<PartyMerge> merges = PartyMergeService.parse("DUP1;SURV1\r\n\n  DUP2 ; SURV2  \nDUP3\n");
+
+            assertThat(merges.size(), is(3));
+            assertThat(merges.get(0).getDuplicateReference(), is("DUP1"));
+            assertThat(merges.get(0).getSurvivorReference(), is("SURV1"));
+            assertThat(merges.get(0).isPending(), is(true));
+            assertThat(merges.get(1).getDuplicateReference(), is("DUP2"));
+            assertThat(merges.get(1).getSurvivorReference(), is("SURV2"));
+            assertThat(merges.get(2).getOutcome(), is(PartyMerge.Outcome.REJECTED));
+            assertThat(merges.get(2).toString(), is("DUP3;;REJECTED;Expected 'DUPLICATE;SURVIVOR'"));
+        }
+    }
+
+    public static class CaseOf extends PartyMergeServiceTest {
+
+        @Test
+        public void mapsEachValue() throws Exception {
+            final Map<String, String> values = Maps.newLinkedHashMap();
+            values.put("1", "3");
+            values.put(PartyMergeService.quoted("O'2"), PartyMergeService.quoted("4"));
+
+            assertThat(PartyMergeService.caseOf("partyId", values),
+                    is("CASE \"partyId\" WHEN 1 THEN 3 WHEN 'O''2' THEN '4' END"));
+        }
+    }
+
+    public static class Validate extends PartyMergeServiceTest {
+
+        Party a;
+        Party b;
+        Party c;
+        Party d;
+        Party e;
+
+        Agreement agreement;
+        AgreementRoleType tenant;
+
+        List<AgreementRole> roles;
+
+        PartyMergeService service;
+
+        @Before
+        public void setUp() throws Exception {
+            a = party("A");
+            b = party("B");
+            c = party("C");
+            d = party("D");
+            e = party("E");
+            agreement = new AgreementForTesting();
+            tenant = new AgreementRoleType();
+            roles = Lists.newArrayList();
+
+            service = new PartyMergeService();
+            service.agreementRoles = new AgreementRoles() {
+                @Override
+                public List<AgreementRole> findByParties(final List<Party> parties) {
+                    final List<AgreementRole> found = Lists.newArrayList();
+                    for (AgreementRole role : roles) {
+                        if (parties.contains(role.getParty())) {
+                            found.add(role);
+                        }
+                    }
+                    return found;
+                }
+            };
+        }
+
+        private static Party party(final String reference) {
+            final Party party = new PartyForTesting();
+            party.setReference(reference);
+            return party;
+        }
+
+        private void role(final Party party, final LocalDate startDate) {
+            final AgreementRole role = new AgreementRole();
+            role.setAgreement(agreement);
+            role.setParty(party);
+            role.setType(tenant);
+            role.setStartDate(startDate);
+            roles.add(role);
+        }
+
+        private static PartyMerge merge(final Party duplicate, final Party survivor) {
+            final PartyMerge merge = new PartyMerge(
+                    duplicate != null ? duplicate.getReference() : "?",
+                    survivor != null ? survivor.getReference() : "?");
+            merge.resolve(duplicate, survivor);
+            return merge;
+        }
+
+        @Test
+        public void rejectsUnknownAndSelf() throws Exception {
+            final List<PartyMerge> merges = Arrays.asList(merge(null, a), merge(b, null), merge(c, c), merge(d, e));
+
+            service.validate(merges);
+
+            assertThat(merges.get(0).getReason(), is("Duplicate not found"));
+            assertThat(merges.get(1).getReason(), is("Survivor not found"));
+            assertThat(merges.get(2).getReason(), is("Cannot replace a party with itself"));
+            assertThat(merges.get(3).isPending(), is(true));
+            assertThat(merges.get(3).getReason(), is(nullValue()));
+        }
+
+        @Test
+        public void rejectsRepeatedDuplicatesAndChains() throws Exception {
+            final List<PartyMerge> merges = Arrays.asList(merge(a, b), merge(a, c), merge(d, e), merge(c, d));
+
+            service.validate(merges);
+
+            assertThat(merges.get(0).getReason(), is("Duplicate is to be merged more than once"));
+            assertThat(merges.get(1).getReason(), is("Duplicate is to be merged more than once"));
+            assertThat(merges.get(2).isPending(), is(true));
+            assertThat(merges.get(3).getReason(), is("Survivor is itself to be merged"));
+        }
+
+        @Test
+        public void rejectsConflictingRoles() throws Exception {
+            final LocalDate date = new LocalDate(2014, 1, 1);
+            role(a, date);
+            role(b, date);
+            role(c, date.plusYears(1));
+            role(d, date.plusYears(1));
+
+            final List<PartyMerge> merges = Arrays.asList(merge(a, b), merge(c, e), merge(d, e));
+
+            service.validate(merges);
+
+            assertThat(merges.get(0).getReason(), is("Survivor already plays a role of the duplicate in the same agreement"));
+            // each on its own would be fine, but not both into the same survivor
+            assertThat(merges.get(1).isPending(), is(true));
+            assertThat(merges.get(2).getOutcome(), is(PartyMerge.Outcome.REJECTED));
+        }
+    }
+
+    public static class MergeValid extends PartyMergeServiceTest {
+
+        List<List<String>> committed;
+        PartyMergeService service;
+
+        @Before
+        public void setUp() throws Exception {
+            committed = Lists.newArrayList();
+            service = new PartyMergeService() {
+                @Override
+                void executeWithinTransaction(final Runnable work) {
+                    work.run();
+                }
+
+                @Override
+                void mergeChunk(final List<PartyMerge> chunk) {
+                    final List<String> references = Lists.newArrayList();
+                    for (PartyMerge merge : chunk) {
+                        if (merge.getDuplicateReference().equals("BAD")) {
+                            throw new IllegalStateException("Constraint violated");
+                        }
+                        references.add(merge.getDuplicateReference());
+                    }
+                    committed.add(references);
+                }
+            };
+        }
+
+        @Test
+        public void commitsChunk() throws Exception {
+            final List<PartyMerge> merges = Arrays.asList(new PartyMerge("A", "X"), new PartyMerge("B", "X"));
+
+            service.mergeValid(merges);
+
+            assertThat(committed.size(), is(1));
+            assertThat(committed.get(0), is(Arrays.asList("A", "B")));
+            assertThat(merges.get(0).getOutcome(), is(PartyMerge.Outcome.MERGED));
+            assertThat(merges.get(1).getOutcome(), is(PartyMerge.Outcome.MERGED));
+        }
+
+        @Test
+        public void retriesFailedChunkOneByOne() throws Exception {
+            final List<PartyMerge> merges = Arrays.asList(
+                    new PartyMerge("A", "X"), new PartyMerge("BAD", "X"), new PartyMerge("C", "X"));
+
+            service.mergeValid(merges);
+
+            assertThat(committed.size(), is(2));
+            assertThat(committed.get(0), is(Arrays.asList("A")));
+            assertThat(committed.get(1), is(Arrays.asList("C")));
+            assertThat(merges.get(0).getOutcome(), is(PartyMerge.Outcome.MERGED));
+            assertThat(merges.get(1).toString(), is("BAD;X;REJECTED;Failed: Constraint violated"));
+            assertThat(merges.get(2).getOutcome(), is(PartyMerge.Outcome.MERGED));
+        }
+    }
+
+}
@@ -27,6 +27,7 @@ import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
 import org.estatio.dom.lease.tags.Brand;
 import org.estatio.dom.lease.tags.Brands;
+import org.estatio.services.search.SearchIndexServiceForTesting;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -58,6 +59,7 @@ public class BrandsTest {
                 return null;
             }
         };
+        brands.injectSearchIndexService(new SearchIndexServiceForTesting());
     }
 
     public static class MatchByName extends BrandsTest {
@@ -0,0 +1,83 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.tax;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class TaxRateTimelineTest {
+
+    List<TaxRate> rates;
+    TaxRateTimeline timeline;
+
+    @Before
+    public void setup() {
+        rates = Lists.newArrayList(
+                rate(new LocalDate(2011, 9, 17), null, 21),
+                rate(new LocalDate(1980, 1, 1), null, 19),
+                rate(new LocalDate(2000, 1, 1), new LocalDate(2000, 12, 31), 20),
+                rate(null, null, 99));
+        timeline = TaxRateTimeline.of(rates);
+    }
+
+    private static TaxRate rate(final LocalDate startDate, final LocalDate endDate, final int percentage) {
+        final TaxRate rate = new TaxRate();
+        rate.setStartDate(startDate);
+        rate.setEndDate(endDate);
+        rate.setPercentage(BigDecimal.valueOf(percentage));
+        return rate;
+    }
+
+    @Test
+    public void percentageFor() {
+        assertThat(timeline.size(), is(3));
+        assertThat(timeline.percentageFor(new LocalDate(1979, 12, 31)), is(nullValue()));
+        assertThat(timeline.percentageFor(new LocalDate(1980, 1, 1)), is(BigDecimal.valueOf(19)));
+        assertThat(timeline.percentageFor(new LocalDate(2000, 6, 1)), is(BigDecimal.valueOf(20)));
+        assertThat(timeline.percentageFor(new LocalDate(2011, 9, 16)), is(BigDecimal.valueOf(19)));
+        assertThat(timeline.percentageFor(new LocalDate(2011, 9, 17)), is(BigDecimal.valueOf(21)));
+        assertThat(timeline.percentageFor(null), is(nullValue()));
+    }
+
+    @Test
+    public void earlierRateCoversAfterLaterOneEnded() {
+        assertThat(timeline.startDateFor(new LocalDate(2000, 12, 31)), is(new LocalDate(2000, 1, 1)));
+        assertThat(timeline.startDateFor(new LocalDate(2001, 1, 1)), is(new LocalDate(1980, 1, 1)));
+    }
+
+    @Test
+    public void noRateAfterLastOneEnded() {
+        timeline = TaxRateTimeline.of(Lists.newArrayList(
+                rate(new LocalDate(2000, 1, 1), new LocalDate(2000, 12, 31), 20)));
+
+        assertThat(timeline.percentageFor(new LocalDate(2000, 12, 31)), is(BigDecimal.valueOf(20)));
+        assertThat(timeline.percentageFor(new LocalDate(2001, 1, 1)), is(nullValue()));
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.utils;
+
+import java.util.List;
+
+import org.joda.time.Interval;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import org.estatio.dom.lease.InvoicingFrequency;
+import org.estatio.dom.lease.LeaseTermFrequency;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalCalendarTest {
+
+    private static final LocalDate ANCHOR = new LocalDate(2000, 1, 1);
+
+    private static final String[] RRULES = {
+            "RRULE:FREQ=WEEKLY;INTERVAL=1",
+            "RRULE:FREQ=MONTHLY;INTERVAL=1",
+            "RRULE:FREQ=MONTHLY;INTERVAL=3",
+            "RRULE:FREQ=MONTHLY;INTERVAL=3;BYMONTH=2,5,8,11",
+            "RRULE:FREQ=MONTHLY;INTERVAL=6",
+            "RRULE:FREQ=YEARLY;INTERVAL=1"
+    };
+
+    public static class IntervalContaining extends IntervalCalendarTest {
+
+        @Test
+        public void sameAsIterator() throws Exception {
+            for (String rrule : RRULES) {
+                final IntervalCalendar calendar = new IntervalCalendar(rrule, ANCHOR, new LocalDate(2001, 1, 1));
+                for (LocalDate date = new LocalDate(1999, 12, 1); date.isBefore(new LocalDate(2016, 1, 1)); date = date.plusDays(3)) {
+                    assertThat(rrule + " " + date, calendar.intervalContaining(date), is(CalendarUtils.currentInterval(date, rrule, ANCHOR)));
+                }
+            }
+        }
+
+        @Test
+        public void extendsBeyondHorizon() throws Exception {
+            final String rrule = "RRULE:FREQ=MONTHLY;INTERVAL=3";
+            final IntervalCalendar calendar = new IntervalCalendar(rrule, ANCHOR, new LocalDate(2001, 1, 1));
+            final LocalDate date = new LocalDate(2060, 2, 14);
+            assertThat(calendar.intervalContaining(date), is(CalendarUtils.currentInterval(date, rrule, ANCHOR)));
+            assertTrue(calendar.getHorizon().isAfter(date));
+        }
+
+    }
+
+    public static class IntervalMatching extends IntervalCalendarTest {
+
+        @Test
+        public void sameAsIterator() throws Exception {
+            for (String rrule : RRULES) {
+                final IntervalCalendar calendar = new IntervalCalendar(rrule, ANCHOR, new LocalDate(2001, 1, 1));
+                for (LocalDate date = new LocalDate(2010, 1, 1); date.isBefore(new LocalDate(2012, 1, 1)); date = date.plusDays(1)) {
+                    final Interval interval = CalendarUtils.currentInterval(date, rrule, ANCHOR);
+                    final Interval expected = interval.getStart().toLocalDate().equals(date) ? interval : null;
+                    assertThat(rrule + " " + date, calendar.intervalMatching(date), is(expected));
+                }
+            }
+        }
+
+    }
+
+    public static class IntervalsInRange extends IntervalCalendarTest {
+
+        @Test
+        public void sameAsIterator() throws Exception {
+            for (String rrule : RRULES) {
+                final IntervalCalendar calendar = new IntervalCalendar(rrule, ANCHOR, new LocalDate(2001, 1, 1));
+                final LocalDate startDate = new LocalDate(2011, 11, 15);
+                final LocalDate endDate = new LocalDate(2014, 2, 3);
+                final List<Interval> intervals = calendar.intervalsInRange(startDate, endDate);
+
+                LocalDate start = startDate;
+                int i = 0;
+                do {
+                    final Interval expected = CalendarUtils.currentInterval(start, rrule, ANCHOR);
+                    assertThat(rrule + " " + start, intervals.get(i++), is(expected));
+                    start = expected.getEnd().toLocalDate();
+                } while (start.isBefore(endDate));
+                assertThat(intervals.size(), is(i));
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void whenStartAfterEnd() throws Exception {
+            new IntervalCalendar(RRULES[0], ANCHOR, ANCHOR).intervalsInRange(new LocalDate(2012, 2, 1), new LocalDate(2012, 1, 1));
+        }
+
+    }
+
+    public static class Frequencies extends IntervalCalendarTest {
+
+        @Test
+        public void sharedPerRrule() throws Exception {
+            for (InvoicingFrequency frequency : InvoicingFrequency.values()) {
+                final IntervalCalendar calendar = CalendarUtils.intervalCalendar(frequency.rrule());
+                assertTrue(calendar == CalendarUtils.intervalCalendar(frequency.rrule()));
+            }
+            assertTrue(CalendarUtils.intervalCalendar(LeaseTermFrequency.YEARLY.rrule()) != null);
+        }
+
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.valuetypes;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Checks {@link EpochDayInterval} against {@link LocalDateInterval} for
+ * every interval, valid or not, over a set of dates around month, year and
+ * leap day boundaries.
+ */
+public class EpochDayIntervalTest {
+
+    List<LocalDate> dates;
+    List<LocalDateInterval> intervals;
+
+    @Before
+    public void setUp() throws Exception {
+        dates = Lists.newArrayList();
+        dates.add(null);
+        for (LocalDate date = new LocalDate(2011, 12, 29); date.isBefore(new LocalDate(2012, 1, 4)); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        for (LocalDate date = new LocalDate(2012, 2, 27); date.isBefore(new LocalDate(2012, 3, 3)); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        dates.add(new LocalDate(2012, 6, 30));
+        dates.add(new LocalDate(2012, 7, 1));
+        dates.add(new LocalDate(2013, 1, 1));
+
+        intervals = Lists.newArrayList();
+        for (LocalDate startDate : dates) {
+            for (LocalDate endDate : dates) {
+                intervals.add(LocalDateInterval.excluding(startDate, endDate));
+            }
+        }
+    }
+
+    /**
+     * The outcome of an operation, the exception type if it throws.
+     */
+    static Object outcome(final Operation operation) {
+        try {
+            return operation.apply();
+        } catch (RuntimeException ex) {
+            return ex.getClass();
+        }
+    }
+
+    interface Operation {
+        Object apply();
+    }
+
+    public static class EpochDay extends EpochDayIntervalTest {
+
+        @Test
+        public void roundTrip() throws Exception {
+            for (LocalDate date = new LocalDate(1900, 1, 1); date.isBefore(new LocalDate(2100, 1, 1)); date = date.plusDays(1)) {
+                final int epochDay = EpochDayInterval.epochDay(date);
+                assertThat(epochDay, is((int) (date.toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis() / DateTimeConstants.MILLIS_PER_DAY)));
+                assertThat(EpochDayInterval.toLocalDate(epochDay), is(date));
+            }
+        }
+
+        @Test
+        public void boundaries() throws Exception {
+            final LocalDateInterval interval = LocalDateInterval.including(new LocalDate(2012, 1, 1), new LocalDate(2012, 3, 31));
+            final EpochDayInterval epochDayInterval = interval.asEpochDayInterval();
+            assertThat(epochDayInterval.startDate(), is(interval.startDate()));
+            assertThat(epochDayInterval.endDate(), is(interval.endDate()));
+            assertThat(epochDayInterval.endDateExcluding(), is(interval.endDateExcluding()));
+            assertThat(epochDayInterval.toLocalDateInterval(), is(interval));
+            assertThat(epochDayInterval.toString(), is(interval.toString()));
+            assertThat(EpochDayInterval.including(new LocalDate(2012, 1, 1), new LocalDate(2012, 3, 31)), is(epochDayInterval));
+        }
+    }
+
+    public static class SameAsLocalDateInterval extends EpochDayIntervalTest {
+
+        @Test
+        public void days() throws Exception {
+            for (final LocalDateInterval interval : intervals) {
+                // half-open intervals have no finite duration
+                if (interval.startDate() == null ^ interval.endDate() == null) {
+                    continue;
+                }
+                final EpochDayInterval epochDayInterval = interval.asEpochDayInterval();
+                assertThat(interval.toString(), outcome(new Operation() {
+                    @Override
+                    public Object apply() {
+                        return epochDayInterval.days();
+                    }
+                }), is(outcome(new Operation() {
+                    @Override
+                    public Object apply() {
+                        return interval.days();
+                    }
+                })));
+            }
+        }
+
+        @Test
+        public void validAndContainsDate() throws Exception {
+            for (final LocalDateInterval interval : intervals) {
+                final EpochDayInterval epochDayInterval = interval.asEpochDayInterval();
+                assertThat(epochDayInterval.isValid(), is(interval.isValid()));
+                assertThat(epochDayInterval.contains((LocalDate) null), is(false));
+                for (final LocalDate date : dates.subList(1, dates.size())) {
+                    assertThat(interval + " " + date, outcome(new Operation() {
+                        @Override
+                        public Object apply() {
+                            return epochDayInterval.contains(date);
+                        }
+                    }), is(outcome(new Operation() {
+                        @Override
+                        public Object apply() {
+                            return interval.contains(date);
+                        }
+                    })));
+                }
+            }
+        }
+
+        @Test
+        public void pairs() throws Exception {
+            for (final LocalDateInterval interval : intervals) {
+                final EpochDayInterval epochDayInterval = interval.asEpochDayInterval();
+                for (final LocalDateInterval other : intervals) {
+                    final EpochDayInterval otherEpochDayInterval = other.asEpochDayInterval();
+                    final String message = interval + " " + other;
+
+                    assertThat(message, outcome(new Operation() {
+                        @Override
+                        public Object apply() {
+                            final EpochDayInterval overlap = epochDayInterval.overlap(otherEpochDayInterval);
+                            return overlap == null ? null : overlap.toLocalDateInterval();
+                        }
+                    }), is(outcome(new Operation() {
+                        @Override
+                        public Object apply() {
+                            return interval.overlap(other);
+                        }
+                    })));
+                    assertThat(message, outcome(new Operation() {
+                        @Override
+                        public Object apply() {
+                            return epochDayInterval.overlaps(otherEpochDayInterval);
+                        }
+                    }), is(outcome(new Operation() {
+                        @Override
+                        public Object apply() {
+                            return interval.overlaps(other);
+                        }
+                    })));
+                    assertThat(message, outcome(new Operation() {
+                        @Override
+                        public Object apply() {
+                            return epochDayInterval.contains(otherEpochDayInterval);
+                        }
+                    }), is(outcome(new Operation() {
+                        @Override
+                        public Object apply() {
+                            return interval.contains(other);
+                        }
+                    })));
+                }
+            }
+        }
+
+        @Test
+        public void overlapDays() throws Exception {
+            for (final LocalDateInterval interval : intervals) {
+                final EpochDayInterval epochDayInterval = interval.asEpochDayInterval();
+                for (final LocalDateInterval other : intervals) {
+                    if (!interval.isValid() || !other.isValid()) {
+                        continue;
+                    }
+                    final EpochDayInterval overlap = epochDayInterval.overlap(other.asEpochDayInterval());
+                    assertThat(interval + " " + other,
+                            epochDayInterval.overlapDays(other.asEpochDayInterval()),
+                            is(overlap == null ? 0 : overlap.days()));
+                }
+            }
+        }
+    }
+
+    public static class Overlap extends EpochDayIntervalTest {
+
+        @Test
+        public void infiniteReturnsOther() throws Exception {
+            final EpochDayInterval infinite = EpochDayInterval.excluding(null, null);
+            final EpochDayInterval interval = EpochDayInterval.excluding(new LocalDate(2012, 1, 1), new LocalDate(2012, 4, 1));
+            assertThat(infinite.overlap(interval), is(interval));
+            assertThat(interval.overlap(infinite), is(interval));
+            assertThat(interval.overlap(null), is(nullValue()));
+            assertThat(infinite.days(), is(0));
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.documents;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.ItemIterable;
+import org.apache.chemistry.opencmis.client.api.QueryResult;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.commons.PropertyIds;
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2.Mode;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CmisRepositoryTest {
+
+    @Rule
+    public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(Mode.INTERFACES_AND_CLASSES);
+
+    @Mock
+    Session session;
+
+    @Mock
+    ItemIterable<QueryResult> results;
+
+    @Mock
+    QueryResult result1;
+
+    @Mock
+    QueryResult result2;
+
+    @Mock
+    CmisObject cmisObject;
+
+    CmisSessionPoolTest.TickerForTesting ticker;
+    CmisSessionPool pool;
+    CmisRepository cmisRepository;
+
+    @Before
+    public void setUp() throws Exception {
+        ticker = new CmisSessionPoolTest.TickerForTesting();
+        pool = new CmisSessionPool(
+                new CmisSessionPool.SessionSource() {
+                    @Override
+                    public Session create() {
+                        return session;
+                    }
+                },
+                1, TimeUnit.HOURS.toMillis(1), TimeUnit.HOURS.toMillis(1), ticker);
+        cmisRepository = new CmisRepository();
+        cmisRepository.init(pool, ticker);
+
+        context.checking(new Expectations() {
+            {
+                allowing(results).iterator();
+                will(returnIterator(result1, result2));
+                allowing(result1).getPropertyValueById(PropertyIds.OBJECT_ID);
+                will(returnValue("1"));
+                allowing(result1).getPropertyValueById(PropertyIds.NAME);
+                will(returnValue("Lease.pdf"));
+                allowing(result1).getPropertyValueById(PropertyIds.VERSION_LABEL);
+                will(returnValue("1.0"));
+                allowing(result1).getPropertyValueById(PropertyIds.CHANGE_TOKEN);
+                will(returnValue("a"));
+                allowing(result2).getPropertyValueById(PropertyIds.OBJECT_ID);
+                will(returnValue("2"));
+                allowing(result2).getPropertyValueById(with(any(String.class)));
+                will(returnValue(null));
+            }
+        });
+    }
+
+    public static class FindDocuments extends CmisRepositoryTest {
+
+        @Test
+        public void singleRoundTripForAllHits() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    oneOf(session).query("SELECT ...", true);
+                    will(returnValue(results));
+                    never(session).getObject(with(any(String.class)));
+                }
+            });
+
+            final List<DocumentMetadata> documents = cmisRepository.findDocuments("SELECT ...");
+
+            assertThat(documents.size(), is(2));
+            assertThat(documents.get(0).getCmisId(), is("1"));
+            assertThat(documents.get(0).getName(), is("Lease.pdf"));
+            assertThat(documents.get(0).getVersionLabel(), is("1.0"));
+            assertThat(documents.get(0).getChangeToken(), is("a"));
+
+            // served from the cache
+            assertThat(cmisRepository.findDocument("1"), is(sameInstance(documents.get(0))));
+            assertThat(pool.getCreatedCount(), is(1));
+        }
+    }
+
+    public static class FindDocument extends CmisRepositoryTest {
+
+        @Test
+        public void fetchedOnceUntilExpired() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    exactly(2).of(session).getObject("3");
+                    will(returnValue(cmisObject));
+                    allowing(cmisObject).getId();
+                    will(returnValue("3"));
+                    allowing(cmisObject).getName();
+                    will(returnValue("Invoice.pdf"));
+                    allowing(cmisObject).getPropertyValue(PropertyIds.VERSION_LABEL);
+                    will(returnValue("2.0"));
+                    allowing(cmisObject).getChangeToken();
+                    will(returnValue("b"));
+                }
+            });
+
+            final DocumentMetadata metadata = cmisRepository.findDocument("3");
+            assertThat(metadata.getName(), is("Invoice.pdf"));
+            assertThat(cmisRepository.findDocument("3"), is(sameInstance(metadata)));
+
+            ticker.advanceMillis(CmisRepository.METADATA_TTL_MILLIS + 1);
+            assertThat(cmisRepository.findDocument("3").getChangeToken(), is("b"));
+
+            // both round trips on the one session
+            assertThat(pool.getCreatedCount(), is(1));
+        }
+    }
+
+}
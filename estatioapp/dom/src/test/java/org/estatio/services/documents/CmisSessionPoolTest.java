@@ -0,0 +1,181 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.documents;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2.Mode;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CmisSessionPoolTest {
+
+    /**
+     * Time only moves when told to.
+     */
+    static class TickerForTesting extends Ticker {
+
+        long nanos;
+
+        void advanceMillis(final long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+    }
+
+    @Rule
+    public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(Mode.INTERFACES_AND_CLASSES);
+
+    @Mock
+    Session session1;
+
+    @Mock
+    Session session2;
+
+    TickerForTesting ticker;
+    CmisSessionPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        final List<Session> sessions = Lists.newArrayList(session1, session2);
+        ticker = new TickerForTesting();
+        pool = new CmisSessionPool(
+                new CmisSessionPool.SessionSource() {
+                    @Override
+                    public Session create() {
+                        return sessions.remove(0);
+                    }
+                },
+                1, 1000, 100, ticker);
+    }
+
+    public static class Borrow extends CmisSessionPoolTest {
+
+        @Test
+        public void reusesIdleSession() throws Exception {
+            final Session session = pool.borrow();
+            pool.release(session);
+            ticker.advanceMillis(100);
+
+            assertThat(pool.borrow(), is(sameInstance(session1)));
+            assertThat(pool.getCreatedCount(), is(1));
+        }
+
+        @Test
+        public void createsWhenNoneIdle() throws Exception {
+            assertThat(pool.borrow(), is(sameInstance(session1)));
+            assertThat(pool.borrow(), is(sameInstance(session2)));
+            assertThat(pool.getCreatedCount(), is(2));
+        }
+
+        @Test
+        public void discardsSessionIdleForTooLong() throws Exception {
+            pool.release(pool.borrow());
+            ticker.advanceMillis(1001);
+
+            assertThat(pool.borrow(), is(sameInstance(session2)));
+        }
+
+        @Test
+        public void validatesBeforeReuse() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    oneOf(session1).clear();
+                    oneOf(session1).getRootFolder();
+                }
+            });
+            pool.release(pool.borrow());
+            ticker.advanceMillis(101);
+
+            assertThat(pool.borrow(), is(sameInstance(session1)));
+        }
+
+        @Test
+        public void discardsUnhealthySession() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    oneOf(session1).clear();
+                    oneOf(session1).getRootFolder();
+                    will(throwException(new RuntimeException("Connection refused")));
+                }
+            });
+            pool.release(pool.borrow());
+            ticker.advanceMillis(101);
+
+            assertThat(pool.borrow(), is(sameInstance(session2)));
+        }
+    }
+
+    public static class Release extends CmisSessionPoolTest {
+
+        @Test
+        public void keepsNoMoreThanMaxIdle() throws Exception {
+            final Session first = pool.borrow();
+            final Session second = pool.borrow();
+            pool.release(first);
+            pool.release(second);
+
+            assertThat(pool.getIdleCount(), is(1));
+        }
+
+        @Test
+        public void evictsIdleForTooLongFirst() throws Exception {
+            final Session first = pool.borrow();
+            final Session second = pool.borrow();
+            pool.release(first);
+            ticker.advanceMillis(1001);
+
+            pool.release(second);
+
+            assertThat(pool.getIdleCount(), is(1));
+            assertThat(pool.borrow(), is(sameInstance(session2)));
+            assertThat(pool.getCreatedCount(), is(2));
+        }
+
+        @Test
+        public void evictsIdle() throws Exception {
+            pool.release(pool.borrow());
+            ticker.advanceMillis(1000);
+            assertThat(pool.evictIdle(), is(0));
+
+            ticker.advanceMillis(1);
+            assertThat(pool.evictIdle(), is(1));
+            assertThat(pool.getIdleCount(), is(0));
+        }
+    }
+
+}
@@ -4,7 +4,6 @@ import java.util.List;
 import java.util.Map;
 import com.google.common.collect.Maps;
 import org.apache.chemistry.opencmis.client.api.CmisObject;
-import org.apache.chemistry.opencmis.client.api.ItemIterable;
 import org.apache.chemistry.opencmis.client.api.QueryResult;
 import org.apache.chemistry.opencmis.commons.PropertyIds;
 import org.apache.chemistry.opencmis.commons.data.PropertyData;
@@ -45,7 +44,7 @@ public class DocumentContributionsTest_relevantDocuments {
 //        Property property = new Property();
 //        property.setCity("Oxford");
         String queryFor = "SELECT * FROM cmis:document WHERE CONTAINS('Oxford')"; 
-        ItemIterable<QueryResult> results = cmisRepository.query(queryFor);
+        List<QueryResult> results = cmisRepository.query(queryFor);
         for (QueryResult qr : results) {
             System.out.println("--------------");
             System.out.println(qr.toString());
@@ -0,0 +1,33 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.search;
+
+import java.util.List;
+
+/**
+ * Never answers from the index, so repositories fall back to their queries.
+ */
+public class SearchIndexServiceForTesting extends SearchIndexService {
+
+    @Override
+    public <T> List<T> search(final Class<T> type, final String pattern, final String... properties) {
+        return null;
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.search;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TrigramIndexTest {
+
+    TrigramIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new TrigramIndex();
+        index.put(1, "OXF-TOPMODEL-001", "Topmodel Lease");
+        index.put(2, "OXF-POISON-003", "Poison Lease");
+        index.put(3, "KAL-POISON-001", "Poison Amsterdam");
+        index.put(4, "TOPMODEL", null);
+    }
+
+    public static class Search extends TrigramIndexTest {
+
+        @Test
+        public void caseInsensitiveWildcards() throws Exception {
+            Assertions.assertThat(index.search("*poison*")).containsExactly(2, 3);
+            Assertions.assertThat(index.search("*oxf?poi*")).containsExactly(2);
+            Assertions.assertThat(index.search("topmodel")).containsExactly(4);
+            Assertions.assertThat(index.search("*xyz*")).isEmpty();
+        }
+
+        @Test
+        public void earliestAndShortestMatchFirst() throws Exception {
+            Assertions.assertThat(index.search("*TOP*")).containsExactly(4, 1);
+            Assertions.assertThat(index.search("OXF*")).containsExactly(2, 1);
+        }
+
+        @Test
+        public void notIndexable() throws Exception {
+            Assertions.assertThat(index.search("ab*")).isNull();
+            Assertions.assertThat(index.search("*")).isNull();
+            Assertions.assertThat(index.search("*(a|b)*")).isNull();
+        }
+    }
+
+    public static class Maintenance extends TrigramIndexTest {
+
+        @Test
+        public void putReplaces() throws Exception {
+            index.put(2, "OXF-MEDIAX-002", "Mediax");
+
+            Assertions.assertThat(index.search("*poison*")).containsExactly(3);
+            Assertions.assertThat(index.search("*media*")).containsExactly(2);
+            Assertions.assertThat(index.size()).isEqualTo(4);
+        }
+
+        @Test
+        public void remove() throws Exception {
+            index.remove(3);
+            index.remove(5);
+
+            Assertions.assertThat(index.search("*poison*")).containsExactly(2);
+            Assertions.assertThat(index.size()).isEqualTo(3);
+        }
+
+        @Test
+        public void compactsAfterManyRemovals() throws Exception {
+            for (int i = 100; i < 5100; i++) {
+                index.put(i, "REF-" + i);
+            }
+            for (int i = 100; i < 5000; i++) {
+                index.remove(i);
+            }
+
+            Assertions.assertThat(index.size()).isEqualTo(104);
+            final List<Object> matches = index.search("REF-50??");
+            Assertions.assertThat(matches).hasSize(100);
+            Assertions.assertThat(matches.get(0)).isEqualTo(5000);
+        }
+    }
+
+}
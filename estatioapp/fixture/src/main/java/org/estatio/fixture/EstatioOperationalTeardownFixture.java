@@ -42,6 +42,7 @@ import org.estatio.dom.document.Document;
 import org.estatio.dom.event.Event;
 import org.estatio.dom.event.EventSourceLink;
 import org.estatio.dom.financial.FinancialAccount;
+import org.estatio.dom.financial.FinancialAccountBalanceCheckpoint;
 import org.estatio.dom.financial.FinancialAccountTransaction;
 import org.estatio.dom.financial.bankaccount.BankAccount;
 import org.estatio.dom.guarantee.Guarantee;
@@ -53,6 +54,7 @@ import org.estatio.dom.lease.LeaseTerm;
 import org.estatio.dom.lease.Occupancy;
 import org.estatio.dom.lease.breaks.BreakOption;
 import org.estatio.dom.lease.breaks.EventSourceLinkForBreakOption;
+import org.estatio.dom.lease.indexation.Reindexation;
 import org.estatio.dom.party.CommunicationChannelOwnerLinkForParty;
 import org.estatio.dom.party.Organisation;
 import org.estatio.dom.party.Party;
@@ -60,6 +62,7 @@ import org.estatio.dom.party.PartyRegistration;
 import org.estatio.dom.party.Person;
 import org.estatio.dom.party.relationship.PartyRelationship;
 import org.estatio.dom.tag.Tag;
+import org.estatio.services.search.SearchIndexService;
 
 public class EstatioOperationalTeardownFixture extends FixtureScript {
 
@@ -84,6 +87,7 @@ public class EstatioOperationalTeardownFixture extends FixtureScript {
         deleteFrom(Event.class);
 
         deleteFrom(BreakOption.class);
+        deleteFrom(Reindexation.class);
         deleteFrom(LeaseTerm.class);
         deleteFrom(LeaseItem.class);
         deleteFrom(Occupancy.class);
@@ -95,6 +99,7 @@ public class EstatioOperationalTeardownFixture extends FixtureScript {
         deleteFrom(BankMandate.class);
         deleteFrom(Lease.class);
 
+        deleteFrom(FinancialAccountBalanceCheckpoint.class);
         deleteFrom(FinancialAccountTransaction.class);
         deleteFrom(BankAccount.class);
         deleteFrom(FixedAssetFinancialAccount.class);
@@ -119,6 +124,8 @@ public class EstatioOperationalTeardownFixture extends FixtureScript {
         deleteFrom(Organisation.class);
         deleteFrom(Person.class);
         deleteFrom(Party.class);
+
+        searchIndexService.invalidateAll();
     }
 
     private void deleteFrom(final Class cls) {
@@ -132,4 +139,7 @@ public class EstatioOperationalTeardownFixture extends FixtureScript {
     @Inject
     private IsisJdoSupport isisJdoSupport;
 
+    @Inject
+    private SearchIndexService searchIndexService;
+
 }
@@ -33,10 +33,14 @@ import org.estatio.dom.geography.State;
 import org.estatio.dom.index.Index;
 import org.estatio.dom.index.IndexBase;
 import org.estatio.dom.index.IndexValue;
+import org.estatio.dom.index.IndexValues;
 import org.estatio.dom.lease.LeaseType;
+import org.estatio.dom.lease.indexation.Reindexation;
 import org.estatio.dom.tax.Tax;
 import org.estatio.dom.tax.TaxRate;
+import org.estatio.dom.tax.TaxRates;
 import org.estatio.services.links.Link;
+import org.estatio.services.search.SearchIndexService;
 
 
 /**
@@ -66,6 +70,7 @@ public class EstatioRefDataTeardownFixture extends FixtureScript {
             AgreementRoleCommunicationChannelType.class,
             AgreementRoleType.class,
             AgreementType.class,
+            Reindexation.class,
             IndexValue.class,
             IndexBase.class,
             Index.class,
@@ -84,15 +89,29 @@ public class EstatioRefDataTeardownFixture extends FixtureScript {
         
         isisJdoSupport.executeUpdate("DELETE FROM \"TaxRate\"");
         isisJdoSupport.executeUpdate("DELETE FROM \"Tax\"");
+        taxRates.invalidateTimelines();
         
+        isisJdoSupport.executeUpdate("DELETE FROM \"Reindexation\"");
         isisJdoSupport.executeUpdate("DELETE FROM \"IndexValue\"");
         isisJdoSupport.executeUpdate("DELETE FROM \"IndexBase\"");
         isisJdoSupport.executeUpdate("DELETE FROM \"Index\"");
+        indexValues.invalidateSeries();
         
         isisJdoSupport.executeUpdate("DELETE FROM \"Link\"");
+
+        searchIndexService.invalidateAll();
     }
 
     @Inject
     private IsisJdoSupport isisJdoSupport;
 
+    @Inject
+    private IndexValues indexValues;
+
+    @Inject
+    private TaxRates taxRates;
+
+    @Inject
+    private SearchIndexService searchIndexService;
+
 }
@@ -50,6 +50,11 @@ public class EstatioIntegTestBuilder extends IsisSystemForTest.Builder {
         final IsisConfigurationForJdoIntegTests testConfiguration = new IsisConfigurationForJdoIntegTests();
         testConfiguration.addRegisterEntitiesPackagePrefix("org.estatio");
 
+        // multi-version, so that reading in a separate persistence manager (eg the search index)
+        // does not wait for the locks of the transaction of the test
+        testConfiguration.put("isis.persistor.datanucleus.impl.javax.jdo.option.ConnectionURL",
+                "jdbc:hsqldb:mem:test;sqllog=3;hsqldb.tx=mvcc");
+
         // uncomment to use log4jdbc instead
         // testConfiguration.put("isis.persistor.datanucleus.impl.javax.jdo.option.ConnectionDriverName",
         // "net.sf.log4jdbc.DriverSpy");
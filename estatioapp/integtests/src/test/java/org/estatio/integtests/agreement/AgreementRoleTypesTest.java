@@ -19,6 +19,7 @@ import org.estatio.fixture.lease._LeaseForOxfTopModel001Gb;
 import org.estatio.integtests.EstatioIntegrationTest;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
@@ -68,6 +69,33 @@ public class AgreementRoleTypesTest extends EstatioIntegrationTest {
             AgreementRoleType result = agreementRoleTypes.findByTitle(LeaseConstants.ART_TENANT);
             assertThat(result, is(agreementRoleType));
         }
+
+        @Test
+        public void inLaterTransaction() throws Exception {
+            // given
+            agreementRoleTypes.findByTitle(LeaseConstants.ART_TENANT);
+            nextTransaction();
+
+            // when
+            AgreementRoleType result = agreementRoleTypes.findByTitle(LeaseConstants.ART_TENANT);
+
+            // then
+            assertThat(result, is(agreementRoleTypes.findByAgreementTypeAndTitle(agreementType, LeaseConstants.ART_TENANT)));
+        }
+
+        @Test
+        public void whenChanged() throws Exception {
+            // given
+            agreementRoleTypes.findByTitle(LeaseConstants.ART_TENANT);
+            assertThat(agreementRoleTypes.findByTitle("Subtenant"), is(nullValue()));
+
+            // when
+            agreementRoleType.setTitle("Subtenant");
+            nextTransaction();
+
+            // then
+            assertThat(agreementRoleTypes.findByTitle("Subtenant"), is(agreementRoleType));
+        }
     }
 
     public static class FindApplicableTo extends AgreementRoleTypesTest {
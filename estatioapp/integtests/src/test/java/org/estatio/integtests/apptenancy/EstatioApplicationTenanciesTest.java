@@ -0,0 +1,76 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.integtests.apptenancy;
+
+import javax.inject.Inject;
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+import org.junit.Before;
+import org.junit.Test;
+import org.estatio.dom.apptenancy.EstatioApplicationTenancies;
+import org.estatio.fixture.EstatioBaseLineFixture;
+import org.estatio.fixture.geography.CountriesRefData;
+import org.estatio.integtests.EstatioIntegrationTest;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class EstatioApplicationTenanciesTest extends EstatioIntegrationTest {
+
+    @Before
+    public void setupData() {
+        runFixtureScript(new EstatioBaseLineFixture());
+    }
+
+    @Inject
+    EstatioApplicationTenancies estatioApplicationTenancies;
+
+    public static class FindOrCreate extends EstatioApplicationTenanciesTest {
+
+        private static final String PROPERTY_PATH = "/" + CountriesRefData.GBR + "/ARN";
+
+        private ApplicationTenancy countryTenancy;
+
+        @Before
+        public void setUp() throws Exception {
+            countryTenancy = estatioApplicationTenancies.findTenancyByPath("/" + CountriesRefData.GBR);
+        }
+
+        @Test
+        public void twiceForSamePathInOneTransaction() throws Exception {
+            // given
+            assertThat(estatioApplicationTenancies.findTenancyByPath(PROPERTY_PATH), is(nullValue()));
+
+            // when
+            final ApplicationTenancy propertyTenancy = estatioApplicationTenancies.findOrCreatePropertyTenancy(countryTenancy, "ARN");
+            final ApplicationTenancy defaultTenancy = estatioApplicationTenancies.findOrCreateLocalDefaultTenancy(propertyTenancy);
+
+            // then
+            assertThat(estatioApplicationTenancies.findOrCreatePropertyTenancy(countryTenancy, "ARN"), is(propertyTenancy));
+            assertThat(estatioApplicationTenancies.findOrCreateLocalDefaultTenancy(propertyTenancy), is(defaultTenancy));
+            assertThat(estatioApplicationTenancies.findTenancyByPath(PROPERTY_PATH), is(propertyTenancy));
+
+            // and also
+            nextTransaction();
+            assertThat(estatioApplicationTenancies.findTenancyByPath(PROPERTY_PATH).getPath(), is(PROPERTY_PATH));
+            assertThat(estatioApplicationTenancies.tree().contains(PROPERTY_PATH + "/_"), is(true));
+        }
+    }
+
+}
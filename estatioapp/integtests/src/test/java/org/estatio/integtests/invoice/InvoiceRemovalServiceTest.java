@@ -0,0 +1,154 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.integtests.invoice;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.isis.applib.fixturescripts.FixtureScript;
+
+import org.estatio.dom.asset.Properties;
+import org.estatio.dom.asset.Property;
+import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.invoice.InvoiceItem;
+import org.estatio.dom.invoice.InvoiceItems;
+import org.estatio.dom.invoice.InvoiceRemovalService;
+import org.estatio.dom.invoice.InvoiceStatus;
+import org.estatio.dom.invoice.Invoices;
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.fixture.EstatioBaseLineFixture;
+import org.estatio.fixture.asset.PropertyForKalNl;
+import org.estatio.fixture.invoice.InvoiceForLeaseItemTypeOfRentOneQuarterForKalPoison001;
+import org.estatio.fixture.invoice.InvoiceForLeaseItemTypeOfRentOneQuarterForOxfPoison003;
+import org.estatio.integtests.EstatioIntegrationTest;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Removes the same invoices one by one and, after setting up the data again,
+ * in bulk, expecting the same end state.
+ */
+public class InvoiceRemovalServiceTest extends EstatioIntegrationTest {
+
+    @Before
+    public void setupData() {
+        runFixtureScript(new FixtureScript() {
+            @Override
+            protected void execute(ExecutionContext executionContext) {
+                executionContext.executeChild(this, new EstatioBaseLineFixture());
+                executionContext.executeChild(this, new InvoiceForLeaseItemTypeOfRentOneQuarterForOxfPoison003());
+                executionContext.executeChild(this, new InvoiceForLeaseItemTypeOfRentOneQuarterForKalPoison001());
+            }
+        });
+    }
+
+    @Inject
+    Invoices invoices;
+
+    @Inject
+    InvoiceItems invoiceItems;
+
+    @Inject
+    InvoiceRemovalService invoiceRemovalService;
+
+    @Inject
+    Properties properties;
+
+    Property propertyKal;
+
+    LocalDate dueDate;
+
+    @Before
+    public void setUp() throws Exception {
+        propertyKal = properties.findPropertyByReference(PropertyForKalNl.REF);
+        final List<Invoice> newInvoices = invoices.findInvoices(propertyKal, InvoiceStatus.NEW);
+        assertThat(newInvoices.size(), is(1));
+        assertThat(newInvoices.get(0).getItems().isEmpty(), is(false));
+        dueDate = newInvoices.get(0).getDueDate();
+    }
+
+    @Test
+    public void bulkLeavesSameEndStateAsPerObject() throws Exception {
+        // given
+        for (Invoice invoice : invoices.findInvoices(propertyKal, dueDate, InvoiceStatus.NEW)) {
+            invoice.remove();
+        }
+        nextTransaction();
+        assertThat(invoices.findInvoices(propertyKal, InvoiceStatus.NEW).isEmpty(), is(true));
+        final List<String> endStateOfPerObjectRemoval = endState();
+
+        setupData();
+        setUp();
+
+        // when
+        assertThat(invoiceRemovalService.removeNewInvoices(propertyKal, dueDate), is(1));
+        nextTransaction();
+
+        // then
+        assertThat(endState(), is(endStateOfPerObjectRemoval));
+        assertThat(invoiceRemovalService.removeNewInvoices(propertyKal, dueDate), is(0));
+    }
+
+    @Test
+    public void loadedSourcesNoLongerHoldRemovedItems() throws Exception {
+        // given
+        final Invoice invoice = invoices.findInvoices(propertyKal, dueDate, InvoiceStatus.NEW).get(0);
+        final InvoiceItem item = invoice.getItems().first();
+        final LeaseTerm term = (LeaseTerm) item.getSource();
+        int itemsOfInvoice = 0;
+        for (InvoiceItem termItem : term.getInvoiceItems()) {
+            if (termItem.getInvoice() == invoice) {
+                itemsOfInvoice++;
+            }
+        }
+        final int itemsOfTerm = term.getInvoiceItems().size();
+
+        // when
+        invoiceRemovalService.removeNewInvoices(propertyKal, dueDate);
+
+        // then, within the same transaction
+        assertThat(term.getInvoiceItems().size(), is(itemsOfTerm - itemsOfInvoice));
+    }
+
+    private List<String> endState() {
+        final List<String> state = Lists.newArrayList();
+        for (Invoice invoice : invoices.allInvoices()) {
+            state.add(String.format("invoice %s %s %s %s %d",
+                    invoice.getFixedAsset().getReference(), invoice.getLease().getReference(),
+                    invoice.getDueDate(), invoice.getStatus(), invoice.getItems().size()));
+        }
+        for (InvoiceItem item : invoiceItems.allInvoiceItems()) {
+            state.add(String.format("item %s %s %s %s",
+                    item.getInvoice().getLease().getReference(), item.getCharge().getReference(),
+                    item.getDueDate(), item.getNetAmount()));
+        }
+        Collections.sort(state);
+        return state;
+    }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.estatio.integtests.invoice;
 
+import java.math.BigInteger;
 import java.util.List;
 import javax.inject.Inject;
 import org.hamcrest.core.Is;
@@ -27,12 +28,14 @@ import org.joda.time.LocalDate;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.apache.isis.applib.DomainObjectContainer;
 import org.apache.isis.applib.fixturescripts.FixtureScript;
 import org.estatio.dom.asset.FixedAsset;
 import org.estatio.dom.charge.Charge;
 import org.estatio.dom.charge.Charges;
 import org.estatio.dom.currency.Currencies;
 import org.estatio.dom.currency.Currency;
+import org.estatio.dom.invoice.CollectionNumerators;
 import org.estatio.dom.invoice.Invoice;
 import org.estatio.dom.invoice.InvoiceStatus;
 import org.estatio.dom.invoice.Invoices;
@@ -40,6 +43,7 @@ import org.estatio.dom.invoice.PaymentMethod;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.Leases;
 import org.estatio.dom.lease.invoicing.InvoiceItemForLease;
+import org.estatio.dom.numerator.Numerator;
 import org.estatio.dom.party.Parties;
 import org.estatio.dom.party.Party;
 import org.estatio.fixture.EstatioBaseLineFixture;
@@ -56,6 +60,7 @@ import org.estatio.integtests.EstatioIntegrationTest;
 import org.estatio.integtests.VT;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class InvoiceTest extends EstatioIntegrationTest {
@@ -194,4 +199,70 @@ public class InvoiceTest extends EstatioIntegrationTest {
         }
     }
 
+    public static class DoInvoiceAssigningOnCommit extends InvoiceTest {
+
+        @Before
+        public void setupData() {
+            runFixtureScript(new FixtureScript() {
+                @Override
+                protected void execute(ExecutionContext executionContext) {
+                    executionContext.executeChild(this, new EstatioBaseLineFixture());
+
+                    executionContext.executeChild(this, new LeaseBreakOptionsForOxfPoison003Gb());
+                    executionContext.executeChild(this, new InvoiceForLeaseItemTypeOfRentOneQuarterForOxfPoison003());
+                }
+            });
+        }
+
+        @Inject
+        CollectionNumerators collectionNumerators;
+        @Inject
+        DomainObjectContainer container;
+
+        private Invoice invoice;
+        private Numerator numerator;
+
+        @Before
+        public void setUp() throws Exception {
+            lease = leases.findLeaseByReference(InvoiceForLeaseItemTypeOfRentOneQuarterForOxfPoison003.LEASE_REF);
+            invoice = invoices.findInvoices(lease).get(0);
+            numerator = collectionNumerators.createInvoiceNumberNumerator(lease.getProperty(), "OXF-%05d", BigInteger.TEN);
+            numerator.setAssignOnCommit(true);
+            invoice.approve();
+            nextTransaction();
+        }
+
+        @Test
+        public void assignedWhenFlushed() throws Exception {
+            // given
+            invoice.doInvoice(invoice.getDueDate());
+            assertThat(invoice.getStatus(), is(InvoiceStatus.INVOICED));
+            assertThat(invoice.getInvoiceNumber(), is(nullValue()));
+            assertThat(numerator.getLastIncrement(), is(BigInteger.TEN));
+
+            // when
+            container.flush();
+
+            // then
+            assertThat(invoice.getInvoiceNumber(), is("OXF-00011"));
+            assertThat(numerator.getLastIncrement(), is(BigInteger.valueOf(11)));
+
+            // and also
+            nextTransaction();
+            assertThat(invoices.findInvoicesByInvoiceNumber("OXF-00011").size(), is(1));
+            assertThat(collectionNumerators.findInvoiceNumberNumerator(lease.getProperty()).getLastIncrement(), is(BigInteger.valueOf(11)));
+        }
+
+        @Test
+        public void assignedOnCommit() throws Exception {
+            // when
+            invoice.doInvoice(invoice.getDueDate());
+            nextTransaction();
+
+            // then
+            assertThat(invoices.findInvoicesByInvoiceNumber("OXF-00011").size(), is(1));
+            assertThat(collectionNumerators.findInvoiceNumberNumerator(lease.getProperty()).getLastIncrement(), is(BigInteger.valueOf(11)));
+        }
+    }
+
 }
\ No newline at end of file
@@ -46,6 +46,7 @@ import org.estatio.integtests.EstatioIntegrationTest;
 import org.estatio.integtests.VT;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -104,6 +105,22 @@ public class LeaseItemsTest extends EstatioIntegrationTest {
         }
     }
 
+    public static class FindLeaseReferencesWithStatusToRefresh extends LeaseItemsTest {
+
+        @Test
+        public void whenStatusUnknown() throws Exception {
+            // given
+            lease.getItems().first().doResume();
+            nextTransaction();
+
+            // when
+            final List<String> references = leaseItems.findLeaseReferencesWithStatusToRefresh(lease.getStartDate());
+
+            // then
+            assertThat(references, hasItem(_LeaseForOxfTopModel001Gb.REF));
+        }
+    }
+
     public static class NewItem extends LeaseItemsTest {
 
         private Lease leasePoison;
@@ -19,6 +19,8 @@
 package org.estatio.integtests.lease;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
@@ -36,6 +38,7 @@ import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseItem;
 import org.estatio.dom.lease.LeaseItemType;
 import org.estatio.dom.lease.LeaseItems;
+import org.estatio.dom.lease.LeaseTermForIndexable;
 import org.estatio.dom.lease.LeaseTermForTax;
 import org.estatio.dom.lease.Leases;
 import org.estatio.fixture.EstatioBaseLineFixture;
@@ -102,4 +105,49 @@ public class LeaseTermForTaxTest extends EstatioIntegrationTest {
             assertThat(taxTerm.getTaxableValue(), is(new BigDecimal("20846.40")));
         }
     }
+
+    public static class VerifyIncrementallyUntil extends LeaseTermForTaxTest {
+
+        @Before
+        public void setupData() {
+            runFixtureScript(new FixtureScript() {
+                @Override
+                protected void execute(ExecutionContext executionContext) {
+                    executionContext.executeChild(this, new EstatioBaseLineFixture());
+                    executionContext.executeChild(this, new LeaseItemAndLeaseTermForRentForOxfTopModel001Gb());
+                    executionContext.executeChild(this, new LeaseItemAndLeaseTermForTaxForOxfTopModel001Gb());
+                }
+            });
+        }
+
+        private Lease lease;
+        private LeaseItem item, taxItem;
+
+        @Before
+        public void setup() {
+            lease = leases.findLeaseByReference(_LeaseForOxfTopModel001Gb.REF);
+            item = leaseItems.findLeaseItemsByType(lease, LeaseItemType.RENT).get(0);
+            taxItem = leaseItems.findLeaseItemsByType(lease, LeaseItemType.TAX).get(0);
+        }
+
+        @Test
+        public void recalculatesTaxWhenRentTermChanged() throws Exception {
+            // Given
+            final LocalDate date = new LocalDate(2014, 1, 1);
+            lease.verifyIncrementallyUntil(date);
+            final LeaseTermForTax taxTerm = (LeaseTermForTax) taxItem.findTerm(new LocalDate(2012, 7, 15));
+            assertThat(taxTerm.getTaxableValue(), is(new BigDecimal("20846.40")));
+            assertThat(taxItem.getVerifiedUntil(), is(not(nullValue())));
+
+            // When
+            final LeaseTermForIndexable rentTerm = (LeaseTermForIndexable) item.findTerm(taxTerm.getStartDate());
+            rentTerm.changeValues(new BigDecimal("25000.00"), new BigDecimal("25000.00"));
+
+            // Then
+            assertThat(taxItem.getVerifiedUntil(), is(nullValue()));
+            lease.verifyIncrementallyUntil(date);
+            assertThat(taxTerm.getTaxableValue(), is(not(new BigDecimal("20846.40"))));
+            assertThat(taxTerm.getTaxableValue(), is(taxTerm.rentValueForDate()));
+        }
+    }
 }
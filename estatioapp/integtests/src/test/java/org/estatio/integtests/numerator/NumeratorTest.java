@@ -163,4 +163,32 @@ public class NumeratorTest extends EstatioIntegrationTest {
 
     }
 
+    public static class NextFromBlock extends NumeratorTest {
+
+        private Numerator numerator;
+
+        @Before
+        public void setUp() throws Exception {
+            super.setUp();
+
+            numerator = numerators.createScopedNumerator(Constants.INVOICE_NUMBER_NUMERATOR_NAME, propertyOxf, "ABC-%05d", BigInteger.ZERO);
+            numerator.setBlockSize(5);
+            nextTransaction();
+        }
+
+        @Test
+        public void whenNothingCountedYet() throws Exception {
+
+            // when
+            assertThat(numerator.nextIncrementStr(), is("ABC-00001"));
+            assertThat(numerator.nextIncrementStr(), is("ABC-00002"));
+
+            // then, reserved in a transaction of its own
+            nextTransaction();
+            numerator = numerators.findScopedNumerator(Constants.INVOICE_NUMBER_NUMERATOR_NAME, propertyOxf);
+            assertThat(numerator.getLastIncrement(), is(new BigInteger("5")));
+        }
+
+    }
+
 }
\ No newline at end of file
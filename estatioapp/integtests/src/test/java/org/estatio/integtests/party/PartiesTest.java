@@ -19,10 +19,13 @@
 package org.estatio.integtests.party;
 
 import javax.inject.Inject;
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancies;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.apache.isis.applib.DomainObjectContainer;
 import org.apache.isis.applib.fixturescripts.FixtureScript;
+import org.estatio.dom.party.Organisations;
 import org.estatio.dom.party.Parties;
 import org.estatio.dom.party.Party;
 import org.estatio.fixture.EstatioBaseLineFixture;
@@ -30,6 +33,7 @@ import org.estatio.fixture.party.OrganisationForHelloWorldNl;
 import org.estatio.fixture.party.OrganisationForTopModelGb;
 import org.estatio.fixture.party.PersonForJohnDoeNl;
 import org.estatio.integtests.EstatioIntegrationTest;
+import org.estatio.services.search.SearchIndexService;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
@@ -84,6 +88,48 @@ public class PartiesTest extends EstatioIntegrationTest {
 
     }
 
+    public static class FindPartiesFromIndex extends PartiesTest {
+
+        @Before
+        public void setupData() {
+            runFixtureScript(new FixtureScript() {
+                @Override
+                protected void execute(ExecutionContext executionContext) {
+                    executionContext.executeChild(this, new EstatioBaseLineFixture());
+
+                    executionContext.executeChild(this, new OrganisationForHelloWorldNl());
+                }
+            });
+        }
+
+        @Inject
+        Organisations organisations;
+        @Inject
+        ApplicationTenancies applicationTenancies;
+        @Inject
+        SearchIndexService searchIndexService;
+        @Inject
+        DomainObjectContainer container;
+
+        @Test
+        public void onlyCommittedChanges() throws Exception {
+            // given
+            searchIndexService.invalidateAll();
+            organisations.newOrganisation("LEAKY", "Leaky Ltd", applicationTenancies.findTenancyByPath("/"));
+            container.flush();
+
+            // when, loading the index
+            assertThat(parties.findParties("*ello Wor*").size(), is(1));
+
+            // then, flushed so found by a query, but not by the index
+            assertThat(parties.findParties("*eaky Lt*").size(), is(0));
+
+            // and once committed
+            nextTransaction();
+            assertThat(parties.findParties("*eaky Lt*").size(), is(1));
+        }
+    }
+
     public static class FindPartyByReference extends PartiesTest {
 
         @Before
@@ -0,0 +1,164 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.integtests.party;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.isis.applib.fixturescripts.FixtureScript;
+
+import org.estatio.dom.agreement.AgreementRole;
+import org.estatio.dom.agreement.AgreementRoles;
+import org.estatio.dom.communicationchannel.CommunicationChannel;
+import org.estatio.dom.communicationchannel.CommunicationChannelOwner;
+import org.estatio.dom.communicationchannel.CommunicationChannels;
+import org.estatio.dom.party.Parties;
+import org.estatio.dom.party.Party;
+import org.estatio.dom.party.PartyMerge;
+import org.estatio.dom.party.PartyMergeService;
+import org.estatio.dom.party.relationship.PartyRelationship;
+import org.estatio.dom.party.relationship.PartyRelationships;
+import org.estatio.fixture.EstatioBaseLineFixture;
+import org.estatio.fixture.lease._LeaseForOxfTopModel001Gb;
+import org.estatio.fixture.party.OrganisationForAcmeNl;
+import org.estatio.fixture.party.OrganisationForTopModelGb;
+import org.estatio.fixture.party.PersonForGinoVannelliGb;
+import org.estatio.integtests.EstatioIntegrationTest;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Replaces the same party one by one and, after setting up the data again,
+ * by merging it, expecting the same end state.
+ */
+public class PartyMergeServiceTest extends EstatioIntegrationTest {
+
+    @Before
+    public void setupData() {
+        runFixtureScript(new FixtureScript() {
+            @Override
+            protected void execute(ExecutionContext executionContext) {
+                executionContext.executeChild(this, new EstatioBaseLineFixture());
+                // tenant of a lease, with communication channels
+                executionContext.executeChild(this, new _LeaseForOxfTopModel001Gb());
+                // related to the tenant
+                executionContext.executeChild(this, new PersonForGinoVannelliGb());
+                // only communication channels
+                executionContext.executeChild(this, new OrganisationForAcmeNl());
+            }
+        });
+    }
+
+    @Inject
+    Parties parties;
+
+    @Inject
+    AgreementRoles agreementRoles;
+
+    @Inject
+    PartyRelationships partyRelationships;
+
+    @Inject
+    CommunicationChannels communicationChannels;
+
+    @Inject
+    PartyMergeService partyMergeService;
+
+    Party duplicate;
+
+    Party survivor;
+
+    @Before
+    public void setUp() throws Exception {
+        duplicate = parties.findPartyByReference(OrganisationForTopModelGb.REF);
+        survivor = parties.findPartyByReference(OrganisationForAcmeNl.REF);
+        assertThat(agreementRoles.findByParty(duplicate).isEmpty(), is(false));
+        assertThat(communicationChannels.findByOwner(duplicate).isEmpty(), is(false));
+    }
+
+    @Test
+    public void mergeLeavesSameEndStateAsRemoveAndReplace() throws Exception {
+        // given
+        wrap(duplicate).removeAndReplace(survivor);
+        nextTransaction();
+        assertThat(parties.findPartyByReferenceOrNull(OrganisationForTopModelGb.REF), is(nullValue()));
+        final List<String> endStateOfRemoveAndReplace = endState();
+
+        setupData();
+        setUp();
+
+        // when
+        final List<PartyMerge> merges = partyMergeService.merge(Lists.newArrayList(
+                new PartyMerge(OrganisationForTopModelGb.REF, OrganisationForAcmeNl.REF)));
+        nextTransaction();
+
+        // then
+        assertThat(merges.get(0).getOutcome(), is(PartyMerge.Outcome.MERGED));
+        assertThat(parties.findPartyByReferenceOrNull(OrganisationForTopModelGb.REF), is(nullValue()));
+        assertThat(endState(), is(endStateOfRemoveAndReplace));
+    }
+
+    @Test
+    public void loadedInstancesAreRefreshed() throws Exception {
+        // given
+        final AgreementRole role = agreementRoles.findByParty(duplicate).get(0);
+        final CommunicationChannel channel = communicationChannels.findByOwner(duplicate).first();
+
+        // when
+        partyMergeService.merge(Lists.newArrayList(
+                new PartyMerge(OrganisationForTopModelGb.REF, OrganisationForAcmeNl.REF)));
+
+        // then, within the same interaction
+        assertThat(role.getParty(), is(survivor));
+        assertThat(channel.getOwner(), is((CommunicationChannelOwner) survivor));
+    }
+
+    private List<String> endState() {
+        final List<String> state = Lists.newArrayList();
+        for (Party party : parties.allParties()) {
+            state.add(String.format("party %s", party.getReference()));
+            for (AgreementRole role : agreementRoles.findByParty(party)) {
+                state.add(String.format("role %s %s %s %s",
+                        role.getAgreement().getReference(), role.getType().getTitle(),
+                        party.getReference(), role.getStartDate()));
+            }
+            for (CommunicationChannel channel : communicationChannels.findByOwner(party)) {
+                state.add(String.format("channel %s %s %s",
+                        channel.getType(), channel.getDescription(), party.getReference()));
+            }
+        }
+        for (PartyRelationship relationship : partyRelationships.allRelationships()) {
+            state.add(String.format("relationship %s %s %s",
+                    relationship.getFrom().getReference(), relationship.getTo().getReference(),
+                    relationship.getRelationshipType()));
+        }
+        Collections.sort(state);
+        return state;
+    }
+
+}
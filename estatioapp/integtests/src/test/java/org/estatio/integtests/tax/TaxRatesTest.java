@@ -0,0 +1,135 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.integtests.tax;
+
+import java.math.BigDecimal;
+import javax.inject.Inject;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.estatio.dom.tax.Tax;
+import org.estatio.dom.tax.TaxRate;
+import org.estatio.dom.tax.TaxRates;
+import org.estatio.dom.tax.Taxes;
+import org.estatio.fixture.EstatioBaseLineFixture;
+import org.estatio.fixture.EstatioOperationalTeardownFixture;
+import org.estatio.fixture.EstatioRefDataTeardownFixture;
+import org.estatio.fixture.tax.TaxRefData;
+import org.estatio.integtests.EstatioIntegrationTest;
+import org.estatio.integtests.VT;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class TaxRatesTest extends EstatioIntegrationTest {
+
+    @Inject
+    Taxes taxes;
+    @Inject
+    TaxRates taxRates;
+
+    Tax tax;
+
+    @Before
+    public void setupData() {
+        runFixtureScript(
+                new EstatioOperationalTeardownFixture(),
+                new EstatioRefDataTeardownFixture(),
+                new EstatioBaseLineFixture()
+        );
+        tax = taxes.findByReference(TaxRefData.IT_VATSTD);
+    }
+
+    /**
+     * Every first and last day of the month over the given years must give
+     * the same rate from the timeline as from the query.
+     */
+    void assertTimelineMatchesQuery(final int fromYear, final int toYear) {
+        for (LocalDate date = VT.ld(fromYear, 1, 1); date.getYear() <= toYear; date = date.plusMonths(1)) {
+            assertSameRate(date);
+            assertSameRate(date.dayOfMonth().withMaximumValue());
+        }
+    }
+
+    private void assertSameRate(final LocalDate date) {
+        final TaxRate expected = taxRates.findTaxRateByTaxAndDate(tax, date);
+        assertThat(date.toString(), tax.taxRateFor(date), is(expected));
+        assertThat(date.toString(), tax.percentageFor(date), is(expected == null ? null : expected.getPercentage()));
+    }
+
+    private void assertPercentage(final LocalDate date, final BigDecimal expected) {
+        assertThat(date.toString(), tax.percentageFor(date).compareTo(expected), is(0));
+    }
+
+    public static class TimelineFor extends TaxRatesTest {
+
+        @Test
+        public void matchesQuery() throws Exception {
+            assertThat(taxRates.timelineFor(tax).size(), is(2));
+            assertThat(tax.percentageFor(VT.ld(1979, 12, 31)), is(nullValue()));
+            assertPercentage(VT.ld(2011, 9, 16), VT.bd(19));
+            assertPercentage(VT.ld(2011, 9, 17), VT.bd(21));
+
+            assertTimelineMatchesQuery(1979, 2015);
+        }
+
+        @Test
+        public void whenRateAdded() throws Exception {
+            // given
+            assertPercentage(VT.ld(2014, 1, 1), VT.bd(21));
+
+            // when
+            tax.newRate(VT.ld(2013, 10, 1), VT.bd(22));
+
+            // then
+            assertThat(taxRates.timelineFor(tax).size(), is(3));
+            assertPercentage(VT.ld(2014, 1, 1), VT.bd(22));
+            assertTimelineMatchesQuery(1979, 2015);
+        }
+
+        @Test
+        public void whenDatesChanged() throws Exception {
+            // given
+            final TaxRate rate = tax.taxRateFor(VT.ld(2012, 1, 1));
+            assertPercentage(VT.ld(2012, 1, 1), VT.bd(21));
+
+            // when
+            rate.changeDates(VT.ld(2011, 9, 17), VT.ld(2012, 12, 31));
+
+            // then the earlier rate applies again
+            assertPercentage(VT.ld(2013, 1, 1), VT.bd(19));
+            assertTimelineMatchesQuery(1979, 2015);
+        }
+
+        @Test
+        public void whenPercentageChanged() throws Exception {
+            // given
+            final TaxRate rate = tax.taxRateFor(VT.ld(2012, 1, 1));
+
+            // when
+            rate.change(tax, new BigDecimal("21.50"), null);
+
+            // then
+            assertPercentage(VT.ld(2012, 1, 1), new BigDecimal("21.50"));
+            assertTimelineMatchesQuery(1979, 2015);
+        }
+    }
+
+}
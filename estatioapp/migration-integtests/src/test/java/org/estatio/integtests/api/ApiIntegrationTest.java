@@ -32,8 +32,10 @@ import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
 import org.apache.isis.applib.fixturescripts.FixtureScript;
+import org.apache.isis.applib.value.Clob;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancies;
 import org.estatio.api.Api;
+import org.estatio.api.ApiRowType;
 import org.estatio.dom.agreement.AgreementRole;
 import org.estatio.dom.agreement.AgreementRoleType;
 import org.estatio.dom.agreement.AgreementRoleTypes;
@@ -390,4 +392,16 @@ public class ApiIntegrationTest extends EstatioIntegrationTestForMigration {
         Assert.assertThat(leases.findLeaseByReference("APILEASE").getBreakOptions().size(), Is.is(2));
     }
 
+    @Test
+    public void t09_loadLeaseTermsWorks() throws Exception {
+        final String rows = ""
+                + "leaseReference,tenantReference,unitReference,itemSequence,itemType,itemStartDate,sequence,startDate,endDate,status,baseValue,indexedValue,indexReference,indexationFrequency\n"
+                + "APILEASE,APITENANT,APIUNIT,1,RENT,2012-01-01,3,2014-01-01,2014-12-31,NEW,12345,12345,APIINDEX,YEARLY\n"
+                + "APILEASE,APITENANT,APIUNIT,1,RENT,2012-01-01,4,2015-01-01,2015-12-31,NEW,12345,12345,APIINDEX,YEARLY\n";
+        api.load(ApiRowType.LEASE_TERM_FOR_INDEXABLE_RENT, new Clob("terms.csv", "text/csv", rows), 1);
+
+        Lease lease = leases.findLeaseByReference("APILEASE");
+        Assert.assertThat(lease.getItems().first().getTerms().size(), Is.is(4));
+    }
+
 }
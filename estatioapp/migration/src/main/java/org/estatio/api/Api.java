@@ -16,6 +16,7 @@
  */
 package org.estatio.api;
 
+import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
@@ -37,7 +38,12 @@ import org.apache.isis.applib.annotation.Named;
 import org.apache.isis.applib.annotation.Optional;
 import org.apache.isis.applib.annotation.Optionality;
 import org.apache.isis.applib.annotation.Parameter;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
 import org.apache.isis.applib.services.wrapper.WrapperFactory;
+import org.apache.isis.applib.value.Clob;
+import org.apache.isis.core.runtime.system.context.IsisContext;
+import org.apache.isis.core.runtime.system.transaction.IsisTransactionManager;
 
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancies;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
@@ -145,6 +151,219 @@ public class Api extends AbstractFactoryAndRepository {
 
     // //////////////////////////////////////
 
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final ThreadLocal<ApiLookups> batchLookups = new ThreadLocal<ApiLookups>();
+
+    /**
+     * Loads a batch of rows in one go, each row as the corresponding
+     * <tt>put</tt> action would.
+     *
+     * @see #loadFrom(ApiRowType, Reader, Integer)
+     */
+    @ActionSemantics(Of.NON_IDEMPOTENT)
+    public String load(
+            @Named("rowType") final ApiRowType rowType,
+            @Named("rows") final Clob rows,
+            @Named("chunkSize") @Optional final Integer chunkSize) {
+        return loadFrom(rowType, new CharSequenceReader(rows.getChars()), chunkSize);
+    }
+
+    /**
+     * Loads the rows read one at a time from the reader.
+     *
+     * <p>
+     * Every <tt>chunkSize</tt> rows the transaction is committed and a new
+     * one started, after which the persistence manager and the references
+     * resolved so far are cleared, so that memory is bounded by the size of
+     * a chunk rather than of the batch. Should a row fail, the chunks before
+     * it stay committed and the message tells how many rows those were.
+     */
+    @Programmatic
+    public String loadFrom(final ApiRowType rowType, final Reader rows, final Integer chunkSize) {
+        final int chunk = chunkSize == null || chunkSize < 1 ? DEFAULT_CHUNK_SIZE : chunkSize;
+        final ApiRows apiRows = new ApiRows(rows);
+        final ApiLookups lookups = new ApiLookups();
+        final long start = System.currentTimeMillis();
+        int count = 0;
+        batchLookups.set(lookups);
+        try {
+            while (apiRows.hasNext()) {
+                final ApiRow row = apiRows.next();
+                try {
+                    put(rowType, row);
+                } catch (RuntimeException ex) {
+                    throw new ApplicationException(String.format("Row on line %d: %s (%d rows committed before)",
+                            row.getLineNumber(), ex.getMessage(), count - count % chunk), ex);
+                }
+                if (++count % chunk == 0) {
+                    commitAndClear(lookups);
+                    LOG.info(summary(rowType, count, start, lookups));
+                }
+            }
+            container.flush();
+        } finally {
+            batchLookups.remove();
+        }
+        final String summary = summary(rowType, count, start, lookups);
+        LOG.info(summary);
+        return summary;
+    }
+
+    private void put(final ApiRowType rowType, final ApiRow row) {
+        switch (rowType) {
+        case OCCUPANCY:
+            putOccupancy(
+                    row.string("leaseReference"),
+                    row.string("unitReference"),
+                    row.date("startDate"),
+                    row.date("endDate"),
+                    row.date("tenancyStartDate"),
+                    row.date("tenancyEndDate"),
+                    row.string("size"),
+                    row.string("brand"),
+                    row.string("sector"),
+                    row.string("activity"),
+                    row.string("reportTurnover"),
+                    row.string("reportRent"),
+                    row.string("reportOCR"));
+            break;
+        case LEASE_ITEM:
+            putLeaseItem(
+                    row.string("leaseReference"),
+                    row.string("tenantReference"),
+                    row.string("unitReference"),
+                    row.string("type"),
+                    row.integer("sequence"),
+                    row.date("startDate"),
+                    row.date("endDate"),
+                    row.string("chargeReference"),
+                    row.date("nextDueDate"),
+                    row.string("invoicingFrequency"),
+                    row.string("paymentMethod"),
+                    row.string("status"),
+                    row.string("atPath"));
+            break;
+        case LEASE_TERM_FOR_INDEXABLE_RENT:
+            putLeaseTermForIndexableRent(
+                    row.string("leaseReference"),
+                    row.string("tenantReference"),
+                    row.string("unitReference"),
+                    row.integer("itemSequence"),
+                    row.string("itemType"),
+                    row.date("itemStartDate"),
+                    row.integer("sequence"),
+                    row.date("startDate"),
+                    row.date("endDate"),
+                    row.string("status"),
+                    row.date("reviewDate"),
+                    row.date("effectiveDate"),
+                    row.decimal("baseValue"),
+                    row.decimal("indexedValue"),
+                    row.decimal("settledValue"),
+                    row.decimal("levellingValue"),
+                    row.decimal("levellingPercentage"),
+                    row.string("indexReference"),
+                    row.string("indexationFrequency"),
+                    row.decimal("indexationPercentage"),
+                    row.string("baseIndexReference"),
+                    row.date("baseIndexStartDate"),
+                    row.date("baseIndexEndDate"),
+                    row.decimal("baseIndexValue"),
+                    row.string("nextIndexReference"),
+                    row.date("nextIndexStartDate"),
+                    row.date("nextIndexEndDate"),
+                    row.decimal("nextIndexValue"));
+            break;
+        case LEASE_TERM_FOR_TURNOVER_RENT:
+            putLeaseTermForTurnoverRent(
+                    row.string("leaseReference"),
+                    row.string("tenantReference"),
+                    row.string("unitReference"),
+                    row.integer("itemSequence"),
+                    row.string("itemType"),
+                    row.date("itemStartDate"),
+                    row.integer("sequence"),
+                    row.date("startDate"),
+                    row.date("endDate"),
+                    row.string("status"),
+                    row.string("turnoverRentRule"),
+                    row.decimal("auditedTurnover"),
+                    row.decimal("auditedTurnoverRent"));
+            break;
+        case LEASE_TERM_FOR_SERVICE_CHARGE:
+            putLeaseTermForServiceCharge(
+                    row.string("leaseReference"),
+                    row.string("tenantReference"),
+                    row.string("unitReference"),
+                    row.integer("itemSequence"),
+                    row.string("itemType"),
+                    row.date("itemStartDate"),
+                    row.integer("sequence"),
+                    row.date("startDate"),
+                    row.date("endDate"),
+                    row.string("status"),
+                    row.decimal("auditedValue"),
+                    row.decimal("budgetedValue"));
+            break;
+        case LEASE_TERM_FOR_TAX:
+            putLeaseTermForTax(
+                    row.string("leaseReference"),
+                    row.string("tenantReference"),
+                    row.string("unitReference"),
+                    row.integer("itemSequence"),
+                    row.string("itemType"),
+                    row.date("itemStartDate"),
+                    row.integer("sequence"),
+                    row.date("startDate"),
+                    row.date("endDate"),
+                    row.string("status"),
+                    row.decimal("taxPercentage"),
+                    row.decimal("recoverablePercentage"),
+                    row.bool("taxable"),
+                    row.decimal("taxValue"),
+                    row.date("paymentDate"),
+                    row.date("registrationDate"),
+                    row.string("registrationNumber"),
+                    row.string("officeCode"),
+                    row.string("officeName"),
+                    row.string("description"));
+            break;
+        default:
+            throw new IllegalArgumentException(String.format("Row type %s not supported", rowType));
+        }
+    }
+
+    /**
+     * Commits the chunk and starts the next transaction; once committed
+     * nothing is dirty, so evicting does release all instances of the chunk.
+     */
+    private void commitAndClear(final ApiLookups lookups) {
+        final IsisTransactionManager transactionManager = IsisContext.getPersistenceSession().getTransactionManager();
+        transactionManager.endTransaction();
+        transactionManager.startTransaction();
+        lookups.clear();
+        isisJdoSupport.getJdoPersistenceManager().evictAll();
+    }
+
+    private static String summary(final ApiRowType rowType, final int count, final long start, final ApiLookups lookups) {
+        final long millis = Math.max(1, System.currentTimeMillis() - start);
+        return String.format("Loaded %d %s rows in %d ms (%d rows/s), %d of %d lookups cached",
+                count, rowType, millis, count * 1000L / millis,
+                lookups.getHits(), lookups.getHits() + lookups.getMisses());
+    }
+
+    /**
+     * Within {@link #loadFrom(ApiRowType, Reader, Integer) a batch} looks up through
+     * the batch's {@link ApiLookups}, otherwise directly.
+     */
+    private <T> T lookup(final ApiLookups.Lookup<T> lookup, final Object... key) {
+        final ApiLookups lookups = batchLookups.get();
+        return lookups == null ? lookup.lookup() : lookups.get(lookup, key);
+    }
+
+    // //////////////////////////////////////
+
     @ActionSemantics(Of.IDEMPOTENT)
     public void putCountry(
             @Named("code") final String code,
@@ -230,8 +449,12 @@ public class Api extends AbstractFactoryAndRepository {
     }
 
     private Charge fetchCharge(final String chargeReference) {
-        final Charge charge = charges
-                .findByReference(chargeReference);
+        final Charge charge = lookup(new ApiLookups.Lookup<Charge>() {
+            @Override
+            public Charge lookup() {
+                return charges.findByReference(chargeReference);
+            }
+        }, Charge.class, chargeReference);
         if (charge == null) {
             throw new ApplicationException(String.format("Charge with reference %s not found.", chargeReference));
         }
@@ -344,7 +567,12 @@ public class Api extends AbstractFactoryAndRepository {
     }
 
     private Party fetchParty(final String partyReference) {
-        final Party party = parties.findPartyByReferenceOrNull(partyReference);
+        final Party party = lookup(new ApiLookups.Lookup<Party>() {
+            @Override
+            public Party lookup() {
+                return parties.findPartyByReferenceOrNull(partyReference);
+            }
+        }, Party.class, partyReference);
         if (party == null) {
             throw new ApplicationException(String.format("Party with reference %s not found.", partyReference));
         }
@@ -442,7 +670,12 @@ public class Api extends AbstractFactoryAndRepository {
 
     private Unit fetchUnit(final String unitReference) {
         if (unitReference != null) {
-            final Unit unit = units.findUnitByReference(unitReference);
+            final Unit unit = lookup(new ApiLookups.Lookup<Unit>() {
+                @Override
+                public Unit lookup() {
+                    return units.findUnitByReference(unitReference);
+                }
+            }, Unit.class, unitReference);
             if (unit == null) {
                 throw new ApplicationException(String.format("Unit with reference %s not found.", unitReference));
             }
@@ -667,8 +900,13 @@ public class Api extends AbstractFactoryAndRepository {
     }
 
     private Lease fetchLease(final String leaseReference) {
-        final Lease lease;
-        lease = leases.findLeaseByReference(leaseReference.trim().replaceAll("~", "+"));
+        final String reference = leaseReference.trim().replaceAll("~", "+");
+        final Lease lease = lookup(new ApiLookups.Lookup<Lease>() {
+            @Override
+            public Lease lookup() {
+                return leases.findLeaseByReference(reference);
+            }
+        }, Lease.class, reference);
         if (lease == null) {
             throw new ApplicationException(String.format("Lease with reference %s not found.", leaseReference));
         }
@@ -698,10 +936,7 @@ public class Api extends AbstractFactoryAndRepository {
             @Named("reportRent") @Optional final String reportRent,
             @Named("reportOCR") @Optional final String reportOCR) {
         final Lease lease = fetchLease(leaseReference);
-        final Unit unit = units.findUnitByReference(unitReference);
-        if (unitReference != null && unit == null) {
-            throw new ApplicationException(String.format("Unit with reference %s not found.", unitReference));
-        }
+        final Unit unit = fetchUnit(unitReference);
         Occupancy occupancy = occupancies.findByLeaseAndUnitAndStartDate(lease, unit, startDate);
         if (occupancy == null) {
             occupancy = occupancies.newOccupancy(lease, unit, startDate);
@@ -753,7 +988,7 @@ public class Api extends AbstractFactoryAndRepository {
 
         //
         final LeaseItemType itemType = fetchLeaseItemType(leaseItemTypeName);
-        LeaseItem item = lease.findItem(itemType, startDate, sequence);
+        LeaseItem item = fetchLeaseItem(lease, itemType, startDate, sequence);
         if (item == null) {
             item = lease.newItem(itemType, charge, InvoicingFrequency.valueOf(invoicingFrequency), PaymentMethod.valueOf(paymentMethod), startDate, leaseItemApplicationTenancy);
             item.setSequence(sequence);
@@ -762,6 +997,15 @@ public class Api extends AbstractFactoryAndRepository {
         final LeaseItemStatus leaseItemStatus = LeaseItemStatus.valueOfElse(status, LeaseItemStatus.ACTIVE);
     }
 
+    private LeaseItem fetchLeaseItem(final Lease lease, final LeaseItemType itemType, final LocalDate startDate, final BigInteger sequence) {
+        return lookup(new ApiLookups.Lookup<LeaseItem>() {
+            @Override
+            public LeaseItem lookup() {
+                return lease.findItem(itemType, startDate, sequence);
+            }
+        }, LeaseItem.class, lease.getReference(), itemType, startDate, sequence);
+    }
+
     private LeaseItemType fetchLeaseItemType(final String type) {
         final LeaseItemType itemType = LeaseItemType.valueOf(type);
         if (itemType == null) {
@@ -848,7 +1092,12 @@ public class Api extends AbstractFactoryAndRepository {
         final ApplicationTenancy applicationTenancy = term.getLeaseItem().getApplicationTenancy();
 
         // TODO: applicationTenancies.findTenancyByPath(atPath);
-        final Index index = indices.findOrCreateIndex(applicationTenancy, indexReference, indexReference);
+        final Index index = lookup(new ApiLookups.Lookup<Index>() {
+            @Override
+            public Index lookup() {
+                return indices.findOrCreateIndex(applicationTenancy, indexReference, indexReference);
+            }
+        }, Index.class, applicationTenancy.getPath(), indexReference);
         final LeaseTermFrequency indexationFreq = LeaseTermFrequency.valueOf(indexationFrequency);
         term.setIndex(index);
         term.setFrequency(indexationFreq);
@@ -1007,15 +1256,9 @@ public class Api extends AbstractFactoryAndRepository {
             final BigInteger sequence,
             final String statusStr) {
         final Lease lease = fetchLease(leaseReference);
-        final Unit unit;
-        if (unitReference != null) {
-            unit = units.findUnitByReference(unitReference);
-            if (unitReference != null && unit == null) {
-                throw new ApplicationException(String.format("Unit with reference %s not found.", unitReference));
-            }
-        }
+        fetchUnit(unitReference);
         final LeaseItemType leaseItemType = fetchLeaseItemType(itemType);
-        final LeaseItem item = lease.findItem(leaseItemType, itemStartDate, itemSequence);
+        final LeaseItem item = fetchLeaseItem(lease, leaseItemType, itemStartDate, itemSequence);
         if (item == null) {
             throw new ApplicationException(String.format("LeaseItem with reference %1$s, %2$s, %3$s, %4$s not found.", leaseReference, leaseItemType.toString(), itemStartDate.toString(), itemSequence.toString()));
         }
@@ -1180,6 +1423,9 @@ public class Api extends AbstractFactoryAndRepository {
     @Inject
     private DomainObjectContainer container;
 
+    @Inject
+    private IsisJdoSupport isisJdoSupport;
+
     @Inject
     private BreakOptions breakOptions;
 
@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.api;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+/**
+ * The references resolved while {@link Api#loadFrom(ApiRowType, java.io.Reader, Integer) loading} a
+ * chunk of rows, so that each lease, unit, charge etc. is queried once per
+ * chunk rather than once per row.
+ *
+ * <p>
+ * Only found objects are remembered, a reference not found (yet) is looked up
+ * again next time. The counts of hits and misses span the whole batch.
+ */
+final class ApiLookups {
+
+    interface Lookup<T> {
+        T lookup();
+    }
+
+    private final Map<List<Object>, Object> cache = Maps.newHashMap();
+    private int hits;
+    private int misses;
+
+    @SuppressWarnings("unchecked")
+    <T> T get(final Lookup<T> lookup, final Object... key) {
+        final List<Object> cacheKey = Arrays.asList(key);
+        final Object cached = cache.get(cacheKey);
+        if (cached != null) {
+            hits++;
+            return (T) cached;
+        }
+        misses++;
+        final T found = lookup.lookup();
+        if (found != null) {
+            cache.put(cacheKey, found);
+        }
+        return found;
+    }
+
+    void clear() {
+        cache.clear();
+    }
+
+    int getHits() {
+        return hits;
+    }
+
+    int getMisses() {
+        return misses;
+    }
+
+}
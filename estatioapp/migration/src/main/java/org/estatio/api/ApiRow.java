@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.api;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+
+/**
+ * A single row read by {@link ApiRows}, its values looked up by column name;
+ * empty and missing columns read as <tt>null</tt>.
+ */
+public final class ApiRow {
+
+    private final Map<String, Integer> columns;
+    private final List<String> values;
+    private final int lineNumber;
+
+    ApiRow(final Map<String, Integer> columns, final List<String> values, final int lineNumber) {
+        this.columns = columns;
+        this.values = values;
+        this.lineNumber = lineNumber;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String string(final String column) {
+        final Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        final String value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    public LocalDate date(final String column) {
+        final String value = string(column);
+        return value == null ? null : LocalDate.parse(value);
+    }
+
+    public BigDecimal decimal(final String column) {
+        final String value = string(column);
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    public BigInteger integer(final String column) {
+        final String value = string(column);
+        return value == null ? null : new BigInteger(value);
+    }
+
+    public Boolean bool(final String column) {
+        final String value = string(column);
+        return value == null ? null : Boolean.valueOf(value);
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.api;
+
+/**
+ * The kinds of rows {@link Api#load(ApiRowType, org.apache.isis.applib.value.Clob, Integer) bulk loaded}, each
+ * handled as the corresponding <tt>put</tt> action; the columns are named as
+ * the parameters of that action.
+ */
+public enum ApiRowType {
+
+    /**
+     * @see Api#putOccupancy
+     */
+    OCCUPANCY,
+    /**
+     * @see Api#putLeaseItem
+     */
+    LEASE_ITEM,
+    /**
+     * @see Api#putLeaseTermForIndexableRent
+     */
+    LEASE_TERM_FOR_INDEXABLE_RENT,
+    /**
+     * @see Api#putLeaseTermForTurnoverRent
+     */
+    LEASE_TERM_FOR_TURNOVER_RENT,
+    /**
+     * @see Api#putLeaseTermForServiceCharge
+     */
+    LEASE_TERM_FOR_SERVICE_CHARGE,
+    /**
+     * @see Api#putLeaseTermForTax
+     */
+    LEASE_TERM_FOR_TAX
+
+}
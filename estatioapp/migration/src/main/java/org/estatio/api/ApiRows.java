@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.api;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.isis.applib.ApplicationException;
+
+/**
+ * Reads comma separated rows, the first row naming the columns, one row at a
+ * time.
+ *
+ * <p>
+ * Values may be quoted with <tt>"</tt> (doubled within a quoted value), so as
+ * to contain commas or line breaks; blank lines are skipped.
+ */
+final class ApiRows implements Iterator<ApiRow> {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns;
+    private int lineNumber;
+    private int nextLineNumber;
+    private List<String> next;
+
+    ApiRows(final Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        final List<String> header = readRecord();
+        final Map<String, Integer> columns = Maps.newHashMap();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+        }
+        this.columns = Collections.unmodifiableMap(columns);
+        this.next = header == null ? null : readRecord();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public ApiRow next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        final ApiRow row = new ApiRow(columns, next, nextLineNumber);
+        next = readRecord();
+        return row;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    // //////////////////////////////////////
+
+    private List<String> readRecord() {
+        try {
+            while (true) {
+                final List<String> values = Lists.newArrayList();
+                final StringBuilder value = new StringBuilder();
+                boolean quoted = false;
+                boolean read = false;
+                nextLineNumber = lineNumber + 1;
+                int c;
+                while ((c = reader.read()) != -1) {
+                    read = true;
+                    if (quoted) {
+                        if (c == '"') {
+                            reader.mark(1);
+                            if (reader.read() == '"') {
+                                value.append('"');
+                            } else {
+                                reader.reset();
+                                quoted = false;
+                            }
+                        } else {
+                            if (c == '\n') {
+                                lineNumber++;
+                            }
+                            value.append((char) c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        values.add(value.toString());
+                        value.setLength(0);
+                    } else if (c == '\n') {
+                        lineNumber++;
+                        break;
+                    } else if (c != '\r') {
+                        value.append((char) c);
+                    }
+                }
+                if (!read) {
+                    return null;
+                }
+                values.add(value.toString());
+                if (values.size() > 1 || !values.get(0).trim().isEmpty()) {
+                    return values;
+                }
+                if (c == -1) {
+                    return null;
+                }
+            }
+        } catch (IOException ex) {
+            throw new ApplicationException(String.format("Could not read row after line %d", lineNumber), ex);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.api;
+
+import java.io.Reader;
+
+/**
+ * Reads the characters of a {@link CharSequence}, such as the chars of an
+ * uploaded {@link org.apache.isis.applib.value.Clob}, without copying them
+ * into a string first.
+ */
+final class CharSequenceReader extends Reader {
+
+    private final CharSequence chars;
+    private int position;
+
+    CharSequenceReader(final CharSequence chars) {
+        this.chars = chars;
+    }
+
+    @Override
+    public int read(final char[] buffer, final int offset, final int length) {
+        if (position >= chars.length()) {
+            return -1;
+        }
+        final int count = Math.min(length, chars.length() - position);
+        for (int i = 0; i < count; i++) {
+            buffer[offset + i] = chars.charAt(position++);
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.api;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.NoSuchElementException;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ApiRowsTest {
+
+    private static ApiRows rows(final String csv) {
+        return new ApiRows(new CharSequenceReader(csv));
+    }
+
+    public static class Plain extends ApiRowsTest {
+
+        @Test
+        public void valuesByColumnName() throws Exception {
+            final ApiRows rows = rows("reference,startDate,value\nLEASE-1,2014-01-01,12.50\nLEASE-2,,\n");
+
+            final ApiRow first = rows.next();
+            assertThat(first.string("reference"), is("LEASE-1"));
+            assertThat(first.date("startDate"), is(new LocalDate(2014, 1, 1)));
+            assertThat(first.decimal("value"), is(new BigDecimal("12.50")));
+            assertThat(first.getLineNumber(), is(2));
+
+            final ApiRow second = rows.next();
+            assertThat(second.string("reference"), is("LEASE-2"));
+            assertThat(second.date("startDate"), is(nullValue()));
+            assertThat(second.string("unknown"), is(nullValue()));
+
+            assertThat(rows.hasNext(), is(false));
+        }
+
+        @Test
+        public void blankLinesAndCarriageReturnsSkipped() throws Exception {
+            final ApiRows rows = rows("reference,name\r\n\r\nLEASE-1,First\r\n\nLEASE-2,Second");
+
+            final ApiRow first = rows.next();
+            assertThat(first.string("name"), is("First"));
+            assertThat(first.getLineNumber(), is(3));
+
+            final ApiRow second = rows.next();
+            assertThat(second.string("reference"), is("LEASE-2"));
+            assertThat(second.string("name"), is("Second"));
+            assertThat(second.getLineNumber(), is(5));
+
+            assertThat(rows.hasNext(), is(false));
+        }
+
+        @Test
+        public void shortRowReadsMissingColumnsAsNull() throws Exception {
+            final ApiRows rows = rows("reference,name,value\nLEASE-1\n");
+
+            final ApiRow row = rows.next();
+            assertThat(row.string("reference"), is("LEASE-1"));
+            assertThat(row.string("value"), is(nullValue()));
+        }
+
+        @Test
+        public void headerOnly() throws Exception {
+            assertThat(rows("reference,name\n").hasNext(), is(false));
+            assertThat(rows("").hasNext(), is(false));
+        }
+
+        @Test(expected = NoSuchElementException.class)
+        public void nextWhenNone() throws Exception {
+            rows("reference\n").next();
+        }
+    }
+
+    public static class Quoted extends ApiRowsTest {
+
+        @Test
+        public void embeddedSeparator() throws Exception {
+            final ApiRow row = rows("reference,name\nLEASE-1,\"Smith, John\"\n").next();
+
+            assertThat(row.string("reference"), is("LEASE-1"));
+            assertThat(row.string("name"), is("Smith, John"));
+        }
+
+        @Test
+        public void escapedQuotes() throws Exception {
+            final ApiRow row = rows("reference,name\nLEASE-1,\"The \"\"Big\"\" Store\"\nLEASE-2,\"\"\"\"\n").next();
+
+            assertThat(row.string("name"), is("The \"Big\" Store"));
+        }
+
+        @Test
+        public void quoteOnlyValue() throws Exception {
+            final ApiRows rows = rows("reference,name\nLEASE-1,\"\"\"\"\n");
+
+            assertThat(rows.next().string("name"), is("\""));
+        }
+
+        @Test
+        public void embeddedNewline() throws Exception {
+            final ApiRows rows = rows("reference,description\nLEASE-1,\"first line\nsecond line\"\nLEASE-2,plain\n");
+
+            final ApiRow first = rows.next();
+            assertThat(first.string("description"), is("first line\nsecond line"));
+            assertThat(first.getLineNumber(), is(2));
+
+            final ApiRow second = rows.next();
+            assertThat(second.string("reference"), is("LEASE-2"));
+            assertThat(second.getLineNumber(), is(4));
+        }
+
+        @Test
+        public void quotedHeader() throws Exception {
+            final ApiRow row = rows("\"reference\",\"name\"\nLEASE-1,First\n").next();
+
+            assertThat(row.string("name"), is("First"));
+        }
+    }
+
+}
@@ -20,10 +20,14 @@ package org.estatio.webapp.services.admin;
 
 import java.util.List;
 import javax.inject.Inject;
+import com.google.common.collect.Lists;
 import org.isisaddons.module.settings.dom.ApplicationSetting;
 import org.joda.time.LocalDate;
 import org.apache.isis.applib.annotation.*;
 import org.estatio.dom.UdoDomainService;
+import org.estatio.services.querystats.QueryStatistics;
+import org.estatio.services.querystats.QueryStatisticsService;
+import org.estatio.services.querystats.QueryStatisticsView;
 import org.estatio.services.settings.ApplicationSettingForEstatio;
 import org.estatio.services.settings.EstatioSettingsService;
 
@@ -59,7 +63,28 @@ public class EstatioAdministrationService extends UdoDomainService<EstatioAdmini
 
     // //////////////////////////////////////
 
+    @ActionSemantics(ActionSemantics.Of.SAFE)
+    @MemberOrder(sequence = "3")
+    public List<QueryStatisticsView> listQueryStatistics() {
+        final List<QueryStatisticsView> views = Lists.newArrayList();
+        for (QueryStatistics statistics : queryStatisticsService.statistics()) {
+            views.add(new QueryStatisticsView(statistics));
+        }
+        return views;
+    }
+
+    @ActionSemantics(ActionSemantics.Of.IDEMPOTENT)
+    @MemberOrder(sequence = "4")
+    public void resetQueryStatistics() {
+        queryStatisticsService.reset();
+    }
+
+    // //////////////////////////////////////
+
     @Inject
     private EstatioSettingsService settingsService;
 
+    @Inject
+    private QueryStatisticsService queryStatisticsService;
+
 }
@@ -18,32 +18,61 @@
  */
 package org.estatio.webapp.services.scheduler;
 
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
 import org.quartz.JobExecutionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.estatio.dom.lease.Lease;
-import org.estatio.dom.lease.LeaseStatus;
-import org.estatio.dom.lease.Leases;
 import org.estatio.dom.lease.status.LeaseStatusService;
 import org.estatio.services.scheduler.AbstractIsisJob;
 
+/**
+ * Refreshes the status of only those leases that might have changed, in
+ * chunks that are committed separately.
+ */
 public class LeaseStatusJob extends AbstractIsisJob {
 
     final static Logger LOG = LoggerFactory.getLogger(LeaseStatusJob.class);
 
+    static final int CHUNK_SIZE = 100;
+
+    @Override
+    protected boolean isSingleTransaction() {
+        return false;
+    }
+
     protected void doExecute(JobExecutionContext context) {
-        LeaseStatusService service = getService(LeaseStatusService.class);
-        Leases leases = getService(Leases.class);
-        int updatedCount = 0;
+        final LeaseStatusService service = getService(LeaseStatusService.class);
         LOG.info("Start Job");
-        for (Lease lease : leases.allLeases()) {
-            LeaseStatus oldStatus = lease.getStatus();
-            service.refreshStatus(lease);
-            if (lease.getStatus() != oldStatus) {
-                updatedCount++;
+        final long start = System.currentTimeMillis();
+
+        final List<String> references = Lists.newArrayList();
+        executeWithinTransaction(new Runnable() {
+            @Override
+            public void run() {
+                references.addAll(service.leaseReferencesToRefresh());
             }
+        });
+        final long selected = System.currentTimeMillis();
+
+        final int[] updatedCount = { 0 };
+        for (final List<String> chunk : Lists.partition(references, CHUNK_SIZE)) {
+            executeWithinTransaction(new Runnable() {
+                @Override
+                public void run() {
+                    updatedCount[0] += service.refreshStatus(chunk);
+                }
+            });
         }
-        LOG.info(String.format("End Job, %d leases updated", updatedCount));
+        final long end = System.currentTimeMillis();
+
+        final String result = String.format(
+                "End Job, %d of %d candidate leases updated, selected in %d ms, refreshed in %d ms",
+                updatedCount[0], references.size(), selected - start, end - selected);
+        context.setResult(result);
+        LOG.info(result);
     }
 }
@@ -0,0 +1,176 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.webapp.services.scheduler;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.estatio.dom.lease.indexation.Reindexation;
+import org.estatio.dom.lease.indexation.ReindexationService;
+import org.estatio.services.scheduler.AbstractIsisJob;
+
+/**
+ * Runs the pending {@link Reindexation}s, aligning their terms in chunks that
+ * are committed separately. When a chunk fails its terms are retried one by
+ * one, so that only the terms that fail by themselves are recorded as such.
+ * Should a run fail otherwise, the reindexation is put back to pending for the
+ * next job, until it failed too often; one left running by a job that died is
+ * picked up once stale. A reindexation is claimed before being run, so that
+ * jobs on different nodes never run the same one.
+ */
+@DisallowConcurrentExecution
+public class ReindexationJob extends AbstractIsisJob {
+
+    final static Logger LOG = LoggerFactory.getLogger(ReindexationJob.class);
+
+    static final int CHUNK_SIZE = 50;
+
+    @Override
+    protected boolean isSingleTransaction() {
+        return false;
+    }
+
+    protected void doExecute(JobExecutionContext context) {
+        final ReindexationService service = getService(ReindexationService.class);
+
+        final List<String> reindexations = Lists.newArrayList();
+        executeWithinTransaction(new Runnable() {
+            @Override
+            public void run() {
+                reindexations.addAll(service.pendingReindexations());
+            }
+        });
+        if (reindexations.isEmpty()) {
+            return;
+        }
+        LOG.info("Start Job");
+
+        final List<String> results = Lists.newArrayList();
+        for (String reindexation : reindexations) {
+            if (!claim(service, reindexation)) {
+                continue;
+            }
+            try {
+                results.add(run(service, reindexation));
+            } catch (RuntimeException ex) {
+                LOG.error("Reindexation {} failed, aborted", reindexation, ex);
+                abort(service, reindexation);
+                results.add(String.format("%s failed: %s", reindexation, ex.getMessage()));
+            }
+        }
+        final String result = String.format("End Job, %s", results);
+        context.setResult(result);
+        LOG.info(result);
+    }
+
+    private String run(final ReindexationService service, final String reindexation) {
+        final long start = System.currentTimeMillis();
+
+        final List<String> terms = Lists.newArrayList();
+        executeWithinTransaction(new Runnable() {
+            @Override
+            public void run() {
+                terms.addAll(service.start(reindexation));
+            }
+        });
+
+        for (final List<String> chunk : Lists.partition(terms, CHUNK_SIZE)) {
+            try {
+                executeWithinTransaction(new Runnable() {
+                    @Override
+                    public void run() {
+                        service.reindex(reindexation, chunk);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                LOG.warn("Chunk of {} failed, retrying its terms one by one", reindexation, ex);
+                for (String term : chunk) {
+                    runSingle(service, reindexation, term);
+                }
+            }
+        }
+
+        final String[] summary = { null };
+        executeWithinTransaction(new Runnable() {
+            @Override
+            public void run() {
+                final Reindexation completed = service.complete(reindexation);
+                summary[0] = String.format(
+                        "%s %s: %d of %d terms, %d failed",
+                        completed.getIndex().getReference(), completed.getDate(), completed.getProcessed(), completed.getTerms(), completed.getFailed());
+            }
+        });
+        return String.format("%s in %d ms", summary[0], System.currentTimeMillis() - start);
+    }
+
+    private boolean claim(final ReindexationService service, final String reindexation) {
+        final boolean[] claimed = { false };
+        try {
+            executeWithinTransaction(new Runnable() {
+                @Override
+                public void run() {
+                    claimed[0] = service.claim(reindexation);
+                }
+            });
+        } catch (RuntimeException ex) {
+            LOG.info("Reindexation {} claimed by another job", reindexation, ex);
+            return false;
+        }
+        return claimed[0];
+    }
+
+    private void abort(final ReindexationService service, final String reindexation) {
+        try {
+            executeWithinTransaction(new Runnable() {
+                @Override
+                public void run() {
+                    service.abort(reindexation);
+                }
+            });
+        } catch (RuntimeException ex) {
+            // left running, to be picked up once stale
+            LOG.error("Could not put reindexation {} back to pending", reindexation, ex);
+        }
+    }
+
+    private void runSingle(final ReindexationService service, final String reindexation, final String term) {
+        try {
+            executeWithinTransaction(new Runnable() {
+                @Override
+                public void run() {
+                    service.reindex(reindexation, Lists.newArrayList(term));
+                }
+            });
+        } catch (final RuntimeException ex) {
+            LOG.warn("Failed to reindex {}", term, ex);
+            executeWithinTransaction(new Runnable() {
+                @Override
+                public void run() {
+                    service.recordFailure(reindexation, term, ex);
+                }
+            });
+        }
+    }
+}
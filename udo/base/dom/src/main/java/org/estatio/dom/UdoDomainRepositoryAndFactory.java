@@ -23,6 +23,8 @@ import javax.jdo.Query;
 import org.apache.isis.applib.RepositoryException;
 import org.apache.isis.applib.query.QueryDefault;
 import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+import org.estatio.services.querystats.QueryInteractionStatistics;
+import org.estatio.services.querystats.QueryStatisticsService;
 
 public abstract class UdoDomainRepositoryAndFactory<T> extends UdoDomainService<T> {
 
@@ -70,7 +72,70 @@ public abstract class UdoDomainRepositoryAndFactory<T> extends UdoDomainService<
     }
 
     protected List<T> allInstances() {
-        return allInstances(getEntityType());
+        final long start = System.nanoTime();
+        final List<T> instances = allInstances(getEntityType());
+        record(QueryStatisticsService.nameOf(getEntityType(), "allInstances"), new Object[0], instances, start);
+        return instances;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Reports the execution to the {@link QueryInteractionStatistics}.
+     */
+    @Override
+    protected <E> E firstMatch(final org.apache.isis.applib.query.Query<E> query) {
+        final long start = System.nanoTime();
+        final E match = super.firstMatch(query);
+        record(query, match, start);
+        return match;
+    }
+
+    /**
+     * Reports the execution to the {@link QueryInteractionStatistics}.
+     */
+    @Override
+    protected <E> E uniqueMatch(final org.apache.isis.applib.query.Query<E> query) {
+        final long start = System.nanoTime();
+        final E match = super.uniqueMatch(query);
+        record(query, match, start);
+        return match;
+    }
+
+    /**
+     * Reports the execution to the {@link QueryInteractionStatistics}.
+     */
+    @Override
+    protected <E> List<E> allMatches(final org.apache.isis.applib.query.Query<E> query) {
+        final long start = System.nanoTime();
+        final List<E> matches = super.allMatches(query);
+        record(query, matches, start);
+        return matches;
+    }
+
+    private void record(final org.apache.isis.applib.query.Query<?> query, final Object result, final long start) {
+        if (query instanceof QueryDefault) {
+            final QueryDefault<?> queryDefault = (QueryDefault<?>) query;
+            record(
+                    QueryStatisticsService.nameOf(query.getResultType(), queryDefault.getQueryName()),
+                    queryDefault.getArgumentsByParameterName().values().toArray(),
+                    result,
+                    start);
+        } else {
+            record(
+                    QueryStatisticsService.nameOf(query.getResultType(), query.getClass().getSimpleName()),
+                    new Object[] { query.getDescription() },
+                    result,
+                    start);
+        }
+    }
+
+    private void record(final String queryName, final Object[] arguments, final Object result, final long start) {
+        if (queryInteractionStatistics == null) {
+            return;
+        }
+        final int rows = result instanceof List ? ((List<?>) result).size() : result == null ? 0 : 1;
+        queryInteractionStatistics.record(queryName, arguments, rows, System.nanoTime() - start);
     }
 
 
@@ -99,4 +164,7 @@ public abstract class UdoDomainRepositoryAndFactory<T> extends UdoDomainService<
         return isisJdoSupport;
     }
 
+    @javax.inject.Inject
+    QueryInteractionStatistics queryInteractionStatistics;
+
 }
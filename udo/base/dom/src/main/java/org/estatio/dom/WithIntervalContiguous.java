@@ -20,7 +20,6 @@ package org.estatio.dom;
 
 import java.util.SortedSet;
 
-import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Sets;
 
@@ -32,6 +31,8 @@ import org.apache.isis.applib.annotation.Optional;
 import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.annotation.Where;
 
+import org.estatio.dom.valuetypes.EpochDayInterval;
+
 public interface WithIntervalContiguous<T extends WithIntervalContiguous<T>> 
         extends WithIntervalMutable<T>, Comparable<T> {
 
@@ -199,20 +200,28 @@ public interface WithIntervalContiguous<T extends WithIntervalContiguous<T>>
 
         }
 
+        /**
+         * Compares epoch days, as each sibling is tested rather than once per
+         * lookup.
+         */
         private Predicate<T> startDateFollowing(final LocalDate date) {
+            final int dayAfter = date == null ? 0 : EpochDayInterval.epochDay(date) + 1;
             return new Predicate<T>() {
                 @Override
                 public boolean apply(final T ar) {
-                    return date != null && ar != null && Objects.equal(ar.getStartDate(), date.plusDays(1));
+                    return date != null && ar != null && ar.getStartDate() != null
+                            && EpochDayInterval.epochDay(ar.getStartDate()) == dayAfter;
                 }
             };
         }
 
         private Predicate<T> endDatePreceding(final LocalDate date) {
+            final int dayBefore = date == null ? 0 : EpochDayInterval.epochDay(date) - 1;
             return new Predicate<T>() {
                 @Override
                 public boolean apply(final T ar) {
-                    return date != null && ar != null && Objects.equal(ar.getEndDate(), date.minusDays(1));
+                    return date != null && ar != null && ar.getEndDate() != null
+                            && EpochDayInterval.epochDay(ar.getEndDate()) == dayBefore;
                 }
             };
         }
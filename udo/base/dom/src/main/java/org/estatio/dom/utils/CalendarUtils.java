@@ -21,6 +21,8 @@ package org.estatio.dom.utils;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.collect.Lists;
 import com.google.ical.compat.jodatime.LocalDateIterator;
@@ -39,9 +41,39 @@ public final class CalendarUtils {
      */
     private static final LocalDate START_DATE_DEFAULT = new LocalDate(2000, 1, 1);
 
+    /**
+     * Initial horizon of the precomputed {@link IntervalCalendar}s, these will
+     * extend themselves when asked for later dates.
+     */
+    private static final LocalDate HORIZON_DEFAULT = new LocalDate(2030, 1, 1);
+
+    private static final ConcurrentMap<String, IntervalCalendar> CALENDARS = new ConcurrentHashMap<String, IntervalCalendar>();
+
     private CalendarUtils() {
     }
 
+    /**
+     * Returns the (shared) precomputed calendar of the rrule, anchored at the
+     * default start date.
+     * 
+     * @param rrule
+     * @return
+     */
+    public static IntervalCalendar intervalCalendar(final String rrule) {
+        if (rrule == null) {
+            return null;
+        }
+        IntervalCalendar calendar = CALENDARS.get(rrule);
+        if (calendar == null) {
+            calendar = new IntervalCalendar(rrule, START_DATE_DEFAULT, HORIZON_DEFAULT);
+            final IntervalCalendar existing = CALENDARS.putIfAbsent(rrule, calendar);
+            if (existing != null) {
+                calendar = existing;
+            }
+        }
+        return calendar;
+    }
+
     /**
      * Returns an interval based on rrule which start date matches startDate
      * 
@@ -50,11 +82,8 @@ public final class CalendarUtils {
      * @return
      */
     public static Interval intervalMatching(final LocalDate startDate, final String rrule) {
-        Interval interval = intervalContaining(startDate, rrule);
-        if (interval.getStart().toLocalDate().equals(startDate)) {
-            return interval;
-        }
-        return null;
+        final IntervalCalendar calendar = intervalCalendar(rrule);
+        return calendar == null ? null : calendar.intervalMatching(startDate);
     }
 
     /**
@@ -65,7 +94,8 @@ public final class CalendarUtils {
      * @return
      */
     public static Interval intervalContaining(final LocalDate containingDate, final String rrule) {
-        return currentInterval(containingDate, rrule, START_DATE_DEFAULT);
+        final IntervalCalendar calendar = intervalCalendar(rrule);
+        return calendar == null ? null : calendar.intervalContaining(containingDate);
     }
 
     public static Interval currentInterval(
@@ -120,17 +150,11 @@ public final class CalendarUtils {
             throw new IllegalArgumentException(
                     String.format("Start date %s is after end date %s", startDate.toString(), endDate.toString()));
         }
-        List<Interval> intervals = Lists.newArrayList();
-        LocalDate start = startDate;
-        Interval interval = null;
-        do {
-            interval = intervalContaining(start, rrule);
-            if (interval != null) {
-                intervals.add(interval);
-                start = interval.getEnd().toLocalDate();
-            }
-        } while (interval != null && start.isBefore(endDate));
-        return intervals;
+        final IntervalCalendar calendar = intervalCalendar(rrule);
+        if (calendar == null) {
+            return Lists.newArrayList();
+        }
+        return calendar.intervalsInRange(startDate, endDate);
     }
 
     public static List<LocalDateInterval> localDateIintervalsInRange(
@@ -0,0 +1,217 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.utils;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.google.ical.compat.jodatime.LocalDateIterator;
+import com.google.ical.compat.jodatime.LocalDateIteratorFactory;
+
+import org.joda.time.Interval;
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.EstatioApplicationException;
+
+/**
+ * Precomputed table of the intervals generated by an rrule from a fixed
+ * anchor date.
+ *
+ * <p>
+ * The boundaries are held in an immutable, sorted snapshot which is searched
+ * with a binary search. When a date past the current horizon is requested the
+ * table is extended (under a lock) by continuing the underlying
+ * {@link LocalDateIterator} and publishing a new snapshot. The results are
+ * identical to those of {@link CalendarUtils#currentInterval(LocalDate, String, LocalDate)}
+ * for the same anchor date.
+ */
+public final class IntervalCalendar {
+
+    /**
+     * Number of boundaries that are added every time the horizon is extended.
+     */
+    private static final int EXTENSION_CHUNK = 64;
+
+    private final String rrule;
+    private final LocalDate anchorDate;
+    private final LocalDateIterator iterator;
+
+    private volatile Snapshot snapshot;
+
+    public IntervalCalendar(final String rrule, final LocalDate anchorDate, final LocalDate initialHorizon) {
+        this.rrule = rrule;
+        this.anchorDate = anchorDate;
+        try {
+            this.iterator = LocalDateIteratorFactory.createLocalDateIterator(rrule, anchorDate, true);
+        } catch (final ParseException ex) {
+            throw new EstatioApplicationException("Unable to parse rrule >>" + rrule + "<<", ex);
+        }
+        this.snapshot = new Snapshot(new LocalDate[] { anchorDate }, 1, false);
+        extendBeyond(initialHorizon);
+    }
+
+    // //////////////////////////////////////
+
+    public String getRrule() {
+        return rrule;
+    }
+
+    public LocalDate getAnchorDate() {
+        return anchorDate;
+    }
+
+    /**
+     * The last boundary currently held in the table.
+     */
+    public LocalDate getHorizon() {
+        final Snapshot current = snapshot;
+        return current.boundaries[current.size - 1];
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Returns the interval that contains the date, or <tt>null</tt> if the
+     * rrule does not generate one.
+     */
+    public Interval intervalContaining(final LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        final Snapshot current = snapshotBeyond(date);
+        final int idx = current.indexOfEndAfter(date);
+        return idx < 0 ? null : current.intervalEndingAt(idx);
+    }
+
+    /**
+     * Returns the interval which start date equals the date, or <tt>null</tt>
+     * if there is no such interval.
+     */
+    public Interval intervalMatching(final LocalDate startDate) {
+        final Interval interval = intervalContaining(startDate);
+        if (interval != null && interval.getStart().toLocalDate().equals(startDate)) {
+            return interval;
+        }
+        return null;
+    }
+
+    public List<Interval> intervalsInRange(final LocalDate startDate, final LocalDate endDate) {
+        if (startDate.compareTo(endDate) > 0) {
+            throw new IllegalArgumentException(
+                    String.format("Start date %s is after end date %s", startDate.toString(), endDate.toString()));
+        }
+        final Snapshot current = snapshotBeyond(endDate);
+        final List<Interval> intervals = Lists.newArrayList();
+        LocalDate start = startDate;
+        int idx;
+        do {
+            idx = current.indexOfEndAfter(start);
+            if (idx >= 0) {
+                intervals.add(current.intervalEndingAt(idx));
+                start = current.boundaries[idx];
+            }
+        } while (idx >= 0 && start.isBefore(endDate));
+        return intervals;
+    }
+
+    // //////////////////////////////////////
+
+    private Snapshot snapshotBeyond(final LocalDate date) {
+        final Snapshot current = snapshot;
+        if (current.exhausted || current.boundaries[current.size - 1].isAfter(date)) {
+            return current;
+        }
+        return extendBeyond(date);
+    }
+
+    private synchronized Snapshot extendBeyond(final LocalDate date) {
+        Snapshot current = snapshot;
+        if (current.exhausted || current.boundaries[current.size - 1].isAfter(date)) {
+            return current;
+        }
+        LocalDate[] boundaries = Arrays.copyOf(current.boundaries, current.size + EXTENSION_CHUNK);
+        int size = current.size;
+        boolean exhausted = false;
+        while (true) {
+            if (!iterator.hasNext()) {
+                exhausted = true;
+                break;
+            }
+            if (size == boundaries.length) {
+                if (boundaries[size - 1].isAfter(date)) {
+                    break;
+                }
+                boundaries = Arrays.copyOf(boundaries, size + EXTENSION_CHUNK);
+            }
+            boundaries[size++] = iterator.next();
+        }
+        current = new Snapshot(boundaries, size, exhausted);
+        snapshot = current;
+        return current;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Immutable view on the boundaries: the anchor date followed by every date
+     * produced by the iterator so far.
+     */
+    private static final class Snapshot {
+
+        private final LocalDate[] boundaries;
+        private final long[] millis;
+        private final int size;
+        private final boolean exhausted;
+
+        Snapshot(final LocalDate[] boundaries, final int size, final boolean exhausted) {
+            this.boundaries = boundaries;
+            this.size = size;
+            this.exhausted = exhausted;
+            this.millis = new long[size];
+            for (int i = 0; i < size; i++) {
+                millis[i] = boundaries[i].toInterval().getStartMillis();
+            }
+        }
+
+        /**
+         * Index of the first boundary (ignoring the anchor) after the date, or
+         * -1 if there is none.
+         */
+        int indexOfEndAfter(final LocalDate date) {
+            int low = 1;
+            int high = size;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (boundaries[mid].compareTo(date) > 0) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low < size ? low : -1;
+        }
+
+        Interval intervalEndingAt(final int idx) {
+            return new Interval(millis[idx - 1], millis[idx]);
+        }
+    }
+
+}
@@ -97,6 +97,13 @@ public abstract class AbstractInterval<T extends AbstractInterval<T>> {
         return IntervalUtil.toInterval(this);
     }
 
+    /**
+     * This interval as epoch days, for comparisons that should not allocate.
+     */
+    public EpochDayInterval asEpochDayInterval() {
+        return EpochDayInterval.of(this);
+    }
+
     /**
      * Does this date contain the specified time interval.
      * 
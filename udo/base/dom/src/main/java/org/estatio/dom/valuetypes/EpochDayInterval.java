@@ -0,0 +1,264 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.valuetypes;
+
+import org.joda.time.LocalDate;
+
+/**
+ * A {@link LocalDateInterval} as two epoch days (days since 1970-01-01), the
+ * end excluding, so that comparing intervals is integer arithmetic rather
+ * than building Joda {@link org.joda.time.Interval}s and {@link org.joda.time.Period}s.
+ *
+ * <p>
+ * {@link #contains(int)}, {@link #contains(EpochDayInterval)},
+ * {@link #overlaps(EpochDayInterval)}, {@link #overlapDays(EpochDayInterval)}
+ * and {@link #days()} do not allocate; {@link #overlap(EpochDayInterval)}
+ * allocates only its result. Dates are converted only at the boundaries, by
+ * {@link #of(AbstractInterval)} and {@link #toLocalDateInterval()}.
+ *
+ * <p>
+ * The semantics are those of {@link AbstractInterval}, with two exceptions:
+ * an open start is unbounded whereas {@link AbstractInterval} takes it as
+ * 1970-01-01, and {@link #days()} of a half-open interval is 0 rather than a
+ * count from 1970 or an overflow.
+ */
+public final class EpochDayInterval {
+
+    public static final int OPEN_START = Integer.MIN_VALUE;
+    public static final int OPEN_END = Integer.MAX_VALUE;
+
+    private static final EpochDayInterval INFINITE = new EpochDayInterval(OPEN_START, OPEN_END);
+
+    private final int startDay;
+    private final int endDayExcluding;
+
+    private EpochDayInterval(final int startDay, final int endDayExcluding) {
+        this.startDay = startDay;
+        this.endDayExcluding = endDayExcluding;
+    }
+
+    /**
+     * @param startDay         first day, {@link #OPEN_START} if none
+     * @param endDayExcluding  day after the last day, {@link #OPEN_END} if none
+     */
+    public static EpochDayInterval ofDays(final int startDay, final int endDayExcluding) {
+        if (startDay == OPEN_START && endDayExcluding == OPEN_END) {
+            return INFINITE;
+        }
+        return new EpochDayInterval(startDay, endDayExcluding);
+    }
+
+    public static EpochDayInterval of(final AbstractInterval<?> interval) {
+        return excluding(interval.startDate(), interval.endDateExcluding());
+    }
+
+    public static EpochDayInterval excluding(final LocalDate startDate, final LocalDate endDate) {
+        return ofDays(
+                startDate == null ? OPEN_START : epochDay(startDate),
+                endDate == null ? OPEN_END : epochDay(endDate));
+    }
+
+    public static EpochDayInterval including(final LocalDate startDate, final LocalDate endDate) {
+        return ofDays(
+                startDate == null ? OPEN_START : epochDay(startDate),
+                endDate == null ? OPEN_END : epochDay(endDate) + 1);
+    }
+
+    public LocalDateInterval toLocalDateInterval() {
+        return LocalDateInterval.excluding(startDate(), endDateExcluding());
+    }
+
+    // //////////////////////////////////////
+
+    public int startDay() {
+        return startDay;
+    }
+
+    public int endDayExcluding() {
+        return endDayExcluding;
+    }
+
+    public LocalDate startDate() {
+        return startDay == OPEN_START ? null : toLocalDate(startDay);
+    }
+
+    public LocalDate endDate() {
+        return endDayExcluding == OPEN_END ? null : toLocalDate(endDayExcluding - 1);
+    }
+
+    public LocalDate endDateExcluding() {
+        return endDayExcluding == OPEN_END ? null : toLocalDate(endDayExcluding);
+    }
+
+    public boolean isInfinite() {
+        return startDay == OPEN_START && endDayExcluding == OPEN_END;
+    }
+
+    public boolean isValid() {
+        return endDayExcluding >= startDay;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The duration in days, 0 if either end is open.
+     */
+    public int days() {
+        if (startDay == OPEN_START || endDayExcluding == OPEN_END) {
+            return 0;
+        }
+        requireValid(this);
+        return endDayExcluding - startDay;
+    }
+
+    public boolean contains(final LocalDate date) {
+        return date != null && contains(epochDay(date));
+    }
+
+    public boolean contains(final int day) {
+        if (endDayExcluding != OPEN_END) {
+            requireValid(this);
+        }
+        return startDay <= day && day < endDayExcluding;
+    }
+
+    /**
+     * Does this interval contain the other, an empty interval on the end of
+     * this one not being contained (as with Joda).
+     */
+    public boolean contains(final EpochDayInterval other) {
+        requireValid(this);
+        requireValid(other);
+        return startDay <= other.startDay && other.startDay < endDayExcluding && other.endDayExcluding <= endDayExcluding;
+    }
+
+    public boolean within(final EpochDayInterval other) {
+        return other.contains(this);
+    }
+
+    public boolean overlaps(final EpochDayInterval other) {
+        requireValid(this);
+        requireValid(other);
+        return startDay < other.endDayExcluding && other.startDay < endDayExcluding;
+    }
+
+    /**
+     * The overlap with the other interval, <tt>null</tt> if none.
+     */
+    public EpochDayInterval overlap(final EpochDayInterval other) {
+        if (other == null) {
+            return null;
+        }
+        if (other.isInfinite()) {
+            return this;
+        }
+        if (isInfinite()) {
+            return other;
+        }
+        if (!overlaps(other)) {
+            return null;
+        }
+        return ofDays(Math.max(startDay, other.startDay), Math.min(endDayExcluding, other.endDayExcluding));
+    }
+
+    /**
+     * The {@link #days()} of the {@link #overlap(EpochDayInterval) overlap}
+     * with the other interval, 0 if none.
+     */
+    public int overlapDays(final EpochDayInterval other) {
+        if (other == null) {
+            return 0;
+        }
+        if (other.isInfinite()) {
+            return days();
+        }
+        if (isInfinite()) {
+            return other.days();
+        }
+        if (!overlaps(other)) {
+            return 0;
+        }
+        final int start = Math.max(startDay, other.startDay);
+        final int end = Math.min(endDayExcluding, other.endDayExcluding);
+        return start == OPEN_START || end == OPEN_END ? 0 : end - start;
+    }
+
+    private static void requireValid(final EpochDayInterval interval) {
+        if (!interval.isValid()) {
+            throw new IllegalArgumentException("The end date must not be before the start date: " + interval);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Days since 1970-01-01 of the ISO date, computed from its fields so
+     * that it does not allocate.
+     */
+    public static int epochDay(final LocalDate date) {
+        final int month = date.getMonthOfYear();
+        final int year = month <= 2 ? date.getYear() - 1 : date.getYear();
+        final int era = (year >= 0 ? year : year - 399) / 400;
+        final int yearOfEra = year - era * 400;
+        final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + date.getDayOfMonth() - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    public static LocalDate toLocalDate(final int epochDay) {
+        final int days = epochDay + 719468;
+        final int era = (days >= 0 ? days : days - 146096) / 146097;
+        final int dayOfEra = days - era * 146097;
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        final int dayOfMonth = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        final int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return new LocalDate(year, month, dayOfMonth);
+    }
+
+    // //////////////////////////////////////
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof EpochDayInterval)) {
+            return false;
+        }
+        final EpochDayInterval other = (EpochDayInterval) obj;
+        return startDay == other.startDay && endDayExcluding == other.endDayExcluding;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * startDay + endDayExcluding;
+    }
+
+    /**
+     * As {@link LocalDateInterval#toString()}.
+     */
+    @Override
+    public String toString() {
+        return toLocalDateInterval().toString();
+    }
+
+}
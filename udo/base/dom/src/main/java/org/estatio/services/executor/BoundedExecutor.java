@@ -0,0 +1,100 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.executor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed number of daemon worker threads with a bounded queue, started on
+ * first use; idle workers time out. What happens to work submitted once the
+ * queue is full is up to the {@link RejectedExecutionHandler}, such as
+ * rejecting it or having the submitting thread do it.
+ */
+public class BoundedExecutor {
+
+    private final String name;
+    private final int threads;
+    private final int queueCapacity;
+    private final RejectedExecutionHandler rejectedExecutionHandler;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * @param name - the prefix of the names of the worker threads
+     */
+    public BoundedExecutor(
+            final String name,
+            final int threads,
+            final int queueCapacity,
+            final RejectedExecutionHandler rejectedExecutionHandler) {
+        this.name = name;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.rejectedExecutionHandler = rejectedExecutionHandler;
+    }
+
+    public synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(
+                    threads, threads,
+                    60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<Runnable>(queueCapacity),
+                    new WorkerThreadFactory(name),
+                    rejectedExecutionHandler);
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    /**
+     * Interrupts the workers; a next use starts new ones.
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final String name;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        WorkerThreadFactory(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.querystats;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.command.Command;
+import org.apache.isis.applib.services.command.CommandContext;
+
+/**
+ * Counts the named queries run within the current interaction (or background
+ * job), passing each execution on to the {@link QueryStatisticsService}.
+ *
+ * <p>
+ * When the interaction ends, every query that ran with more different
+ * arguments than the {@link QueryStatisticsService#getRepeatThreshold()
+ * repeat threshold} is reported as repeated.
+ *
+ * <p>
+ * Integration tests can {@link #reset()} the counts and then assert the
+ * number of {@link #executions(Class, String) executions} of a query.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+@RequestScoped
+public class QueryInteractionStatistics {
+
+    /**
+     * Beyond this the distinct arguments of a query are no longer collected.
+     */
+    static final int MAX_DISTINCT_ARGUMENTS = 10000;
+
+    private final Map<String, Entry> entries = Maps.newLinkedHashMap();
+
+    private String interaction;
+
+    @Programmatic
+    public synchronized void record(final String query, final Object[] arguments, final int rows, final long nanos) {
+        if (interaction == null) {
+            interaction = currentCommand();
+        }
+        Entry entry = entries.get(query);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(query, entry);
+        }
+        entry.executions++;
+        entry.rows += rows;
+        if (entry.arguments.size() < MAX_DISTINCT_ARGUMENTS) {
+            entry.arguments.add(Arrays.asList(arguments));
+        }
+        queryStatisticsService.record(query, rows, nanos);
+    }
+
+    private String currentCommand() {
+        final Command command = commandContext != null ? commandContext.getCommand() : null;
+        return command != null ? command.getMemberIdentifier() : null;
+    }
+
+    /**
+     * Names the interaction in reports of repeated queries, for background
+     * jobs which have no command to take the name from.
+     */
+    @Programmatic
+    public synchronized void setInteraction(final String interaction) {
+        this.interaction = interaction;
+    }
+
+    @Programmatic
+    @PreDestroy
+    public synchronized void end() {
+        final int threshold = queryStatisticsService.getRepeatThreshold();
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            final int distinctArguments = mapEntry.getValue().arguments.size();
+            if (distinctArguments > threshold) {
+                queryStatisticsService.recordRepeated(
+                        mapEntry.getKey(),
+                        interaction != null ? interaction : "(unknown)",
+                        distinctArguments);
+            }
+        }
+        entries.clear();
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The number of times the query ran in this interaction.
+     */
+    @Programmatic
+    public synchronized int executions(final Class<?> entityType, final String queryName) {
+        final Entry entry = entries.get(QueryStatisticsService.nameOf(entityType, queryName));
+        return entry == null ? 0 : entry.executions;
+    }
+
+    /**
+     * The number of different arguments the query ran with in this
+     * interaction.
+     */
+    @Programmatic
+    public synchronized int distinctArguments(final Class<?> entityType, final String queryName) {
+        final Entry entry = entries.get(QueryStatisticsService.nameOf(entityType, queryName));
+        return entry == null ? 0 : entry.arguments.size();
+    }
+
+    /**
+     * The number of rows the query returned in this interaction.
+     */
+    @Programmatic
+    public synchronized long rows(final Class<?> entityType, final String queryName) {
+        final Entry entry = entries.get(QueryStatisticsService.nameOf(entityType, queryName));
+        return entry == null ? 0 : entry.rows;
+    }
+
+    /**
+     * The number of times any query ran in this interaction.
+     */
+    @Programmatic
+    public synchronized int executions() {
+        int executions = 0;
+        for (Entry entry : entries.values()) {
+            executions += entry.executions;
+        }
+        return executions;
+    }
+
+    /**
+     * The queries that have so far run with more different arguments than the
+     * repeat threshold.
+     */
+    @Programmatic
+    public synchronized List<String> repeatedQueries() {
+        final int threshold = queryStatisticsService.getRepeatThreshold();
+        final List<String> queries = Lists.newArrayList();
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            if (mapEntry.getValue().arguments.size() > threshold) {
+                queries.add(mapEntry.getKey());
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Forgets the queries run so far in this interaction, without reporting
+     * them as repeated.
+     */
+    @Programmatic
+    public synchronized void reset() {
+        entries.clear();
+    }
+
+    // //////////////////////////////////////
+
+    private static final class Entry {
+
+        private int executions;
+        private long rows;
+        private final Set<List<Object>> arguments = Sets.newHashSet();
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    QueryStatisticsService queryStatisticsService;
+
+    @Inject
+    CommandContext commandContext;
+
+}
@@ -0,0 +1,189 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.querystats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Running totals of the executions of a single named query: how often it ran,
+ * how many rows it returned and a histogram of how long it took.
+ *
+ * <p>
+ * Safe to update from several threads at once; the getters read each total
+ * on its own, so a snapshot taken while queries run may be slightly skewed.
+ */
+public final class QueryStatistics {
+
+    /**
+     * Upper bounds, in milliseconds, of the buckets of the latency histogram;
+     * a last bucket holds everything slower.
+     */
+    static final long[] BUCKET_UPPER_MILLIS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+
+    private final String query;
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong maxRows = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_UPPER_MILLIS.length + 1);
+
+    private final AtomicLong repeatedInteractions = new AtomicLong();
+    private final AtomicLong maxDistinctArguments = new AtomicLong();
+    private volatile String lastRepeatedIn;
+
+    QueryStatistics(final String query) {
+        this.query = query;
+    }
+
+    // //////////////////////////////////////
+
+    void record(final int rowCount, final long nanos) {
+        executions.incrementAndGet();
+        rows.addAndGet(rowCount);
+        updateMax(maxRows, rowCount);
+        totalNanos.addAndGet(nanos);
+        updateMax(maxNanos, nanos);
+        buckets.incrementAndGet(bucketOf(nanos));
+    }
+
+    void recordRepeated(final String interaction, final int distinctArguments) {
+        repeatedInteractions.incrementAndGet();
+        updateMax(maxDistinctArguments, distinctArguments);
+        lastRepeatedIn = interaction;
+    }
+
+    private static int bucketOf(final long nanos) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        for (int i = 0; i < BUCKET_UPPER_MILLIS.length; i++) {
+            if (millis < BUCKET_UPPER_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_UPPER_MILLIS.length;
+    }
+
+    private static void updateMax(final AtomicLong max, final long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The entity type and name of the query, eg <tt>Lease#findByReference</tt>.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getMaxRows() {
+        return maxRows.get();
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+    }
+
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    public double getMeanMillis() {
+        final long count = executions.get();
+        return count == 0 ? 0 : totalNanos.get() / 1e6 / count;
+    }
+
+    /**
+     * The upper bound of the histogram bucket holding the given percentile
+     * (eg <tt>0.95</tt>), the slowest execution for the last bucket.
+     */
+    public long percentileMillis(final double percentile) {
+        final long count = executions.get();
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(percentile * count);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_UPPER_MILLIS.length; i++) {
+            cumulative += buckets.get(i);
+            if (cumulative >= rank) {
+                return BUCKET_UPPER_MILLIS[i];
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * The histogram, eg <tt>&lt;1ms: 120, &lt;2ms: 3, &gt;=5000ms: 1</tt>,
+     * leaving out empty buckets.
+     */
+    public String getHistogram() {
+        final StringBuilder buf = new StringBuilder();
+        for (int i = 0; i <= BUCKET_UPPER_MILLIS.length; i++) {
+            final long count = buckets.get(i);
+            if (count == 0) {
+                continue;
+            }
+            if (buf.length() > 0) {
+                buf.append(", ");
+            }
+            buf.append(i < BUCKET_UPPER_MILLIS.length
+                    ? "<" + BUCKET_UPPER_MILLIS[i]
+                    : ">=" + BUCKET_UPPER_MILLIS[BUCKET_UPPER_MILLIS.length - 1]);
+            buf.append("ms: ").append(count);
+        }
+        return buf.toString();
+    }
+
+    /**
+     * The number of interactions (or background jobs) that ran the query more
+     * often than the {@link QueryStatisticsService#getRepeatThreshold()
+     * threshold} with different arguments.
+     */
+    public long getRepeatedInteractions() {
+        return repeatedInteractions.get();
+    }
+
+    public long getMaxDistinctArguments() {
+        return maxDistinctArguments.get();
+    }
+
+    /**
+     * The interaction that last ran the query repeatedly, <tt>null</tt> if
+     * none.
+     */
+    public String getLastRepeatedIn() {
+        return lastRepeatedIn;
+    }
+
+}
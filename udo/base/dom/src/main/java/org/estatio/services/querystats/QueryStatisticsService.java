@@ -0,0 +1,143 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.querystats;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.PostConstruct;
+
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+/**
+ * Collects the {@link QueryStatistics} of the named queries run through the
+ * repositories since startup (or the last {@link #reset()}).
+ *
+ * <p>
+ * The executions are reported by the {@link QueryInteractionStatistics} of
+ * each interaction, which also reports queries that an interaction ran more
+ * often than the {@link #getRepeatThreshold() repeat threshold} with
+ * different arguments, typically a query per item of a list (N+1).
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class QueryStatisticsService {
+
+    /**
+     * The number of times a query may run with different arguments within a
+     * single interaction before it is reported as repeated, defaults to
+     * {@value #DEFAULT_REPEAT_THRESHOLD}.
+     */
+    static final String REPEAT_THRESHOLD_KEY = "estatio.querystats.repeatThreshold";
+
+    static final int DEFAULT_REPEAT_THRESHOLD = 20;
+
+    private final ConcurrentMap<String, QueryStatistics> statisticsByQuery = new ConcurrentHashMap<String, QueryStatistics>();
+
+    private volatile int repeatThreshold = DEFAULT_REPEAT_THRESHOLD;
+
+    @Programmatic
+    @PostConstruct
+    public void init(final Map<String, String> properties) {
+        final String threshold = properties.get(REPEAT_THRESHOLD_KEY);
+        if (threshold != null) {
+            setRepeatThreshold(Integer.parseInt(threshold));
+        }
+    }
+
+    @Programmatic
+    public int getRepeatThreshold() {
+        return repeatThreshold;
+    }
+
+    @Programmatic
+    public void setRepeatThreshold(final int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The name under which the statistics of a query are kept, eg
+     * <tt>Lease#findByReference</tt>.
+     */
+    public static String nameOf(final Class<?> entityType, final String queryName) {
+        return entityType.getSimpleName() + "#" + queryName;
+    }
+
+    @Programmatic
+    public void record(final String query, final int rows, final long nanos) {
+        statisticsOrNew(query).record(rows, nanos);
+    }
+
+    @Programmatic
+    public void recordRepeated(final String query, final String interaction, final int distinctArguments) {
+        statisticsOrNew(query).recordRepeated(interaction, distinctArguments);
+    }
+
+    private QueryStatistics statisticsOrNew(final String query) {
+        QueryStatistics statistics = statisticsByQuery.get(query);
+        if (statistics == null) {
+            final QueryStatistics created = new QueryStatistics(query);
+            statistics = statisticsByQuery.putIfAbsent(query, created);
+            if (statistics == null) {
+                statistics = created;
+            }
+        }
+        return statistics;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The statistics of all queries run, the most time consuming first.
+     */
+    @Programmatic
+    public List<QueryStatistics> statistics() {
+        final List<QueryStatistics> statistics = Lists.newArrayList(statisticsByQuery.values());
+        Collections.sort(statistics, new Comparator<QueryStatistics>() {
+            @Override
+            public int compare(final QueryStatistics o1, final QueryStatistics o2) {
+                return Long.compare(o2.getTotalMillis(), o1.getTotalMillis());
+            }
+        });
+        return statistics;
+    }
+
+    /**
+     * The statistics of the given query, <tt>null</tt> if it has not run.
+     */
+    @Programmatic
+    public QueryStatistics statisticsFor(final Class<?> entityType, final String queryName) {
+        return statisticsByQuery.get(nameOf(entityType, queryName));
+    }
+
+    @Programmatic
+    public void reset() {
+        statisticsByQuery.clear();
+    }
+
+}
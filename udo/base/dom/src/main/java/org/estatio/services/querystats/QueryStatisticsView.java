@@ -0,0 +1,210 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.querystats;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.apache.isis.applib.annotation.MemberOrder;
+import org.apache.isis.applib.annotation.Title;
+import org.apache.isis.applib.annotation.ViewModel;
+
+/**
+ * Read-only view of the {@link QueryStatistics} of a single query, as listed
+ * by the administration menu.
+ */
+@ViewModel
+public class QueryStatisticsView {
+
+    public QueryStatisticsView() {
+    }
+
+    public QueryStatisticsView(final QueryStatistics statistics) {
+        this.query = statistics.getQuery();
+        this.executions = statistics.getExecutions();
+        this.rows = statistics.getRows();
+        this.maxRows = statistics.getMaxRows();
+        this.totalMillis = statistics.getTotalMillis();
+        this.meanMillis = BigDecimal.valueOf(statistics.getMeanMillis()).setScale(2, RoundingMode.HALF_UP);
+        this.percentile95Millis = statistics.percentileMillis(0.95);
+        this.maxMillis = statistics.getMaxMillis();
+        this.histogram = statistics.getHistogram();
+        this.repeatedInteractions = statistics.getRepeatedInteractions();
+        this.maxDistinctArguments = statistics.getMaxDistinctArguments();
+        this.lastRepeatedIn = statistics.getLastRepeatedIn();
+    }
+
+    // //////////////////////////////////////
+
+    private String query;
+
+    @Title
+    @MemberOrder(sequence = "1")
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(final String query) {
+        this.query = query;
+    }
+
+    // //////////////////////////////////////
+
+    private long executions;
+
+    @MemberOrder(sequence = "2")
+    public long getExecutions() {
+        return executions;
+    }
+
+    public void setExecutions(final long executions) {
+        this.executions = executions;
+    }
+
+    // //////////////////////////////////////
+
+    private long rows;
+
+    @MemberOrder(sequence = "3")
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(final long rows) {
+        this.rows = rows;
+    }
+
+    // //////////////////////////////////////
+
+    private long maxRows;
+
+    @MemberOrder(sequence = "4")
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    public void setMaxRows(final long maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    // //////////////////////////////////////
+
+    private long totalMillis;
+
+    @MemberOrder(sequence = "5")
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(final long totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    // //////////////////////////////////////
+
+    private BigDecimal meanMillis;
+
+    @MemberOrder(sequence = "6")
+    public BigDecimal getMeanMillis() {
+        return meanMillis;
+    }
+
+    public void setMeanMillis(final BigDecimal meanMillis) {
+        this.meanMillis = meanMillis;
+    }
+
+    // //////////////////////////////////////
+
+    private long percentile95Millis;
+
+    @MemberOrder(sequence = "7")
+    public long getPercentile95Millis() {
+        return percentile95Millis;
+    }
+
+    public void setPercentile95Millis(final long percentile95Millis) {
+        this.percentile95Millis = percentile95Millis;
+    }
+
+    // //////////////////////////////////////
+
+    private long maxMillis;
+
+    @MemberOrder(sequence = "8")
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public void setMaxMillis(final long maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    // //////////////////////////////////////
+
+    private String histogram;
+
+    @MemberOrder(sequence = "9")
+    public String getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(final String histogram) {
+        this.histogram = histogram;
+    }
+
+    // //////////////////////////////////////
+
+    private long repeatedInteractions;
+
+    @MemberOrder(sequence = "10")
+    public long getRepeatedInteractions() {
+        return repeatedInteractions;
+    }
+
+    public void setRepeatedInteractions(final long repeatedInteractions) {
+        this.repeatedInteractions = repeatedInteractions;
+    }
+
+    // //////////////////////////////////////
+
+    private long maxDistinctArguments;
+
+    @MemberOrder(sequence = "11")
+    public long getMaxDistinctArguments() {
+        return maxDistinctArguments;
+    }
+
+    public void setMaxDistinctArguments(final long maxDistinctArguments) {
+        this.maxDistinctArguments = maxDistinctArguments;
+    }
+
+    // //////////////////////////////////////
+
+    private String lastRepeatedIn;
+
+    @MemberOrder(sequence = "12")
+    public String getLastRepeatedIn() {
+        return lastRepeatedIn;
+    }
+
+    public void setLastRepeatedIn(final String lastRepeatedIn) {
+        this.lastRepeatedIn = lastRepeatedIn;
+    }
+
+}
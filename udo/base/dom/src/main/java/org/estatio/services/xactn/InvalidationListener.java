@@ -0,0 +1,125 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.xactn;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.jdo.JDOHelper;
+import javax.jdo.PersistenceManager;
+import javax.jdo.PersistenceManagerFactory;
+import javax.jdo.listener.DeleteLifecycleListener;
+import javax.jdo.listener.InstanceLifecycleEvent;
+import javax.jdo.listener.StoreLifecycleListener;
+
+/**
+ * Runs the given work, typically dropping a cache, after completion of every
+ * transaction in which an instance of the given classes was stored or
+ * deleted through JDO.
+ *
+ * <p>
+ * Subclasses can instead {@link #workFor(Object) derive the work} from the
+ * instance changed, such as to drop just the entries affected.
+ *
+ * <p>
+ * Changes bypassing JDO, such as SQL run by fixtures, are to be followed by
+ * calling the work explicitly.
+ *
+ * @see TransactionCallbacks#afterCompletion(PersistenceManager, Runnable)
+ */
+public class InvalidationListener implements StoreLifecycleListener, DeleteLifecycleListener {
+
+    private final Runnable work;
+    private final Class<?>[] classes;
+    private final Set<PersistenceManagerFactory> factories =
+            Collections.newSetFromMap(new ConcurrentHashMap<PersistenceManagerFactory, Boolean>());
+
+    public InvalidationListener(final Runnable work, final Class<?>... classes) {
+        this.work = work;
+        this.classes = classes;
+    }
+
+    /**
+     * For subclasses that {@link #workFor(Object) derive the work}.
+     */
+    protected InvalidationListener(final Class<?>... classes) {
+        this(null, classes);
+    }
+
+    /**
+     * Starts listening to the persistence manager's factory unless already
+     * doing so; to be called before anything is cached.
+     */
+    public void listenTo(final PersistenceManager persistenceManager) {
+        final PersistenceManagerFactory factory = persistenceManager.getPersistenceManagerFactory();
+        if (factories.add(factory)) {
+            factory.addInstanceLifecycleListener(this, classes);
+        }
+    }
+
+    public void unregister() {
+        for (PersistenceManagerFactory factory : factories) {
+            factory.removeInstanceLifecycleListener(this);
+        }
+        factories.clear();
+    }
+
+    // //////////////////////////////////////
+
+    @Override
+    public void preStore(final InstanceLifecycleEvent event) {
+    }
+
+    @Override
+    public void postStore(final InstanceLifecycleEvent event) {
+        changed(event);
+    }
+
+    @Override
+    public void preDelete(final InstanceLifecycleEvent event) {
+        // while the instance can still be navigated
+        changed(event);
+    }
+
+    @Override
+    public void postDelete(final InstanceLifecycleEvent event) {
+    }
+
+    private void changed(final InstanceLifecycleEvent event) {
+        final Object instance = event.getPersistentInstance();
+        final PersistenceManager persistenceManager = JDOHelper.getPersistenceManager(instance);
+        if (persistenceManager == null) {
+            return;
+        }
+        final Runnable work = workFor(instance);
+        if (work != null) {
+            TransactionCallbacks.afterCompletion(persistenceManager, work);
+        }
+    }
+
+    /**
+     * The work to run once the transaction storing or deleting the instance
+     * has completed, <tt>null</tt> if none; work that is equal runs once.
+     */
+    protected Runnable workFor(final Object instance) {
+        return work;
+    }
+
+}
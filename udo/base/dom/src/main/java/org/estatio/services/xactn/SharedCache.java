@@ -0,0 +1,78 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.xactn;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Values loaded from the database, shared by all interactions until
+ * invalidated, typically by an {@link InvalidationListener}.
+ *
+ * <p>
+ * A value loaded while the cache is invalidated is returned but not kept:
+ * it may have been read before the commit that caused the invalidation.
+ * Neither are misses (<tt>null</tt>) kept, so that values created later on
+ * are found without having to invalidate.
+ */
+public final class SharedCache<K, V> {
+
+    private final ConcurrentMap<K, V> values = new ConcurrentHashMap<K, V>();
+    private long invalidations;
+
+    public V get(final K key, final Callable<V> loader) {
+        V value = values.get(key);
+        if (value != null) {
+            return value;
+        }
+        final long before;
+        synchronized (this) {
+            before = invalidations;
+        }
+        try {
+            value = loader.call();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        synchronized (this) {
+            if (value != null && before == invalidations) {
+                values.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(final K key) {
+        invalidations++;
+        values.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations++;
+        values.clear();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+}
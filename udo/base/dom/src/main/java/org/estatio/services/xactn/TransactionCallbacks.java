@@ -0,0 +1,180 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.xactn;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Transaction;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Runs work once the current JDO transaction has completed, typically to
+ * update or drop an in-memory cache shared by all interactions, or just before
+ * it commits.
+ *
+ * <p>
+ * Doing so any earlier lets a concurrent interaction reload the cache from
+ * the data as it was before the commit, and leaves the cache changed if the
+ * transaction rolls back.
+ *
+ * <p>
+ * The work is registered with the {@link Synchronization} of the
+ * transaction, wrapping any synchronization registered otherwise; the same
+ * work registered more than once runs once. Without an active transaction
+ * the work runs right away.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Runs the work as the current transaction is about to commit, before the
+     * pending changes are flushed; any change made by the work is committed
+     * along, any exception thrown rolls the transaction back.
+     */
+    public static void beforeCommit(final PersistenceManager persistenceManager, final Runnable work) {
+        final Transaction transaction = persistenceManager.currentTransaction();
+        if (!transaction.isActive()) {
+            work.run();
+            return;
+        }
+        callbacksOf(transaction).addBeforeCommit(work);
+    }
+
+    /**
+     * Runs the work once the current transaction has committed, not at all if
+     * it rolls back.
+     */
+    public static void afterCommit(final PersistenceManager persistenceManager, final Runnable work) {
+        register(persistenceManager, work, true);
+    }
+
+    /**
+     * Runs the work once the current transaction has completed, whether
+     * committed or rolled back.
+     */
+    public static void afterCompletion(final PersistenceManager persistenceManager, final Runnable work) {
+        register(persistenceManager, work, false);
+    }
+
+    private static void register(final PersistenceManager persistenceManager, final Runnable work, final boolean commitOnly) {
+        final Transaction transaction = persistenceManager.currentTransaction();
+        if (!transaction.isActive()) {
+            work.run();
+            return;
+        }
+        callbacksOf(transaction).add(work, commitOnly);
+    }
+
+    private static Callbacks callbacksOf(final Transaction transaction) {
+        final Synchronization synchronization = transaction.getSynchronization();
+        if (synchronization instanceof Callbacks) {
+            return (Callbacks) synchronization;
+        }
+        final Callbacks callbacks = new Callbacks(synchronization);
+        transaction.setSynchronization(callbacks);
+        return callbacks;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Stays registered with the transaction, which is reused by the
+     * persistence manager, so is emptied on every completion.
+     */
+    static final class Callbacks implements Synchronization {
+
+        private final Synchronization delegate;
+        private final Set<Runnable> beforeCommit = Sets.newLinkedHashSet();
+        private final Set<Runnable> afterCommit = Sets.newLinkedHashSet();
+        private final Set<Runnable> afterCompletion = Sets.newLinkedHashSet();
+
+        Callbacks(final Synchronization delegate) {
+            this.delegate = delegate;
+        }
+
+        synchronized void addBeforeCommit(final Runnable work) {
+            beforeCommit.add(work);
+        }
+
+        synchronized void add(final Runnable work, final boolean commitOnly) {
+            (commitOnly ? afterCommit : afterCompletion).add(work);
+        }
+
+        @Override
+        public void beforeCompletion() {
+            if (delegate != null) {
+                delegate.beforeCompletion();
+            }
+            final List<Runnable> work;
+            synchronized (this) {
+                work = Lists.newArrayList(beforeCommit);
+                beforeCommit.clear();
+            }
+            // any failure is to roll back the transaction
+            for (Runnable runnable : work) {
+                runnable.run();
+            }
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            final List<Runnable> work;
+            synchronized (this) {
+                work = Lists.newArrayList();
+                if (status == Status.STATUS_COMMITTED) {
+                    work.addAll(afterCommit);
+                }
+                work.addAll(afterCompletion);
+                beforeCommit.clear();
+                afterCommit.clear();
+                afterCompletion.clear();
+            }
+            RuntimeException failure = null;
+            try {
+                if (delegate != null) {
+                    delegate.afterCompletion(status);
+                }
+            } catch (RuntimeException ex) {
+                failure = ex;
+            }
+            // all work runs, even if some fails
+            for (Runnable runnable : work) {
+                try {
+                    runnable.run();
+                } catch (RuntimeException ex) {
+                    if (failure == null) {
+                        failure = ex;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+}
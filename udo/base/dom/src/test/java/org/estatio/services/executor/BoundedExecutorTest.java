@@ -0,0 +1,117 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.executor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class BoundedExecutorTest {
+
+    BoundedExecutor boundedExecutor;
+    final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        boundedExecutor.shutdown();
+    }
+
+    private Runnable blocked() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private static Callable<String> threadName() {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return Thread.currentThread().getName();
+            }
+        };
+    }
+
+    public static class Executor extends BoundedExecutorTest {
+
+        @Test
+        public void namedDaemonWorkers() throws Exception {
+            boundedExecutor = new BoundedExecutor("test", 1, 1, new ThreadPoolExecutor.AbortPolicy());
+
+            assertThat(boundedExecutor.executor().submit(threadName()).get(), is("test-1"));
+            assertThat(boundedExecutor.executor().submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return Thread.currentThread().isDaemon();
+                }
+            }).get(), is(true));
+        }
+
+        @Test(expected = RejectedExecutionException.class)
+        public void rejectsWhenQueueIsFull() throws Exception {
+            boundedExecutor = new BoundedExecutor("test", 1, 1, new ThreadPoolExecutor.AbortPolicy());
+
+            boundedExecutor.executor().execute(blocked());
+            boundedExecutor.executor().execute(blocked());
+            boundedExecutor.executor().execute(blocked());
+        }
+
+        @Test
+        public void callerRunsWhenQueueIsFull() throws Exception {
+            boundedExecutor = new BoundedExecutor("test", 1, 1, new ThreadPoolExecutor.CallerRunsPolicy());
+
+            boundedExecutor.executor().execute(blocked());
+            boundedExecutor.executor().execute(blocked());
+            final Future<String> third = boundedExecutor.executor().submit(threadName());
+
+            assertThat(third.get(), is(Thread.currentThread().getName()));
+        }
+
+        @Test
+        public void startsAnewAfterShutdown() throws Exception {
+            boundedExecutor = new BoundedExecutor("test", 1, 1, new ThreadPoolExecutor.AbortPolicy());
+            final ExecutorService first = boundedExecutor.executor();
+
+            boundedExecutor.shutdown();
+
+            assertThat(first.isShutdown(), is(true));
+            assertThat(boundedExecutor.executor(), is(not(sameInstance(first))));
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.querystats;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class QueryStatisticsTest {
+
+    QueryStatisticsService service;
+
+    @Before
+    public void setUp() throws Exception {
+        service = new QueryStatisticsService();
+    }
+
+    public static class Record extends QueryStatisticsTest {
+
+        @Test
+        public void totalsAndHistogram() throws Exception {
+            for (int i = 0; i < 90; i++) {
+                service.record("Lease#findByReference", 1, 300000L);
+            }
+            for (int i = 0; i < 9; i++) {
+                service.record("Lease#findByReference", 3, 15000000L);
+            }
+            service.record("Lease#findByReference", 100, 7000000000L);
+
+            final QueryStatistics lease = service.statistics().get(0);
+            assertThat(lease.getQuery(), is("Lease#findByReference"));
+            assertThat(lease.getExecutions(), is(100L));
+            assertThat(lease.getRows(), is(217L));
+            assertThat(lease.getMaxRows(), is(100L));
+            assertThat(lease.getMaxMillis(), is(7000L));
+            assertThat(lease.getHistogram(), is("<1ms: 90, <20ms: 9, >=5000ms: 1"));
+        }
+
+        @Test
+        public void percentiles() throws Exception {
+            for (int i = 0; i < 90; i++) {
+                service.record("Lease#findByReference", 1, 300000L);
+            }
+            for (int i = 0; i < 10; i++) {
+                service.record("Lease#findByReference", 1, 15000000L);
+            }
+
+            final QueryStatistics lease = service.statistics().get(0);
+            assertThat(lease.percentileMillis(0.5), is(1L));
+            assertThat(lease.percentileMillis(0.95), is(20L));
+        }
+
+        @Test
+        public void mostTimeConsumingFirst() throws Exception {
+            service.record("Lease#findByReference", 1, 2000000L);
+            service.record("Unit#findByReference", 1, 5000000L);
+
+            assertThat(service.statistics().get(0).getQuery(), is("Unit#findByReference"));
+
+            service.reset();
+
+            assertThat(service.statistics().isEmpty(), is(true));
+        }
+    }
+
+    public static class Interaction extends QueryStatisticsTest {
+
+        QueryInteractionStatistics interaction;
+
+        @Before
+        public void setUpInteraction() throws Exception {
+            service.setRepeatThreshold(2);
+            interaction = new QueryInteractionStatistics();
+            interaction.queryStatisticsService = service;
+            interaction.setInteraction("Lease#terminate");
+        }
+
+        @Test
+        public void countsPerInteraction() throws Exception {
+            interaction.record("String#findByName", new Object[] { "A" }, 1, 1000L);
+            interaction.record("String#findByName", new Object[] { "A" }, 1, 1000L);
+            interaction.record("String#findByName", new Object[] { "B" }, 0, 1000L);
+
+            assertThat(interaction.executions(String.class, "findByName"), is(3));
+            assertThat(interaction.distinctArguments(String.class, "findByName"), is(2));
+            assertThat(interaction.rows(String.class, "findByName"), is(2L));
+            assertThat(interaction.executions(String.class, "findByReference"), is(0));
+            assertThat(interaction.executions(), is(3));
+            assertThat(service.statisticsFor(String.class, "findByName").getExecutions(), is(3L));
+        }
+
+        @Test
+        public void repeatedWithDifferentArguments() throws Exception {
+            for (String name : Arrays.asList("A", "B", "C")) {
+                interaction.record("String#findByName", new Object[] { name }, 1, 1000L);
+            }
+            for (int i = 0; i < 10; i++) {
+                interaction.record("String#findByReference", new Object[] { "A" }, 1, 1000L);
+            }
+
+            assertThat(interaction.repeatedQueries(), is(Arrays.asList("String#findByName")));
+
+            interaction.end();
+
+            final QueryStatistics repeated = service.statisticsFor(String.class, "findByName");
+            assertThat(repeated.getRepeatedInteractions(), is(1L));
+            assertThat(repeated.getMaxDistinctArguments(), is(3L));
+            assertThat(repeated.getLastRepeatedIn(), is("Lease#terminate"));
+            assertThat(service.statisticsFor(String.class, "findByReference").getRepeatedInteractions(), is(0L));
+            assertThat(interaction.executions(), is(0));
+        }
+    }
+
+}
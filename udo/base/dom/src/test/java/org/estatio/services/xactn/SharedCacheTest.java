@@ -0,0 +1,96 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.xactn;
+
+import java.util.concurrent.Callable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class SharedCacheTest {
+
+    SharedCache<String, String> cache;
+    int loads;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new SharedCache<String, String>();
+    }
+
+    private Callable<String> loader(final String value) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                loads++;
+                return value;
+            }
+        };
+    }
+
+    public static class Get extends SharedCacheTest {
+
+        @Test
+        public void loadedOnce() throws Exception {
+            assertThat(cache.get("a", loader("A")), is("A"));
+            assertThat(cache.get("a", loader("B")), is("A"));
+            assertThat(loads, is(1));
+        }
+
+        @Test
+        public void reloadedWhenInvalidated() throws Exception {
+            cache.get("a", loader("A"));
+            cache.get("b", loader("B"));
+
+            cache.invalidate("a");
+            assertThat(cache.size(), is(1));
+            assertThat(cache.get("a", loader("A2")), is("A2"));
+
+            cache.invalidateAll();
+            assertThat(cache.size(), is(0));
+        }
+
+        @Test
+        public void missNotKept() throws Exception {
+            assertThat(cache.get("a", loader(null)), is(nullValue()));
+            assertThat(cache.size(), is(0));
+            assertThat(cache.get("a", loader("A")), is("A"));
+            assertThat(loads, is(2));
+        }
+
+        @Test
+        public void notKeptWhenInvalidatedWhileLoading() throws Exception {
+            final String value = cache.get("a", new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    // as if a commit completed meanwhile
+                    cache.invalidateAll();
+                    return "stale";
+                }
+            });
+
+            assertThat(value, is("stale"));
+            assertThat(cache.size(), is(0));
+        }
+    }
+
+}
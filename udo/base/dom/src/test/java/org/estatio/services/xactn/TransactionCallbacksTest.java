@@ -0,0 +1,200 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.services.xactn;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Transaction;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.jmock.Expectations;
+import org.jmock.api.Invocation;
+import org.jmock.auto.Mock;
+import org.jmock.lib.action.CustomAction;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2.Mode;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TransactionCallbacksTest {
+
+    static class Counter implements Runnable {
+
+        int runs;
+
+        @Override
+        public void run() {
+            runs++;
+        }
+    }
+
+    Counter work;
+
+    @Before
+    public void setUp() throws Exception {
+        work = new Counter();
+    }
+
+    public static class Register extends TransactionCallbacksTest {
+
+        @Rule
+        public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(Mode.INTERFACES_AND_CLASSES);
+
+        @Mock
+        private PersistenceManager mockPersistenceManager;
+
+        @Mock
+        private Transaction mockTransaction;
+
+        @Mock
+        private Synchronization mockSynchronization;
+
+        @Before
+        public void setUpMocks() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    allowing(mockPersistenceManager).currentTransaction();
+                    will(returnValue(mockTransaction));
+                }
+            });
+        }
+
+        @Test
+        public void runsRightAwayWithoutTransaction() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    allowing(mockTransaction).isActive();
+                    will(returnValue(false));
+                }
+            });
+
+            TransactionCallbacks.afterCommit(mockPersistenceManager, work);
+
+            assertThat(work.runs, is(1));
+        }
+
+        @Test
+        public void wrapsSynchronizationOfTransaction() throws Exception {
+            final Synchronization[] registered = new Synchronization[1];
+            context.checking(new Expectations() {
+                {
+                    allowing(mockTransaction).isActive();
+                    will(returnValue(true));
+                    oneOf(mockTransaction).getSynchronization();
+                    will(returnValue(mockSynchronization));
+                    oneOf(mockTransaction).setSynchronization(with(any(TransactionCallbacks.Callbacks.class)));
+                    will(new CustomAction("register") {
+                        @Override
+                        public Object invoke(final Invocation invocation) throws Throwable {
+                            registered[0] = (Synchronization) invocation.getParameter(0);
+                            return null;
+                        }
+                    });
+                }
+            });
+
+            TransactionCallbacks.afterCommit(mockPersistenceManager, work);
+            assertThat(work.runs, is(0));
+
+            context.checking(new Expectations() {
+                {
+                    oneOf(mockSynchronization).afterCompletion(Status.STATUS_COMMITTED);
+                }
+            });
+            registered[0].afterCompletion(Status.STATUS_COMMITTED);
+            assertThat(work.runs, is(1));
+        }
+    }
+
+    public static class Callbacks extends TransactionCallbacksTest {
+
+        TransactionCallbacks.Callbacks callbacks;
+
+        @Before
+        public void setUpCallbacks() throws Exception {
+            callbacks = new TransactionCallbacks.Callbacks(null);
+        }
+
+        @Test
+        public void afterCommitOnlyWhenCommitted() throws Exception {
+            callbacks.add(work, true);
+            callbacks.afterCompletion(Status.STATUS_ROLLEDBACK);
+            assertThat(work.runs, is(0));
+
+            callbacks.add(work, true);
+            callbacks.afterCompletion(Status.STATUS_COMMITTED);
+            assertThat(work.runs, is(1));
+        }
+
+        @Test
+        public void beforeCommitOnceBeforeCompletion() throws Exception {
+            callbacks.addBeforeCommit(work);
+            callbacks.addBeforeCommit(work);
+
+            callbacks.beforeCompletion();
+            assertThat(work.runs, is(1));
+
+            callbacks.afterCompletion(Status.STATUS_COMMITTED);
+            callbacks.beforeCompletion();
+            assertThat(work.runs, is(1));
+        }
+
+        @Test
+        public void afterCompletionAlsoWhenRolledBack() throws Exception {
+            callbacks.add(work, false);
+            callbacks.afterCompletion(Status.STATUS_ROLLEDBACK);
+            assertThat(work.runs, is(1));
+        }
+
+        @Test
+        public void sameWorkOncePerTransaction() throws Exception {
+            callbacks.add(work, true);
+            callbacks.add(work, true);
+            callbacks.afterCompletion(Status.STATUS_COMMITTED);
+            assertThat(work.runs, is(1));
+
+            // emptied on completion
+            callbacks.afterCompletion(Status.STATUS_COMMITTED);
+            assertThat(work.runs, is(1));
+        }
+
+        @Test
+        public void allWorkRunsWhenSomeFails() throws Exception {
+            callbacks.add(new Runnable() {
+                @Override
+                public void run() {
+                    throw new IllegalStateException();
+                }
+            }, true);
+            callbacks.add(work, true);
+            try {
+                callbacks.afterCompletion(Status.STATUS_COMMITTED);
+            } catch (IllegalStateException ex) {
+                // expected
+            }
+            assertThat(work.runs, is(1));
+        }
+    }
+
+}